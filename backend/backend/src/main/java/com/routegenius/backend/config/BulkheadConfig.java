@@ -0,0 +1,114 @@
+package com.routegenius.backend.config;
+
+import com.routegenius.backend.util.Bulkhead;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Configuration
+public class BulkheadConfig {
+
+    /**
+     * Puts the database bulkhead in front of the connection pool (the replica bulkhead in front of the replica
+     * pool when reads are split, see ReadWriteRoutingConfig): a slot is taken in getConnection() and
+     * given back when the connection is closed (returned to the pool). Hikari's own timeout still applies
+     * behind it; the bulkhead bounds how many callers may queue for a connection at all.
+     * <p>
+     * Only with spring.threads.virtual.enabled=true. On platform threads Tomcat's pool already caps how many
+     * requests can wait on Hikari, so the pools are left as they are and the database/replica meters stay at 0.
+     * Checked when the pools are created rather than with a condition, which AOT would fix at build time.
+     */
+    @Bean
+    public static BeanPostProcessor bulkheadDataSourcePostProcessor(ObjectProvider<Bulkheads> bulkheads, Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                // Only the pools themselves; routing and lazy proxies in front of them pass through
+                if (bean instanceof HikariDataSource dataSource
+                        && environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false)) {
+                    Bulkheads all = bulkheads.getObject();
+                    return new BulkheadDataSource(dataSource, "replicaDataSource".equals(beanName) ? all.replica() : all.database());
+                }
+                return bean;
+            }
+        };
+    }
+
+    // Exposed in place of the pool, so closing it has to close the pool. Spring's own shutdown destroys the pool
+    // instance it created, which does not depend on this, but anything that closes the exposed bean does
+    static class BulkheadDataSource extends DelegatingDataSource implements AutoCloseable {
+
+        private final Bulkhead bulkhead;
+
+        BulkheadDataSource(DataSource target, Bulkhead bulkhead) {
+            super(target);
+            this.bulkhead = bulkhead;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            bulkhead.acquire();
+            try {
+                return releaseOnClose(super.getConnection());
+            } catch (SQLException | RuntimeException e) {
+                bulkhead.release();
+                throw e;
+            }
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            bulkhead.acquire();
+            try {
+                return releaseOnClose(super.getConnection(username, password));
+            } catch (SQLException | RuntimeException e) {
+                bulkhead.release();
+                throw e;
+            }
+        }
+
+        @Override
+        public void close() throws Exception {
+            if (getTargetDataSource() instanceof AutoCloseable pool) {
+                pool.close();
+            }
+        }
+
+        private Connection releaseOnClose(Connection connection) {
+            AtomicBoolean closed = new AtomicBoolean();
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> switch (method.getName()) {
+                        case "equals" -> proxy == args[0];
+                        case "hashCode" -> System.identityHashCode(proxy);
+                        case "close" -> {
+                            try {
+                                connection.close();
+                            } finally {
+                                if (closed.compareAndSet(false, true)) {
+                                    bulkhead.release();
+                                }
+                            }
+                            yield null;
+                        }
+                        default -> {
+                            try {
+                                yield method.invoke(connection, args);
+                            } catch (InvocationTargetException e) {
+                                throw e.getTargetException();
+                            }
+                        }
+                    });
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.routegenius.backend.config;
+
+import com.routegenius.backend.util.Bulkhead;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * One bulkhead per downstream. The database and replica ones are applied to every connection taken from their
+ * pool when virtual threads are on (see {@link BulkheadConfig}), the Gemini and SMTP ones around the calls in NotificationServiceImpl and
+ * MailService. Exposed as routegenius.bulkhead.{in.use, waiting, rejected}{name}.
+ */
+@Component
+public class Bulkheads implements MeterBinder {
+
+    private final Bulkhead database;
+    private final Bulkhead replica;
+    private final Bulkhead gemini;
+    private final Bulkhead smtp;
+
+    public Bulkheads(@Value("${bulkhead.db.max-concurrent:${spring.datasource.hikari.maximum-pool-size:10}}") int dbMaxConcurrent,
+                     @Value("${bulkhead.db.max-waiting:500}") int dbMaxWaiting,
+                     @Value("${bulkhead.db.max-wait-ms:5000}") long dbMaxWaitMs,
+                     @Value("${bulkhead.replica.max-concurrent:${datasource.replica.pool-size:10}}") int replicaMaxConcurrent,
+                     @Value("${bulkhead.replica.max-waiting:500}") int replicaMaxWaiting,
+                     @Value("${bulkhead.replica.max-wait-ms:5000}") long replicaMaxWaitMs,
+                     @Value("${bulkhead.gemini.max-concurrent:16}") int geminiMaxConcurrent,
+                     @Value("${bulkhead.gemini.max-waiting:100}") int geminiMaxWaiting,
+                     @Value("${bulkhead.gemini.max-wait-ms:1000}") long geminiMaxWaitMs,
+                     @Value("${bulkhead.smtp.max-concurrent:4}") int smtpMaxConcurrent,
+                     @Value("${bulkhead.smtp.max-waiting:1000}") int smtpMaxWaiting,
+                     @Value("${bulkhead.smtp.max-wait-ms:30000}") long smtpMaxWaitMs) {
+        this.database = new Bulkhead("database", dbMaxConcurrent, dbMaxWaiting, Duration.ofMillis(dbMaxWaitMs));
+        this.replica = new Bulkhead("replica", replicaMaxConcurrent, replicaMaxWaiting, Duration.ofMillis(replicaMaxWaitMs));
+        this.gemini = new Bulkhead("gemini", geminiMaxConcurrent, geminiMaxWaiting, Duration.ofMillis(geminiMaxWaitMs));
+        // Mail is sent in the background, so it may queue for longer than a request would
+        this.smtp = new Bulkhead("smtp", smtpMaxConcurrent, smtpMaxWaiting, Duration.ofMillis(smtpMaxWaitMs));
+    }
+
+    public Bulkhead database() {
+        return database;
+    }
+
+    // Only used when reads are split, see ReadWriteRoutingConfig
+    public Bulkhead replica() {
+        return replica;
+    }
+
+    public Bulkhead gemini() {
+        return gemini;
+    }
+
+    public Bulkhead smtp() {
+        return smtp;
+    }
+
+    public List<Bulkhead> all() {
+        return List.of(database, replica, gemini, smtp);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (Bulkhead bulkhead : all()) {
+            Gauge.builder("routegenius.bulkhead.in.use", bulkhead, Bulkhead::getInUse)
+                    .description("Calls holding a bulkhead slot")
+                    .tag("name", bulkhead.getName())
+                    .register(registry);
+            Gauge.builder("routegenius.bulkhead.waiting", bulkhead, Bulkhead::getWaiting)
+                    .description("Calls waiting for a bulkhead slot")
+                    .tag("name", bulkhead.getName())
+                    .register(registry);
+            FunctionCounter.builder("routegenius.bulkhead.rejected", bulkhead, Bulkhead::getRejected)
+                    .description("Calls rejected because the bulkhead was full")
+                    .tag("name", bulkhead.getName())
+                    .register(registry);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.routegenius.backend.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.metrics.MeterRegistryCustomizer;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Set;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Meter setup for the Prometheus scrape endpoint (GET /api/v1/admin/metrics).
+ *
+ * Spring Boot already binds HTTP server requests, Spring Data repository invocations, the HikariCP pool, the
+ * application task executor behind @Async and the JVM. This class adds latency buckets and Hibernate's own
+ * statistics. Service methods are timed by {@link ServiceMetricsAspect}, and Gemini and SMTP calls where they
+ * are made.
+ */
+@Configuration
+public class MetricsConfig {
+
+    public static final String SERVICE_CALLS = "routegenius.service.calls";
+    public static final String EXTERNAL_CALLS = "routegenius.external.calls";
+
+    // Timers that get latency buckets. Fixed buckets cost one counter increment per recording, unlike
+    // client-side percentiles, and can still be aggregated across instances in Prometheus.
+    private static final Set<String> BUCKETED_TIMERS = Set.of(SERVICE_CALLS, EXTERNAL_CALLS, "http.server.requests",
+            "spring.data.repository.invocations", "hikaricp.connections.acquire");
+    private static final double[] BUCKET_MILLIS = {1, 2.5, 5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000};
+
+    @Bean
+    public MeterRegistryCustomizer<MeterRegistry> commonTags() {
+        return registry -> registry.config().commonTags("application", "routegenius-backend");
+    }
+
+    @Bean
+    public MeterFilter latencyBuckets() {
+        double[] bucketNanos = new double[BUCKET_MILLIS.length];
+        for (int i = 0; i < BUCKET_MILLIS.length; i++) {
+            bucketNanos[i] = BUCKET_MILLIS[i] * 1_000_000;
+        }
+        return new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                if (id.getType() != Meter.Type.TIMER || !BUCKETED_TIMERS.contains(id.getName())) {
+                    return config;
+                }
+                return DistributionStatisticConfig.builder()
+                        .serviceLevelObjectives(bucketNanos)
+                        .build()
+                        .merge(config);
+            }
+        };
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateStatistics(@Value("${metrics.hibernate-statistics:true}") boolean enabled) {
+        return properties -> properties.put("hibernate.generate_statistics", enabled);
+    }
+
+    /**
+     * Session-factory-wide Hibernate counters. Entity fetches are lazy loads after the fact; a rising
+     * fetch-to-load ratio is the usual sign of an N+1 query pattern. All values stay zero when
+     * metrics.hibernate-statistics is false.
+     */
+    @Bean
+    public MeterBinder hibernateMetrics(EntityManagerFactory entityManagerFactory) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        return registry -> {
+            counter(registry, "hibernate.sessions.open", statistics, Statistics::getSessionOpenCount);
+            counter(registry, "hibernate.transactions", statistics, Statistics::getTransactionCount);
+            counter(registry, "hibernate.statements.prepared", statistics, Statistics::getPrepareStatementCount);
+            counter(registry, "hibernate.flushes", statistics, Statistics::getFlushCount);
+            counter(registry, "hibernate.queries.executed", statistics, Statistics::getQueryExecutionCount);
+            counter(registry, "hibernate.optimistic.failures", statistics, Statistics::getOptimisticFailureCount);
+            counter(registry, "hibernate.collections.fetched", statistics, Statistics::getCollectionFetchCount);
+            entityCounter(registry, statistics, "load", Statistics::getEntityLoadCount);
+            entityCounter(registry, statistics, "fetch", Statistics::getEntityFetchCount);
+            entityCounter(registry, statistics, "insert", Statistics::getEntityInsertCount);
+            entityCounter(registry, statistics, "update", Statistics::getEntityUpdateCount);
+            entityCounter(registry, statistics, "delete", Statistics::getEntityDeleteCount);
+            Gauge.builder("hibernate.queries.max.time", statistics, s -> s.getQueryExecutionMaxTime() / 1000.0)
+                    .description("Slowest HQL/JPQL query so far")
+                    .baseUnit("seconds")
+                    .register(registry);
+        };
+    }
+
+    private static void counter(MeterRegistry registry, String name, Statistics statistics, ToDoubleFunction<Statistics> value) {
+        FunctionCounter.builder(name, statistics, value).register(registry);
+    }
+
+    private static void entityCounter(MeterRegistry registry, Statistics statistics, String operation,
+                                      ToDoubleFunction<Statistics> value) {
+        FunctionCounter.builder("hibernate.entities", statistics, value).tag("operation", operation).register(registry);
+    }
+}
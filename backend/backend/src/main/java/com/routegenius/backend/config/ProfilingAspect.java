@@ -0,0 +1,97 @@
+package com.routegenius.backend.config;
+
+import com.routegenius.backend.profiling.JwtEvent;
+import com.routegenius.backend.profiling.RepositoryCallEvent;
+import com.routegenius.backend.profiling.RequestProfile;
+import com.routegenius.backend.profiling.ServiceCallEvent;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Emits the RouteGenius JFR events for ParcelService methods, repository calls and JWT handling, and records
+ * them as spans of the current request profile. With no recording running, shouldCommit() is false and an
+ * event costs a couple of field writes; outside a request the span calls return immediately.
+ */
+@Aspect
+@Component
+public class ProfilingAspect {
+
+    // Repository proxies are JDK proxies; name them after our interface instead of "$Proxy123"
+    private final Map<Class<?>, String> repositoryNames = new ConcurrentHashMap<>();
+
+    @Around("within(com.routegenius.backend.service.impl.ParcelServiceImpl)")
+    public Object profileServiceCall(ProceedingJoinPoint joinPoint) throws Throwable {
+        String method = joinPoint.getSignature().getName();
+        ServiceCallEvent event = new ServiceCallEvent();
+        event.begin();
+        long span = RequestProfile.enter();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            RequestProfile.exit("service", "ParcelService", method, span);
+            event.end();
+            if (event.shouldCommit()) {
+                event.service = "ParcelService";
+                event.method = method;
+                event.commit();
+            }
+        }
+    }
+
+    @Around("execution(* org.springframework.data.repository.Repository+.*(..))")
+    public Object profileRepositoryCall(ProceedingJoinPoint joinPoint) throws Throwable {
+        String method = joinPoint.getSignature().getName();
+        RepositoryCallEvent event = new RepositoryCallEvent();
+        event.begin();
+        long span = RequestProfile.enter();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            String repository = repositoryName(joinPoint.getThis());
+            RequestProfile.exit("db", repository, method, span);
+            event.end();
+            if (event.shouldCommit()) {
+                event.repository = repository;
+                event.method = method;
+                event.commit();
+            }
+        }
+    }
+
+    @Around("within(com.routegenius.backend.service.impl.JwtServiceImpl)")
+    public Object profileJwt(ProceedingJoinPoint joinPoint) throws Throwable {
+        String method = joinPoint.getSignature().getName();
+        JwtEvent event = new JwtEvent();
+        event.begin();
+        long span = RequestProfile.enter();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            RequestProfile.exit("jwt", "JwtService", method, span);
+            event.end();
+            if (event.shouldCommit()) {
+                event.operation = method;
+                event.commit();
+            }
+        }
+    }
+
+    private String repositoryName(Object proxy) {
+        if (proxy == null) {
+            return "Repository";
+        }
+        return repositoryNames.computeIfAbsent(proxy.getClass(), type -> {
+            for (Class<?> candidate : type.getInterfaces()) {
+                if (candidate.getName().startsWith("com.routegenius.")) {
+                    return candidate.getSimpleName();
+                }
+            }
+            return type.getSimpleName();
+        });
+    }
+}
@@ -0,0 +1,36 @@
+package com.routegenius.backend.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.routegenius.backend.profiling.RequestProfile;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+@Configuration
+public class ProfilingConfig {
+
+    /**
+     * Replaces Boot's JSON converter with one that records writing the response body as a "serialization"
+     * span, so large lists show up as such in the slow-request breakdown. Uses Boot's configured ObjectMapper.
+     */
+    @Bean
+    public MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(ObjectMapper objectMapper) {
+        return new MappingJackson2HttpMessageConverter(objectMapper) {
+            @Override
+            protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+                    throws IOException, HttpMessageNotWritableException {
+                long span = RequestProfile.enter();
+                try {
+                    super.writeInternal(object, type, outputMessage);
+                } finally {
+                    RequestProfile.exit("serialization", "Jackson", "write", span);
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,114 @@
+package com.routegenius.backend.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Read/write splitting, active when datasource.replica.url is set. Without it the application keeps Boot's
+ * single pool.
+ *
+ * Beans: "primaryDataSource" (spring.datasource.*, pool "primary"), "replicaDataSource" (datasource.replica.*,
+ * pool "replica", read-only connections) and the @Primary "dataSource" that JPA uses:
+ * LazyConnectionDataSourceProxy -> {@link ReadWriteRoutingDataSource} -> one of the two pools.
+ */
+@Configuration
+@ConditionalOnProperty(name = "datasource.replica.url")
+public class ReadWriteRoutingConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    public HikariDataSource replicaDataSource(DataSourceProperties properties,
+                                              @Value("${datasource.replica.url}") String url,
+                                              @Value("${datasource.replica.username:${spring.datasource.username:}}") String username,
+                                              @Value("${datasource.replica.password:${spring.datasource.password:}}") String password,
+                                              @Value("${datasource.replica.pool-size:10}") int poolSize) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("replica");
+        dataSource.setJdbcUrl(url);
+        dataSource.setUsername(username);
+        dataSource.setPassword(password);
+        dataSource.setDriverClassName(properties.determineDriverClassName());
+        dataSource.setMaximumPoolSize(poolSize);
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(@Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                               @Value("${datasource.replica.max-lag-seconds:2}") long maxLagSeconds,
+                                               @Value("${datasource.replica.allow-standalone:false}") boolean allowStandalone) {
+        return new ReplicaLagMonitor(replicaDataSource, maxLagSeconds, allowStandalone);
+    }
+
+    /**
+     * The read-your-writes window defaults to the longest lag the replica may have while serving reads plus one
+     * check interval and one second for Seconds_Behind_Source rounding down: after that, a replica that is
+     * still used has applied the write.
+     */
+    @Bean
+    public ReadWriteRoutingDataSource routingDataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                                        @Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                                        ReplicaLagMonitor replicaLagMonitor,
+                                                        @Value("${datasource.replica.max-lag-seconds:2}") long maxLagSeconds,
+                                                        @Value("${datasource.replica.check-interval-ms:1000}") long checkIntervalMs,
+                                                        @Value("${datasource.replica.read-your-writes-ms:-1}") long readYourWritesMs) {
+        long window = readYourWritesMs >= 0 ? readYourWritesMs : (maxLagSeconds + 1) * 1000 + checkIntervalMs;
+        System.out.println("DEBUG (ReadWriteRoutingConfig): Read-only transactions go to the replica; read-your-writes window " + window + " ms.");
+        return new ReadWriteRoutingDataSource(primaryDataSource, replicaDataSource, replicaLagMonitor, window);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadWriteRoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    // routegenius.datasource.route{target, reason} and routegenius.replica.lag.seconds (-1 while unknown)
+    @Bean
+    public MeterBinder readWriteRoutingMetrics(ReadWriteRoutingDataSource routing, ReplicaLagMonitor monitor) {
+        return registry -> {
+            routeCounter(registry, routing, "primary", "write", ReadWriteRoutingDataSource::getPrimaryWrites);
+            routeCounter(registry, routing, "replica", "read", ReadWriteRoutingDataSource::getReplicaReads);
+            routeCounter(registry, routing, "primary", "replica_unusable", ReadWriteRoutingDataSource::getPrimaryReadsReplicaUnusable);
+            routeCounter(registry, routing, "primary", "read_your_writes", ReadWriteRoutingDataSource::getPrimaryReadsReadYourWrites);
+            routeCounter(registry, routing, "primary", "replica_failed", ReadWriteRoutingDataSource::getPrimaryReadsReplicaFailed);
+            Gauge.builder("routegenius.replica.lag.seconds", monitor, ReplicaLagMonitor::getLagSeconds)
+                    .description("Seconds the replica is behind the primary")
+                    .register(registry);
+            Gauge.builder("routegenius.replica.usable", monitor, m -> m.isUsable() ? 1 : 0)
+                    .description("1 while read-only transactions may use the replica")
+                    .register(registry);
+        };
+    }
+
+    private static void routeCounter(MeterRegistry registry, ReadWriteRoutingDataSource routing,
+                                     String target, String reason, ToDoubleFunction<ReadWriteRoutingDataSource> count) {
+        FunctionCounter.builder("routegenius.datasource.route", routing, count)
+                .description("Connections handed out by the read/write router")
+                .tag("target", target)
+                .tag("reason", reason)
+                .register(registry);
+    }
+}
@@ -0,0 +1,172 @@
+package com.routegenius.backend.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sends read-only transactions to the replica pool and everything else to the primary. The replica is skipped
+ * when
+ * <ul>
+ *   <li>the {@link ReplicaLagMonitor} reports it as lagging, not replicating or unreachable,</li>
+ *   <li>the current user committed a read-write transaction within the read-your-writes window, so they see
+ *       their own update even if the replica has not applied it yet. Anonymous requests are only tracked, per
+ *       client address, on the auth endpoints and when they carry a bearer token, so that the login after a
+ *       sign-up, and the user lookup the JWT filter makes before the request is authenticated, find the new
+ *       account. Other anonymous requests, such as public tracking lookups, always read from the replica, or</li>
+ *   <li>opening a replica connection fails; the monitor is told and the primary serves the read.</li>
+ * </ul>
+ * Must sit behind a LazyConnectionDataSourceProxy: the JPA transaction manager asks for a connection before
+ * the transaction is marked read-only, and the proxy defers that until the first statement.
+ *
+ * Stickiness is kept in memory per instance and keyed by user name or client address; with several instances
+ * behind a load balancer a user who switches instances may read from a replica earlier. The client address is
+ * the one the request came from, or X-Forwarded-For with the replica profile's forward-headers setting. Clients
+ * that share an address (one NAT, or a proxy that does not forward it) share their stickiness too: for the read-
+ * your-writes window after one of them signs up, the others' logins and token checks also read from the primary.
+ */
+public class ReadWriteRoutingDataSource extends AbstractDataSource {
+
+    private static final int PRUNE_THRESHOLD = 10_000;
+    private static final String AUTH_PATH = "/api/v1/auth/";
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final ReplicaLagMonitor monitor;
+    private final long readYourWritesNanos;
+    private final Map<String, Long> lastWrites = new ConcurrentHashMap<>(); // User name or client key -> System.nanoTime() of the commit
+
+    private final LongAdder primaryWrites = new LongAdder();
+    private final LongAdder replicaReads = new LongAdder();
+    private final LongAdder primaryReadsReplicaUnusable = new LongAdder();
+    private final LongAdder primaryReadsReadYourWrites = new LongAdder();
+    private final LongAdder primaryReadsReplicaFailed = new LongAdder();
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, ReplicaLagMonitor monitor, long readYourWritesMs) {
+        this.primary = primary;
+        this.replica = replica;
+        this.monitor = monitor;
+        this.readYourWritesNanos = TimeUnit.MILLISECONDS.toNanos(readYourWritesMs);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            trackWrite();
+            primaryWrites.increment();
+            return primary.getConnection();
+        }
+        if (!monitor.isUsable()) {
+            primaryReadsReplicaUnusable.increment();
+            return primary.getConnection();
+        }
+        String user = currentUser();
+        String client = user == null ? currentClient() : null;
+        if ((user != null && wroteRecently(user)) || (client != null && wroteRecently(client))) {
+            primaryReadsReadYourWrites.increment();
+            return primary.getConnection();
+        }
+        try {
+            Connection connection = replica.getConnection();
+            replicaReads.increment();
+            return connection;
+        } catch (SQLException e) {
+            monitor.markUnreachable(e);
+            primaryReadsReplicaFailed.increment();
+            return primary.getConnection();
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Both pools use their configured credentials");
+    }
+
+    // Remembers the user, or for an anonymous request its client, once a read-write transaction of theirs commits
+    private void trackWrite() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        String current = currentUser();
+        String user = current != null ? current : currentClient();
+        if (user == null) {
+            return; // Scheduled jobs and other work outside a request
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                recordWrite(user);
+            }
+        });
+    }
+
+    void recordWrite(String user) {
+        long now = System.nanoTime();
+        lastWrites.put(user, now);
+        if (lastWrites.size() > PRUNE_THRESHOLD) {
+            lastWrites.values().removeIf(at -> now - at > readYourWritesNanos);
+        }
+    }
+
+    private boolean wroteRecently(String user) {
+        Long at = lastWrites.get(user);
+        return at != null && System.nanoTime() - at < readYourWritesNanos;
+    }
+
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken || !authentication.isAuthenticated()) {
+            return null;
+        }
+        return authentication.getName();
+    }
+
+    // Only for the anonymous requests that must see a fresh sign-up; prefixed so it cannot collide with a user name
+    private static String currentClient() {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)) {
+            return null;
+        }
+        HttpServletRequest request = attributes.getRequest();
+        String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (!request.getRequestURI().startsWith(AUTH_PATH) && (authorization == null || !authorization.startsWith("Bearer "))) {
+            return null;
+        }
+        return "client:" + request.getRemoteAddr();
+    }
+
+    public long getPrimaryWrites() {
+        return primaryWrites.sum();
+    }
+
+    public long getReplicaReads() {
+        return replicaReads.sum();
+    }
+
+    public long getPrimaryReadsReplicaUnusable() {
+        return primaryReadsReplicaUnusable.sum();
+    }
+
+    public long getPrimaryReadsReadYourWrites() {
+        return primaryReadsReadYourWrites.sum();
+    }
+
+    public long getPrimaryReadsReplicaFailed() {
+        return primaryReadsReplicaFailed.sum();
+    }
+}
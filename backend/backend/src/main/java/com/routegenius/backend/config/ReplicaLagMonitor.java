@@ -0,0 +1,100 @@
+package com.routegenius.backend.config;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Decides whether the replica may serve reads, from SHOW REPLICA STATUS (MySQL 8.0.22+; the replica user
+ * needs REPLICATION CLIENT). The replica is usable while replication runs and Seconds_Behind_Source is at
+ * most datasource.replica.max-lag-seconds. It is unusable until the first check succeeds, when the check
+ * fails, when the SQL or IO thread has stopped (the lag is then NULL) and when the server is no replica at
+ * all, unless datasource.replica.allow-standalone is set, e.g. for a second local instance restored from the
+ * same dump.
+ */
+public class ReplicaLagMonitor {
+
+    private final JdbcTemplate replica;
+    private final long maxLagSeconds;
+    private final boolean allowStandalone;
+
+    private volatile boolean usable;
+    private volatile long lagSeconds = -1; // -1 while unknown
+    private volatile String state = "not checked";
+    private volatile LocalDateTime checkedAt;
+
+    public ReplicaLagMonitor(DataSource replica, long maxLagSeconds, boolean allowStandalone) {
+        this.replica = new JdbcTemplate(replica);
+        this.maxLagSeconds = maxLagSeconds;
+        this.allowStandalone = allowStandalone;
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${datasource.replica.check-interval-ms:1000}")
+    public void check() {
+        try {
+            List<Map<String, Object>> rows = replica.queryForList("SHOW REPLICA STATUS");
+            if (rows.isEmpty()) {
+                update(allowStandalone ? 0L : null, allowStandalone ? "standalone" : "not replicating");
+                return;
+            }
+            Object lag = rows.get(0).get("Seconds_Behind_Source");
+            update(lag == null ? null : ((Number) lag).longValue(), lag == null ? "replication stopped" : null);
+        } catch (RuntimeException e) {
+            markUnreachable(e);
+        }
+    }
+
+    /**
+     * @param lag Seconds behind the primary, null when unknown.
+     * @param reason Why the replica cannot be used, or null to derive it from the lag.
+     */
+    void update(Long lag, String reason) {
+        boolean wasUsable = usable;
+        lagSeconds = lag == null ? -1 : lag;
+        if (reason != null && lag == null) {
+            state = reason;
+            usable = false;
+        } else if (lag > maxLagSeconds) {
+            state = "lagging";
+            usable = false;
+        } else {
+            state = reason != null ? reason : "replicating";
+            usable = true;
+        }
+        checkedAt = LocalDateTime.now();
+        if (wasUsable != usable) {
+            System.out.println("DEBUG (ReplicaLagMonitor): Replica " + (usable ? "serves reads again" : "no longer serves reads")
+                    + " (" + state + (lag != null ? ", " + lag + " s behind" : "") + ").");
+        }
+    }
+
+    public void markUnreachable(Exception e) {
+        if (usable) {
+            System.err.println("ERROR (ReplicaLagMonitor): Replica unreachable, reading from the primary: " + e.getMessage());
+        }
+        usable = false;
+        lagSeconds = -1;
+        state = "unreachable";
+        checkedAt = LocalDateTime.now();
+    }
+
+    public boolean isUsable() {
+        return usable;
+    }
+
+    public long getLagSeconds() {
+        return lagSeconds;
+    }
+
+    public String getState() {
+        return state;
+    }
+
+    public LocalDateTime getCheckedAt() {
+        return checkedAt;
+    }
+}
@@ -0,0 +1,96 @@
+package com.routegenius.backend.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import com.routegenius.backend.profiling.RequestProfile;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.server.Compression;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.boot.web.servlet.server.ConfigurableServletWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * Response formats besides JSON, and compression of large responses.
+ *
+ * A client that sends "Accept: application/cbor" or "Accept: application/x-jackson-smile" gets the same document
+ * as the JSON one, field for field, in a binary encoding: numbers are not written as text, and Smile refers back to
+ * property names and short values it has already written. The mappers come from Boot's builder, so dates, modules
+ * and features match the JSON output. JSON stays ahead of both in the converter list, so a wildcard Accept header
+ * or none at all still gets JSON.
+ */
+@Configuration
+public class ResponseFormatConfig {
+
+    @Value("${response.compression.enabled:true}")
+    private boolean compressionEnabled;
+    // Below this, the gzip header and the CPU time cost more than they save
+    @Value("${response.compression.min-response-size:2KB}")
+    private DataSize compressionMinResponseSize;
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter mappingJackson2CborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build()) {
+            @Override
+            protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+                    throws IOException, HttpMessageNotWritableException {
+                long span = RequestProfile.enter();
+                try {
+                    super.writeInternal(object, type, outputMessage);
+                } finally {
+                    RequestProfile.exit("serialization", "Jackson", "write-cbor", span);
+                }
+            }
+        };
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter mappingJackson2SmileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        // Back-references repeated short string values too (names, emails, cities, statuses), not only property names
+        SmileFactory factory = new SmileFactory().enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES);
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(factory).build()) {
+            @Override
+            protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+                    throws IOException, HttpMessageNotWritableException {
+                long span = RequestProfile.enter();
+                try {
+                    super.writeInternal(object, type, outputMessage);
+                } finally {
+                    RequestProfile.exit("serialization", "Jackson", "write-smile", span);
+                }
+            }
+        };
+    }
+
+    /**
+     * Gzip for responses of at least response.compression.min-response-size when the client accepts it. Runs after
+     * Boot's own customizer, so it applies unless server.compression.enabled is set explicitly. Responses below the
+     * threshold, which includes the login response with its token, are sent as they are.
+     */
+    @Bean
+    public WebServerFactoryCustomizer<ConfigurableServletWebServerFactory> responseCompressionCustomizer(Environment environment) {
+        return factory -> {
+            if (!compressionEnabled || environment.containsProperty("server.compression.enabled")) {
+                return;
+            }
+            Compression compression = new Compression();
+            compression.setEnabled(true);
+            compression.setMinResponseSize(compressionMinResponseSize);
+            compression.setMimeTypes(new String[]{"application/json", "application/cbor", "application/x-jackson-smile",
+                    "application/problem+json", "text/csv", "text/plain", "text/html", "text/css", "application/javascript"});
+            factory.setCompression(compression);
+            System.out.println("DEBUG (ResponseFormatConfig): Response compression enabled above " + compressionMinResponseSize + ".");
+        };
+    }
+}
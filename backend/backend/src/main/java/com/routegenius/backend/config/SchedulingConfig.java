@@ -0,0 +1,31 @@
+package com.routegenius.backend.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.scheduling.support.NoOpTaskScheduler;
+
+/**
+ * scheduling.enabled=false keeps every @Scheduled job from running: the outbox relay, archiving, purges of
+ * processed rows, the ETA flush, the stats reconcile and the periodic rebuilds. The AppCDS training run of the
+ * fast-startup build boots the whole application against a real database and must not send mail or move rows.
+ *
+ * Checked at runtime rather than with a condition on @EnableScheduling, because the AOT build fixes conditions
+ * when it is built and the trained and the deployed application are the same build.
+ */
+@Configuration
+public class SchedulingConfig implements SchedulingConfigurer {
+
+    @Value("${scheduling.enabled:true}")
+    private boolean enabled;
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+        if (!enabled) {
+            // The jobs are still registered, but the scheduler never runs them
+            taskRegistrar.setTaskScheduler(new NoOpTaskScheduler());
+            System.out.println("DEBUG (SchedulingConfig): scheduling.enabled is false, no scheduled job will run.");
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.routegenius.backend.config;
 
+import com.routegenius.backend.profiling.ProfiledPasswordEncoder;
 import com.routegenius.backend.service.UserService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
@@ -43,6 +44,8 @@ public class SecurityConfig {
                         .requestMatchers("/api/v1/auth/**").permitAll()
                         // Allow public parcel tracking publicly
                         .requestMatchers("/api/v1/parcels/track/**").permitAll()
+                        // Liveness and readiness probes (status only, details stay hidden)
+                        .requestMatchers("/actuator/health/**").permitAll()
                         // IMPORTANT: Secure ALL Admin paths with hasAuthority("ADMIN")
                         // This rule is placed early to ensure it takes precedence.
                         .requestMatchers("/api/v1/admin/**").hasAuthority("ADMIN")
@@ -61,7 +64,7 @@ public class SecurityConfig {
 
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new ProfiledPasswordEncoder(new BCryptPasswordEncoder());
     }
 
     @Bean
@@ -83,6 +86,8 @@ public class SecurityConfig {
         configuration.setAllowedOrigins(Arrays.asList("http://localhost:3000"));
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "PATCH", "OPTIONS"));
         configuration.setAllowedHeaders(Arrays.asList("*"));
+        // Paged admin lists return their total count in a header the frontend must be able to read
+        configuration.setExposedHeaders(Arrays.asList("X-Total-Count"));
         configuration.setAllowCredentials(true);
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
         source.registerCorsConfiguration("/**", configuration);
@@ -0,0 +1,57 @@
+package com.routegenius.backend.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every public method of the parcel, notification, feedback and auth services as
+ * routegenius.service.calls{service, method, outcome}. The outcome is "success" or the simple name of the
+ * exception thrown. Calls from a service to its own methods bypass the proxy and are not timed separately.
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class ServiceMetricsAspect {
+
+    private final MeterRegistry meterRegistry;
+    // Successful calls are the hot path: look their timer up by method instead of building a meter id every time
+    private final Map<Method, Timer> successTimers = new ConcurrentHashMap<>();
+
+    @Around("within(com.routegenius.backend.service.impl.ParcelServiceImpl)"
+            + " || within(com.routegenius.backend.service.impl.NotificationServiceImpl)"
+            + " || within(com.routegenius.backend.service.impl.FeedbackServiceImpl)"
+            + " || within(com.routegenius.backend.service.impl.AuthServiceImpl)")
+    public Object timeServiceCall(ProceedingJoinPoint joinPoint) throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        long start = System.nanoTime();
+        try {
+            Object result = joinPoint.proceed();
+            successTimers.computeIfAbsent(method, m -> timer(m, "success"))
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return result;
+        } catch (Throwable e) {
+            timer(method, e.getClass().getSimpleName()).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+    }
+
+    private Timer timer(Method method, String outcome) {
+        return Timer.builder(MetricsConfig.SERVICE_CALLS)
+                .description("Service method calls")
+                .tag("service", method.getDeclaringClass().getSimpleName().replace("Impl", ""))
+                .tag("method", method.getName())
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,52 @@
+package com.routegenius.backend.config;
+
+import com.routegenius.backend.profiling.HttpRequestEvent;
+import com.routegenius.backend.profiling.RequestProfile;
+import com.routegenius.backend.service.ProfilingService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Outermost filter: profiles every request, emits an HttpRequest JFR event and hands the profile to the
+ * slow-request sampler once the response is done. Runs before Spring Security so the JWT check and BCrypt show
+ * up in the breakdown.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class SlowRequestFilter extends OncePerRequestFilter {
+
+    private final ProfilingService profilingService;
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response, @NonNull FilterChain filterChain)
+            throws ServletException, IOException {
+        HttpRequestEvent event = new HttpRequestEvent();
+        event.begin();
+        RequestProfile profile = RequestProfile.begin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestProfile.end();
+            event.end();
+            if (event.shouldCommit()) {
+                event.method = request.getMethod();
+                event.path = request.getRequestURI();
+                event.status = response.getStatus();
+                event.commit();
+            }
+            profilingService.recordRequest(request.getMethod(), request.getRequestURI(), response.getStatus(), profile);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.routegenius.backend.config;
+
+import com.routegenius.backend.entity.Parcel;
+import com.routegenius.backend.repository.ParcelRepository;
+import com.routegenius.backend.repository.UserRepository;
+import com.routegenius.backend.service.JwtService;
+import com.routegenius.backend.util.TrackingIdGenerator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sends the hot read requests (tracking, ETA, history, my parcels, notifications, a failed login) through the
+ * running server before the application reports itself ready, so class loading, Hibernate's query plans,
+ * Jackson serializers, the security chain and the first JIT tiers are done before real traffic arrives.
+ *
+ * Application runners finish before Boot publishes ReadinessState.ACCEPTING_TRAFFIC, so with probes enabled
+ * /actuator/health/readiness stays DOWN until the warm-up is over. Only GET requests and a login with an
+ * unknown address are sent: nothing is written. The authenticated requests use a token for the sender of the
+ * first parcel, generated in-process and never logged.
+ *
+ * warmup.exit=true stops the application afterwards, which is how the AppCDS training run ends (see the
+ * fast-startup profile in pom.xml).
+ */
+@Component
+@RequiredArgsConstructor
+public class StartupWarmup implements ApplicationRunner {
+
+    private final ParcelRepository parcelRepository;
+    private final UserRepository userRepository;
+    private final JwtService jwtService;
+    private final Environment environment;
+    private final ConfigurableApplicationContext applicationContext;
+
+    @Value("${warmup.enabled:false}")
+    private boolean enabled;
+    @Value("${warmup.iterations:30}")
+    private int iterations;
+    @Value("${warmup.exit:false}")
+    private boolean exitAfterwards;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (enabled) {
+            warmUp();
+        }
+        if (exitAfterwards) {
+            System.out.println("DEBUG (StartupWarmup): warmup.exit is set, stopping.");
+            System.exit(SpringApplication.exit(applicationContext, () -> 0));
+        }
+    }
+
+    private void warmUp() {
+        long start = System.currentTimeMillis();
+        String baseUrl = "http://localhost:" + environment.getProperty("local.server.port", "8081");
+        List<HttpRequest> requests = new ArrayList<>();
+        try {
+            requests.addAll(requests(baseUrl));
+        } catch (RuntimeException e) {
+            System.err.println("ERROR (StartupWarmup): Could not pick warm-up data, skipping the warm-up: " + e.getMessage());
+            return;
+        }
+
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        int sent = 0;
+        int failed = 0;
+        for (int i = 0; i < iterations; i++) {
+            for (HttpRequest request : requests) {
+                try {
+                    HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                    // The login is expected to fail; anything else in the 5xx range points at a real problem
+                    if (response.statusCode() >= 500) {
+                        failed++;
+                    }
+                } catch (java.io.IOException e) {
+                    failed++;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                sent++;
+            }
+        }
+        System.out.println("DEBUG (StartupWarmup): Sent " + sent + " warm-up requests (" + failed + " failed) in "
+                + (System.currentTimeMillis() - start) + " ms.");
+    }
+
+    private List<HttpRequest> requests(String baseUrl) {
+        List<HttpRequest> requests = new ArrayList<>();
+        List<Object[]> first = parcelRepository.findTrackingIdsAfter(0L, PageRequest.of(0, 1));
+        // An empty database still warms the tracking path, answered by the Bloom filter
+        String trackingId = first.isEmpty()
+                ? TrackingIdGenerator.forTimestamp(System.currentTimeMillis(), 0, 0)
+                : (String) first.get(0)[1];
+        requests.add(get(baseUrl + "/api/v1/parcels/track/" + trackingId, null));
+        requests.add(get(baseUrl + "/api/v1/parcels/track/" + trackingId + "/eta", null));
+        requests.add(HttpRequest.newBuilder(URI.create(baseUrl + "/api/v1/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"email\":\"warmup@invalid\",\"password\":\"warmup\"}"))
+                .build());
+        if (first.isEmpty()) {
+            return requests;
+        }
+
+        Long parcelId = (Long) first.get(0)[0];
+        Parcel parcel = parcelRepository.findById(parcelId).orElse(null);
+        if (parcel == null || parcel.getSenderId() == null) {
+            return requests;
+        }
+        String token = userRepository.findById(parcel.getSenderId()).map(jwtService::generateToken).orElse(null);
+        if (token == null) {
+            return requests;
+        }
+        requests.add(get(baseUrl + "/api/v1/parcels/" + parcelId + "/history", token));
+        requests.add(get(baseUrl + "/api/v1/parcels/my-parcels", token));
+        requests.add(get(baseUrl + "/api/v1/notifications", token));
+        return requests;
+    }
+
+    private static HttpRequest get(String url, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url)).timeout(Duration.ofSeconds(30)).GET();
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,150 @@
+package com.routegenius.backend.config;
+
+import com.routegenius.backend.util.Bulkhead;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Startup report of the threading mode, executors and bulkheads, with warnings for settings that do not
+ * suit virtual threads, plus a pinning monitor.
+ *
+ * When spring.threads.virtual.enabled is on, the monitor streams jdk.VirtualThreadPinned JFR events: a virtual
+ * thread that blocks for longer than diagnostics.pinning-threshold-ms while it cannot unmount (inside a
+ * synchronized block or a native frame) holds its carrier, and with only one carrier per core a few of those
+ * stall every other request. Each event is counted as routegenius.virtual.pinned{frame}, where frame is the
+ * innermost com.routegenius method on the stack, and the first event per frame is logged with its stack.
+ */
+@Component
+@RequiredArgsConstructor
+public class VirtualThreadDiagnostics {
+
+    private static final String OUR_PACKAGE = "com.routegenius.";
+    private static final int LOGGED_FRAMES = 12;
+
+    private final ApplicationContext applicationContext;
+    private final Bulkheads bulkheads;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+    @Value("${server.tomcat.threads.max:200}")
+    private int tomcatMaxThreads;
+    @Value("${spring.datasource.hikari.maximum-pool-size:10}")
+    private int connectionPoolSize;
+    @Value("${diagnostics.pinning-monitor:true}")
+    private boolean pinningMonitor;
+    @Value("${diagnostics.pinning-threshold-ms:20}")
+    private long pinningThresholdMs;
+
+    private final Set<String> loggedFrames = ConcurrentHashMap.newKeySet();
+    private final Map<String, Counter> pinnedCounters = new ConcurrentHashMap<>();
+    private RecordingStream pinningStream;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reportOnStartup() {
+        System.out.println("DEBUG (VirtualThreadDiagnostics): Java " + Runtime.version() + ", " + Runtime.getRuntime().availableProcessors() + " processors.");
+        if (virtualThreads) {
+            System.out.println("DEBUG (VirtualThreadDiagnostics): Requests, @Async and @Scheduled run on virtual threads.");
+        } else {
+            System.out.println("DEBUG (VirtualThreadDiagnostics): Requests run on up to " + tomcatMaxThreads
+                    + " platform threads; set spring.threads.virtual.enabled=true (profile 'virtual') to use virtual threads.");
+        }
+        if (applicationContext.containsBean("applicationTaskExecutor")) {
+            System.out.println("DEBUG (VirtualThreadDiagnostics): @Async executor: " + applicationContext.getBean("applicationTaskExecutor").getClass().getSimpleName());
+        }
+        for (Bulkhead bulkhead : bulkheads.all()) {
+            System.out.println("DEBUG (VirtualThreadDiagnostics): Bulkhead " + bulkhead.getName() + ": " + bulkhead.getMaxConcurrent()
+                    + " concurrent, " + bulkhead.getMaxWaiting() + " waiting, " + bulkhead.getMaxWait().toMillis() + " ms wait.");
+        }
+        if (bulkheads.database().getMaxConcurrent() > connectionPoolSize) {
+            System.err.println("ERROR (VirtualThreadDiagnostics): The database bulkhead allows " + bulkheads.database().getMaxConcurrent()
+                    + " concurrent connections but the pool only has " + connectionPoolSize + "; the excess waits inside Hikari instead.");
+        }
+        checkJdbcDriver();
+
+        if (virtualThreads && pinningMonitor) {
+            startPinningMonitor();
+        }
+    }
+
+    // Connector/J before 8.1 holds monitors during socket reads, so every query would pin its carrier
+    private void checkJdbcDriver() {
+        for (Driver driver : DriverManager.drivers().toList()) {
+            if (!driver.getClass().getName().startsWith("com.mysql.")) {
+                continue;
+            }
+            boolean pins = driver.getMajorVersion() < 8 || (driver.getMajorVersion() == 8 && driver.getMinorVersion() < 1);
+            String version = driver.getMajorVersion() + "." + driver.getMinorVersion();
+            if (pins && virtualThreads) {
+                System.err.println("ERROR (VirtualThreadDiagnostics): MySQL Connector/J " + version
+                        + " blocks in synchronized code and pins virtual threads; use 8.1 or later.");
+            } else {
+                System.out.println("DEBUG (VirtualThreadDiagnostics): MySQL Connector/J " + version + ".");
+            }
+        }
+    }
+
+    private void startPinningMonitor() {
+        try {
+            RecordingStream stream = new RecordingStream();
+            stream.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ofMillis(pinningThresholdMs)).withStackTrace();
+            stream.onEvent("jdk.VirtualThreadPinned", this::onPinned);
+            stream.startAsync();
+            pinningStream = stream;
+            System.out.println("DEBUG (VirtualThreadDiagnostics): Watching for virtual threads pinned longer than " + pinningThresholdMs + " ms.");
+        } catch (RuntimeException e) {
+            System.err.println("ERROR (VirtualThreadDiagnostics): Could not start the pinning monitor: " + e.getMessage());
+        }
+    }
+
+    private void onPinned(RecordedEvent event) {
+        List<RecordedFrame> frames = event.getStackTrace() == null ? List.of() : event.getStackTrace().getFrames();
+        String frame = "other";
+        for (RecordedFrame candidate : frames) {
+            String type = candidate.getMethod().getType().getName();
+            if (type.startsWith(OUR_PACKAGE)) {
+                frame = type.substring(type.lastIndexOf('.') + 1) + "." + candidate.getMethod().getName();
+                break;
+            }
+        }
+        pinnedCounters.computeIfAbsent(frame, f -> Counter.builder("routegenius.virtual.pinned")
+                .description("Virtual threads that blocked while pinned to their carrier")
+                .tag("frame", f)
+                .register(meterRegistry)).increment();
+        if (loggedFrames.add(frame)) {
+            StringBuilder stack = new StringBuilder();
+            for (int i = 0; i < Math.min(LOGGED_FRAMES, frames.size()); i++) {
+                RecordedFrame recorded = frames.get(i);
+                stack.append("\n    at ").append(recorded.getMethod().getType().getName()).append('.')
+                        .append(recorded.getMethod().getName()).append(':').append(recorded.getLineNumber());
+            }
+            System.err.println("ERROR (VirtualThreadDiagnostics): Virtual thread pinned for " + event.getDuration().toMillis()
+                    + " ms in " + frame + " (logged once per frame):" + stack);
+        }
+    }
+
+    @PreDestroy
+    public void stopPinningMonitor() {
+        if (pinningStream != null) {
+            pinningStream.close();
+        }
+    }
+}
@@ -2,19 +2,56 @@ package com.routegenius.backend.controller;
 
 import com.routegenius.backend.dto.RegisterRequest;
 import com.routegenius.backend.dto.UserDto;
+import com.routegenius.backend.dto.GeocoderStatsResponse;
+import com.routegenius.backend.dto.HubNetworkStatsResponse;
+import com.routegenius.backend.dto.HubPathResponse;
+import com.routegenius.backend.dto.JfrRecordingRequest;
+import com.routegenius.backend.dto.JfrRecordingResponse;
+import com.routegenius.backend.dto.LoadPlanRequest;
+import com.routegenius.backend.dto.LoadPlanResponse;
+import com.routegenius.backend.dto.NotificationSubscriptionRequest;
+import com.routegenius.backend.dto.NotificationSubscriptionResponse;
+import com.routegenius.backend.dto.ParcelArchiveStatsResponse;
+import com.routegenius.backend.dto.ParcelPurgeResponse;
 import com.routegenius.backend.dto.ParcelRequest;
 import com.routegenius.backend.dto.ParcelResponse;
+import com.routegenius.backend.dto.ParcelSearchRequest;
+import com.routegenius.backend.dto.ParcelSearchResponse;
+import com.routegenius.backend.dto.ParcelStatsResponse;
+import com.routegenius.backend.dto.RoutePlanRequest;
+import com.routegenius.backend.dto.RoutePlanResponse;
+import com.routegenius.backend.dto.SlowRequestResponse;
+import com.routegenius.backend.dto.TrackingFilterStatsResponse;
 import com.routegenius.backend.entity.User;
+import com.routegenius.backend.exception.ResourceNotFoundException;
 import com.routegenius.backend.service.AuthService;
+import com.routegenius.backend.service.GeocodingService;
+import com.routegenius.backend.service.HubNetworkService;
+import com.routegenius.backend.service.LoadPlanningService;
+import com.routegenius.backend.service.NotificationSubscriptionService;
+import com.routegenius.backend.service.ParcelArchiveService;
+import com.routegenius.backend.service.ParcelPurgeService;
 import com.routegenius.backend.service.ParcelService;
+import com.routegenius.backend.service.ParcelStatsService;
+import com.routegenius.backend.service.ProfilingService;
+import com.routegenius.backend.service.RoutePlanningService;
+import com.routegenius.backend.service.TrackingIdFilterService;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.data.domain.Page;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -26,12 +63,32 @@ public class AdminController {
 
     private final AuthService authService;
     private final ParcelService parcelService;
+    private final ParcelStatsService parcelStatsService;
+    private final TrackingIdFilterService trackingIdFilterService;
+    private final ParcelPurgeService parcelPurgeService;
+    private final ParcelArchiveService parcelArchiveService;
+    private final RoutePlanningService routePlanningService;
+    private final GeocodingService geocodingService;
+    private final LoadPlanningService loadPlanningService;
+    private final HubNetworkService hubNetworkService;
+    private final NotificationSubscriptionService notificationSubscriptionService;
+    private final PrometheusMeterRegistry prometheusMeterRegistry;
+    private final ProfilingService profilingService;
+
+    public static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+    private static final int MAX_USER_PAGE_SIZE = 500;
+    private static final int MAX_PURGE_LIMIT = 100000;
 
     // --- User Management Endpoints ---
 
     @GetMapping("/users")
-    public ResponseEntity<List<UserDto>> getAllUsers(@RequestParam(required = false) String searchTerm) {
-        System.out.println("DEBUG (AdminController): getAllUsers method called. Search term: '" + searchTerm + "'");
+    public ResponseEntity<List<UserDto>> getAllUsers(@RequestParam(required = false) String searchTerm,
+                                                     @RequestParam(defaultValue = "0") int page,
+                                                     @RequestParam(defaultValue = "50") int size) {
+        System.out.println("DEBUG (AdminController): getAllUsers method called. Search term: '" + searchTerm + "', page: " + page + ", size: " + size);
+        if (page < 0 || size < 1 || size > MAX_USER_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page must be >= 0 and size must be between 1 and " + MAX_USER_PAGE_SIZE + ".");
+        }
 
         // Get current authentication object
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
@@ -42,9 +99,9 @@ public class AdminController {
             System.out.println("DEBUG (AdminController): No authenticated user found in SecurityContextHolder.");
         }
 
-        List<User> users = authService.getAllUsers(searchTerm);
-        System.out.println("DEBUG (AdminController): Fetched " + users.size() + " users from AuthService.");
-        List<UserDto> userDtos = users.stream()
+        Page<User> users = authService.getAllUsers(searchTerm, page, size);
+        System.out.println("DEBUG (AdminController): Fetched " + users.getNumberOfElements() + " of " + users.getTotalElements() + " users from AuthService.");
+        List<UserDto> userDtos = users.getContent().stream()
                 .map(user -> UserDto.builder()
                         .id(user.getId())
                         .firstName(user.getFirstName())
@@ -53,7 +110,10 @@ public class AdminController {
                         .build())
                 .collect(Collectors.toList());
         System.out.println("DEBUG (AdminController): Mapped " + userDtos.size() + " users to DTOs.");
-        return ResponseEntity.ok(userDtos);
+        // The body stays a plain list; the total match count for paging is sent in a header
+        return ResponseEntity.ok()
+                .header(TOTAL_COUNT_HEADER, String.valueOf(users.getTotalElements()))
+                .body(userDtos);
     }
 
     @GetMapping("/users/{id}")
@@ -110,6 +170,14 @@ public class AdminController {
         return ResponseEntity.ok(parcels);
     }
 
+    // Multi-criteria search, e.g. /parcels/search?statuses=PENDING&statuses=DISPATCHED&currentCity=Hyderabad&size=50
+    // Pass the returned 'nextCursor' as 'cursor' to get the next page.
+    @GetMapping("/parcels/search")
+    public ResponseEntity<ParcelSearchResponse> searchParcelsAdmin(@ModelAttribute ParcelSearchRequest request) {
+        System.out.println("DEBUG (AdminController): searchParcelsAdmin method reached.");
+        return ResponseEntity.ok(parcelService.searchParcels(request));
+    }
+
     @PostMapping("/parcels")
     public ResponseEntity<ParcelResponse> createParcelAdmin(@Valid @RequestBody ParcelRequest request) {
         System.out.println("DEBUG (AdminController): createParcelAdmin method reached.");
@@ -130,4 +198,194 @@ public class AdminController {
         parcelService.deleteParcel(id);
         return ResponseEntity.noContent().build();
     }
+
+    // Starts deleting DELIVERED/CANCELLED/RETURNED parcels not updated for the given number of days, in throttled
+    // chunks in the background. Poll GET /parcels/purge until 'state' is no longer RUNNING. A purge stops after
+    // 'limit' parcels; start another while 'completed' is false.
+    @PostMapping("/parcels/purge")
+    public ResponseEntity<ParcelPurgeResponse> purgeClosedParcels(@RequestParam int olderThanDays,
+                                                                  @RequestParam(defaultValue = "10000") int limit) {
+        System.out.println("DEBUG (AdminController): purgeClosedParcels method reached. Older than " + olderThanDays + " days, limit " + limit);
+        if (olderThanDays < 1 || limit < 1 || limit > MAX_PURGE_LIMIT) {
+            throw new IllegalArgumentException("olderThanDays must be >= 1 and limit must be between 1 and " + MAX_PURGE_LIMIT + ".");
+        }
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(parcelPurgeService.startPurge(LocalDateTime.now().minusDays(olderThanDays), limit));
+    }
+
+    // Status and running totals of the last purge started
+    @GetMapping("/parcels/purge")
+    public ResponseEntity<ParcelPurgeResponse> getPurgeStatus() {
+        ParcelPurgeResponse status = parcelPurgeService.getPurgeStatus();
+        if (status == null) {
+            throw new ResourceNotFoundException("No purge has been started.");
+        }
+        return ResponseEntity.ok(status);
+    }
+
+    // Size and hit counters of the cold archive of closed parcels
+    @GetMapping("/archive")
+    public ResponseEntity<ParcelArchiveStatsResponse> getArchiveStats() {
+        return ResponseEntity.ok(parcelArchiveService.getStats());
+    }
+
+    // Runs the nightly archiving job now
+    @PostMapping("/archive/run")
+    public ResponseEntity<ParcelArchiveStatsResponse> runArchive() {
+        System.out.println("DEBUG (AdminController): runArchive method reached.");
+        return ResponseEntity.ok(parcelArchiveService.archiveClosedParcels());
+    }
+
+    // Courier routes for the undelivered parcels of each city; an empty body plans every city with one courier
+    @PostMapping("/routes/plan")
+    public ResponseEntity<RoutePlanResponse> planRoutes(@RequestBody(required = false) RoutePlanRequest request) {
+        System.out.println("DEBUG (AdminController): planRoutes method reached.");
+        return ResponseEntity.ok(routePlanningService.planRoutes(request));
+    }
+
+    // Vehicle manifests for the pending parcels of each depot; an empty body uses the configured default fleet
+    @PostMapping("/loads/plan")
+    public ResponseEntity<LoadPlanResponse> planLoads(@RequestBody(required = false) LoadPlanRequest request) {
+        System.out.println("DEBUG (AdminController): planLoads method reached.");
+        return ResponseEntity.ok(loadPlanningService.planLoads(request));
+    }
+
+    // Gazetteer state and match counters of the offline geocoder
+    @GetMapping("/geocoder")
+    public ResponseEntity<GeocoderStatsResponse> getGeocoderStats() {
+        System.out.println("DEBUG (AdminController): getGeocoderStats method reached.");
+        return ResponseEntity.ok(geocodingService.getStats());
+    }
+
+    // Picks up a replaced gazetteer file without a restart
+    @PostMapping("/geocoder/reload")
+    public ResponseEntity<GeocoderStatsResponse> reloadGeocoder() {
+        System.out.println("DEBUG (AdminController): reloadGeocoder method reached.");
+        return ResponseEntity.ok(geocodingService.reload());
+    }
+
+    // Size and age of the hub network built from observed transit times
+    @GetMapping("/hubs")
+    public ResponseEntity<HubNetworkStatsResponse> getHubNetworkStats() {
+        System.out.println("DEBUG (AdminController): getHubNetworkStats method reached.");
+        return ResponseEntity.ok(hubNetworkService.getStats());
+    }
+
+    // Fastest chain of hub-to-hub legs between two cities
+    @GetMapping("/hubs/path")
+    public ResponseEntity<HubPathResponse> getHubPath(@RequestParam String from, @RequestParam String to) {
+        System.out.println("DEBUG (AdminController): getHubPath method reached for " + from + " -> " + to + ".");
+        return ResponseEntity.ok(hubNetworkService.fastestPath(from, to));
+    }
+
+    // Rebuilds the hub network now instead of at the next scheduled run
+    @PostMapping("/hubs/rebuild")
+    public ResponseEntity<HubNetworkStatsResponse> rebuildHubNetwork() {
+        System.out.println("DEBUG (AdminController): rebuildHubNetwork method reached.");
+        return ResponseEntity.ok(hubNetworkService.rebuild());
+    }
+
+    // --- Notification Subscriptions ---
+
+    // Watchers of a merchant's parcels (or every subscription); which statuses reach watchers is set by notification.rules
+    @GetMapping("/notification-subscriptions")
+    public ResponseEntity<List<NotificationSubscriptionResponse>> getNotificationSubscriptions(@RequestParam(required = false) Long merchantId) {
+        return ResponseEntity.ok(notificationSubscriptionService.getSubscriptions(merchantId));
+    }
+
+    @PostMapping("/notification-subscriptions")
+    public ResponseEntity<NotificationSubscriptionResponse> subscribe(@Valid @RequestBody NotificationSubscriptionRequest request) {
+        System.out.println("DEBUG (AdminController): subscribe method reached for user " + request.getUserId() + " and merchant " + request.getMerchantId());
+        return new ResponseEntity<>(notificationSubscriptionService.subscribe(request), HttpStatus.CREATED);
+    }
+
+    @DeleteMapping("/notification-subscriptions/{id}")
+    public ResponseEntity<Void> unsubscribe(@PathVariable Long id) {
+        System.out.println("DEBUG (AdminController): unsubscribe method reached for ID: " + id);
+        notificationSubscriptionService.unsubscribe(id);
+        return ResponseEntity.noContent().build();
+    }
+
+    // Re-reads the subscriptions, e.g. after rows were changed in the database directly
+    @PostMapping("/notification-subscriptions/reload")
+    public ResponseEntity<Void> reloadNotificationSubscriptions() {
+        System.out.println("DEBUG (AdminController): reloadNotificationSubscriptions method reached.");
+        notificationSubscriptionService.reload();
+        return ResponseEntity.noContent().build();
+    }
+
+    // --- Operational Dashboard ---
+
+    // Live parcel counts served from in-memory counters; cheap enough to poll every few seconds
+    @GetMapping("/stats")
+    public ResponseEntity<ParcelStatsResponse> getParcelStats() {
+        return ResponseEntity.ok(parcelStatsService.getStats());
+    }
+
+    // Forces a reconciliation of the counters against the database
+    @PostMapping("/stats/reconcile")
+    public ResponseEntity<ParcelStatsResponse> reconcileParcelStats() {
+        System.out.println("DEBUG (AdminController): reconcileParcelStats method reached.");
+        parcelStatsService.reconcile();
+        return ResponseEntity.ok(parcelStatsService.getStats());
+    }
+
+    // Size, accuracy and hit counters of the tracking ID Bloom filter
+    @GetMapping("/stats/tracking-filter")
+    public ResponseEntity<TrackingFilterStatsResponse> getTrackingFilterStats() {
+        return ResponseEntity.ok(trackingIdFilterService.getStats());
+    }
+
+    // Rebuilds the tracking ID filter from the database, e.g. after a bulk import
+    @PostMapping("/stats/tracking-filter/rebuild")
+    public ResponseEntity<TrackingFilterStatsResponse> rebuildTrackingFilter() {
+        System.out.println("DEBUG (AdminController): rebuildTrackingFilter method reached.");
+        trackingIdFilterService.rebuild();
+        return ResponseEntity.ok(trackingIdFilterService.getStats());
+    }
+
+    // --- Metrics ---
+
+    // Prometheus text format: service, repository, pool, executor, Gemini/SMTP and JVM meters (see MetricsConfig)
+    @GetMapping(value = "/metrics", produces = "text/plain; version=0.0.4; charset=utf-8")
+    public ResponseEntity<String> scrapeMetrics() {
+        return ResponseEntity.ok(prometheusMeterRegistry.scrape());
+    }
+
+    // --- Profiling ---
+
+    // Starts a bounded JFR recording with the RouteGenius events enabled; only one runs at a time
+    @PostMapping("/profiling/recordings")
+    public ResponseEntity<JfrRecordingResponse> startRecording(@RequestBody(required = false) JfrRecordingRequest request) {
+        System.out.println("DEBUG (AdminController): startRecording method reached.");
+        JfrRecordingResponse recording = profilingService.startRecording(request == null ? new JfrRecordingRequest() : request);
+        return new ResponseEntity<>(recording, HttpStatus.CREATED);
+    }
+
+    @PostMapping("/profiling/recordings/{id}/stop")
+    public ResponseEntity<JfrRecordingResponse> stopRecording(@PathVariable long id) {
+        System.out.println("DEBUG (AdminController): stopRecording method reached for ID: " + id);
+        return ResponseEntity.ok(profilingService.stopRecording(id));
+    }
+
+    @GetMapping("/profiling/recordings")
+    public ResponseEntity<List<JfrRecordingResponse>> getRecordings() {
+        return ResponseEntity.ok(profilingService.getRecordings());
+    }
+
+    // The .jfr file of a finished recording, for JDK Mission Control or `jfr print`
+    @GetMapping("/profiling/recordings/{id}/file")
+    public ResponseEntity<Resource> downloadRecording(@PathVariable long id) {
+        Path file = profilingService.getRecordingFile(id);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + file.getFileName() + "\"")
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .body(new FileSystemResource(file));
+    }
+
+    // Span breakdown of the most recent requests over profiling.slow-request-threshold-ms, newest first
+    @GetMapping("/profiling/slow-requests")
+    public ResponseEntity<List<SlowRequestResponse>> getSlowRequests() {
+        return ResponseEntity.ok(profilingService.getSlowRequests());
+    }
 }
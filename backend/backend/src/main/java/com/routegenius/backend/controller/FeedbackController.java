@@ -2,12 +2,15 @@ package com.routegenius.backend.controller;
 
 import com.routegenius.backend.dto.FeedbackRequest;
 import com.routegenius.backend.dto.FeedbackResponse;
+import com.routegenius.backend.dto.FeedbackRollupResponse;
 import com.routegenius.backend.entity.User; // Import User entity
 import com.routegenius.backend.exception.ResourceNotFoundException; // Import ResourceNotFoundException
 import com.routegenius.backend.repository.UserRepository; // Import UserRepository
 import com.routegenius.backend.service.FeedbackService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -15,6 +18,7 @@ import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
@@ -67,20 +71,61 @@ public class FeedbackController {
     }
 
     /**
-     * Endpoint to retrieve all feedback entries.
-     * Accessible only by users with the 'ADMIN' role.
+     * Endpoint to retrieve feedback entries, newest first, one page at a time.
+     * Accessible only by users with the 'ADMIN' role. The total number of entries is returned
+     * in the X-Total-Count header.
      *
-     * @return ResponseEntity with a list of all FeedbackResponse DTOs.
+     * @param page Zero-based page number.
+     * @param size Page size (1-500).
+     * @return ResponseEntity with a page of FeedbackResponse DTOs.
      */
     @GetMapping("/admin")
     // IMPORTANT FIX: Change hasRole('ADMIN') to hasAuthority('ADMIN')
     // Your User entity's getAuthorities() returns new SimpleGrantedAuthority(role.name()),
     // where role.name() is "ADMIN" or "USER". So, you need to check for authority, not role.
     @PreAuthorize("hasAuthority('ADMIN')") // Fixed for correct role check
-    public ResponseEntity<List<FeedbackResponse>> getAllFeedback() {
-        System.out.println("DEBUG (FeedbackController): Request to get all feedback (Admin).");
-        List<FeedbackResponse> feedbackList = feedbackService.getAllFeedback();
-        return ResponseEntity.ok(feedbackList);
+    public ResponseEntity<List<FeedbackResponse>> getAllFeedback(@RequestParam(defaultValue = "0") int page,
+                                                                 @RequestParam(defaultValue = "50") int size) {
+        System.out.println("DEBUG (FeedbackController): Request to get feedback page " + page + " (Admin).");
+        if (page < 0 || size < 1 || size > 500) {
+            throw new IllegalArgumentException("Page must be >= 0 and size must be between 1 and 500.");
+        }
+        Page<FeedbackResponse> feedbackPage = feedbackService.getAllFeedback(page, size);
+        return ResponseEntity.ok()
+                .header("X-Total-Count", String.valueOf(feedbackPage.getTotalElements()))
+                .body(feedbackPage.getContent());
+    }
+
+    /**
+     * Endpoint to retrieve the daily rating rollups (count, average, 1-5 histogram) for a date range.
+     * Served from the pre-aggregated rollup table. Accessible only by users with the 'ADMIN' role.
+     *
+     * @param from First day (inclusive), ISO format (yyyy-MM-dd).
+     * @param to Last day (inclusive), ISO format (yyyy-MM-dd).
+     * @return ResponseEntity with one rollup per day that has feedback.
+     */
+    @GetMapping("/admin/ratings/daily")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<List<FeedbackRollupResponse>> getDailyRatingRollups(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(feedbackService.getDailyRatingRollups(from, to));
+    }
+
+    /**
+     * Endpoint to retrieve the overall rating summary (count, average, 1-5 histogram) for a date range.
+     * Accessible only by users with the 'ADMIN' role.
+     *
+     * @param from First day (inclusive), ISO format (yyyy-MM-dd).
+     * @param to Last day (inclusive), ISO format (yyyy-MM-dd).
+     * @return ResponseEntity with the aggregated rating summary.
+     */
+    @GetMapping("/admin/ratings/summary")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<FeedbackRollupResponse> getRatingSummary(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(feedbackService.getRatingSummary(from, to));
     }
 
     /**
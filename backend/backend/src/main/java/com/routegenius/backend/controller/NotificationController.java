@@ -76,8 +76,9 @@ public class NotificationController { // Removed @PreAuthorize from class level
 
         System.out.println("Backend DEBUG: NotificationController received request for parcelId: " + parcelId + ", status: " + status);
 
-        notificationService.generateNotificationForParcelStatusChange(parcelId, status);
+        // Only a preview: status changes already notify through the outbox, so this stores and sends nothing
+        String draft = notificationService.draftNotificationForParcelStatusChange(parcelId, status);
 
-        return ResponseEntity.ok(Map.of("message", "Notification draft generation initiated successfully."));
+        return ResponseEntity.ok(Map.of("message", "Notification draft generated successfully.", "draft", draft));
     }
 }
@@ -1,5 +1,6 @@
 package com.routegenius.backend.controller;
 
+import com.routegenius.backend.dto.EtaResponse;
 import com.routegenius.backend.dto.ParcelRequest;
 import com.routegenius.backend.dto.ParcelResponse;
 import com.routegenius.backend.entity.TrackingEvent;
@@ -51,6 +52,12 @@ public class ParcelController {
         return ResponseEntity.ok(parcel);
     }
 
+    // Public/Authenticated: P50/P90 delivery estimate from historical transit times
+    @GetMapping("/track/{trackingId}/eta")
+    public ResponseEntity<EtaResponse> getParcelEta(@PathVariable String trackingId) {
+        return ResponseEntity.ok(parcelService.getParcelEta(trackingId));
+    }
+
     // Authenticated User: Get parcels related to the current authenticated user (sender or recipient)
     @GetMapping("/my-parcels")
     // IMPORTANT: @PreAuthorize was removed in a previous step to allow global security rules to apply.
@@ -0,0 +1,34 @@
+package com.routegenius.backend.controller;
+
+import com.routegenius.backend.dto.ScanBatchRequest;
+import com.routegenius.backend.dto.ScanIngestResponse;
+import com.routegenius.backend.service.ScanIngestService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/scans")
+@RequiredArgsConstructor
+public class ScanController {
+
+    private final ScanIngestService scanIngestService;
+
+    /**
+     * Ingests a batch of hub scans. Answers once the scans are committed; a 503 means the ingest queue is full
+     * and the batch should be resent after the Retry-After delay.
+     *
+     * @param request Up to 5000 scans.
+     * @return Counts by outcome and the reason for each rejected scan.
+     */
+    @PostMapping
+    @PreAuthorize("hasAuthority('ADMIN')") // Hub scanners sign in with an admin account until they get a role of their own
+    public ResponseEntity<ScanIngestResponse> ingestScans(@Valid @RequestBody ScanBatchRequest request) {
+        return ResponseEntity.ok(scanIngestService.ingest(request.getScans()));
+    }
+}
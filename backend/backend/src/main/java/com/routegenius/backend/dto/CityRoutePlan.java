@@ -0,0 +1,23 @@
+package com.routegenius.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CityRoutePlan {
+    private String city;
+    private double depotLatitude;
+    private double depotLongitude;
+    private int stops;
+    private int skippedWithoutCoordinates;
+    private double totalDistanceKm;
+    private long solveTimeMs;
+    private List<CourierRoute> routes;
+}
@@ -0,0 +1,18 @@
+package com.routegenius.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CourierRoute {
+    private int courier; // 1-based route number within the city
+    private double distanceKm; // Straight-line length from the depot through all stops and back
+    private List<RouteStop> stops;
+}
@@ -0,0 +1,22 @@
+package com.routegenius.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DepotLoadPlan {
+    private String depot;
+    private int parcels;
+    private int vehiclesAvailable;
+    private int vehiclesUsed;
+    private long solveTimeMs;
+    private List<VehicleManifest> manifests; // Only vehicles that carry parcels
+    private List<LoadItem> unassigned; // Parcels that fit no vehicle of the fleet (too big, or fleet too small)
+}
@@ -0,0 +1,24 @@
+package com.routegenius.backend.dto;
+
+import com.routegenius.backend.entity.ParcelStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EtaResponse {
+    private String trackingId;
+    private ParcelStatus status;
+    private String currentCity;
+    private boolean available; // False for closed parcels and when there is not enough transit history
+    private LocalDateTime estimatedDeliveryP50; // Median estimate
+    private LocalDateTime estimatedDeliveryP90; // Delivered by then in 9 out of 10 comparable cases
+    private int transitions; // Legs on the most common path from the current state to delivery
+    private long minSamples; // Fewest observations behind any of those legs
+}
@@ -0,0 +1,21 @@
+package com.routegenius.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FeedbackRollupResponse {
+    private LocalDate from; // First day covered (equal to 'to' for a single day)
+    private LocalDate to;
+    private long count;
+    private Double averageRating; // Null when there is no feedback in the period
+    private Map<Integer, Long> histogram; // Rating (1-5) -> number of feedback entries
+}
@@ -0,0 +1,27 @@
+package com.routegenius.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GeocoderStatsResponse {
+    private boolean ready; // False when no gazetteer file is configured or it failed to load
+    private String gazetteerFile;
+    private int gazetteerEntries;
+    private long indexSizeBytes;
+    private LocalDateTime loadedAt;
+    private long lookups;
+    private long cacheHits;
+    private int cacheSize;
+    private long postcodeMatches;
+    private long streetMatches;
+    private long cityMatches;
+    private long unmatched;
+}
@@ -0,0 +1,17 @@
+package com.routegenius.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class HubLeg {
+    private String from;
+    private String to;
+    private long medianSeconds; // Median observed time between the two hubs
+    private long samples;
+}
@@ -0,0 +1,23 @@
+package com.routegenius.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class HubNetworkStatsResponse {
+    private boolean ready; // False until the first build finished
+    private int hubs;
+    private int legs; // Hub-to-hub connections with enough samples
+    private int shortcuts; // Added by the contraction hierarchy
+    private int transitRows; // Transit time rows the graph was built from
+    private LocalDateTime builtAt;
+    private long buildTimeMs;
+    private long queries;
+}
@@ -0,0 +1,22 @@
+package com.routegenius.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class HubPathResponse {
+    private String from;
+    private String to;
+    private boolean available; // False when either hub is unknown or no observed legs connect them
+    private List<HubLeg> legs;
+    private long totalSeconds;
+    private int hubsSearched; // Hubs the query visited, a measure of its work
+    private long queryMicros;
+}
@@ -0,0 +1,17 @@
+package com.routegenius.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class JfrRecordingRequest {
+    private Integer durationSeconds; // Defaults to 60, capped by profiling.max-recording-seconds
+    private Integer maxSizeMb; // Defaults to 100, capped by profiling.max-recording-mb
+    private String settings; // JFR configuration: "default" (low overhead) or "profile" (more detail, more overhead)
+    private Long thresholdMs; // Minimum duration of the RouteGenius events to record; defaults to 0, i.e. all of them
+}
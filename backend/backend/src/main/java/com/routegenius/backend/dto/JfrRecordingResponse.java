@@ -0,0 +1,24 @@
+package com.routegenius.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class JfrRecordingResponse {
+    private long id;
+    private String name;
+    private String state; // NEW, RUNNING, STOPPED or CLOSED
+    private String settings;
+    private long thresholdMs;
+    private LocalDateTime startedAt;
+    private long durationSeconds;
+    private long maxSizeBytes;
+    private long fileSizeBytes; // 0 until the recording has been written
+}
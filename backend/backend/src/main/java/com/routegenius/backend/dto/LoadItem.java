@@ -0,0 +1,20 @@
+package com.routegenius.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoadItem {
+    private Long parcelId;
+    private String trackingId;
+    private Double weight;
+    private Double length;
+    private Double width;
+    private Double height;
+    private String recipientAddress;
+}
@@ -0,0 +1,18 @@
+package com.routegenius.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoadPlanRequest {
+    private List<String> depots; // Cities to plan; all cities with pending parcels when empty
+    private List<VehicleSpec> vehicles; // Fleet of each depot; the configured default fleet when empty
+    private Double fillFactor; // Usable share of the cargo volume, defaults to the configured value
+}
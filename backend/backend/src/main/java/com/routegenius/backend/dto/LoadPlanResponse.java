@@ -0,0 +1,20 @@
+package com.routegenius.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoadPlanResponse {
+    private List<DepotLoadPlan> depots;
+    private int parcelsLoaded;
+    private int parcelsUnassigned;
+    private int vehiclesUsed;
+    private long solveTimeMs;
+}
@@ -0,0 +1,20 @@
+package com.routegenius.backend.dto;
+
+import com.routegenius.backend.entity.ParcelStatus;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationSubscriptionRequest {
+    @NotNull(message = "User ID is required")
+    private Long userId; // The watcher
+    @NotNull(message = "Merchant ID is required")
+    private Long merchantId; // The sender whose parcels are watched
+    private ParcelStatus status; // Omit for every status
+}
@@ -0,0 +1,22 @@
+package com.routegenius.backend.dto;
+
+import com.routegenius.backend.entity.ParcelStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationSubscriptionResponse {
+    private Long id;
+    private Long userId;
+    private String userEmail;
+    private Long merchantId;
+    private ParcelStatus status; // Null for every status
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,24 @@
+package com.routegenius.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ParcelArchiveStatsResponse {
+    private int segments;
+    private long archivedParcels;
+    private long sizeBytes;
+    private long lookups; // Lookups that missed the hot tables and went to the archive
+    private long hits;
+    private LocalDateTime lastRunAt;
+    private long lastRunParcelsArchived;
+    private long lastRunParcelsDeleted; // Can be lower than archived when parcels were reopened in the meantime
+    private long lastRunDurationMs;
+}
@@ -0,0 +1,27 @@
+package com.routegenius.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ParcelPurgeResponse {
+    private String state; // RUNNING, FINISHED or FAILED
+    private LocalDateTime startedAt;
+    private LocalDateTime cutoff;
+    private int limit;
+    private long parcelsDeleted;
+    private long trackingEventsDeleted;
+    private long notificationsDeleted;
+    private long feedbackDeleted;
+    private int chunks;
+    private long durationMs;
+    private boolean completed; // False when the run stopped at its limit and eligible parcels remain
+    private String error; // Set when the state is FAILED
+}
@@ -1,6 +1,8 @@
 package com.routegenius.backend.dto;
 
 import com.routegenius.backend.entity.ParcelStatus;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
@@ -47,4 +49,11 @@ public class ParcelRequest {
     private String currentCity;
     @NotBlank(message = "Current country is required")
     private String currentCountry;
+    // Optional delivery coordinates of the recipient address
+    @DecimalMin(value = "-90.0", message = "Recipient latitude must be between -90 and 90")
+    @DecimalMax(value = "90.0", message = "Recipient latitude must be between -90 and 90")
+    private Double recipientLatitude;
+    @DecimalMin(value = "-180.0", message = "Recipient longitude must be between -180 and 180")
+    @DecimalMax(value = "180.0", message = "Recipient longitude must be between -180 and 180")
+    private Double recipientLongitude;
 }
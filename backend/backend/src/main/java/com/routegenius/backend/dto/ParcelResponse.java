@@ -36,6 +36,9 @@ public class ParcelResponse {
     private String currentLocation;
     private String currentCity;
     private String currentCountry;
+    private Double recipientLatitude;
+    private Double recipientLongitude;
     private LocalDateTime createdAt;
     private LocalDateTime lastUpdatedAt;
+    private Long version; // Increases with every update
 }
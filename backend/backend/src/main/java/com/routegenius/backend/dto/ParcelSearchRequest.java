@@ -0,0 +1,39 @@
+package com.routegenius.backend.dto;
+
+import com.routegenius.backend.entity.ParcelStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+/**
+ * Filters for the admin parcel search. Every filter is optional and all given filters are combined with AND.
+ * Date ranges are inclusive at the start and exclusive at the end.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ParcelSearchRequest {
+    private Set<ParcelStatus> statuses;
+    private String currentCity;
+    private String currentCountry;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime createdFrom;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime createdTo;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime updatedFrom;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime updatedTo;
+    private Boolean overdue; // Estimated delivery date in the past and parcel not yet finished
+    private String trackingIdPrefix;
+    private Long senderId;
+    private Long recipientId;
+    private Long cursor; // Keyset cursor: the 'nextCursor' returned with the previous page
+    private Integer size;
+}
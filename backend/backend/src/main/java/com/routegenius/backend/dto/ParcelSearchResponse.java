@@ -0,0 +1,17 @@
+package com.routegenius.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ParcelSearchResponse {
+    private List<ParcelResponse> parcels;
+    private Long nextCursor; // Null when there are no more results
+}
@@ -0,0 +1,24 @@
+package com.routegenius.backend.dto;
+
+import com.routegenius.backend.entity.ParcelStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ParcelStatsResponse {
+    private long totalParcels;
+    private Map<ParcelStatus, Long> byStatus;
+    private Map<String, Long> byCity;
+    private Map<String, Long> byCountry;
+    private long deliveredWithDates; // Delivered parcels that have an actual delivery date
+    private Double averageDeliveryHours; // Average creation-to-delivery time, null when nothing was delivered yet
+    private LocalDateTime lastReconciledAt;
+}
@@ -0,0 +1,18 @@
+package com.routegenius.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RequestSpan {
+    private String kind; // service, db, jwt, bcrypt, gemini, smtp or serialization
+    private String name; // e.g. "ParcelRepository.findByTrackingId"
+    private int depth; // 0 for spans directly under the request
+    private double offsetMs; // Start, relative to the start of the request
+    private double durationMs;
+}
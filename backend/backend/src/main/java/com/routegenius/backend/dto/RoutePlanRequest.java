@@ -0,0 +1,21 @@
+package com.routegenius.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoutePlanRequest {
+    private List<String> cities; // Cities to plan; all cities with undelivered parcels when empty
+    private Integer couriersPerCity; // Defaults to 1
+    private Integer maxStopsPerRoute; // Extra routes are planned when a city has more stops than couriers can take
+    // Optional depot for single-city requests; otherwise the centre of the city's stops is used
+    private Double depotLatitude;
+    private Double depotLongitude;
+}
@@ -0,0 +1,19 @@
+package com.routegenius.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoutePlanResponse {
+    private List<CityRoutePlan> cities;
+    private int parcelsPlanned;
+    private int parcelsWithoutCoordinates; // Undelivered parcels that could not be routed because their address has no coordinates
+    private long solveTimeMs;
+}
@@ -0,0 +1,19 @@
+package com.routegenius.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RouteStop {
+    private int sequence; // 1-based position in the route
+    private Long parcelId;
+    private String trackingId;
+    private String recipientAddress;
+    private Double latitude;
+    private Double longitude;
+}
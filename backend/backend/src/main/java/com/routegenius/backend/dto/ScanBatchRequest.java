@@ -0,0 +1,23 @@
+package com.routegenius.backend.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScanBatchRequest {
+    @NotEmpty(message = "At least one scan is required")
+    @Size(max = 5000, message = "At most 5000 scans per batch")
+    // A null entry is a malformed request (400); bad fields of a scan are reported per scan by the ingest
+    private List<@NotNull(message = "Scans must not be null") @Valid ScanRequest> scans;
+}
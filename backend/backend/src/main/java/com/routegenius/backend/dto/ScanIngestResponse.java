@@ -0,0 +1,24 @@
+package com.routegenius.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Outcome of a scan batch, returned once its scans are committed. Every scan is counted exactly once.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScanIngestResponse {
+    private int received;
+    private int applied; // Moved the parcel to a new status or location
+    private int late; // Older than the parcel's latest event: recorded in the history only
+    private int duplicates; // Repeated the state the parcel was already in
+    private int rejected; // Invalid or unknown tracking ID, missing status or time, or a field too long
+    private List<String> rejections; // "<trackingId>: <reason>" for each rejected scan
+}
@@ -0,0 +1,26 @@
+package com.routegenius.backend.dto;
+
+import com.routegenius.backend.entity.ParcelStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One barcode scan at a hub. Location, city and country are optional and default to the parcel's current ones.
+ * Scans are checked one by one when ingested, so a bad scan is reported without failing the rest of the batch.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScanRequest {
+    private String trackingId;
+    private ParcelStatus status;
+    private String location;
+    private String city;
+    private String country;
+    private LocalDateTime scannedAt;
+}
@@ -0,0 +1,26 @@
+package com.routegenius.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SlowRequestResponse {
+    private String method;
+    private String path;
+    private int status;
+    private LocalDateTime startedAt;
+    private double durationMs;
+    // Time per kind excluding nested spans; "other" is time outside every span (filters, controllers, Tomcat)
+    private Map<String, Double> selfTimeMs;
+    private List<RequestSpan> spans; // In start order
+    private int droppedSpans;
+}
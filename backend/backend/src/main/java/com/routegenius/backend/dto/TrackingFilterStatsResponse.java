@@ -0,0 +1,24 @@
+package com.routegenius.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TrackingFilterStatsResponse {
+    private boolean ready; // False until the filter has been built at startup
+    private long lookups;
+    private long shortCircuited; // Lookups answered with 404 without a database query
+    private long falsePositives; // Lookups the filter let through that still missed in the database
+    private long insertions;
+    private long bitCount;
+    private int hashCount;
+    private double expectedFalsePositiveRate;
+    private LocalDateTime lastRebuildAt;
+}
@@ -0,0 +1,22 @@
+package com.routegenius.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class VehicleManifest {
+    private String vehicle; // Type and number, e.g. "VAN-3"
+    private String type;
+    private double loadWeight;
+    private double maxWeight;
+    private double weightUtilisation; // Share of the payload, 0..1
+    private double volumeUtilisation; // Share of the whole cargo volume, 0..1
+    private List<LoadItem> items;
+}
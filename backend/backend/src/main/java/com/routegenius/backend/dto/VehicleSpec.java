@@ -0,0 +1,19 @@
+package com.routegenius.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class VehicleSpec {
+    private String type; // E.g. "VAN" or "TRUCK"; used to name the vehicles in manifests
+    private Integer count; // Vehicles of this type available at each depot
+    private Double maxWeight; // Payload, in the unit of parcel weights
+    private Double cargoLength; // Cargo space, in the unit of parcel dimensions
+    private Double cargoWidth;
+    private Double cargoHeight;
+}
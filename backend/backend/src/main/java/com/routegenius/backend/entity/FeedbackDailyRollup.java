@@ -0,0 +1,41 @@
+package com.routegenius.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+// One row per day with the rating count, sum and 1-5 histogram of the feedback submitted that day.
+// Maintained in the same transaction as the feedback itself, so rating trends never scan the feedback table.
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "feedback_daily_rollups")
+public class FeedbackDailyRollup {
+
+    @Id
+    @Column(name = "rollup_date")
+    private LocalDate rollupDate;
+
+    @Column(name = "feedback_count", nullable = false)
+    private long feedbackCount;
+
+    @Column(name = "rating_sum", nullable = false)
+    private long ratingSum;
+
+    @Column(name = "rating1_count", nullable = false)
+    private long rating1Count;
+    @Column(name = "rating2_count", nullable = false)
+    private long rating2Count;
+    @Column(name = "rating3_count", nullable = false)
+    private long rating3Count;
+    @Column(name = "rating4_count", nullable = false)
+    private long rating4Count;
+    @Column(name = "rating5_count", nullable = false)
+    private long rating5Count;
+}
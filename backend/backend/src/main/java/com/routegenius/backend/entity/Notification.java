@@ -13,7 +13,10 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "notifications")
+@Table(name = "notifications", indexes = {
+        // Parcel deletion and purges delete notifications by parcel; without this index that DELETE scans (and locks) the whole table
+        @Index(name = "idx_notifications_parcel_id", columnList = "parcel_id")
+})
 public class Notification {
 
     @Id
@@ -0,0 +1,42 @@
+package com.routegenius.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A watcher (e.g. merchant support staff) following the parcels a merchant sends. Which statuses reach watchers
+ * at all is decided by the notification rules (notification.rules); a subscription can narrow that to one status.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "notification_subscriptions", indexes = {
+        @Index(name = "idx_notification_subscriptions_merchant_id", columnList = "merchant_id"),
+        @Index(name = "idx_notification_subscriptions_user_id", columnList = "user_id")
+})
+public class NotificationSubscription {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long userId; // The watcher
+
+    @Column(nullable = false)
+    private Long merchantId; // The sender whose parcels are watched
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = true)
+    private ParcelStatus status; // Null for every status
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,91 @@
+package com.routegenius.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A side effect still to be carried out, written in the same transaction as the change that causes it.
+ * The relay (see OutboxRelay) claims pending rows, hands them to the handlers and sets processedAt.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "outbox_events", indexes = {
+        // The relay's claim query: pending rows that are due, oldest first
+        @Index(name = "idx_outbox_events_pending", columnList = "processed_at, available_at"),
+})
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private OutboxEventType eventType;
+
+    @Column(nullable = false)
+    private Long parcelId;
+
+    // State of the parcel after the change. No foreign key: the parcel may be deleted before the row is relayed
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = true)
+    private ParcelStatus status;
+    @Column(nullable = true)
+    private String location;
+    @Column(nullable = true)
+    private String city;
+    @Column(nullable = true)
+    private String country;
+
+    @Column(nullable = true)
+    private Long notificationId; // Set on NOTIFICATION_CREATED
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    // Earliest time the relay may (re)claim the row: creation, end of a claim's lease, or the next retry
+    @Column(nullable = false)
+    private LocalDateTime availableAt;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(nullable = true)
+    private LocalDateTime processedAt; // Null while pending
+
+    @Column(nullable = true, length = 1000)
+    private String lastError;
+
+    public static OutboxEvent parcelChanged(Parcel parcel, boolean statusChanged) {
+        return OutboxEvent.builder()
+                .eventType(statusChanged ? OutboxEventType.PARCEL_STATUS_CHANGED : OutboxEventType.PARCEL_LOCATION_CHANGED)
+                .parcelId(parcel.getId())
+                .status(parcel.getStatus())
+                .location(parcel.getCurrentLocation())
+                .city(parcel.getCurrentCity())
+                .country(parcel.getCurrentCountry())
+                .build();
+    }
+
+    public static OutboxEvent notificationCreated(Notification notification) {
+        return notificationCreated(notification.getId(), notification.getParcelId(), notification.getRelatedStatus());
+    }
+
+    // For notifications inserted without an entity, as the fan-out of a status change does
+    public static OutboxEvent notificationCreated(Long notificationId, Long parcelId, ParcelStatus status) {
+        return OutboxEvent.builder()
+                .eventType(OutboxEventType.NOTIFICATION_CREATED)
+                .parcelId(parcelId)
+                .status(status)
+                .notificationId(notificationId)
+                .build();
+    }
+}
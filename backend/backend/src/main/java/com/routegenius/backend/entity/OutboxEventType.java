@@ -0,0 +1,7 @@
+package com.routegenius.backend.entity;
+
+public enum OutboxEventType {
+    PARCEL_STATUS_CHANGED, // The parcel's status changed; its location may have changed as well
+    PARCEL_LOCATION_CHANGED, // Only the location changed
+    NOTIFICATION_CREATED // A notification was stored and its email still has to go out
+}
@@ -1,5 +1,6 @@
 package com.routegenius.backend.entity;
 
+import com.routegenius.backend.util.TrackingIdGenerator;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -7,14 +8,23 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
-import java.util.UUID;
 
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "parcels")
+@Table(name = "parcels", indexes = {
+        // Secondary indexes for the admin parcel search. InnoDB appends the primary key to every
+        // secondary index, so equality filters on these columns can also walk the keyset (id) order.
+        @Index(name = "idx_parcels_status_eta", columnList = "status, estimated_delivery_date"),
+        @Index(name = "idx_parcels_current_city", columnList = "current_city"),
+        @Index(name = "idx_parcels_current_country", columnList = "current_country"),
+        @Index(name = "idx_parcels_created_at", columnList = "created_at"),
+        @Index(name = "idx_parcels_last_updated_at", columnList = "last_updated_at"),
+        @Index(name = "idx_parcels_sender_id", columnList = "sender_id"),
+        @Index(name = "idx_parcels_recipient_id", columnList = "recipient_id")
+})
 public class Parcel {
 
     @Id
@@ -71,12 +81,24 @@ public class Parcel {
     @Column(nullable = false)
     private String currentCountry;
 
+    // Delivery coordinates of the recipient address; null until known. Used for route planning.
+    @Column(nullable = true)
+    private Double recipientLatitude;
+    @Column(nullable = true)
+    private Double recipientLongitude;
+
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
     @Column(nullable = false)
     private LocalDateTime lastUpdatedAt; // Matches 'last_updated_at' (Hibernate convention)
 
+    // Optimistic lock: every UPDATE checks and increments it, so concurrent writers cannot overwrite each other.
+    // The column default gives rows that existed before the column (and rows inserted with plain JDBC) version 0
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint not null default 0")
+    private Long version;
+
     // Note: The 'user_id' column in your DB CREATE TABLE is problematic.
     // It's likely from an old mapping where a parcel belonged to a single user.
     // With senderId and recipientId, it's redundant and causing FK issues.
@@ -91,7 +113,8 @@ public class Parcel {
             this.lastUpdatedAt = LocalDateTime.now();
         }
         if (this.trackingId == null || this.trackingId.isEmpty()) {
-            this.trackingId = UUID.randomUUID().toString().substring(0, 10).toUpperCase();
+            // Time-ordered, collision-free ID with a check character (see TrackingIdGenerator)
+            this.trackingId = TrackingIdGenerator.generateTrackingId();
         }
         if (this.status == null) {
             this.status = ParcelStatus.PENDING;
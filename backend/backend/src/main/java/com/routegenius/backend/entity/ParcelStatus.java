@@ -1,5 +1,8 @@
 package com.routegenius.backend.entity;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 public enum ParcelStatus {
     PENDING,
     DISPATCHED, // Added from DB schema
@@ -7,5 +10,8 @@ public enum ParcelStatus {
     DELIVERED,
     EXCEPTION, // Added from DB schema
     RETURNED,
-    CANCELLED
+    CANCELLED;
+
+    // Final states: parcels in these states no longer change and are eligible for archiving and purging
+    public static final Set<ParcelStatus> CLOSED_STATUSES = EnumSet.of(DELIVERED, RETURNED, CANCELLED);
 }
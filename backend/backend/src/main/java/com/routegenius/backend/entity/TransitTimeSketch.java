@@ -0,0 +1,50 @@
+package com.routegenius.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Distribution of the time between two consecutive tracking events of a parcel, per city pair and status transition.
+// The sketch is a serialized QuantileSketch over seconds; nodes merge their new samples into it, so it is never rebuilt from history.
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "transit_time_sketches", uniqueConstraints = @UniqueConstraint(
+        name = "uk_transit_time_sketches_transition", columnNames = {"from_city", "from_status", "to_city", "to_status"}))
+public class TransitTimeSketch {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Cities are stored as "" when an event has none; lengths keep the unique key within InnoDB's index limit
+    @Column(name = "from_city", nullable = false, length = 100)
+    private String fromCity;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "from_status", nullable = false, length = 20)
+    private ParcelStatus fromStatus;
+
+    @Column(name = "to_city", nullable = false, length = 100)
+    private String toCity;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "to_status", nullable = false, length = 20)
+    private ParcelStatus toStatus;
+
+    @Column(name = "sample_count", nullable = false)
+    private long sampleCount;
+
+    @Lob
+    @Column(name = "sketch", columnDefinition = "MEDIUMBLOB")
+    private byte[] sketch; // Null until the first samples are merged
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,13 @@
+package com.routegenius.backend.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+// A downstream (database, Gemini, SMTP) is at its concurrency limit and the caller could not wait for a slot
+@ResponseStatus(value = HttpStatus.SERVICE_UNAVAILABLE)
+public class BulkheadFullException extends RuntimeException {
+
+    public BulkheadFullException(String message) {
+        super(message);
+    }
+}
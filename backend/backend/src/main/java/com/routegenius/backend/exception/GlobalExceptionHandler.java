@@ -1,5 +1,7 @@
 package com.routegenius.backend.exception;
 
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -34,6 +36,26 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorDetails, HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler(BulkheadFullException.class)
+    public ResponseEntity<ErrorDetails> handleBulkheadFullException(BulkheadFullException ex, WebRequest request) {
+        ErrorDetails errorDetails = new ErrorDetails(
+                LocalDateTime.now(),
+                ex.getMessage(),
+                request.getDescription(false)
+        );
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").body(errorDetails);
+    }
+
+    @ExceptionHandler(UpdateConflictException.class)
+    public ResponseEntity<ErrorDetails> handleUpdateConflictException(UpdateConflictException ex, WebRequest request) {
+        ErrorDetails errorDetails = new ErrorDetails(
+                LocalDateTime.now(),
+                ex.getMessage(),
+                request.getDescription(false)
+        );
+        return new ResponseEntity<>(errorDetails, HttpStatus.CONFLICT);
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<Object> handleMethodArgumentNotValid(MethodArgumentNotValidException ex, WebRequest request) {
         Map<String, String> errors = new HashMap<>();
@@ -51,6 +73,11 @@ public class GlobalExceptionHandler {
 
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorDetails> handleGlobalException(Exception ex, WebRequest request) {
+        // The database bulkhead rejects inside getConnection(), so its exception arrives wrapped by JPA or Spring
+        BulkheadFullException bulkheadFull = ExceptionUtils.throwableOfType(ex, BulkheadFullException.class);
+        if (bulkheadFull != null) {
+            return handleBulkheadFullException(bulkheadFull, request);
+        }
         ErrorDetails errorDetails = new ErrorDetails(
                 LocalDateTime.now(),
                 "An unexpected error occurred: " + ex.getMessage(),
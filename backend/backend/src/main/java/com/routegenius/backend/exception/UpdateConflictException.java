@@ -0,0 +1,13 @@
+package com.routegenius.backend.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+// Other writers kept changing the same row and the update could not be applied within its retries
+@ResponseStatus(value = HttpStatus.CONFLICT)
+public class UpdateConflictException extends RuntimeException {
+
+    public UpdateConflictException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
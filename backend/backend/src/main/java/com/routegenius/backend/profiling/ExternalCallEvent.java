@@ -0,0 +1,22 @@
+package com.routegenius.backend.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.routegenius.ExternalCall")
+@Label("External Call")
+@Category({"RouteGenius"})
+@Description("A call to Gemini or the SMTP server")
+@StackTrace(false)
+public class ExternalCallEvent extends Event {
+
+    @Label("Target")
+    public String target;
+
+    @Label("Outcome")
+    public String outcome;
+}
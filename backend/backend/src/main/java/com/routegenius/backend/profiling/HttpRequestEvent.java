@@ -0,0 +1,25 @@
+package com.routegenius.backend.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.routegenius.HttpRequest")
+@Label("HTTP Request")
+@Category({"RouteGenius"})
+@Description("One HTTP request, from the first servlet filter until the response is written")
+@StackTrace(false)
+public class HttpRequestEvent extends Event {
+
+    @Label("Method")
+    public String method;
+
+    @Label("Path")
+    public String path;
+
+    @Label("Status")
+    public int status;
+}
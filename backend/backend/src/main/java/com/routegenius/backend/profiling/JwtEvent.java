@@ -0,0 +1,19 @@
+package com.routegenius.backend.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.routegenius.Jwt")
+@Label("JWT Operation")
+@Category({"RouteGenius"})
+@Description("Signing or parsing a JSON web token")
+@StackTrace(false)
+public class JwtEvent extends Event {
+
+    @Label("Operation")
+    public String operation;
+}
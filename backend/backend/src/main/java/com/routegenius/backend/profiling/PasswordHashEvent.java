@@ -0,0 +1,19 @@
+package com.routegenius.backend.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.routegenius.PasswordHash")
+@Label("Password Hash")
+@Category({"RouteGenius"})
+@Description("Hashing or checking a password with the configured encoder")
+@StackTrace(false)
+public class PasswordHashEvent extends Event {
+
+    @Label("Operation")
+    public String operation;
+}
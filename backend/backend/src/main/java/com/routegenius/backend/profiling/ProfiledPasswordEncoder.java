@@ -0,0 +1,55 @@
+package com.routegenius.backend.profiling;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Reports the time spent in the wrapped encoder as "bcrypt" spans and PasswordHash JFR events. At strength 10 a
+ * single check takes around 100 ms, which is easy to mistake for a slow database from the outside.
+ */
+public class ProfiledPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+
+    public ProfiledPasswordEncoder(PasswordEncoder delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        PasswordHashEvent event = new PasswordHashEvent();
+        event.begin();
+        long span = RequestProfile.enter();
+        try {
+            return delegate.encode(rawPassword);
+        } finally {
+            RequestProfile.exit("bcrypt", "PasswordEncoder", "encode", span);
+            commit(event, "encode");
+        }
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        PasswordHashEvent event = new PasswordHashEvent();
+        event.begin();
+        long span = RequestProfile.enter();
+        try {
+            return delegate.matches(rawPassword, encodedPassword);
+        } finally {
+            RequestProfile.exit("bcrypt", "PasswordEncoder", "matches", span);
+            commit(event, "matches");
+        }
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    private static void commit(PasswordHashEvent event, String operation) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = operation;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.routegenius.backend.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.routegenius.RepositoryCall")
+@Label("Repository Call")
+@Category({"RouteGenius"})
+@Description("A Spring Data repository method call, i.e. one or more database round trips")
+@StackTrace(false)
+public class RepositoryCallEvent extends Event {
+
+    @Label("Repository")
+    public String repository;
+
+    @Label("Method")
+    public String method;
+}
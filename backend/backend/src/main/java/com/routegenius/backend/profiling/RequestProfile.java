@@ -0,0 +1,158 @@
+package com.routegenius.backend.profiling;
+
+import java.util.Arrays;
+
+/**
+ * Span breakdown of the request running on the current thread, for the slow-request sampler.
+ *
+ * The outermost servlet filter calls {@link #begin()} and {@link #end()}; instrumented code in between wraps
+ * its work in {@link #enter()} and {@link #exit}. A span costs two clock reads and a few array writes, and
+ * outside a request (schedulers, @Async mail) {@link #enter()} returns 0 and {@link #exit} does nothing.
+ * Spans are recorded in the order they end, so children come before their parents. Beyond
+ * {@value #MAX_SPANS} spans per request only the count of dropped spans is kept.
+ *
+ * Work handed to other threads (ForkJoin pools, @Async) is not attributed to the request.
+ */
+public final class RequestProfile {
+
+    public static final int MAX_SPANS = 256;
+    private static final ThreadLocal<RequestProfile> CURRENT = ThreadLocal.withInitial(RequestProfile::new);
+
+    private String[] kinds = new String[16];
+    private String[] owners = new String[16];
+    private String[] operations = new String[16];
+    private long[] starts = new long[16];
+    private long[] durations = new long[16];
+    private int[] depths = new int[16];
+    private int count;
+    private int dropped;
+    private int depth;
+    private boolean active;
+    private long startNanos;
+    private long endNanos;
+
+    private RequestProfile() {
+    }
+
+    /**
+     * Starts a new profile on this thread. The returned object is reused by the thread's next request, so
+     * read it before then.
+     */
+    public static RequestProfile begin() {
+        RequestProfile profile = CURRENT.get();
+        profile.count = 0;
+        profile.dropped = 0;
+        profile.depth = 0;
+        profile.active = true;
+        profile.startNanos = System.nanoTime();
+        return profile;
+    }
+
+    /**
+     * Stops collecting spans on this thread.
+     */
+    public static void end() {
+        RequestProfile profile = CURRENT.get();
+        profile.active = false;
+        profile.endNanos = System.nanoTime();
+    }
+
+    /**
+     * Opens a span.
+     *
+     * @return The token to pass to {@link #exit}, 0 when no request is being profiled.
+     */
+    public static long enter() {
+        RequestProfile profile = CURRENT.get();
+        if (!profile.active) {
+            return 0;
+        }
+        profile.depth++;
+        return System.nanoTime();
+    }
+
+    /**
+     * Closes the span opened by {@link #enter()}.
+     *
+     * @param kind Where the time went, e.g. "db" or "gemini".
+     * @param owner The class or system doing the work.
+     * @param operation The method or call.
+     * @param token The value {@link #enter()} returned.
+     */
+    public static void exit(String kind, String owner, String operation, long token) {
+        if (token == 0) {
+            return;
+        }
+        RequestProfile profile = CURRENT.get();
+        if (!profile.active) {
+            return;
+        }
+        profile.depth--;
+        profile.add(kind, owner, operation, token, System.nanoTime() - token);
+    }
+
+    private void add(String kind, String owner, String operation, long start, long duration) {
+        if (count == kinds.length) {
+            if (count == MAX_SPANS) {
+                dropped++;
+                return;
+            }
+            int capacity = Math.min(MAX_SPANS, count * 2);
+            kinds = Arrays.copyOf(kinds, capacity);
+            owners = Arrays.copyOf(owners, capacity);
+            operations = Arrays.copyOf(operations, capacity);
+            starts = Arrays.copyOf(starts, capacity);
+            durations = Arrays.copyOf(durations, capacity);
+            depths = Arrays.copyOf(depths, capacity);
+        }
+        kinds[count] = kind;
+        owners[count] = owner;
+        operations[count] = operation;
+        starts[count] = start;
+        durations[count] = duration;
+        depths[count] = depth;
+        count++;
+    }
+
+    public long getStartNanos() {
+        return startNanos;
+    }
+
+    public long getDurationNanos() {
+        return (active ? System.nanoTime() : endNanos) - startNanos;
+    }
+
+    public int getSpanCount() {
+        return count;
+    }
+
+    public int getDroppedSpans() {
+        return dropped;
+    }
+
+    public String kind(int span) {
+        return kinds[span];
+    }
+
+    public String owner(int span) {
+        return owners[span];
+    }
+
+    public String operation(int span) {
+        return operations[span];
+    }
+
+    // Nanoseconds after the start of the request
+    public long offsetNanos(int span) {
+        return starts[span] - startNanos;
+    }
+
+    public long durationNanos(int span) {
+        return durations[span];
+    }
+
+    // 0 for spans opened directly by the request, 1 for spans inside those, and so on
+    public int depth(int span) {
+        return depths[span];
+    }
+}
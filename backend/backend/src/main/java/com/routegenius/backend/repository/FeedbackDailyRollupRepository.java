@@ -0,0 +1,55 @@
+package com.routegenius.backend.repository;
+
+import com.routegenius.backend.entity.FeedbackDailyRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface FeedbackDailyRollupRepository extends JpaRepository<FeedbackDailyRollup, LocalDate> {
+
+    List<FeedbackDailyRollup> findByRollupDateBetweenOrderByRollupDateAsc(LocalDate from, LocalDate to);
+
+    // Atomic upsert: adds (or, with delta = -1, removes) one rating on the given day without a read-modify-write race.
+    // Each ratingN parameter is 'delta' when the rating equals N and 0 otherwise.
+    @Modifying
+    @Query(value = "INSERT INTO feedback_daily_rollups (rollup_date, feedback_count, rating_sum, rating1_count, rating2_count, rating3_count, rating4_count, rating5_count) " +
+            "VALUES (:day, :delta, :ratingSum, :rating1, :rating2, :rating3, :rating4, :rating5) " +
+            "ON DUPLICATE KEY UPDATE feedback_count = feedback_count + VALUES(feedback_count), rating_sum = rating_sum + VALUES(rating_sum), " +
+            "rating1_count = rating1_count + VALUES(rating1_count), rating2_count = rating2_count + VALUES(rating2_count), " +
+            "rating3_count = rating3_count + VALUES(rating3_count), rating4_count = rating4_count + VALUES(rating4_count), " +
+            "rating5_count = rating5_count + VALUES(rating5_count)", nativeQuery = true)
+    void addRating(@Param("day") LocalDate day, @Param("delta") int delta, @Param("ratingSum") int ratingSum,
+                   @Param("rating1") int rating1, @Param("rating2") int rating2, @Param("rating3") int rating3,
+                   @Param("rating4") int rating4, @Param("rating5") int rating5);
+
+    // Backfill from the feedback table, used when the rollups are empty (e.g. right after this table was introduced).
+    // Days that already have a row (another node backfilling, or feedback submitted meanwhile) are overwritten with
+    // the recomputed totals rather than added to, so running it twice or concurrently is harmless.
+    @Modifying
+    @Query(value = "INSERT INTO feedback_daily_rollups (rollup_date, feedback_count, rating_sum, rating1_count, rating2_count, rating3_count, rating4_count, rating5_count) " +
+            "SELECT DATE(f.timestamp), COUNT(*), SUM(f.rating), SUM(f.rating = 1), SUM(f.rating = 2), SUM(f.rating = 3), SUM(f.rating = 4), SUM(f.rating = 5) " +
+            "FROM feedback f GROUP BY DATE(f.timestamp) " +
+            "ON DUPLICATE KEY UPDATE feedback_count = VALUES(feedback_count), rating_sum = VALUES(rating_sum), " +
+            "rating1_count = VALUES(rating1_count), rating2_count = VALUES(rating2_count), rating3_count = VALUES(rating3_count), " +
+            "rating4_count = VALUES(rating4_count), rating5_count = VALUES(rating5_count)", nativeQuery = true)
+    int backfillFromFeedback();
+
+    // Removes the ratings of all feedback on the given parcels from their days' rollups in one statement.
+    // Must run before that feedback is deleted.
+    @Modifying
+    @Query(value = "UPDATE feedback_daily_rollups r JOIN (" +
+            "SELECT DATE(f.timestamp) AS day, COUNT(*) AS cnt, SUM(f.rating) AS rating_sum, SUM(f.rating = 1) AS r1, SUM(f.rating = 2) AS r2, " +
+            "SUM(f.rating = 3) AS r3, SUM(f.rating = 4) AS r4, SUM(f.rating = 5) AS r5 " +
+            "FROM feedback f WHERE f.parcel_id IN (:parcelIds) GROUP BY DATE(f.timestamp)) d ON r.rollup_date = d.day " +
+            "SET r.feedback_count = r.feedback_count - d.cnt, r.rating_sum = r.rating_sum - d.rating_sum, " +
+            "r.rating1_count = r.rating1_count - d.r1, r.rating2_count = r.rating2_count - d.r2, r.rating3_count = r.rating3_count - d.r3, " +
+            "r.rating4_count = r.rating4_count - d.r4, r.rating5_count = r.rating5_count - d.r5", nativeQuery = true)
+    int subtractFeedbackOfParcels(@Param("parcelIds") Collection<Long> parcelIds);
+}
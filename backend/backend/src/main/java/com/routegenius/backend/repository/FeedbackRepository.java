@@ -1,20 +1,42 @@
 package com.routegenius.backend.repository;
 
+import com.routegenius.backend.dto.FeedbackResponse;
 import com.routegenius.backend.entity.Feedback;
-import com.routegenius.backend.entity.Parcel; // Import Parcel entity
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional; // Import Optional for methods that might not find a result
 
 @Repository // Marks this interface as a Spring Data JPA repository
 public interface FeedbackRepository extends JpaRepository<Feedback, Long> {
 
-    // Custom method to find feedback by a specific parcel.
-    // This is useful to check if a parcel already has feedback submitted.
-    Optional<Feedback> findByParcel(Parcel parcel);
+    // Checks by foreign key whether a parcel already has feedback, without loading the Parcel entity
+    boolean existsByParcelId(Long parcelId);
 
-    // You can add more custom query methods here if needed later, e.g.:
-    // List<Feedback> findByUser(User user);
-    // List<Feedback> findByRatingGreaterThan(Integer rating);
+    // Projections straight into the response DTO: feedback, parcel and user columns come back in one
+    // joined query instead of one lazy load per feedback row for its User and its Parcel.
+    @Query(value = "SELECT new com.routegenius.backend.dto.FeedbackResponse(f.id, p.id, p.trackingId, u.id, u.email, u.firstName, f.rating, f.comment, f.timestamp) " +
+            "FROM Feedback f JOIN f.parcel p JOIN f.user u",
+            countQuery = "SELECT COUNT(f) FROM Feedback f")
+    Page<FeedbackResponse> findAllResponses(Pageable pageable);
+
+    @Query("SELECT new com.routegenius.backend.dto.FeedbackResponse(f.id, p.id, p.trackingId, u.id, u.email, u.firstName, f.rating, f.comment, f.timestamp) " +
+            "FROM Feedback f JOIN f.parcel p JOIN f.user u WHERE p.id = :parcelId")
+    Optional<FeedbackResponse> findResponseByParcelId(@Param("parcelId") Long parcelId);
+
+    // Feedback of a batch of parcels in one query, for the archive; parcel and user stay unloaded
+    @Query("SELECT f FROM Feedback f WHERE f.parcel.id IN :parcelIds ORDER BY f.parcel.id, f.id")
+    List<Feedback> findByParcelIds(@Param("parcelIds") Collection<Long> parcelIds);
+
+    // Set-based delete for parcel deletion and purges; take the ratings out of the daily rollups first
+    @Modifying
+    @Query("DELETE FROM Feedback f WHERE f.parcel.id IN :parcelIds")
+    int deleteByParcelIds(@Param("parcelIds") Collection<Long> parcelIds);
 }
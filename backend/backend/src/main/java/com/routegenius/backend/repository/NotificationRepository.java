@@ -2,8 +2,12 @@ package com.routegenius.backend.repository;
 
 import com.routegenius.backend.entity.Notification;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,4 +16,8 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
     List<Notification> findByUserIdOrderByTimestampDesc(Long userId);
     List<Notification> findByUserIdAndIsReadFalseOrderByTimestampDesc(Long userId);
     Optional<Notification> findByIdAndUserId(Long notificationId, Long userId);
+
+    @Modifying
+    @Query("DELETE FROM Notification n WHERE n.parcelId IN :parcelIds")
+    int deleteByParcelIds(@Param("parcelIds") Collection<Long> parcelIds);
 }
\ No newline at end of file
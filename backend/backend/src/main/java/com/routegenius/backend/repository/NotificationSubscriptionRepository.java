@@ -0,0 +1,26 @@
+package com.routegenius.backend.repository;
+
+import com.routegenius.backend.entity.NotificationSubscription;
+import com.routegenius.backend.entity.ParcelStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface NotificationSubscriptionRepository extends JpaRepository<NotificationSubscription, Long> {
+    List<NotificationSubscription> findByMerchantIdOrderByIdAsc(Long merchantId);
+    boolean existsByUserIdAndMerchantIdAndStatus(Long userId, Long merchantId, ParcelStatus status);
+    boolean existsByUserIdAndMerchantIdAndStatusIsNull(Long userId, Long merchantId);
+
+    // Only the columns the rule index needs: id, watcher, merchant, status
+    @Query("SELECT s.id, s.userId, s.merchantId, s.status FROM NotificationSubscription s")
+    List<Object[]> findAllRows();
+
+    @Modifying
+    @Query("DELETE FROM NotificationSubscription s WHERE s.userId = :userId OR s.merchantId = :userId")
+    int deleteByUserOrMerchant(@Param("userId") Long userId);
+}
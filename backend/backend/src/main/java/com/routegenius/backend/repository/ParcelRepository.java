@@ -1,14 +1,71 @@
 package com.routegenius.backend.repository;
 
 import com.routegenius.backend.entity.Parcel;
+import com.routegenius.backend.entity.ParcelStatus;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface ParcelRepository extends JpaRepository<Parcel, Long> {
+public interface ParcelRepository extends JpaRepository<Parcel, Long>, ParcelSearchRepository {
     Optional<Parcel> findByTrackingId(String trackingId);
+    // Bulk resolution of scanned tracking IDs, one query per ingest flush
+    List<Parcel> findByTrackingIdIn(Collection<String> trackingIds);
     List<Parcel> findBySenderIdOrRecipientId(Long senderId, Long recipientId);
+
+    // Undelivered parcels for route planning, for all cities or a selection
+    List<Parcel> findByStatusIn(Collection<ParcelStatus> statuses);
+    List<Parcel> findByStatusInAndCurrentCityIn(Collection<ParcelStatus> statuses, Collection<String> cities);
+
+    // Keyset batch of (id, trackingId) pairs, used to build and catch up the tracking ID Bloom filter
+    @Query("SELECT p.id, p.trackingId FROM Parcel p WHERE p.id > :lastId ORDER BY p.id")
+    List<Object[]> findTrackingIdsAfter(@Param("lastId") Long lastId, Pageable pageable);
+
+    // The same for parcels created since the given time, which is what a catch-up re-reads
+    @Query("SELECT p.id, p.trackingId FROM Parcel p WHERE p.createdAt >= :since AND p.id > :lastId ORDER BY p.id")
+    List<Object[]> findTrackingIdsCreatedSince(@Param("since") LocalDateTime since, @Param("lastId") Long lastId, Pageable pageable);
+
+    // Next chunk of purge candidates. A plain read: a locking read here would lock every index entry it scans.
+    @Query("SELECT p.id FROM Parcel p WHERE p.status IN :statuses AND p.lastUpdatedAt < :cutoff AND p.id > :afterId ORDER BY p.id")
+    List<Long> findPurgeCandidateIds(@Param("statuses") Collection<ParcelStatus> statuses, @Param("cutoff") LocalDateTime cutoff,
+                                     @Param("afterId") Long afterId, Pageable pageable);
+
+    // Locks the candidates by primary key and re-checks them, so a parcel reopened in the meantime is skipped
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Parcel p WHERE p.id = :id")
+    Optional<Parcel> lockById(@Param("id") Long id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Parcel p WHERE p.id IN :ids AND p.status IN :statuses AND p.lastUpdatedAt < :cutoff")
+    List<Parcel> lockPurgeCandidates(@Param("ids") Collection<Long> ids, @Param("statuses") Collection<ParcelStatus> statuses,
+                                     @Param("cutoff") LocalDateTime cutoff);
+
+    @Modifying
+    @Query("DELETE FROM Parcel p WHERE p.id IN :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+
+    // Aggregates used to reconcile the in-memory dashboard counters
+    @Query("SELECT p.status, COUNT(p) FROM Parcel p GROUP BY p.status")
+    List<Object[]> countByStatus();
+
+    @Query("SELECT p.currentCity, COUNT(p) FROM Parcel p GROUP BY p.currentCity")
+    List<Object[]> countByCurrentCity();
+
+    @Query("SELECT p.currentCountry, COUNT(p) FROM Parcel p GROUP BY p.currentCountry")
+    List<Object[]> countByCurrentCountry();
+
+    // Negative durations (delivery date entered before creation) count as 0, as in ParcelStatsService.Contribution
+    @Query(value = "SELECT COUNT(*), COALESCE(SUM(GREATEST(TIMESTAMPDIFF(SECOND, created_at, actual_delivery_date), 0)), 0) " +
+            "FROM parcels WHERE status = 'DELIVERED' AND actual_delivery_date IS NOT NULL", nativeQuery = true)
+    List<Object[]> sumDeliveryTimes();
 }
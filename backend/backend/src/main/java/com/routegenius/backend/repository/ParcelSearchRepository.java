@@ -0,0 +1,20 @@
+package com.routegenius.backend.repository;
+
+import com.routegenius.backend.dto.ParcelSearchRequest;
+import com.routegenius.backend.entity.Parcel;
+
+import java.util.List;
+
+/**
+ * Custom repository fragment for the multi-criteria admin parcel search.
+ */
+public interface ParcelSearchRepository {
+
+    /**
+     * Finds parcels matching the given filters, newest first (by ID), starting after the request's cursor.
+     * @param criteria The search filters.
+     * @param limit Maximum number of parcels to return.
+     * @return The matching parcels ordered by ID descending.
+     */
+    List<Parcel> search(ParcelSearchRequest criteria, int limit);
+}
@@ -0,0 +1,90 @@
+package com.routegenius.backend.repository;
+
+import com.routegenius.backend.dto.ParcelSearchRequest;
+import com.routegenius.backend.entity.Parcel;
+import com.routegenius.backend.entity.ParcelStatus;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.util.StringUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Builds the admin parcel search as a single Criteria query. Only the given filters become predicates,
+ * each one written so it can use an index on the 'parcels' table (equality, IN, ranges and a
+ * left-anchored LIKE for the tracking ID prefix). Paging uses a keyset on the primary key instead of
+ * OFFSET, so deep pages cost the same as the first one.
+ */
+public class ParcelSearchRepositoryImpl implements ParcelSearchRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Parcel> search(ParcelSearchRequest criteria, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Parcel> query = cb.createQuery(Parcel.class);
+        Root<Parcel> parcel = query.from(Parcel.class);
+        List<Predicate> predicates = new ArrayList<>();
+
+        if (criteria.getStatuses() != null && !criteria.getStatuses().isEmpty()) {
+            predicates.add(parcel.get("status").in(criteria.getStatuses()));
+        }
+        if (StringUtils.hasText(criteria.getCurrentCity())) {
+            predicates.add(cb.equal(parcel.get("currentCity"), criteria.getCurrentCity().trim()));
+        }
+        if (StringUtils.hasText(criteria.getCurrentCountry())) {
+            predicates.add(cb.equal(parcel.get("currentCountry"), criteria.getCurrentCountry().trim()));
+        }
+        if (criteria.getCreatedFrom() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(parcel.<LocalDateTime>get("createdAt"), criteria.getCreatedFrom()));
+        }
+        if (criteria.getCreatedTo() != null) {
+            predicates.add(cb.lessThan(parcel.<LocalDateTime>get("createdAt"), criteria.getCreatedTo()));
+        }
+        if (criteria.getUpdatedFrom() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(parcel.<LocalDateTime>get("lastUpdatedAt"), criteria.getUpdatedFrom()));
+        }
+        if (criteria.getUpdatedTo() != null) {
+            predicates.add(cb.lessThan(parcel.<LocalDateTime>get("lastUpdatedAt"), criteria.getUpdatedTo()));
+        }
+        if (Boolean.TRUE.equals(criteria.getOverdue())) {
+            predicates.add(cb.lessThan(parcel.<LocalDateTime>get("estimatedDeliveryDate"), LocalDateTime.now()));
+            // A closed parcel can no longer be overdue
+            predicates.add(cb.not(parcel.get("status").in(ParcelStatus.CLOSED_STATUSES)));
+        }
+        if (StringUtils.hasText(criteria.getTrackingIdPrefix())) {
+            // Tracking IDs are stored upper-case; a left-anchored LIKE is a range scan on the unique index
+            String prefix = escapeLike(criteria.getTrackingIdPrefix().trim().toUpperCase(Locale.ROOT));
+            predicates.add(cb.like(parcel.<String>get("trackingId"), prefix + "%", '\\'));
+        }
+        if (criteria.getSenderId() != null) {
+            predicates.add(cb.equal(parcel.get("senderId"), criteria.getSenderId()));
+        }
+        if (criteria.getRecipientId() != null) {
+            predicates.add(cb.equal(parcel.get("recipientId"), criteria.getRecipientId()));
+        }
+        if (criteria.getCursor() != null) {
+            predicates.add(cb.lessThan(parcel.<Long>get("id"), criteria.getCursor()));
+        }
+
+        query.select(parcel)
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(cb.desc(parcel.get("id")));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -3,13 +3,48 @@ package com.routegenius.backend.repository;
 import com.routegenius.backend.entity.Parcel;
 import com.routegenius.backend.entity.TrackingEvent;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface TrackingEventRepository extends JpaRepository<TrackingEvent, Long> {
     // Find all tracking events for a given parcel, ordered by timestamp
     List<TrackingEvent> findByParcelOrderByTimestampAsc(Parcel parcel);
+
+    // Events of a batch of parcels in one query, grouped by parcel and in time order
+    @Query("SELECT e FROM TrackingEvent e WHERE e.parcel.id IN :parcelIds ORDER BY e.parcel.id, e.timestamp")
+    List<TrackingEvent> findByParcelIds(@Param("parcelIds") Collection<Long> parcelIds);
+
+    // Latest event of a parcel; the previous state when the next event is recorded
+    Optional<TrackingEvent> findFirstByParcelOrderByTimestampDescIdDesc(Parcel parcel);
+
+    // Parcel id, city, status and time of the latest event of each parcel in a batch; ties on time return both
+    @Query("SELECT e.parcel.id, e.city, e.status, e.timestamp FROM TrackingEvent e WHERE e.parcel.id IN :parcelIds " +
+            "AND e.timestamp = (SELECT MAX(l.timestamp) FROM TrackingEvent l WHERE l.parcel.id = e.parcel.id)")
+    List<Object[]> findLatestRowsByParcelIds(@Param("parcelIds") Collection<Long> parcelIds);
+
+    // Parcel id, city, status and time of the events of a batch of parcels at the given times; late scans that are
+    // already in the history (a resent batch) are found with this
+    @Query("SELECT e.parcel.id, e.city, e.status, e.timestamp FROM TrackingEvent e WHERE e.parcel.id IN :parcelIds " +
+            "AND e.timestamp IN :timestamps")
+    List<Object[]> findRowsByParcelIdsAndTimestamps(@Param("parcelIds") Collection<Long> parcelIds,
+                                                    @Param("timestamps") Collection<LocalDateTime> timestamps);
+
+    // City, status and time of the events of a batch of parcels, without loading entities (transit time backfill)
+    @Query("SELECT e.parcel.id, e.city, e.status, e.timestamp FROM TrackingEvent e WHERE e.parcel.id IN :parcelIds " +
+            "ORDER BY e.parcel.id, e.timestamp, e.id")
+    List<Object[]> findTransitRowsByParcelIds(@Param("parcelIds") Collection<Long> parcelIds);
+
+    // Set-based delete by foreign key, without loading the events first
+    @Modifying
+    @Query("DELETE FROM TrackingEvent e WHERE e.parcel.id IN :parcelIds")
+    int deleteByParcelIds(@Param("parcelIds") Collection<Long> parcelIds);
 }
     
\ No newline at end of file
@@ -0,0 +1,35 @@
+package com.routegenius.backend.repository;
+
+import com.routegenius.backend.entity.ParcelStatus;
+import com.routegenius.backend.entity.TransitTimeSketch;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface TransitTimeSketchRepository extends JpaRepository<TransitTimeSketch, Long> {
+
+    // Creates the (empty) row of a transition if no node has yet, so that it can then be locked and merged into
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO transit_time_sketches (from_city, from_status, to_city, to_status, sample_count) " +
+            "VALUES (:fromCity, :fromStatus, :toCity, :toStatus, 0)", nativeQuery = true)
+    int insertIfAbsent(@Param("fromCity") String fromCity, @Param("fromStatus") String fromStatus,
+                       @Param("toCity") String toCity, @Param("toStatus") String toStatus);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM TransitTimeSketch s WHERE s.fromCity = :fromCity AND s.fromStatus = :fromStatus " +
+            "AND s.toCity = :toCity AND s.toStatus = :toStatus")
+    Optional<TransitTimeSketch> findForUpdate(@Param("fromCity") String fromCity, @Param("fromStatus") ParcelStatus fromStatus,
+                                              @Param("toCity") String toCity, @Param("toStatus") ParcelStatus toStatus);
+
+    // Rows merged into since the given time, for incremental reloads
+    List<TransitTimeSketch> findByUpdatedAtAfter(LocalDateTime since);
+}
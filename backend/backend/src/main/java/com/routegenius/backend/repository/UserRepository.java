@@ -1,6 +1,8 @@
 package com.routegenius.backend.repository;
 
 import com.routegenius.backend.entity.User;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -10,5 +12,9 @@ import java.util.Optional;
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
-    List<User> findByFirstNameContainingIgnoreCaseOrEmailContainingIgnoreCase(String firstName, String email);
-}
\ No newline at end of file
+    // Keyset batch used to (re)build the in-memory user search index without loading the whole table at once
+    List<User> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+    // Fallback for user search while the index is not built yet
+    Page<User> findByFirstNameContainingIgnoreCaseOrLastNameContainingIgnoreCaseOrEmailContainingIgnoreCase(
+            String firstName, String lastName, String email, Pageable pageable);
+}
@@ -4,8 +4,7 @@ import com.routegenius.backend.dto.JwtAuthResponse;
 import com.routegenius.backend.dto.LoginRequest;
 import com.routegenius.backend.dto.RegisterRequest;
 import com.routegenius.backend.entity.User;
-
-import java.util.List;
+import org.springframework.data.domain.Page;
 
 public interface AuthService {
     JwtAuthResponse register(RegisterRequest request);
@@ -14,8 +13,8 @@ public interface AuthService {
     // New method for admin to create users without immediately returning a JWT
     User createUser(RegisterRequest request);
 
-    // Updated to accept an optional search term
-    List<User> getAllUsers(String searchTerm);
+    // Optional search term, ranked and paged through the in-memory user search index
+    Page<User> getAllUsers(String searchTerm, int page, int size);
 
     // New method to find a user by their email
     User findUserByEmail(String email);
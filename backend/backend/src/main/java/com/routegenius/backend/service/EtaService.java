@@ -0,0 +1,28 @@
+package com.routegenius.backend.service;
+
+import com.routegenius.backend.dto.EtaResponse;
+import com.routegenius.backend.entity.ParcelStatus;
+import com.routegenius.backend.entity.TrackingEvent;
+
+import java.time.LocalDateTime;
+
+public interface EtaService {
+
+    /**
+     * Adds the time between two consecutive tracking events of a parcel to the distribution of its city pair
+     * and status transition. O(1); takes effect when the surrounding transaction commits.
+     * @param previous The parcel's latest event before {@code next}.
+     * @param next The event just created.
+     */
+    void recordTransition(TrackingEvent previous, TrackingEvent next);
+
+    /**
+     * Estimates when a parcel in the given state will be delivered, by following the most common transitions
+     * from that state to DELIVERED and adding up their transit time quantiles.
+     * @param city The parcel's current city.
+     * @param status The parcel's current status.
+     * @param lastEventAt When the parcel entered this state; time already spent in it is deducted.
+     * @return P50 and P90 delivery times, or a response with {@code available = false} if there is not enough history.
+     */
+    EtaResponse estimate(String city, ParcelStatus status, LocalDateTime lastEventAt);
+}
@@ -2,7 +2,10 @@ package com.routegenius.backend.service;
 
 import com.routegenius.backend.dto.FeedbackRequest;
 import com.routegenius.backend.dto.FeedbackResponse;
+import com.routegenius.backend.dto.FeedbackRollupResponse;
+import org.springframework.data.domain.Page;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional; // Import Optional for methods that might return null
 
@@ -24,10 +27,28 @@ public interface FeedbackService {
     Optional<FeedbackResponse> getFeedbackByParcelId(Long parcelId);
 
     /**
-     * Retrieves all feedback entries. (Typically for Admin use).
-     * @return A list of FeedbackResponse DTOs.
+     * Retrieves one page of feedback entries, newest first. (Typically for Admin use).
+     * @param page Zero-based page number.
+     * @param size Page size.
+     * @return A page of FeedbackResponse DTOs.
      */
-    List<FeedbackResponse> getAllFeedback();
+    Page<FeedbackResponse> getAllFeedback(int page, int size);
+
+    /**
+     * Retrieves the per-day rating rollups (count, average and 1-5 histogram) for a date range.
+     * @param from First day (inclusive).
+     * @param to Last day (inclusive).
+     * @return One entry per day that has feedback, in date order.
+     */
+    List<FeedbackRollupResponse> getDailyRatingRollups(LocalDate from, LocalDate to);
+
+    /**
+     * Aggregates the daily rollups of a date range into a single rating summary.
+     * @param from First day (inclusive).
+     * @param to Last day (inclusive).
+     * @return The total count, average rating and histogram for the range.
+     */
+    FeedbackRollupResponse getRatingSummary(LocalDate from, LocalDate to);
 
     /**
      * Deletes a feedback entry by its ID. (Typically for Admin use).
@@ -0,0 +1,27 @@
+package com.routegenius.backend.service;
+
+import com.routegenius.backend.dto.GeocoderStatsResponse;
+import com.routegenius.backend.util.Gazetteer;
+
+import java.util.Optional;
+
+public interface GeocodingService {
+
+    /**
+     * Geocodes a free-text address against the local gazetteer. Results, including misses, are cached.
+     * @param address The address as entered.
+     * @return Coordinates and match precision, or empty if the address could not be located or no gazetteer is loaded.
+     */
+    Optional<Gazetteer.Match> geocode(String address);
+
+    /**
+     * Recompiles the gazetteer index if its source file changed, maps it and clears the cache.
+     * @return Statistics after the reload.
+     */
+    GeocoderStatsResponse reload();
+
+    /**
+     * Returns the state of the gazetteer and the lookup counters.
+     */
+    GeocoderStatsResponse getStats();
+}
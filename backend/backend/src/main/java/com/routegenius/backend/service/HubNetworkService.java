@@ -0,0 +1,27 @@
+package com.routegenius.backend.service;
+
+import com.routegenius.backend.dto.HubNetworkStatsResponse;
+import com.routegenius.backend.dto.HubPathResponse;
+
+public interface HubNetworkService {
+
+    /**
+     * Finds the fastest chain of hub-to-hub legs between two cities, weighing each leg by its median observed
+     * transit time.
+     * @param from The city the shipment starts in.
+     * @param to The destination city.
+     * @return The legs and total time, or a response with {@code available = false} if the cities are not connected.
+     */
+    HubPathResponse fastestPath(String from, String to);
+
+    /**
+     * Reads the transit time rows changed since the last build and, if any changed, rebuilds the hub graph.
+     * @return Statistics after the rebuild.
+     */
+    HubNetworkStatsResponse rebuild();
+
+    /**
+     * Returns the size of the current hub graph and when it was built.
+     */
+    HubNetworkStatsResponse getStats();
+}
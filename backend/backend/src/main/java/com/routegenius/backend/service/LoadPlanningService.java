@@ -0,0 +1,15 @@
+package com.routegenius.backend.service;
+
+import com.routegenius.backend.dto.LoadPlanRequest;
+import com.routegenius.backend.dto.LoadPlanResponse;
+
+public interface LoadPlanningService {
+
+    /**
+     * Assigns the PENDING parcels of each depot (current city) to that depot's vehicles, respecting
+     * payload, cargo volume and cargo dimensions. Depots are planned in parallel.
+     * @param request Depots, fleet per depot and usable share of the cargo volume.
+     * @return A manifest per loaded vehicle and the parcels that could not be loaded, per depot.
+     */
+    LoadPlanResponse planLoads(LoadPlanRequest request);
+}
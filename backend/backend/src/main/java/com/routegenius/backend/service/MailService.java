@@ -1,5 +1,12 @@
 package com.routegenius.backend.service;
 
+import com.routegenius.backend.config.Bulkheads;
+import com.routegenius.backend.config.MetricsConfig;
+import com.routegenius.backend.exception.BulkheadFullException;
+import com.routegenius.backend.profiling.ExternalCallEvent;
+import com.routegenius.backend.util.Bulkhead;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import org.springframework.mail.MailException;
 import org.springframework.mail.SimpleMailMessage;
@@ -13,13 +20,15 @@ import org.springframework.beans.factory.annotation.Value; // Import Value annot
 public class MailService {
 
     private final JavaMailSender javaMailSender;
+    private final MeterRegistry meterRegistry;
+    private final Bulkheads bulkheads;
 
     @Value("${spring.mail.username}") // Inject the configured email username
     private String fromEmail;
 
     /**
      * Sends a simple email.
-     * This method is asynchronous to avoid blocking the main application thread.
+     * This method is asynchronous to avoid blocking the main application thread. Failures are logged, not retried.
      *
      * @param to The recipient's email address.
      * @param subject The subject line of the email.
@@ -28,15 +37,9 @@ public class MailService {
     @Async // This annotation makes the method run in a separate thread
     public void sendEmail(String to, String subject, String text) {
         try {
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setTo(to);
-            message.setSubject(subject);
-            message.setText(text);
-            message.setFrom(fromEmail); // Set the 'from' address from application.properties
-
-            System.out.println("DEBUG (MailService): Attempting to send email to: " + to + " with subject: " + subject);
-            javaMailSender.send(message);
-            System.out.println("DEBUG (MailService): Email sent successfully to: " + to);
+            send(to, subject, text);
+        } catch (BulkheadFullException e) {
+            System.err.println("ERROR (MailService): Email to " + to + " not sent: " + e.getMessage());
         } catch (MailException e) {
             System.err.println("ERROR (MailService): Failed to send email to " + to + ". Error: " + e.getMessage());
             e.printStackTrace();
@@ -44,5 +47,45 @@ public class MailService {
             // or queue the email for a retry.
         }
     }
+
+    /**
+     * Sends a simple email on the calling thread, for callers that retry failures themselves (the outbox relay).
+     *
+     * @param to The recipient's email address.
+     * @param subject The subject line of the email.
+     * @param text The body content of the email.
+     * @throws BulkheadFullException When too many emails are being sent already.
+     * @throws MailException When the SMTP server does not accept the email.
+     */
+    public void send(String to, String subject, String text) {
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setTo(to);
+        message.setSubject(subject);
+        message.setText(text);
+        message.setFrom(fromEmail); // Set the 'from' address from application.properties
+
+        System.out.println("DEBUG (MailService): Attempting to send email to: " + to + " with subject: " + subject);
+        Bulkhead bulkhead = bulkheads.smtp();
+        bulkhead.acquire();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        ExternalCallEvent event = new ExternalCallEvent();
+        event.begin();
+        String outcome = "success";
+        try {
+            javaMailSender.send(message);
+        } catch (MailException e) {
+            outcome = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            bulkhead.release();
+            sample.stop(meterRegistry.timer(MetricsConfig.EXTERNAL_CALLS, "target", "smtp", "outcome", outcome));
+            event.end();
+            if (event.shouldCommit()) {
+                event.target = "smtp";
+                event.outcome = outcome;
+                event.commit();
+            }
+        }
+        System.out.println("DEBUG (MailService): Email sent successfully to: " + to);
+    }
 }
-    
\ No newline at end of file
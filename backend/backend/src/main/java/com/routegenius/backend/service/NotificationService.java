@@ -11,4 +11,6 @@ public interface NotificationService {
     Notification markNotificationAsRead(Long notificationId);
     void deleteNotification(Long notificationId);
     void generateNotificationForParcelStatusChange(Long parcelId, ParcelStatus newStatus); // Ensure this method is present
+    String draftNotificationForParcelStatusChange(Long parcelId, ParcelStatus newStatus); // Renders the message only; nothing is stored or sent
+    void sendNotificationEmail(Long notificationId); // Synchronous; throws when the email is not sent, so the outbox relay retries it
 }
@@ -0,0 +1,47 @@
+package com.routegenius.backend.service;
+
+import com.routegenius.backend.dto.NotificationSubscriptionRequest;
+import com.routegenius.backend.dto.NotificationSubscriptionResponse;
+import com.routegenius.backend.entity.Parcel;
+import com.routegenius.backend.entity.ParcelStatus;
+
+import java.util.List;
+
+public interface NotificationSubscriptionService {
+
+    /**
+     * Lists the watchers subscribed to a merchant's parcels, or every subscription if no merchant is given.
+     */
+    List<NotificationSubscriptionResponse> getSubscriptions(Long merchantId);
+
+    /**
+     * Subscribes a watcher to the parcels a merchant sends, for one status or for every status.
+     * @throws IllegalArgumentException If the same subscription exists already.
+     * @throws com.routegenius.backend.exception.ResourceNotFoundException If the watcher or merchant does not exist.
+     */
+    NotificationSubscriptionResponse subscribe(NotificationSubscriptionRequest request);
+
+    /**
+     * Removes a subscription.
+     * @throws com.routegenius.backend.exception.ResourceNotFoundException If it does not exist.
+     */
+    void unsubscribe(Long subscriptionId);
+
+    /**
+     * Removes the subscriptions of a user being deleted, both as watcher and as merchant. Must run in the
+     * transaction that deletes the user.
+     */
+    void removeForUser(Long userId);
+
+    /**
+     * Applies the notification rules to a parcel's new status.
+     * @return The IDs of the users to notify, each once: recipient, sender, then the watchers.
+     */
+    long[] resolveRecipients(Parcel parcel, ParcelStatus status);
+
+    /**
+     * Re-reads every subscription and replaces the in-memory index, e.g. after rows were changed in the database
+     * directly. Also runs every notification.subscriptions.reload-interval-ms.
+     */
+    void reload();
+}
@@ -0,0 +1,25 @@
+package com.routegenius.backend.service;
+
+import com.routegenius.backend.entity.OutboxEvent;
+import com.routegenius.backend.entity.OutboxEventType;
+
+/**
+ * A side effect run by the outbox relay. Delivery is at least once: after a crash or a failure of another
+ * handler for the same event, an event is handed over again, so handlers must tolerate repeats. Handlers share
+ * the connection pool with requests, so they must not hold a transaction open across a call to Gemini or SMTP.
+ */
+public interface OutboxHandler {
+
+    /**
+     * @param type An event type.
+     * @return Whether this handler wants events of that type.
+     */
+    boolean handles(OutboxEventType type);
+
+    /**
+     * Runs the side effect. Throwing makes the relay retry the event later, except for
+     * ResourceNotFoundException, which means the event no longer applies and is dropped.
+     * @param event The event, as recorded.
+     */
+    void handle(OutboxEvent event);
+}
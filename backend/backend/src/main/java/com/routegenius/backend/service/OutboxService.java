@@ -0,0 +1,21 @@
+package com.routegenius.backend.service;
+
+import com.routegenius.backend.entity.OutboxEvent;
+
+import java.util.List;
+
+public interface OutboxService {
+
+    /**
+     * Adds an event to the outbox. Must be called inside the transaction that writes the change the event
+     * describes, so that both commit or neither does.
+     * @param event The event; its creation and availability times are set here.
+     */
+    void record(OutboxEvent event);
+
+    /**
+     * Adds several events to the outbox with multi-row INSERTs, inside the caller's transaction.
+     * @param events The events; their creation and availability times are set here.
+     */
+    void record(List<OutboxEvent> events);
+}
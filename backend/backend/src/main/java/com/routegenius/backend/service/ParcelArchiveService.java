@@ -0,0 +1,65 @@
+package com.routegenius.backend.service;
+
+import com.routegenius.backend.dto.ParcelArchiveStatsResponse;
+import com.routegenius.backend.entity.Feedback;
+import com.routegenius.backend.entity.Parcel;
+import com.routegenius.backend.entity.TrackingEvent;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+public interface ParcelArchiveService {
+
+    /**
+     * Looks up an archived parcel by tracking ID.
+     * @param normalizedTrackingId A tracking ID normalised by TrackingIdGenerator.
+     * @return The archived parcel and its tracking history, if present.
+     */
+    Optional<ArchivedParcel> findByTrackingId(String normalizedTrackingId);
+
+    /**
+     * Looks up an archived parcel by its former database id.
+     * @param parcelId The parcel ID.
+     * @return The archived parcel, its tracking history and its feedback, if present.
+     */
+    Optional<ArchivedParcel> findByParcelId(Long parcelId);
+
+    /**
+     * Passes the tracking ID of every archived parcel to the consumer.
+     */
+    void forEachTrackingId(Consumer<String> consumer);
+
+    /**
+     * Moves closed parcels that have not changed for the configured time, with their tracking events and feedback,
+     * from the database into new archive segments, then deletes them from the database. Their notifications
+     * stay in the database.
+     * @return Archive statistics including the outcome of this run.
+     */
+    ParcelArchiveStatsResponse archiveClosedParcels();
+
+    /**
+     * Returns the size of the archive and its lookup counters.
+     * @return The current statistics.
+     */
+    ParcelArchiveStatsResponse getStats();
+
+    /**
+     * A parcel read back from the archive. The entities are detached copies and must not be saved.
+     */
+    final class ArchivedParcel {
+        private final Parcel parcel;
+        private final List<TrackingEvent> events;
+        private final List<Feedback> feedback; // Users are stubs carrying only their id
+
+        public ArchivedParcel(Parcel parcel, List<TrackingEvent> events, List<Feedback> feedback) {
+            this.parcel = parcel;
+            this.events = events;
+            this.feedback = feedback;
+        }
+
+        public Parcel getParcel() { return parcel; }
+        public List<TrackingEvent> getEvents() { return events; }
+        public List<Feedback> getFeedback() { return feedback; }
+    }
+}
@@ -0,0 +1,45 @@
+package com.routegenius.backend.service;
+
+import com.routegenius.backend.dto.ParcelPurgeResponse;
+import com.routegenius.backend.entity.Parcel;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ParcelPurgeService {
+
+    /**
+     * Deletes parcels together with their tracking events, notifications and feedback using set-based
+     * DELETE statements, and keeps the dashboard counters and feedback rollups in step.
+     * Runs in the caller's transaction if there is one.
+     * @param parcels The parcels to delete (already loaded).
+     */
+    void deleteWithDependents(List<Parcel> parcels);
+
+    /**
+     * Starts purging DELIVERED, CANCELLED and RETURNED parcels last updated before the cutoff in the background,
+     * in small throttled transactions so it can run alongside normal traffic. Only one purge runs at a time;
+     * while one is running this returns its status and starts nothing.
+     * @param cutoff Parcels last updated before this time are purged.
+     * @param limit Maximum number of parcels to delete in this run.
+     * @return The status of the purge that is now running.
+     */
+    ParcelPurgeResponse startPurge(LocalDateTime cutoff, int limit);
+
+    /**
+     * Status and running totals of the last purge started.
+     * @return The status, or null if no purge has been started since the application started.
+     */
+    ParcelPurgeResponse getPurgeStatus();
+
+    /**
+     * Deletes parcels that have been copied to the archive, in the same throttled chunks as a purge.
+     * Parcels that are no longer closed or were updated after the cutoff are skipped. Unlike a purge,
+     * the feedback ratings stay in the daily rollups and the notifications stay in their table, since the
+     * parcels still exist in the archive; the feedback rows themselves are deleted, the archive keeps a copy.
+     * @param parcelIds Ids of the archived parcels, in ascending order.
+     * @param cutoff The cutoff the parcels were selected with.
+     * @return The number of parcels deleted.
+     */
+    long deleteArchivedParcels(List<Long> parcelIds, LocalDateTime cutoff);
+}
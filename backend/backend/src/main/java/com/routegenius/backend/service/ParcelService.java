@@ -1,7 +1,10 @@
 package com.routegenius.backend.service;
 
+import com.routegenius.backend.dto.EtaResponse;
 import com.routegenius.backend.dto.ParcelRequest;
 import com.routegenius.backend.dto.ParcelResponse;
+import com.routegenius.backend.dto.ParcelSearchRequest;
+import com.routegenius.backend.dto.ParcelSearchResponse;
 import com.routegenius.backend.entity.Parcel;
 import com.routegenius.backend.entity.TrackingEvent;
 
@@ -11,9 +14,11 @@ public interface ParcelService {
     ParcelResponse createParcel(ParcelRequest request);
     ParcelResponse getParcelById(Long id);
     ParcelResponse getParcelByTrackingId(String trackingId);
+    EtaResponse getParcelEta(String trackingId);
     List<ParcelResponse> getAllParcels();
     ParcelResponse updateParcel(Long id, ParcelRequest request);
     void deleteParcel(Long id);
     List<ParcelResponse> getMyParcels(Long userId); // For authenticated users to see their parcels
     List<TrackingEvent> getParcelTrackingHistory(Long parcelId);
+    ParcelSearchResponse searchParcels(ParcelSearchRequest request); // Admin multi-criteria search with keyset paging
 }
@@ -0,0 +1,64 @@
+package com.routegenius.backend.service;
+
+import com.routegenius.backend.dto.ParcelStatsResponse;
+import com.routegenius.backend.entity.Parcel;
+import com.routegenius.backend.entity.ParcelStatus;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+public interface ParcelStatsService {
+
+    /**
+     * Returns the live operational counters. Served from memory, no database access.
+     * @return Counts by status, city and country plus the average creation-to-delivery time.
+     */
+    ParcelStatsResponse getStats();
+
+    /**
+     * Applies the difference between two states of a parcel to the counters (after commit
+     * when called inside a transaction).
+     * @param before The parcel's contribution before the change, or null for a created parcel.
+     * @param after The parcel's contribution after the change, or null for a deleted parcel.
+     */
+    void recordChange(Contribution before, Contribution after);
+
+    /**
+     * Recomputes all counters from the database and stores a snapshot for the next restart.
+     */
+    void reconcile();
+
+    /**
+     * The fields of a parcel that the counters depend on, captured at one point in time.
+     */
+    final class Contribution {
+        private final ParcelStatus status;
+        private final String city;
+        private final String country;
+        private final boolean delivered; // Counts towards the delivery time average
+        private final long deliverySeconds;
+
+        private Contribution(ParcelStatus status, String city, String country, boolean delivered, long deliverySeconds) {
+            this.status = status;
+            this.city = city;
+            this.country = country;
+            this.delivered = delivered;
+            this.deliverySeconds = deliverySeconds;
+        }
+
+        public static Contribution of(Parcel parcel) {
+            LocalDateTime createdAt = parcel.getCreatedAt();
+            LocalDateTime deliveredAt = parcel.getActualDeliveryDate();
+            boolean delivered = parcel.getStatus() == ParcelStatus.DELIVERED && createdAt != null && deliveredAt != null;
+            // An admin-entered delivery date can precede creation; clamped to 0 like in ParcelRepository.sumDeliveryTimes
+            long deliverySeconds = delivered ? Math.max(0, Duration.between(createdAt, deliveredAt).getSeconds()) : 0;
+            return new Contribution(parcel.getStatus(), parcel.getCurrentCity(), parcel.getCurrentCountry(), delivered, deliverySeconds);
+        }
+
+        public ParcelStatus getStatus() { return status; }
+        public String getCity() { return city; }
+        public String getCountry() { return country; }
+        public boolean isDelivered() { return delivered; }
+        public long getDeliverySeconds() { return deliverySeconds; }
+    }
+}
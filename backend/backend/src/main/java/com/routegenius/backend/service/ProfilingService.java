@@ -0,0 +1,53 @@
+package com.routegenius.backend.service;
+
+import com.routegenius.backend.dto.JfrRecordingRequest;
+import com.routegenius.backend.dto.JfrRecordingResponse;
+import com.routegenius.backend.dto.SlowRequestResponse;
+import com.routegenius.backend.profiling.RequestProfile;
+
+import java.nio.file.Path;
+import java.util.List;
+
+public interface ProfilingService {
+
+    /**
+     * Starts a Java Flight Recorder recording that stops by itself after its duration and never grows beyond its
+     * size limit. Only one recording started through this service runs at a time.
+     * @param request Duration, size limit, JFR settings and the threshold for the RouteGenius events.
+     * @return The new recording.
+     */
+    JfrRecordingResponse startRecording(JfrRecordingRequest request);
+
+    /**
+     * Stops a recording early and writes it to disk.
+     * @param id The recording id.
+     * @return The recording after stopping.
+     */
+    JfrRecordingResponse stopRecording(long id);
+
+    /**
+     * Lists the recordings started through this service that are still kept, newest first.
+     */
+    List<JfrRecordingResponse> getRecordings();
+
+    /**
+     * Returns the .jfr file of a finished recording.
+     * @param id The recording id.
+     * @return Path of the file, to be opened with JDK Mission Control or the jfr tool.
+     */
+    Path getRecordingFile(long id);
+
+    /**
+     * Called by the outermost filter after every request; keeps the span breakdown if the request was slow.
+     * @param method The HTTP method.
+     * @param path The request path without query string.
+     * @param status The response status.
+     * @param profile The finished profile of the request.
+     */
+    void recordRequest(String method, String path, int status, RequestProfile profile);
+
+    /**
+     * Returns the most recent requests slower than profiling.slow-request-threshold-ms, newest first.
+     */
+    List<SlowRequestResponse> getSlowRequests();
+}
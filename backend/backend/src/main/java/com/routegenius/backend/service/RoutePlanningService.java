@@ -0,0 +1,15 @@
+package com.routegenius.backend.service;
+
+import com.routegenius.backend.dto.RoutePlanRequest;
+import com.routegenius.backend.dto.RoutePlanResponse;
+
+public interface RoutePlanningService {
+
+    /**
+     * Plans delivery routes for the PENDING and DISPATCHED parcels of each requested city, using the
+     * recipients' coordinates. Cities are solved in parallel.
+     * @param request Cities, couriers per city and route size limits.
+     * @return The ordered stops of every courier route, per city.
+     */
+    RoutePlanResponse planRoutes(RoutePlanRequest request);
+}
@@ -0,0 +1,19 @@
+package com.routegenius.backend.service;
+
+import com.routegenius.backend.dto.ScanIngestResponse;
+import com.routegenius.backend.dto.ScanRequest;
+
+import java.util.List;
+
+public interface ScanIngestService {
+
+    /**
+     * Queues a batch of hub scans for the next group commit and waits until it is committed. Scans of the same
+     * parcel that arrive within one ingest window are put in time order, and repeats are dropped. The remaining
+     * scans become tracking events in one multi-row insert, and each parcel is updated once to its newest state.
+     * @param scans The scans, in the order the scanner sent them.
+     * @return What happened to each scan, counted by outcome.
+     * @throws com.routegenius.backend.exception.BulkheadFullException If too many scans are already waiting.
+     */
+    ScanIngestResponse ingest(List<ScanRequest> scans);
+}
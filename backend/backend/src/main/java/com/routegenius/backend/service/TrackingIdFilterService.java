@@ -0,0 +1,37 @@
+package com.routegenius.backend.service;
+
+import com.routegenius.backend.dto.TrackingFilterStatsResponse;
+
+public interface TrackingIdFilterService {
+
+    /**
+     * Checks whether a tracking ID is certainly not in the database, so the lookup can be skipped.
+     * Returns false (i.e. "go to the database") whenever the filter cannot be sure, including
+     * before it has been built.
+     * @param normalizedTrackingId A tracking ID normalised by TrackingIdGenerator.
+     * @return True if no parcel can have this tracking ID.
+     */
+    boolean isDefinitelyAbsent(String normalizedTrackingId);
+
+    /**
+     * Records a lookup that passed the filter but found nothing in the database (a false positive).
+     */
+    void recordDatabaseMiss();
+
+    /**
+     * Adds a newly created tracking ID to the filter.
+     * @param trackingId The tracking ID.
+     */
+    void add(String trackingId);
+
+    /**
+     * Rebuilds the filter from the parcels table, resizing it for the current row count.
+     */
+    void rebuild();
+
+    /**
+     * Returns the filter's size and lookup counters.
+     * @return The current statistics.
+     */
+    TrackingFilterStatsResponse getStats();
+}
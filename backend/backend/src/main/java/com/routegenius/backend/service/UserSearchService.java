@@ -0,0 +1,36 @@
+package com.routegenius.backend.service;
+
+import com.routegenius.backend.entity.User;
+import org.springframework.data.domain.Page;
+
+public interface UserSearchService {
+
+    /**
+     * Searches users by first name, last name or email using the in-memory trigram index.
+     * Results are ranked (exact, then prefix, then substring matches) and paged. Until the index has
+     * been built, this falls back to a database query with results ordered by ID.
+     * @param searchTerm Optional search term. A blank term returns all users ordered by ID.
+     * @param page Zero-based page number.
+     * @param size Page size.
+     * @return One page of matching users.
+     */
+    Page<User> searchUsers(String searchTerm, int page, int size);
+
+    /**
+     * Adds or refreshes a user in the index. When called inside a transaction the update
+     * is applied after commit, so rolled-back changes never become searchable.
+     * @param user The saved user.
+     */
+    void indexUser(User user);
+
+    /**
+     * Removes a user from the index (after commit when called inside a transaction).
+     * @param userId The ID of the deleted user.
+     */
+    void removeUser(Long userId);
+
+    /**
+     * Rebuilds the whole index from the database in keyset batches.
+     */
+    void rebuildIndex();
+}
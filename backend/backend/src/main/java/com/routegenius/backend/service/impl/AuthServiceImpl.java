@@ -9,16 +9,17 @@ import com.routegenius.backend.exception.ResourceNotFoundException;
 import com.routegenius.backend.repository.UserRepository;
 import com.routegenius.backend.service.AuthService;
 import com.routegenius.backend.service.JwtService;
+import com.routegenius.backend.service.NotificationSubscriptionService;
+import com.routegenius.backend.service.UserSearchService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.util.StringUtils;
 
 import java.util.Collections;
-import java.util.List;
 
 @Service
 @RequiredArgsConstructor
@@ -28,6 +29,8 @@ public class AuthServiceImpl implements AuthService {
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
+    private final UserSearchService userSearchService;
+    private final NotificationSubscriptionService notificationSubscriptionService;
 
     @Override
     @Transactional
@@ -44,6 +47,7 @@ public class AuthServiceImpl implements AuthService {
                 .build();
 
         userRepository.save(user);
+        userSearchService.indexUser(user);
         System.out.println("DEBUG: User saved to repository: " + user.getEmail());
 
         String jwt = jwtService.generateToken(user);
@@ -86,27 +90,27 @@ public class AuthServiceImpl implements AuthService {
                 .role(request.getRole() != null ? request.getRole() : Role.USER)
                 .build();
         User savedUser = userRepository.save(user);
+        userSearchService.indexUser(savedUser);
         System.out.println("DEBUG: Admin created user saved: " + savedUser.getEmail());
         return savedUser;
     }
 
     @Override
-    public List<User> getAllUsers(String searchTerm) {
-        System.out.println("DEBUG (AuthServiceImpl): getAllUsers method called. Search term: '" + searchTerm + "'");
-        if (StringUtils.hasText(searchTerm)) {
-            return userRepository.findByFirstNameContainingIgnoreCaseOrEmailContainingIgnoreCase(searchTerm, searchTerm);
-        } else {
-            return userRepository.findAll();
-        }
+    public Page<User> getAllUsers(String searchTerm, int page, int size) {
+        System.out.println("DEBUG (AuthServiceImpl): getAllUsers method called. Search term: '" + searchTerm + "', page: " + page + ", size: " + size);
+        // Served from the trigram index instead of a leading-wildcard LIKE over the whole _user table
+        return userSearchService.searchUsers(searchTerm, page, size);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public User findUserByEmail(String email) {
         return userRepository.findByEmail(email)
                 .orElseThrow(() -> new ResourceNotFoundException("User", "email", email));
     }
 
     @Override
+    @Transactional(readOnly = true)
     public User getUserById(Long id) {
         return userRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("User", "id", id));
@@ -127,6 +131,7 @@ public class AuthServiceImpl implements AuthService {
             existingUser.setRole(request.getRole());
         }
         User updatedUser = userRepository.save(existingUser);
+        userSearchService.indexUser(updatedUser);
         System.out.println("DEBUG: User updated: " + updatedUser.getEmail());
         return updatedUser;
     }
@@ -137,7 +142,9 @@ public class AuthServiceImpl implements AuthService {
         if (!userRepository.existsById(id)) {
             throw new ResourceNotFoundException("User", "id", id);
         }
+        notificationSubscriptionService.removeForUser(id);
         userRepository.deleteById(id);
+        userSearchService.removeUser(id);
         System.out.println("DEBUG: User deleted with ID: " + id);
     }
 }
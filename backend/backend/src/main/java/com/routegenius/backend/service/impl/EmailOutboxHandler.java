@@ -0,0 +1,29 @@
+package com.routegenius.backend.service.impl;
+
+import com.routegenius.backend.entity.OutboxEvent;
+import com.routegenius.backend.entity.OutboxEventType;
+import com.routegenius.backend.service.NotificationService;
+import com.routegenius.backend.service.OutboxHandler;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Emails each new notification to its user. A separate event from the status change, so an SMTP failure retries
+ * only the email and not the Gemini call that wrote the message.
+ */
+@Component
+@RequiredArgsConstructor
+public class EmailOutboxHandler implements OutboxHandler {
+
+    private final NotificationService notificationService;
+
+    @Override
+    public boolean handles(OutboxEventType type) {
+        return type == OutboxEventType.NOTIFICATION_CREATED;
+    }
+
+    @Override
+    public void handle(OutboxEvent event) {
+        notificationService.sendNotificationEmail(event.getNotificationId());
+    }
+}
@@ -0,0 +1,345 @@
+package com.routegenius.backend.service.impl;
+
+import com.routegenius.backend.dto.EtaResponse;
+import com.routegenius.backend.entity.ParcelStatus;
+import com.routegenius.backend.entity.TrackingEvent;
+import com.routegenius.backend.entity.TransitTimeSketch;
+import com.routegenius.backend.repository.ParcelRepository;
+import com.routegenius.backend.repository.TrackingEventRepository;
+import com.routegenius.backend.repository.TransitTimeSketchRepository;
+import com.routegenius.backend.service.EtaService;
+import com.routegenius.backend.util.QuantileSketch;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Data-driven delivery estimates from the time parcels actually spent between consecutive tracking events.
+ *
+ * Each (city, status) -> (city, status) transition has a quantile sketch of its durations. A new event adds
+ * one sample to one sketch in memory; every minute the samples a node collected are merged into the
+ * persisted sketch under a row lock and the merged sketches, which include other nodes' samples, are read
+ * back. History is only read once, to seed an empty table.
+ *
+ * An estimate follows the most common transition out of each state until DELIVERED and adds up the legs'
+ * quantiles. Summing P90s is conservative (it assumes delays on consecutive legs coincide, which backlogs
+ * and weather tend to make true); summing P50s gives the median exactly only for symmetric legs, but is
+ * close for the skewed, similar-shaped distributions seen in practice.
+ */
+@Service
+@RequiredArgsConstructor
+public class EtaServiceImpl implements EtaService {
+
+    private static final int MAX_LEGS = 20;
+    private static final int BACKFILL_BATCH_SIZE = 1000;
+    private static final int MAX_CITY_LENGTH = 100;
+
+    private final TransitTimeSketchRepository transitTimeSketchRepository;
+    private final TrackingEventRepository trackingEventRepository;
+    private final ParcelRepository parcelRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    private final ReentrantLock flushLock = new ReentrantLock(); // One flush at a time
+
+    // Legs with fewer observations than this are not trusted for estimates
+    @Value("${eta.min-samples:5}")
+    private long minSamples;
+
+    private final Map<State, Map<State, Transition>> transitions = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        if (transitTimeSketchRepository.count() == 0) {
+            backfill();
+        }
+        flush();
+    }
+
+    @Override
+    public void recordTransition(TrackingEvent previous, TrackingEvent next) {
+        if (previous == null || next == null || previous.getTimestamp() == null || next.getTimestamp() == null) {
+            return;
+        }
+        State from = new State(previous.getCity(), previous.getStatus());
+        State to = new State(next.getCity(), next.getStatus());
+        long seconds = Duration.between(previous.getTimestamp(), next.getTimestamp()).getSeconds();
+        if (seconds < 0 || from.equals(to)) {
+            return; // Clock corrections and edits that changed neither status nor city say nothing about transit times
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    transition(from, to).add(seconds);
+                }
+            });
+        } else {
+            transition(from, to).add(seconds);
+        }
+    }
+
+    @Override
+    public EtaResponse estimate(String city, ParcelStatus status, LocalDateTime lastEventAt) {
+        EtaResponse unavailable = EtaResponse.builder().status(status).currentCity(city).available(false).build();
+        if (status == null || ParcelStatus.CLOSED_STATUSES.contains(status)) {
+            return unavailable;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        long elapsed = lastEventAt != null ? Math.max(0, Duration.between(lastEventAt, now).getSeconds()) : 0;
+
+        State current = new State(city, status);
+        Set<State> visited = new HashSet<>();
+        visited.add(current);
+        double p50 = 0;
+        double p90 = 0;
+        long fewestSamples = Long.MAX_VALUE;
+        int legs = 0;
+        while (current.status != ParcelStatus.DELIVERED) {
+            if (legs == MAX_LEGS) {
+                return unavailable;
+            }
+            Map.Entry<State, Transition> next = mostCommonNext(current, visited);
+            if (next == null) {
+                return unavailable;
+            }
+            double[] quantiles = next.getValue().quantiles();
+            if (quantiles == null) {
+                return unavailable;
+            }
+            double legP50 = quantiles[0];
+            double legP90 = quantiles[1];
+            if (legs == 0) {
+                // Time already spent in the current state; a parcel past the P90 is expected to move any moment
+                legP50 = Math.max(0, legP50 - elapsed);
+                legP90 = Math.max(0, legP90 - elapsed);
+            }
+            p50 += legP50;
+            p90 += legP90;
+            fewestSamples = Math.min(fewestSamples, (long) quantiles[2]);
+            legs++;
+            current = next.getKey();
+            visited.add(current);
+        }
+        if (legs == 0) {
+            return unavailable;
+        }
+        return EtaResponse.builder()
+                .status(status)
+                .currentCity(city)
+                .available(true)
+                .estimatedDeliveryP50(now.plusSeconds(Math.round(p50)))
+                .estimatedDeliveryP90(now.plusSeconds(Math.round(p90)))
+                .transitions(legs)
+                .minSamples(fewestSamples)
+                .build();
+    }
+
+    /**
+     * Merges the samples collected on this node into the persisted sketches, then reloads all sketches so that
+     * estimates include what other nodes recorded.
+     */
+    @Scheduled(initialDelayString = "${eta.flush-interval-ms:60000}", fixedDelayString = "${eta.flush-interval-ms:60000}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            long start = System.currentTimeMillis();
+            TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+            int merged = 0;
+            for (Map.Entry<State, Map<State, Transition>> outgoing : transitions.entrySet()) {
+                for (Map.Entry<State, Transition> entry : outgoing.getValue().entrySet()) {
+                    QuantileSketch delta = entry.getValue().takePending();
+                    if (delta == null) {
+                        continue;
+                    }
+                    State from = outgoing.getKey();
+                    State to = entry.getKey();
+                    try {
+                        transaction.executeWithoutResult(status -> mergeIntoRow(from, to, delta));
+                        merged++;
+                    } catch (RuntimeException e) {
+                        entry.getValue().restorePending(delta); // Retried with the next flush
+                        System.err.println("ERROR (EtaServiceImpl): Could not save transit times " + from + " -> " + to + ": " + e.getMessage());
+                    }
+                }
+            }
+            try {
+                for (TransitTimeSketch row : transitTimeSketchRepository.findAll()) {
+                    if (row.getSketch() != null) {
+                        transition(new State(row.getFromCity(), row.getFromStatus()), new State(row.getToCity(), row.getToStatus()))
+                                .replacePersisted(QuantileSketch.fromBytes(row.getSketch()));
+                    }
+                }
+            } catch (RuntimeException e) {
+                System.err.println("ERROR (EtaServiceImpl): Could not reload transit times: " + e.getMessage());
+                return;
+            }
+            if (merged > 0) {
+                System.out.println("DEBUG (EtaServiceImpl): Merged " + merged + " transit time sketches in " + (System.currentTimeMillis() - start) + " ms.");
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void mergeIntoRow(State from, State to, QuantileSketch delta) {
+        transitTimeSketchRepository.insertIfAbsent(from.city, from.status.name(), to.city, to.status.name());
+        TransitTimeSketch row = transitTimeSketchRepository.findForUpdate(from.city, from.status, to.city, to.status)
+                .orElseThrow(() -> new IllegalStateException("Transit time row missing after insert"));
+        QuantileSketch sketch = row.getSketch() != null ? QuantileSketch.fromBytes(row.getSketch()) : new QuantileSketch();
+        sketch.merge(delta);
+        row.setSketch(sketch.toBytes());
+        row.setSampleCount(sketch.getCount());
+        row.setUpdatedAt(LocalDateTime.now());
+        transitTimeSketchRepository.save(row);
+    }
+
+    /**
+     * Seeds the sketches from existing tracking events. Only runs while the table is empty; if two nodes seed
+     * at the same time every sample is counted twice, which leaves all quantiles unchanged.
+     */
+    private void backfill() {
+        long start = System.currentTimeMillis();
+        long samples = 0;
+        long lastId = 0;
+        List<Object[]> parcels;
+        do {
+            parcels = parcelRepository.findTrackingIdsAfter(lastId, PageRequest.of(0, BACKFILL_BATCH_SIZE));
+            if (parcels.isEmpty()) {
+                break;
+            }
+            List<Long> ids = parcels.stream().map(row -> ((Number) row[0]).longValue()).collect(Collectors.toList());
+            lastId = ids.get(ids.size() - 1);
+            Long previousParcel = null;
+            State previousState = null;
+            LocalDateTime previousTime = null;
+            for (Object[] row : trackingEventRepository.findTransitRowsByParcelIds(ids)) {
+                Long parcelId = ((Number) row[0]).longValue();
+                State state = new State((String) row[1], (ParcelStatus) row[2]);
+                LocalDateTime time = (LocalDateTime) row[3];
+                if (parcelId.equals(previousParcel) && previousTime != null && time != null && !state.equals(previousState)) {
+                    long seconds = Duration.between(previousTime, time).getSeconds();
+                    if (seconds >= 0) {
+                        transition(previousState, state).add(seconds);
+                        samples++;
+                    }
+                }
+                previousParcel = parcelId;
+                previousState = state;
+                previousTime = time;
+            }
+        } while (parcels.size() == BACKFILL_BATCH_SIZE);
+        System.out.println("DEBUG (EtaServiceImpl): Seeded transit times with " + samples + " samples in " + (System.currentTimeMillis() - start) + " ms.");
+    }
+
+    private Map.Entry<State, Transition> mostCommonNext(State from, Set<State> visited) {
+        Map<State, Transition> outgoing = transitions.get(from);
+        if (outgoing == null) {
+            return null;
+        }
+        Map.Entry<State, Transition> best = null;
+        long bestCount = minSamples - 1;
+        for (Map.Entry<State, Transition> entry : outgoing.entrySet()) {
+            long count = entry.getValue().count();
+            if (count > bestCount && !visited.contains(entry.getKey())) {
+                best = entry;
+                bestCount = count;
+            }
+        }
+        return best;
+    }
+
+    private Transition transition(State from, State to) {
+        return transitions.computeIfAbsent(from, key -> new ConcurrentHashMap<>()).computeIfAbsent(to, key -> new Transition());
+    }
+
+    private static final class State {
+        private final String city; // Trimmed to the column size, "" when unknown
+        private final ParcelStatus status;
+
+        State(String city, ParcelStatus status) {
+            String trimmed = city != null ? city.trim() : "";
+            this.city = trimmed.length() > MAX_CITY_LENGTH ? trimmed.substring(0, MAX_CITY_LENGTH) : trimmed;
+            this.status = status;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof State other && city.equalsIgnoreCase(other.city) && status == other.status;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(city.toLowerCase(), status);
+        }
+
+        @Override
+        public String toString() {
+            return city + "/" + status;
+        }
+    }
+
+    /**
+     * Durations of one transition: the persisted sketch as of the last reload plus this node's samples since.
+     */
+    private static final class Transition {
+        private QuantileSketch persisted = new QuantileSketch();
+        private QuantileSketch pending = new QuantileSketch(); // Not yet merged into the database
+        private QuantileSketch view = new QuantileSketch(); // persisted + everything recorded here since
+
+        synchronized void add(long seconds) {
+            pending.add(seconds);
+            view.add(seconds);
+        }
+
+        synchronized long count() {
+            return view.getCount();
+        }
+
+        // P50, P90 and sample count, or null while there are no samples
+        synchronized double[] quantiles() {
+            if (view.getCount() == 0) {
+                return null;
+            }
+            return new double[]{view.quantile(0.5), view.quantile(0.9), view.getCount()};
+        }
+
+        synchronized QuantileSketch takePending() {
+            if (pending.getCount() == 0) {
+                return null;
+            }
+            QuantileSketch taken = pending;
+            pending = new QuantileSketch();
+            return taken;
+        }
+
+        synchronized void restorePending(QuantileSketch delta) {
+            pending.merge(delta);
+        }
+
+        // The reloaded row already contains every delta merged so far; only the pending samples are added back
+        synchronized void replacePersisted(QuantileSketch reloaded) {
+            persisted = reloaded;
+            view = persisted.copy();
+            view.merge(pending);
+        }
+    }
+}
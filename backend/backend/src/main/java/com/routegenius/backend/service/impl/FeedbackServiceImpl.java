@@ -2,21 +2,33 @@ package com.routegenius.backend.service.impl;
 
 import com.routegenius.backend.dto.FeedbackRequest;
 import com.routegenius.backend.dto.FeedbackResponse;
+import com.routegenius.backend.dto.FeedbackRollupResponse;
 import com.routegenius.backend.entity.Feedback;
+import com.routegenius.backend.entity.FeedbackDailyRollup;
 import com.routegenius.backend.entity.Parcel;
 import com.routegenius.backend.entity.User;
 import com.routegenius.backend.exception.ResourceNotFoundException;
+import com.routegenius.backend.repository.FeedbackDailyRollupRepository;
 import com.routegenius.backend.repository.FeedbackRepository;
 import com.routegenius.backend.repository.ParcelRepository;
 import com.routegenius.backend.repository.UserRepository;
 import com.routegenius.backend.service.FeedbackService;
+import com.routegenius.backend.service.ParcelArchiveService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import com.routegenius.backend.entity.ParcelStatus;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -27,6 +39,22 @@ public class FeedbackServiceImpl implements FeedbackService {
     private final FeedbackRepository feedbackRepository;
     private final ParcelRepository parcelRepository;
     private final UserRepository userRepository;
+    private final FeedbackDailyRollupRepository feedbackDailyRollupRepository;
+    private final ParcelArchiveService parcelArchiveService;
+
+    /**
+     * Fills the daily rating rollups from the feedback table once, if they are still empty
+     * (e.g. on the first start after the rollup table was introduced). The count check is only a shortcut:
+     * the backfill itself recomputes each day's totals, so a concurrent start or submission cannot double-count.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfillRollupsIfEmpty() {
+        if (feedbackDailyRollupRepository.count() == 0 && feedbackRepository.count() > 0) {
+            int days = feedbackDailyRollupRepository.backfillFromFeedback();
+            System.out.println("DEBUG (FeedbackServiceImpl): Backfilled rating rollups (" + days + " rows affected).");
+        }
+    }
 
     /**
      * Submits new feedback for a parcel by a specific user.
@@ -50,7 +78,7 @@ public class FeedbackServiceImpl implements FeedbackService {
         // 3. Optional: Check if feedback already exists for this parcel (per user, or any feedback)
         // For simplicity, we'll allow only one feedback per parcel for now.
         // If you want one feedback per user per parcel, you'd need a more complex query.
-        if (feedbackRepository.findByParcel(parcel).isPresent()) {
+        if (feedbackRepository.existsByParcelId(parcel.getId())) {
             throw new IllegalArgumentException("Feedback already submitted for this parcel.");
         }
 
@@ -78,7 +106,10 @@ public class FeedbackServiceImpl implements FeedbackService {
         Feedback savedFeedback = feedbackRepository.save(feedback);
         System.out.println("DEBUG (FeedbackServiceImpl): Feedback saved with ID: " + savedFeedback.getId());
 
-        // 6. Map to Response DTO
+        // 6. Update the daily rating rollup in the same transaction
+        updateRollup(savedFeedback, 1);
+
+        // 7. Map to Response DTO
         return mapToFeedbackResponse(savedFeedback);
     }
 
@@ -88,30 +119,75 @@ public class FeedbackServiceImpl implements FeedbackService {
      * @return Optional FeedbackResponse if feedback exists for the parcel, otherwise empty.
      */
     @Override
-    @Transactional // ADDED: Ensures the session is open for the entire method call
+    @Transactional(readOnly = true)
     public Optional<FeedbackResponse> getFeedbackByParcelId(Long parcelId) {
         System.out.println("DEBUG (FeedbackServiceImpl): Getting feedback for Parcel ID: " + parcelId);
-        Parcel parcel = parcelRepository.findById(parcelId)
-                .orElseThrow(() -> new ResourceNotFoundException("Parcel", "id", parcelId)); // Ensure parcel exists
-
-        Optional<Feedback> feedback = feedbackRepository.findByParcel(parcel);
+        // Single joined projection keyed by parcel ID; the parcel is only checked when there is no feedback
+        Optional<FeedbackResponse> feedback = feedbackRepository.findResponseByParcelId(parcelId);
+        if (feedback.isEmpty() && !parcelRepository.existsById(parcelId)) {
+            // Archived parcels are no longer in the table; their feedback is in the archive record
+            ParcelArchiveService.ArchivedParcel archived = parcelArchiveService.findByParcelId(parcelId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Parcel", "id", parcelId));
+            feedback = archived.getFeedback().stream().findFirst().map(this::mapArchivedFeedbackResponse);
+        }
         System.out.println("DEBUG (FeedbackServiceImpl): Found feedback for Parcel ID " + parcelId + ": " + feedback.isPresent());
-        return feedback.map(this::mapToFeedbackResponse); // Map to DTO if present
+        return feedback;
     }
 
     /**
-     * Retrieves all feedback entries. (Typically for Admin use).
-     * @return A list of FeedbackResponse DTOs.
+     * Retrieves one page of feedback entries, newest first. (Typically for Admin use).
+     * @param page Zero-based page number.
+     * @param size Page size.
+     * @return A page of FeedbackResponse DTOs.
      */
     @Override
-    @Transactional
-    public List<FeedbackResponse> getAllFeedback() {
-        System.out.println("DEBUG (FeedbackServiceImpl): Getting all feedback.");
-        return feedbackRepository.findAll().stream()
-                .map(this::mapToFeedbackResponse)
+    @Transactional(readOnly = true)
+    public Page<FeedbackResponse> getAllFeedback(int page, int size) {
+        System.out.println("DEBUG (FeedbackServiceImpl): Getting feedback page " + page + " (size " + size + ").");
+        return feedbackRepository.findAllResponses(PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "id")));
+    }
+
+    /**
+     * Retrieves the per-day rating rollups (count, average and 1-5 histogram) for a date range.
+     * @param from First day (inclusive).
+     * @param to Last day (inclusive).
+     * @return One entry per day that has feedback, in date order.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<FeedbackRollupResponse> getDailyRatingRollups(LocalDate from, LocalDate to) {
+        validateRange(from, to);
+        return feedbackDailyRollupRepository.findByRollupDateBetweenOrderByRollupDateAsc(from, to).stream()
+                .map(rollup -> toRollupResponse(rollup.getRollupDate(), rollup.getRollupDate(), rollup.getFeedbackCount(), rollup.getRatingSum(),
+                        new long[]{rollup.getRating1Count(), rollup.getRating2Count(), rollup.getRating3Count(), rollup.getRating4Count(), rollup.getRating5Count()}))
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Aggregates the daily rollups of a date range into a single rating summary.
+     * @param from First day (inclusive).
+     * @param to Last day (inclusive).
+     * @return The total count, average rating and histogram for the range.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public FeedbackRollupResponse getRatingSummary(LocalDate from, LocalDate to) {
+        validateRange(from, to);
+        long count = 0;
+        long ratingSum = 0;
+        long[] histogram = new long[5];
+        for (FeedbackDailyRollup rollup : feedbackDailyRollupRepository.findByRollupDateBetweenOrderByRollupDateAsc(from, to)) {
+            count += rollup.getFeedbackCount();
+            ratingSum += rollup.getRatingSum();
+            histogram[0] += rollup.getRating1Count();
+            histogram[1] += rollup.getRating2Count();
+            histogram[2] += rollup.getRating3Count();
+            histogram[3] += rollup.getRating4Count();
+            histogram[4] += rollup.getRating5Count();
+        }
+        return toRollupResponse(from, to, count, ratingSum, histogram);
+    }
+
     /**
      * Deletes a feedback entry by its ID. (Typically for Admin use).
      * @param feedbackId The ID of the feedback to delete.
@@ -120,13 +196,63 @@ public class FeedbackServiceImpl implements FeedbackService {
     @Transactional
     public void deleteFeedback(Long feedbackId) {
         System.out.println("DEBUG (FeedbackServiceImpl): Deleting feedback with ID: " + feedbackId);
-        if (!feedbackRepository.existsById(feedbackId)) {
-            throw new ResourceNotFoundException("Feedback", "id", feedbackId);
-        }
-        feedbackRepository.deleteById(feedbackId);
+        Feedback feedback = feedbackRepository.findById(feedbackId)
+                .orElseThrow(() -> new ResourceNotFoundException("Feedback", "id", feedbackId));
+        feedbackRepository.delete(feedback);
+        updateRollup(feedback, -1); // Take the rating back out of its day's rollup
         System.out.println("DEBUG (FeedbackServiceImpl): Feedback with ID " + feedbackId + " deleted successfully.");
     }
 
+    /**
+     * Adds (delta = 1) or removes (delta = -1) a feedback's rating from the rollup of the day it was submitted.
+     */
+    private void updateRollup(Feedback feedback, int delta) {
+        int rating = feedback.getRating();
+        feedbackDailyRollupRepository.addRating(
+                feedback.getTimestamp().toLocalDate(), delta, delta * rating,
+                rating == 1 ? delta : 0, rating == 2 ? delta : 0, rating == 3 ? delta : 0,
+                rating == 4 ? delta : 0, rating == 5 ? delta : 0);
+    }
+
+    private void validateRange(LocalDate from, LocalDate to) {
+        if (from == null || to == null || from.isAfter(to)) {
+            throw new IllegalArgumentException("A valid date range is required ('from' must not be after 'to').");
+        }
+    }
+
+    private FeedbackRollupResponse toRollupResponse(LocalDate from, LocalDate to, long count, long ratingSum, long[] histogram) {
+        Map<Integer, Long> histogramMap = new LinkedHashMap<>();
+        for (int rating = 1; rating <= 5; rating++) {
+            histogramMap.put(rating, histogram[rating - 1]);
+        }
+        return FeedbackRollupResponse.builder()
+                .from(from)
+                .to(to)
+                .count(count)
+                .averageRating(count > 0 ? (double) ratingSum / count : null)
+                .histogram(histogramMap)
+                .build();
+    }
+
+    /**
+     * Maps archived feedback, whose user is only an id, filling in the user's details if the user still exists.
+     */
+    private FeedbackResponse mapArchivedFeedbackResponse(Feedback feedback) {
+        Long userId = feedback.getUser().getId();
+        Optional<User> user = userRepository.findById(userId);
+        return FeedbackResponse.builder()
+                .id(feedback.getId())
+                .parcelId(feedback.getParcel().getId())
+                .parcelTrackingId(feedback.getParcel().getTrackingId())
+                .userId(userId)
+                .userEmail(user.map(User::getEmail).orElse(null))
+                .userFirstName(user.map(User::getFirstName).orElse(null))
+                .rating(feedback.getRating())
+                .comment(feedback.getComment())
+                .timestamp(feedback.getTimestamp())
+                .build();
+    }
+
     /**
      * Helper method to map Feedback entity to FeedbackResponse DTO.
      * @param feedback The Feedback entity.
@@ -0,0 +1,162 @@
+package com.routegenius.backend.service.impl;
+
+import com.routegenius.backend.dto.GeocoderStatsResponse;
+import com.routegenius.backend.service.GeocodingService;
+import com.routegenius.backend.util.Gazetteer;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Geocodes addresses with a local gazetteer, so parcels get coordinates without calling an online service.
+ *
+ * The gazetteer is a tab-separated file (see {@link Gazetteer}) compiled into an index next to it, which is
+ * recompiled whenever the source is newer. Without a gazetteer file every lookup is a miss and parcels
+ * simply have no coordinates. Addresses repeat a lot (businesses, flats in one building), so results are
+ * kept in a bounded LRU cache.
+ */
+@Service
+public class GeocodingServiceImpl implements GeocodingService {
+
+    private static final String INDEX_SUFFIX = ".idx";
+
+    @Value("${geocoder.enabled:true}")
+    private boolean enabled;
+
+    @Value("${geocoder.gazetteer-file:data/gazetteer.tsv}")
+    private String gazetteerFile;
+
+    @Value("${geocoder.cache-size:10000}")
+    private int cacheSize;
+
+    private volatile Gazetteer gazetteer; // Null when disabled or not loaded
+    private volatile LocalDateTime loadedAt;
+    private Map<String, Optional<Gazetteer.Match>> cache;
+
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder postcodeMatches = new LongAdder();
+    private final LongAdder streetMatches = new LongAdder();
+    private final LongAdder cityMatches = new LongAdder();
+    private final LongAdder unmatched = new LongAdder();
+    private final ReentrantLock reloadLock = new ReentrantLock(); // One reload at a time; lookups only take the cache monitor
+
+    @PostConstruct
+    public void load() {
+        int capacity = Math.max(1, cacheSize);
+        cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Optional<Gazetteer.Match>> eldest) {
+                return size() > capacity;
+            }
+        };
+        reload();
+    }
+
+    @Override
+    public Optional<Gazetteer.Match> geocode(String address) {
+        Gazetteer current = gazetteer;
+        if (current == null || address == null || address.isBlank()) {
+            return Optional.empty();
+        }
+        lookups.increment();
+        String key = address.trim();
+        Optional<Gazetteer.Match> result;
+        synchronized (cache) {
+            result = cache.get(key);
+        }
+        if (result != null) {
+            cacheHits.increment();
+            return result;
+        }
+
+        result = Optional.ofNullable(current.geocode(key));
+        if (result.isEmpty()) {
+            unmatched.increment();
+        } else {
+            switch (result.get().getPrecision()) {
+                case POSTCODE -> postcodeMatches.increment();
+                case STREET -> streetMatches.increment();
+                case CITY -> cityMatches.increment();
+            }
+        }
+        synchronized (cache) {
+            // A reload may have swapped the gazetteer while this lookup ran; do not cache its stale result
+            if (current == gazetteer) {
+                cache.put(key, result);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public GeocoderStatsResponse reload() {
+        reloadLock.lock();
+        try {
+            if (!enabled) {
+                System.out.println("DEBUG (GeocodingServiceImpl): Geocoder disabled.");
+                return getStats();
+            }
+            Path source = Paths.get(gazetteerFile);
+            if (!Files.isRegularFile(source)) {
+                System.out.println("DEBUG (GeocodingServiceImpl): No gazetteer at " + source.toAbsolutePath() + ", parcels will not be geocoded.");
+                return getStats();
+            }
+            long start = System.currentTimeMillis();
+            Path index = source.resolveSibling(source.getFileName() + INDEX_SUFFIX);
+            try {
+                if (!Files.exists(index) || Files.getLastModifiedTime(index).compareTo(Files.getLastModifiedTime(source)) < 0) {
+                    int entries = Gazetteer.compile(source, index);
+                    System.out.println("DEBUG (GeocodingServiceImpl): Compiled gazetteer index with " + entries + " entries.");
+                }
+                Gazetteer loaded = Gazetteer.open(index);
+                synchronized (cache) {
+                    gazetteer = loaded;
+                    cache.clear();
+                }
+                loadedAt = LocalDateTime.now();
+                System.out.println("DEBUG (GeocodingServiceImpl): Gazetteer loaded with " + loaded.getEntryCount() + " entries in "
+                        + (System.currentTimeMillis() - start) + " ms.");
+            } catch (IOException | RuntimeException e) {
+                System.err.println("ERROR (GeocodingServiceImpl): Could not load gazetteer " + source.toAbsolutePath() + ": " + e.getMessage());
+            }
+            return getStats();
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    @Override
+    public GeocoderStatsResponse getStats() {
+        Gazetteer current = gazetteer;
+        int cached;
+        synchronized (cache) {
+            cached = cache.size();
+        }
+        return GeocoderStatsResponse.builder()
+                .ready(current != null)
+                .gazetteerFile(gazetteerFile)
+                .gazetteerEntries(current != null ? current.getEntryCount() : 0)
+                .indexSizeBytes(current != null ? current.getSizeBytes() : 0)
+                .loadedAt(loadedAt)
+                .lookups(lookups.sum())
+                .cacheHits(cacheHits.sum())
+                .cacheSize(cached)
+                .postcodeMatches(postcodeMatches.sum())
+                .streetMatches(streetMatches.sum())
+                .cityMatches(cityMatches.sum())
+                .unmatched(unmatched.sum())
+                .build();
+    }
+}
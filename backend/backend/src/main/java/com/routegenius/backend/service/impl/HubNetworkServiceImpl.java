@@ -0,0 +1,249 @@
+package com.routegenius.backend.service.impl;
+
+import com.routegenius.backend.dto.HubLeg;
+import com.routegenius.backend.dto.HubNetworkStatsResponse;
+import com.routegenius.backend.dto.HubPathResponse;
+import com.routegenius.backend.entity.TransitTimeSketch;
+import com.routegenius.backend.repository.TransitTimeSketchRepository;
+import com.routegenius.backend.service.HubNetworkService;
+import com.routegenius.backend.util.HubGraph;
+import com.routegenius.backend.util.QuantileSketch;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hub-to-hub network derived from the transit time sketches that the ETA feature persists.
+ *
+ * Every sketch whose from and to cities differ is an observed leg between two hubs; sketches of the same city
+ * pair (different status transitions) are merged and the leg is weighed by its median. The graph and its
+ * contraction hierarchy are rebuilt in the background: each run only reads the rows merged into since the
+ * previous one and skips the rebuild if none changed. Queries run against an immutable snapshot that is
+ * swapped in when a rebuild finishes, so they never wait for one.
+ */
+@Service
+@RequiredArgsConstructor
+public class HubNetworkServiceImpl implements HubNetworkService {
+
+    // Rows are re-read this far back, to pick up merges that committed after a later-stamped one was read
+    private static final long REREAD_MARGIN_MINUTES = 5;
+
+    private final TransitTimeSketchRepository transitTimeSketchRepository;
+
+    // Legs with fewer observations than this are left out of the graph
+    @Value("${hubs.min-samples:3}")
+    private long minSamples;
+
+    private final Map<Long, Row> rows = new HashMap<>(); // By transit time row id; guarded by rebuildLock
+    private LocalDateTime watermark; // Latest updatedAt read so far
+    private volatile Network network;
+    private final AtomicLong queries = new AtomicLong();
+    private final ReentrantLock rebuildLock = new ReentrantLock(); // Guards rows and watermark
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        rebuild();
+    }
+
+    @Scheduled(initialDelayString = "${hubs.rebuild-interval-ms:300000}", fixedDelayString = "${hubs.rebuild-interval-ms:300000}")
+    public void scheduledRebuild() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            System.err.println("ERROR (HubNetworkServiceImpl): Could not rebuild the hub network: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public HubNetworkStatsResponse rebuild() {
+        rebuildLock.lock();
+        try {
+            long start = System.currentTimeMillis();
+            List<TransitTimeSketch> changed = watermark == null
+                    ? transitTimeSketchRepository.findAll()
+                    : transitTimeSketchRepository.findByUpdatedAtAfter(watermark.minusMinutes(REREAD_MARGIN_MINUTES));
+            boolean dirty = network == null;
+            for (TransitTimeSketch row : changed) {
+                if (row.getSketch() == null || row.getUpdatedAt() == null) {
+                    continue;
+                }
+                if (watermark == null || row.getUpdatedAt().isAfter(watermark)) {
+                    watermark = row.getUpdatedAt();
+                }
+                Row previous = rows.get(row.getId());
+                if (previous != null && previous.sampleCount == row.getSampleCount()) {
+                    continue; // Re-read within the margin, unchanged
+                }
+                rows.put(row.getId(), new Row(row.getFromCity(), row.getToCity(), row.getSampleCount(), QuantileSketch.fromBytes(row.getSketch())));
+                dirty = true;
+            }
+            if (!dirty) {
+                return getStats();
+            }
+            network = build(start);
+            System.out.println("DEBUG (HubNetworkServiceImpl): Built hub network with " + network.graph.getHubCount() + " hubs, "
+                    + network.graph.getEdgeCount() + " legs and " + network.graph.getShortcutCount() + " shortcuts from "
+                    + changed.size() + " changed rows in " + network.buildTimeMs + " ms.");
+            return getStats();
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    @Override
+    public HubPathResponse fastestPath(String from, String to) {
+        if (from == null || from.isBlank() || to == null || to.isBlank()) {
+            throw new IllegalArgumentException("Both from and to cities are required.");
+        }
+        HubPathResponse unavailable = HubPathResponse.builder().from(from).to(to).available(false).legs(List.of()).build();
+        Network current = network;
+        if (current == null) {
+            return unavailable;
+        }
+        int source = current.graph.indexOf(from);
+        int target = current.graph.indexOf(to);
+        if (source < 0 || target < 0) {
+            return unavailable;
+        }
+        queries.incrementAndGet();
+        long start = System.nanoTime();
+        HubGraph.Path path = current.searches.get().fastestPath(source, target);
+        long micros = (System.nanoTime() - start) / 1000;
+        if (path == null) {
+            return unavailable;
+        }
+
+        int[] hubs = path.getHubs();
+        List<HubLeg> legs = new ArrayList<>(hubs.length - 1);
+        for (int i = 1; i < hubs.length; i++) {
+            legs.add(HubLeg.builder()
+                    .from(current.graph.getName(hubs[i - 1]))
+                    .to(current.graph.getName(hubs[i]))
+                    .medianSeconds(Math.round(current.graph.edgeWeight(hubs[i - 1], hubs[i])))
+                    .samples(current.samples.get(pairKey(hubs[i - 1], hubs[i])))
+                    .build());
+        }
+        return HubPathResponse.builder()
+                .from(current.graph.getName(source))
+                .to(current.graph.getName(target))
+                .available(true)
+                .legs(legs)
+                .totalSeconds(Math.round(path.getCost()))
+                .hubsSearched(path.getSettled())
+                .queryMicros(micros)
+                .build();
+    }
+
+    @Override
+    public HubNetworkStatsResponse getStats() {
+        Network current = network;
+        if (current == null) {
+            return HubNetworkStatsResponse.builder().ready(false).queries(queries.get()).build();
+        }
+        return HubNetworkStatsResponse.builder()
+                .ready(true)
+                .hubs(current.graph.getHubCount())
+                .legs(current.graph.getEdgeCount())
+                .shortcuts(current.graph.getShortcutCount())
+                .transitRows(current.transitRows)
+                .builtAt(current.builtAt)
+                .buildTimeMs(current.buildTimeMs)
+                .queries(queries.get())
+                .build();
+    }
+
+    private Network build(long start) {
+        Map<String, Integer> hubIds = new LinkedHashMap<>();
+        List<String> names = new ArrayList<>();
+        Map<Long, QuantileSketch> pairs = new HashMap<>();
+        for (Row row : rows.values()) {
+            if (row.fromCity.isEmpty() || row.toCity.isEmpty() || row.fromCity.equalsIgnoreCase(row.toCity)) {
+                continue; // Status changes within a city are not legs
+            }
+            int from = hubId(row.fromCity, hubIds, names);
+            int to = hubId(row.toCity, hubIds, names);
+            pairs.computeIfAbsent(pairKey(from, to), key -> new QuantileSketch()).merge(row.sketch);
+        }
+
+        int[] edgeFrom = new int[pairs.size()];
+        int[] edgeTo = new int[pairs.size()];
+        double[] edgeWeights = new double[pairs.size()];
+        Map<Long, Long> samples = new HashMap<>();
+        int m = 0;
+        for (Map.Entry<Long, QuantileSketch> pair : pairs.entrySet()) {
+            QuantileSketch sketch = pair.getValue();
+            if (sketch.getCount() < minSamples) {
+                continue;
+            }
+            edgeFrom[m] = (int) (pair.getKey() >>> 32);
+            edgeTo[m] = (int) (long) pair.getKey();
+            edgeWeights[m] = sketch.quantile(0.5);
+            samples.put(pair.getKey(), sketch.getCount());
+            m++;
+        }
+        HubGraph graph = HubGraph.build(names.toArray(new String[0]),
+                Arrays.copyOf(edgeFrom, m), Arrays.copyOf(edgeTo, m), Arrays.copyOf(edgeWeights, m));
+        return new Network(graph, samples, rows.size(), LocalDateTime.now(), System.currentTimeMillis() - start);
+    }
+
+    private static int hubId(String city, Map<String, Integer> hubIds, List<String> names) {
+        return hubIds.computeIfAbsent(city.toLowerCase(Locale.ROOT), key -> {
+            names.add(city);
+            return names.size() - 1;
+        });
+    }
+
+    private static long pairKey(int from, int to) {
+        return ((long) from << 32) | (to & 0xFFFFFFFFL);
+    }
+
+    private static final class Row {
+        private final String fromCity;
+        private final String toCity;
+        private final long sampleCount;
+        private final QuantileSketch sketch;
+
+        Row(String fromCity, String toCity, long sampleCount, QuantileSketch sketch) {
+            this.fromCity = fromCity != null ? fromCity.trim() : "";
+            this.toCity = toCity != null ? toCity.trim() : "";
+            this.sampleCount = sampleCount;
+            this.sketch = sketch;
+        }
+    }
+
+    /**
+     * One immutable build of the graph. Each thread keeps its own search arrays per build; they are dropped
+     * with the build when a newer one replaces it.
+     */
+    private static final class Network {
+        private final HubGraph graph;
+        private final Map<Long, Long> samples; // Per hub pair, see pairKey
+        private final int transitRows;
+        private final LocalDateTime builtAt;
+        private final long buildTimeMs;
+        private final ThreadLocal<HubGraph.Search> searches;
+
+        Network(HubGraph graph, Map<Long, Long> samples, int transitRows, LocalDateTime builtAt, long buildTimeMs) {
+            this.graph = graph;
+            this.samples = samples;
+            this.transitRows = transitRows;
+            this.builtAt = builtAt;
+            this.buildTimeMs = buildTimeMs;
+            this.searches = ThreadLocal.withInitial(graph::newSearch);
+        }
+    }
+}
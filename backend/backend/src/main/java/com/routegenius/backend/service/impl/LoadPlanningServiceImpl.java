@@ -0,0 +1,232 @@
+package com.routegenius.backend.service.impl;
+
+import com.routegenius.backend.dto.DepotLoadPlan;
+import com.routegenius.backend.dto.LoadItem;
+import com.routegenius.backend.dto.LoadPlanRequest;
+import com.routegenius.backend.dto.LoadPlanResponse;
+import com.routegenius.backend.dto.VehicleManifest;
+import com.routegenius.backend.dto.VehicleSpec;
+import com.routegenius.backend.entity.Parcel;
+import com.routegenius.backend.entity.ParcelStatus;
+import com.routegenius.backend.repository.ParcelRepository;
+import com.routegenius.backend.service.LoadPlanningService;
+import com.routegenius.backend.util.LoadPlanner;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class LoadPlanningServiceImpl implements LoadPlanningService {
+
+    private static final Set<ParcelStatus> LOADABLE_STATUSES = EnumSet.of(ParcelStatus.PENDING);
+    private static final int MAX_VEHICLES_PER_DEPOT = 10000;
+
+    private final ParcelRepository parcelRepository;
+
+    // Default fleet per depot, used when a request does not describe one
+    @Value("${load-planning.default-fleet.type:VAN}")
+    private String defaultVehicleType;
+
+    @Value("${load-planning.default-fleet.count:20}")
+    private int defaultVehicleCount;
+
+    @Value("${load-planning.default-fleet.max-weight:1000}")
+    private double defaultMaxWeight;
+
+    @Value("${load-planning.default-fleet.cargo-length:320}")
+    private double defaultCargoLength;
+
+    @Value("${load-planning.default-fleet.cargo-width:170}")
+    private double defaultCargoWidth;
+
+    @Value("${load-planning.default-fleet.cargo-height:180}")
+    private double defaultCargoHeight;
+
+    @Value("${load-planning.fill-factor:0.85}")
+    private double defaultFillFactor;
+
+    // Dedicated pool so long solves do not occupy the common pool used by parallel streams elsewhere
+    private final ForkJoinPool loadingPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+    @PreDestroy
+    public void shutdown() {
+        loadingPool.shutdownNow();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public LoadPlanResponse planLoads(LoadPlanRequest request) {
+        LoadPlanRequest options = request != null ? request : new LoadPlanRequest();
+        List<VehicleSpec> fleet = options.getVehicles() == null || options.getVehicles().isEmpty()
+                ? List.of(new VehicleSpec(defaultVehicleType, defaultVehicleCount, defaultMaxWeight,
+                        defaultCargoLength, defaultCargoWidth, defaultCargoHeight))
+                : options.getVehicles();
+        double fillFactor = options.getFillFactor() != null ? options.getFillFactor() : defaultFillFactor;
+        validate(fleet, fillFactor);
+        System.out.println("DEBUG (LoadPlanningServiceImpl): planLoads called for depots " + options.getDepots() + " with " + fleet.size() + " vehicle type(s).");
+
+        long start = System.currentTimeMillis();
+        List<Parcel> parcels = options.getDepots() == null || options.getDepots().isEmpty()
+                ? parcelRepository.findByStatusIn(LOADABLE_STATUSES)
+                : parcelRepository.findByStatusInAndCurrentCityIn(LOADABLE_STATUSES, options.getDepots());
+        Map<String, List<Parcel>> byDepot = parcels.stream()
+                .collect(Collectors.groupingBy(Parcel::getCurrentCity, TreeMap::new, Collectors.toList()));
+
+        List<DepotLoadPlan> plans;
+        try {
+            plans = loadingPool.submit(() -> byDepot.entrySet().parallelStream()
+                    .map(entry -> planDepot(entry.getKey(), entry.getValue(), fleet, fillFactor))
+                    .collect(Collectors.toList())).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Load planning was interrupted.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Load planning failed.", e.getCause());
+        }
+
+        int unassigned = plans.stream().mapToInt(plan -> plan.getUnassigned().size()).sum();
+        int vehiclesUsed = plans.stream().mapToInt(DepotLoadPlan::getVehiclesUsed).sum();
+        long duration = System.currentTimeMillis() - start;
+        System.out.println("DEBUG (LoadPlanningServiceImpl): Loaded " + (parcels.size() - unassigned) + " parcels into " + vehiclesUsed
+                + " vehicles at " + plans.size() + " depots in " + duration + " ms, " + unassigned + " unassigned.");
+        return LoadPlanResponse.builder()
+                .depots(plans)
+                .parcelsLoaded(parcels.size() - unassigned)
+                .parcelsUnassigned(unassigned)
+                .vehiclesUsed(vehiclesUsed)
+                .solveTimeMs(duration)
+                .build();
+    }
+
+    private void validate(List<VehicleSpec> fleet, double fillFactor) {
+        if (!(fillFactor > 0 && fillFactor <= 1)) {
+            throw new IllegalArgumentException("fillFactor must be greater than 0 and at most 1.");
+        }
+        long vehicles = 0;
+        for (VehicleSpec spec : fleet) {
+            if (spec.getCount() == null || spec.getCount() < 1
+                    || !isPositive(spec.getMaxWeight()) || !isPositive(spec.getCargoLength())
+                    || !isPositive(spec.getCargoWidth()) || !isPositive(spec.getCargoHeight())) {
+                throw new IllegalArgumentException("Every vehicle type needs a positive count, maxWeight and cargo dimensions.");
+            }
+            vehicles += spec.getCount();
+        }
+        if (vehicles > MAX_VEHICLES_PER_DEPOT) {
+            throw new IllegalArgumentException("At most " + MAX_VEHICLES_PER_DEPOT + " vehicles per depot can be planned.");
+        }
+    }
+
+    private static boolean isPositive(Double value) {
+        return value != null && value > 0;
+    }
+
+    private DepotLoadPlan planDepot(String depot, List<Parcel> depotParcels, List<VehicleSpec> fleet, double fillFactor) {
+        long start = System.currentTimeMillis();
+        int n = depotParcels.size();
+        double[] weights = new double[n];
+        double[] lengths = new double[n];
+        double[] widths = new double[n];
+        double[] heights = new double[n];
+        for (int i = 0; i < n; i++) {
+            Parcel parcel = depotParcels.get(i);
+            weights[i] = parcel.getWeight();
+            lengths[i] = parcel.getDimensionsLength();
+            widths[i] = parcel.getDimensionsWidth();
+            heights[i] = parcel.getDimensionsHeight();
+        }
+
+        int vehicleCount = fleet.stream().mapToInt(VehicleSpec::getCount).sum();
+        double[] maxWeights = new double[vehicleCount];
+        double[] cargoLengths = new double[vehicleCount];
+        double[] cargoWidths = new double[vehicleCount];
+        double[] cargoHeights = new double[vehicleCount];
+        String[] names = new String[vehicleCount];
+        String[] types = new String[vehicleCount];
+        int v = 0;
+        for (VehicleSpec spec : fleet) {
+            String type = spec.getType() != null && !spec.getType().isBlank() ? spec.getType() : defaultVehicleType;
+            for (int k = 1; k <= spec.getCount(); k++, v++) {
+                maxWeights[v] = spec.getMaxWeight();
+                cargoLengths[v] = spec.getCargoLength();
+                cargoWidths[v] = spec.getCargoWidth();
+                cargoHeights[v] = spec.getCargoHeight();
+                types[v] = type;
+                names[v] = type + "-" + k;
+            }
+        }
+
+        int[] assignment = LoadPlanner.plan(weights, lengths, widths, heights,
+                maxWeights, cargoLengths, cargoWidths, cargoHeights, fillFactor);
+
+        List<List<LoadItem>> itemsPerVehicle = new ArrayList<>(vehicleCount);
+        double[] loadWeights = new double[vehicleCount];
+        double[] loadVolumes = new double[vehicleCount];
+        for (int i = 0; i < vehicleCount; i++) {
+            itemsPerVehicle.add(new ArrayList<>());
+        }
+        List<LoadItem> unassigned = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            LoadItem item = toLoadItem(depotParcels.get(i));
+            if (assignment[i] < 0) {
+                unassigned.add(item);
+                continue;
+            }
+            itemsPerVehicle.get(assignment[i]).add(item);
+            loadWeights[assignment[i]] += weights[i];
+            loadVolumes[assignment[i]] += lengths[i] * widths[i] * heights[i];
+        }
+
+        List<VehicleManifest> manifests = new ArrayList<>();
+        for (int i = 0; i < vehicleCount; i++) {
+            if (itemsPerVehicle.get(i).isEmpty()) {
+                continue;
+            }
+            manifests.add(VehicleManifest.builder()
+                    .vehicle(names[i])
+                    .type(types[i])
+                    .loadWeight(loadWeights[i])
+                    .maxWeight(maxWeights[i])
+                    .weightUtilisation(loadWeights[i] / maxWeights[i])
+                    .volumeUtilisation(loadVolumes[i] / (cargoLengths[i] * cargoWidths[i] * cargoHeights[i]))
+                    .items(itemsPerVehicle.get(i))
+                    .build());
+        }
+        return DepotLoadPlan.builder()
+                .depot(depot)
+                .parcels(n)
+                .vehiclesAvailable(vehicleCount)
+                .vehiclesUsed(manifests.size())
+                .solveTimeMs(System.currentTimeMillis() - start)
+                .manifests(manifests)
+                .unassigned(unassigned)
+                .build();
+    }
+
+    private LoadItem toLoadItem(Parcel parcel) {
+        return LoadItem.builder()
+                .parcelId(parcel.getId())
+                .trackingId(parcel.getTrackingId())
+                .weight(parcel.getWeight())
+                .length(parcel.getDimensionsLength())
+                .width(parcel.getDimensionsWidth())
+                .height(parcel.getDimensionsHeight())
+                .recipientAddress(parcel.getRecipientAddress())
+                .build();
+    }
+}
@@ -0,0 +1,29 @@
+package com.routegenius.backend.service.impl;
+
+import com.routegenius.backend.entity.OutboxEvent;
+import com.routegenius.backend.entity.OutboxEventType;
+import com.routegenius.backend.service.NotificationService;
+import com.routegenius.backend.service.OutboxHandler;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Tells the recipient when their parcel's status changes. Location-only moves do not notify.
+ */
+@Component
+@RequiredArgsConstructor
+public class NotificationOutboxHandler implements OutboxHandler {
+
+    private final NotificationService notificationService;
+
+    @Override
+    public boolean handles(OutboxEventType type) {
+        return type == OutboxEventType.PARCEL_STATUS_CHANGED;
+    }
+
+    @Override
+    public void handle(OutboxEvent event) {
+        // Uses the status recorded with the event: by now the parcel may have moved on, and that move has its own event
+        notificationService.generateNotificationForParcelStatusChange(event.getParcelId(), event.getStatus());
+    }
+}
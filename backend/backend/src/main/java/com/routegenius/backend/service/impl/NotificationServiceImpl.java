@@ -2,27 +2,51 @@ package com.routegenius.backend.service.impl;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.routegenius.backend.config.Bulkheads;
+import com.routegenius.backend.config.MetricsConfig;
 import com.routegenius.backend.entity.Notification;
+import com.routegenius.backend.entity.OutboxEvent;
 import com.routegenius.backend.entity.Parcel;
 import com.routegenius.backend.entity.ParcelStatus;
 import com.routegenius.backend.entity.User;
 import com.routegenius.backend.exception.ResourceNotFoundException;
+import com.routegenius.backend.profiling.ExternalCallEvent;
+import com.routegenius.backend.profiling.RequestProfile;
 import com.routegenius.backend.repository.NotificationRepository;
 import com.routegenius.backend.repository.ParcelRepository;
 import com.routegenius.backend.repository.UserRepository;
 import com.routegenius.backend.service.MailService;
 import com.routegenius.backend.service.NotificationService;
+import com.routegenius.backend.service.NotificationSubscriptionService;
+import com.routegenius.backend.service.OutboxService;
+import com.routegenius.backend.util.Bulkhead;
+import com.routegenius.backend.util.NotificationRules;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.client.RestTemplate;
 
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
@@ -37,13 +61,33 @@ public class NotificationServiceImpl implements NotificationService {
     private final UserRepository userRepository;
     private final RestTemplate restTemplate;
     private final MailService mailService;
+    private final OutboxService outboxService;
+    private final NotificationSubscriptionService notificationSubscriptionService;
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Bulkheads bulkheads;
+    private final PlatformTransactionManager transactionManager;
 
     // Use @Value to inject API key from properties.
     // The default value is an empty string, which Canvas should override.
     @Value("${gemini.api.key:}")
     private String geminiApiKey;
 
+    // Overridable so load tests can point it at a local stand-in
+    @Value("${gemini.api.url:https://generativelanguage.googleapis.com/v1beta/models/gemini-2.5-flash-preview-05-20:generateContent}")
+    private String geminiApiUrl;
+
+    private static final int INSERT_CHUNK = 500; // Rows per multi-row INSERT
+
     private final ObjectMapper objectMapper = new ObjectMapper();
+    private DistributionSummary recipientsPerEvent;
+
+    @PostConstruct
+    void registerMeters() {
+        recipientsPerEvent = DistributionSummary.builder("routegenius.notifications.recipients")
+                .description("Users notified of one parcel status change")
+                .register(meterRegistry);
+    }
 
     @Override
     @Transactional
@@ -65,6 +109,7 @@ public class NotificationServiceImpl implements NotificationService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Notification> getUserNotifications(Long userId) {
         return notificationRepository.findByUserIdOrderByTimestampDesc(userId);
     }
@@ -87,37 +132,80 @@ public class NotificationServiceImpl implements NotificationService {
         notificationRepository.deleteById(notificationId);
     }
 
+    // No transaction around the whole method: the Gemini calls run between two short ones, so the relay's
+    // handlers do not hold a connection for seconds while the messages are written
     @Override
-    @Transactional
     public void generateNotificationForParcelStatusChange(Long parcelId, ParcelStatus newStatus) {
         System.out.println("DEBUG (NotificationServiceImpl): Entering generateNotificationForParcelStatusChange for parcelId: " + parcelId + ", status: " + newStatus);
+        // Read-write, so it is served by the primary: the status change committed moments ago
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        StatusChange change = transaction.execute(status -> {
+            Parcel parcel = parcelRepository.findById(parcelId)
+                    .orElseThrow(() -> {
+                        System.err.println("ERROR (NotificationServiceImpl): Parcel not found for notification generation: " + parcelId);
+                        return new ResourceNotFoundException("Parcel not found with ID: " + parcelId);
+                    });
+            // Who hears about this status: recipient, sender and the merchant's watchers, as the notification rules say
+            return new StatusChange(parcel, notificationSubscriptionService.resolveRecipients(parcel, newStatus));
+        });
+        Parcel parcel = change.parcel;
+        long[] userIds = change.userIds;
+        if (userIds.length == 0) {
+            System.out.println("DEBUG (NotificationServiceImpl): No one is notified of " + newStatus + " for parcel " + parcelId);
+            return;
+        }
+        System.out.println("DEBUG (NotificationServiceImpl): Successfully fetched parcel; notifying " + userIds.length + " users.");
+
+        // One message per audience, so at most three Gemini calls however many users are notified. A user who is
+        // both recipient and sender gets the recipient's wording
+        Map<NotificationRules.Audience, String> rendered = new EnumMap<>(NotificationRules.Audience.class);
+        String[] messages = new String[userIds.length];
+        for (int i = 0; i < userIds.length; i++) {
+            NotificationRules.Audience audience = userIds[i] == parcel.getRecipientId() ? NotificationRules.Audience.RECIPIENT
+                    : userIds[i] == parcel.getSenderId() ? NotificationRules.Audience.SENDER : NotificationRules.Audience.WATCHER;
+            messages[i] = rendered.computeIfAbsent(audience, a -> renderMessage(parcel, newStatus, a));
+        }
+
+        transaction.executeWithoutResult(status -> {
+            // Stored with one multi-row INSERT per chunk instead of one per user
+            List<Long> notificationIds = insertNotifications(userIds, messages, parcel.getId(), newStatus);
+
+            // The emails go out through the outbox, so they are retried if SMTP fails and lost with the notifications on rollback
+            List<OutboxEvent> emails = new ArrayList<>(notificationIds.size());
+            for (Long notificationId : notificationIds) {
+                emails.add(OutboxEvent.notificationCreated(notificationId, parcel.getId(), newStatus));
+            }
+            outboxService.record(emails);
+            System.out.println("DEBUG (NotificationServiceImpl): Created " + notificationIds.size() + " notifications and queued their emails.");
+        });
+        recipientsPerEvent.record(userIds.length);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public String draftNotificationForParcelStatusChange(Long parcelId, ParcelStatus newStatus) {
         Parcel parcel = parcelRepository.findById(parcelId)
-                .orElseThrow(() -> {
-                    System.err.println("ERROR (NotificationServiceImpl): Parcel not found for notification generation: " + parcelId);
-                    return new ResourceNotFoundException("Parcel not found with ID: " + parcelId);
-                });
-
-        User sender = userRepository.findById(parcel.getSenderId())
-                .orElseThrow(() -> {
-                    System.err.println("ERROR (NotificationServiceImpl): Sender not found for parcel ID: " + parcelId);
-                    return new ResourceNotFoundException("Sender not found for parcel ID: " + parcelId);
-                });
-        User recipient = userRepository.findById(parcel.getRecipientId())
-                .orElseThrow(() -> {
-                    System.err.println("ERROR (NotificationServiceImpl): Recipient not found for parcel ID: " + parcelId);
-                    return new ResourceNotFoundException("Recipient not found for parcel ID: " + parcelId);
-                });
-
-        System.out.println("DEBUG (NotificationServiceImpl): Successfully fetched parcel, sender, and recipient.");
+                .orElseThrow(() -> new ResourceNotFoundException("Parcel not found with ID: " + parcelId));
+        return renderMessage(parcel, newStatus, NotificationRules.Audience.RECIPIENT);
+    }
 
+    // Asks Gemini for the message text, worded for the audience; on failure the notification still goes out with a placeholder
+    private String renderMessage(Parcel parcel, ParcelStatus newStatus, NotificationRules.Audience audience) {
         // --- START OF MODIFIED PROMPT ---
+        String reader = switch (audience) {
+            case RECIPIENT -> "the recipient of the parcel. Example: 'Your parcel (ID: ABC123) is now in transit.'";
+            case SENDER -> "the sender of the parcel. Example: 'The parcel you sent (ID: ABC123) is now in transit.'";
+            case WATCHER -> "support staff following the merchant's shipments, who neither sent nor receive it. "
+                    + "Do not address them as its owner. Example: 'Parcel ABC123 is now in transit.'";
+        };
         String prompt = String.format(
                 "Generate a single, concise, and professional notification message for a user. " +
                         "The parcel has a tracking ID: %s and a new status of: %s. " +
                         "The message should be customer-friendly and should not contain any options, markdown, or extra information. " +
-                        "Example: 'Your parcel (ID: ABC123) is now in transit.'",
+                        "The message is for %s",
                 parcel.getTrackingId(),
-                newStatus.name().replace("_", " ")
+                newStatus.name().replace("_", " "),
+                reader
         );
         // --- END OF MODIFIED PROMPT ---
 
@@ -133,31 +221,66 @@ public class NotificationServiceImpl implements NotificationService {
             // Keep the default error message
         }
 
-        Long userIdToNotify = parcel.getRecipientId(); // Typically notify the recipient
-
-        if (userIdToNotify != null) {
-            System.out.println("DEBUG (NotificationServiceImpl): Creating notification for userId: " + userIdToNotify + " with message: " + generatedMessage);
-            createNotification(userIdToNotify, parcel.getId(), generatedMessage, newStatus);
-            System.out.println("DEBUG (NotificationServiceImpl): Notification created successfully.");
-
-            // ADDED EMAIL SENDING LOGIC HERE
-            User userToNotify = userRepository.findById(userIdToNotify)
-                    .orElseThrow(() -> new ResourceNotFoundException("User to notify not found with ID: " + userIdToNotify));
-            String recipientEmail = userToNotify.getEmail();
-            String emailSubject = "RouteGenius Parcel Update: " + parcel.getTrackingId() + " - " + newStatus.name().replace("_", " ");
+        return generatedMessage;
+    }
 
-            mailService.sendEmail(recipientEmail, emailSubject, generatedMessage);
-            System.out.println("DEBUG (NotificationServiceImpl): Email sending initiated for " + recipientEmail);
-            // END ADDED EMAIL SENDING LOGIC
-        } else {
-            System.err.println("ERROR (NotificationServiceImpl): userIdToNotify is null, cannot create notification or send email.");
+    // Notifications use IDENTITY ids, which Hibernate cannot batch, so they are inserted with plain JDBC on the
+    // transaction's connection, as outbox rows are. MySQL returns the generated ids of every row of a multi-row INSERT.
+    private List<Long> insertNotifications(long[] userIds, String[] messages, Long parcelId, ParcelStatus status) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Long> ids = new ArrayList<>(userIds.length);
+        for (int from = 0; from < userIds.length; from += INSERT_CHUNK) {
+            int rows = Math.min(INSERT_CHUNK, userIds.length - from);
+            StringBuilder sql = new StringBuilder("INSERT INTO notifications (user_id, parcel_id, message, related_status, `timestamp`, is_read) VALUES ");
+            for (int i = 0; i < rows; i++) {
+                sql.append(i == 0 ? "(?, ?, ?, ?, ?, false)" : ", (?, ?, ?, ?, ?, false)");
+            }
+            int offset = from;
+            KeyHolder keys = new GeneratedKeyHolder();
+            jdbcTemplate.update(connection -> {
+                PreparedStatement statement = connection.prepareStatement(sql.toString(), Statement.RETURN_GENERATED_KEYS);
+                int parameter = 1;
+                for (int i = 0; i < rows; i++) {
+                    statement.setLong(parameter++, userIds[offset + i]);
+                    statement.setLong(parameter++, parcelId);
+                    statement.setString(parameter++, messages[offset + i]);
+                    statement.setString(parameter++, status.name());
+                    statement.setTimestamp(parameter++, now);
+                }
+                return statement;
+            }, keys);
+            for (Map<String, Object> key : keys.getKeyList()) {
+                ids.add(((Number) key.values().iterator().next()).longValue());
+            }
         }
+        return ids;
+    }
+
+    // Like the fan-out, reads in a short transaction and sends outside it, so no connection waits on SMTP
+    @Override
+    public void sendNotificationEmail(Long notificationId) {
+        // Read-write, so it is served by the primary: the notification was committed moments ago and may not have reached the replica
+        SimpleMailMessage email = new TransactionTemplate(transactionManager).execute(status -> {
+            Notification notification = notificationRepository.findById(notificationId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Notification not found with ID: " + notificationId));
+            User userToNotify = userRepository.findById(notification.getUserId())
+                    .orElseThrow(() -> new ResourceNotFoundException("User to notify not found with ID: " + notification.getUserId()));
+            Parcel parcel = parcelRepository.findById(notification.getParcelId())
+                    .orElseThrow(() -> new ResourceNotFoundException("Parcel not found with ID: " + notification.getParcelId()));
+            SimpleMailMessage message = new SimpleMailMessage();
+            message.setTo(userToNotify.getEmail());
+            message.setSubject("RouteGenius Parcel Update: " + parcel.getTrackingId() + " - " + notification.getRelatedStatus().name().replace("_", " "));
+            message.setText(notification.getMessage());
+            return message;
+        });
+
+        mailService.send(email.getTo()[0], email.getSubject(), email.getText());
     }
 
     private String callGeminiApi(String prompt) throws Exception {
         System.out.println("DEBUG (NotificationServiceImpl): Inside callGeminiApi method.");
         // --- START OF MODIFIED API URL ---
-        String apiUrl = "https://generativelanguage.googleapis.com/v1beta/models/gemini-2.5-flash-preview-05-20:generateContent";
+        String apiUrl = geminiApiUrl;
         // --- END OF MODIFIED API URL ---
 
         // Append API key if it's present. If not, the request will fail with 403.
@@ -184,7 +307,36 @@ public class NotificationServiceImpl implements NotificationService {
         HttpEntity<Map<String, Object>> requestEntity = new HttpEntity<>(payload, headers);
 
         System.out.println("DEBUG (NotificationServiceImpl): Sending request to Gemini API...");
-        ResponseEntity<String> responseEntity = restTemplate.postForEntity(apiUrl, requestEntity, String.class);
+        Bulkhead bulkhead = bulkheads.gemini();
+        bulkhead.acquire(); // Throws BulkheadFullException; the caller then keeps the default message
+        ResponseEntity<String> responseEntity;
+        Timer.Sample sample = Timer.start(meterRegistry);
+        ExternalCallEvent event = new ExternalCallEvent();
+        event.begin();
+        long span = RequestProfile.enter();
+        String outcome = "success";
+        try {
+            responseEntity = restTemplate.postForEntity(apiUrl, requestEntity, String.class);
+            if (!responseEntity.getStatusCode().is2xxSuccessful()) {
+                outcome = "http_" + responseEntity.getStatusCode().value();
+            }
+        } catch (HttpStatusCodeException e) {
+            outcome = "http_" + e.getStatusCode().value();
+            throw e;
+        } catch (RuntimeException e) {
+            outcome = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            bulkhead.release();
+            sample.stop(meterRegistry.timer(MetricsConfig.EXTERNAL_CALLS, "target", "gemini", "outcome", outcome));
+            RequestProfile.exit("gemini", "Gemini", "generateContent", span);
+            event.end();
+            if (event.shouldCommit()) {
+                event.target = "gemini";
+                event.outcome = outcome;
+                event.commit();
+            }
+        }
         System.out.println("DEBUG (NotificationServiceImpl): Received response from Gemini API. Status: " + responseEntity.getStatusCode());
 
         if (responseEntity.getStatusCode().is2xxSuccessful()) {
@@ -205,4 +357,15 @@ public class NotificationServiceImpl implements NotificationService {
             throw new RuntimeException("Gemini API call failed with status: " + responseEntity.getStatusCode() + " Body: " + errorBody);
         }
     }
+
+    // The parcel and the users to notify, read together before the messages are rendered
+    private static final class StatusChange {
+        private final Parcel parcel;
+        private final long[] userIds;
+
+        StatusChange(Parcel parcel, long[] userIds) {
+            this.parcel = parcel;
+            this.userIds = userIds;
+        }
+    }
 }
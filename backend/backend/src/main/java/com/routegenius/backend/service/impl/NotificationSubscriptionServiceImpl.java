@@ -0,0 +1,217 @@
+package com.routegenius.backend.service.impl;
+
+import com.routegenius.backend.dto.NotificationSubscriptionRequest;
+import com.routegenius.backend.dto.NotificationSubscriptionResponse;
+import com.routegenius.backend.entity.NotificationSubscription;
+import com.routegenius.backend.entity.Parcel;
+import com.routegenius.backend.entity.ParcelStatus;
+import com.routegenius.backend.entity.User;
+import com.routegenius.backend.exception.ResourceNotFoundException;
+import com.routegenius.backend.repository.NotificationSubscriptionRepository;
+import com.routegenius.backend.repository.UserRepository;
+import com.routegenius.backend.service.NotificationSubscriptionService;
+import com.routegenius.backend.util.NotificationRules;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the notification rules and every subscription in memory as a {@link NotificationRules} index, so
+ * resolving who hears about a status change needs no query however many watchers a merchant has.
+ *
+ * Subscription changes made through this service are applied to the index once their transaction commits.
+ * The whole index is also re-read every notification.subscriptions.reload-interval-ms, which picks up rows
+ * changed by other instances or directly in the database.
+ */
+@Service
+@RequiredArgsConstructor
+public class NotificationSubscriptionServiceImpl implements NotificationSubscriptionService {
+
+    private final NotificationSubscriptionRepository subscriptionRepository;
+    private final UserRepository userRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    // Which audiences hear about each status; statuses that are not listed notify nobody
+    @Value("${notification.rules:PENDING:RECIPIENT;DISPATCHED:RECIPIENT,SENDER;IN_TRANSIT:RECIPIENT;DELIVERED:RECIPIENT,SENDER,WATCHER;EXCEPTION:RECIPIENT,SENDER,WATCHER;RETURNED:RECIPIENT,SENDER,WATCHER;CANCELLED:RECIPIENT,SENDER}")
+    private String rulesSpec;
+
+    private Map<ParcelStatus, Set<NotificationRules.Audience>> rules;
+    private final Map<Long, Row> rows = new HashMap<>(); // By subscription id; guarded by lock
+    private final ReentrantLock lock = new ReentrantLock(); // Guards rows and the swap of index
+    private volatile NotificationRules index;
+
+    private static final class Row {
+        private final long userId;
+        private final long merchantId;
+        private final ParcelStatus status;
+
+        Row(long userId, long merchantId, ParcelStatus status) {
+            this.userId = userId;
+            this.merchantId = merchantId;
+            this.status = status;
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        rules = NotificationRules.parseRules(rulesSpec); // A mistake in the rules fails the startup
+        index = NotificationRules.builder(rules).build(); // Recipient and sender rules work before the first load
+        System.out.println("DEBUG (NotificationSubscriptionServiceImpl): Notification rules: " + rules);
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${notification.subscriptions.reload-interval-ms:60000}")
+    public void scheduledReload() {
+        try {
+            reload();
+        } catch (RuntimeException e) {
+            System.err.println("ERROR (NotificationSubscriptionServiceImpl): Reloading notification subscriptions failed: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void reload() {
+        long start = System.nanoTime();
+        lock.lock();
+        try {
+            // Read on the primary: a subscription made moments ago may not have reached the replica. Holding the
+            // lock while reading makes a change that commits meanwhile wait, and be applied on top of this read.
+            List<Object[]> all = new TransactionTemplate(transactionManager)
+                    .execute(status -> subscriptionRepository.findAllRows());
+            rows.clear();
+            for (Object[] row : all) {
+                rows.put((Long) row[0], new Row((Long) row[1], (Long) row[2], (ParcelStatus) row[3]));
+            }
+            rebuild();
+        } finally {
+            lock.unlock();
+        }
+        System.out.println("DEBUG (NotificationSubscriptionServiceImpl): Loaded " + index.getSubscriptionCount() + " subscriptions to "
+                + index.getMerchantCount() + " merchants in " + (System.nanoTime() - start) / 1_000_000 + " ms.");
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<NotificationSubscriptionResponse> getSubscriptions(Long merchantId) {
+        List<NotificationSubscription> subscriptions = merchantId != null
+                ? subscriptionRepository.findByMerchantIdOrderByIdAsc(merchantId)
+                : subscriptionRepository.findAll();
+        Map<Long, String> emails = userRepository.findAllById(subscriptions.stream().map(NotificationSubscription::getUserId)
+                        .collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(User::getId, User::getEmail));
+        return subscriptions.stream().map(subscription -> toResponse(subscription, emails::get)).collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional
+    public NotificationSubscriptionResponse subscribe(NotificationSubscriptionRequest request) {
+        User watcher = userRepository.findById(request.getUserId())
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with ID: " + request.getUserId()));
+        if (!userRepository.existsById(request.getMerchantId())) {
+            throw new ResourceNotFoundException("Merchant not found with ID: " + request.getMerchantId());
+        }
+        // Checked here rather than by a unique key: MySQL lets a unique key hold any number of rows with a NULL status
+        boolean exists = request.getStatus() != null
+                ? subscriptionRepository.existsByUserIdAndMerchantIdAndStatus(request.getUserId(), request.getMerchantId(), request.getStatus())
+                : subscriptionRepository.existsByUserIdAndMerchantIdAndStatusIsNull(request.getUserId(), request.getMerchantId());
+        if (exists) {
+            throw new IllegalArgumentException("User " + request.getUserId() + " is already subscribed to merchant "
+                    + request.getMerchantId() + (request.getStatus() != null ? " for " + request.getStatus() : "") + ".");
+        }
+
+        NotificationSubscription subscription = subscriptionRepository.save(NotificationSubscription.builder()
+                .userId(request.getUserId())
+                .merchantId(request.getMerchantId())
+                .status(request.getStatus())
+                .createdAt(LocalDateTime.now())
+                .build());
+        Row row = new Row(subscription.getUserId(), subscription.getMerchantId(), subscription.getStatus());
+        afterCommit(() -> rows.put(subscription.getId(), row));
+        System.out.println("DEBUG (NotificationSubscriptionServiceImpl): User " + subscription.getUserId() + " subscribed to merchant "
+                + subscription.getMerchantId() + " (" + (subscription.getStatus() != null ? subscription.getStatus() : "every status") + ").");
+        return toResponse(subscription, id -> watcher.getEmail());
+    }
+
+    @Override
+    @Transactional
+    public void unsubscribe(Long subscriptionId) {
+        if (!subscriptionRepository.existsById(subscriptionId)) {
+            throw new ResourceNotFoundException("Notification subscription not found with ID: " + subscriptionId);
+        }
+        subscriptionRepository.deleteById(subscriptionId);
+        afterCommit(() -> rows.remove(subscriptionId));
+    }
+
+    @Override
+    @Transactional
+    public void removeForUser(Long userId) {
+        int removed = subscriptionRepository.deleteByUserOrMerchant(userId);
+        if (removed > 0) {
+            afterCommit(() -> rows.values().removeIf(row -> row.userId == userId || row.merchantId == userId));
+            System.out.println("DEBUG (NotificationSubscriptionServiceImpl): Removed " + removed + " subscriptions of user " + userId);
+        }
+    }
+
+    @Override
+    public long[] resolveRecipients(Parcel parcel, ParcelStatus status) {
+        return index.resolve(parcel.getSenderId(), parcel.getRecipientId(), status);
+    }
+
+    // Applies a change to the rows and swaps in a new index once the transaction that made it commits
+    private void afterCommit(Runnable change) {
+        Runnable apply = () -> {
+            lock.lock();
+            try {
+                change.run();
+                rebuild();
+            } finally {
+                lock.unlock();
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+            });
+        } else {
+            apply.run();
+        }
+    }
+
+    // Caller holds lock
+    private void rebuild() {
+        NotificationRules.Builder builder = NotificationRules.builder(rules);
+        for (Row row : rows.values()) {
+            builder.watch(row.userId, row.merchantId, row.status);
+        }
+        index = builder.build();
+    }
+
+    private static NotificationSubscriptionResponse toResponse(NotificationSubscription subscription, Function<Long, String> emails) {
+        return NotificationSubscriptionResponse.builder()
+                .id(subscription.getId())
+                .userId(subscription.getUserId())
+                .userEmail(emails.apply(subscription.getUserId()))
+                .merchantId(subscription.getMerchantId())
+                .status(subscription.getStatus())
+                .createdAt(subscription.getCreatedAt())
+                .build();
+    }
+}
@@ -0,0 +1,249 @@
+package com.routegenius.backend.service.impl;
+
+import com.routegenius.backend.entity.OutboxEvent;
+import com.routegenius.backend.entity.OutboxEventType;
+import com.routegenius.backend.exception.ResourceNotFoundException;
+import com.routegenius.backend.repository.OutboxEventRepository;
+import com.routegenius.backend.service.OutboxHandler;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Carries out the side effects recorded in the outbox.
+ *
+ * Every outbox.relay.interval-ms it claims up to outbox.relay.batch-size due rows with
+ * SELECT ... FOR UPDATE SKIP LOCKED and, in the same short transaction, counts the attempt and moves the rows'
+ * availability outbox.relay.lease-seconds ahead. Other relays skip the locked rows while the claim runs and
+ * ignore the leased rows afterwards, so no row locks are held while handlers call Gemini or SMTP. The claimed
+ * events are then handed to their handlers on outbox.relay.concurrency threads; handlers keep their transactions
+ * short and make no external calls inside them, and the default concurrency leaves most of the connection pool
+ * to requests. Events of one parcel always go to the same thread, which runs them in the order they were claimed,
+ * so a parcel's notifications and emails go out in the order of its status changes. That holds per relay and for
+ * first attempts; an event that is retried may be overtaken by later ones. Successful events are marked processed. Failed ones become due again after an exponential
+ * backoff, and are given up after outbox.relay.max-attempts. If the node dies, the lease runs out and another
+ * relay picks the events up again, which is why delivery is at least once.
+ *
+ * Processed rows are deleted outbox.retention-hours after processing.
+ */
+@Component
+@RequiredArgsConstructor
+public class OutboxRelay implements MeterBinder {
+
+    private static final int DELETE_CHUNK = 10000;
+    private static final int MAX_ERROR_LENGTH = 1000; // last_error column
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final List<OutboxHandler> handlers;
+    private final PlatformTransactionManager transactionManager;
+
+    // Disable on nodes that should only write to the outbox
+    @Value("${outbox.relay.enabled:true}")
+    private boolean enabled;
+    @Value("${outbox.relay.batch-size:100}")
+    private int batchSize;
+    @Value("${outbox.relay.concurrency:4}")
+    private int concurrency;
+    // Must be longer than a batch can take to dispatch, or a slow batch is claimed a second time
+    @Value("${outbox.relay.lease-seconds:300}")
+    private long leaseSeconds;
+    @Value("${outbox.relay.max-attempts:10}")
+    private int maxAttempts;
+    @Value("${outbox.relay.initial-backoff-seconds:5}")
+    private long initialBackoffSeconds;
+    @Value("${outbox.relay.max-backoff-seconds:3600}")
+    private long maxBackoffSeconds;
+    @Value("${outbox.retention-hours:72}")
+    private long retentionHours;
+
+    private ExecutorService[] workers; // Single threads; an event runs on the one its parcel id hashes to
+
+    private final Map<OutboxEventType, LongAdder> processed = counters();
+    private final Map<OutboxEventType, LongAdder> dropped = counters();
+    private final Map<OutboxEventType, LongAdder> retried = counters();
+    private final Map<OutboxEventType, LongAdder> failed = counters();
+
+    @PostConstruct
+    void start() {
+        workers = new ExecutorService[concurrency];
+        for (int i = 0; i < concurrency; i++) {
+            workers[i] = Executors.newSingleThreadExecutor(Thread.ofPlatform().name("outbox-relay-" + i).daemon().factory());
+        }
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        for (ExecutorService worker : workers) {
+            worker.shutdown();
+        }
+        // Events still running when this gives up are relayed again once their lease ends
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        for (ExecutorService worker : workers) {
+            worker.awaitTermination(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Scheduled(initialDelayString = "${outbox.relay.interval-ms:500}", fixedDelayString = "${outbox.relay.interval-ms:500}")
+    public void relay() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            // A full batch means more rows are probably due, so keep going until the outbox is drained
+            int claimed;
+            do {
+                claimed = relayBatch();
+            } while (claimed == batchSize);
+        } catch (RuntimeException e) {
+            System.err.println("ERROR (OutboxRelay): Relaying outbox events failed: " + e.getMessage());
+        }
+    }
+
+    private int relayBatch() {
+        List<OutboxEvent> events = claim();
+        if (events.isEmpty()) {
+            return 0;
+        }
+        long start = System.nanoTime();
+        List<CompletableFuture<Throwable>> outcomes = new ArrayList<>(events.size());
+        for (OutboxEvent event : events) {
+            outcomes.add(CompletableFuture.supplyAsync(() -> dispatch(event), workers[Math.floorMod(event.getParcelId().hashCode(), workers.length)]));
+        }
+
+        List<Long> done = new ArrayList<>();
+        List<OutboxEvent> failures = new ArrayList<>();
+        List<Throwable> errors = new ArrayList<>();
+        for (int i = 0; i < events.size(); i++) {
+            OutboxEvent event = events.get(i);
+            Throwable error = outcomes.get(i).join();
+            if (error == null || error instanceof ResourceNotFoundException) {
+                // A parcel or notification deleted since the event was written: nothing left to do
+                (error == null ? processed : dropped).get(event.getEventType()).increment();
+                done.add(event.getId());
+            } else {
+                failures.add(event);
+                errors.add(error);
+            }
+        }
+        complete(done, failures, errors);
+        System.out.println("DEBUG (OutboxRelay): Relayed " + events.size() + " outbox events (" + failures.size() + " failed) in "
+                + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms.");
+        return events.size();
+    }
+
+    private List<OutboxEvent> claim() {
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<OutboxEvent> events = outboxEventRepository.lockDueEvents(now, batchSize);
+            for (OutboxEvent event : events) {
+                event.setAttempts(event.getAttempts() + 1);
+                event.setAvailableAt(now.plusSeconds(leaseSeconds));
+            }
+            return events; // Dirty checking writes the leases on commit
+        });
+    }
+
+    // Returns the first handler failure, or null once every handler for the event has run
+    private Throwable dispatch(OutboxEvent event) {
+        try {
+            for (OutboxHandler handler : handlers) {
+                if (handler.handles(event.getEventType())) {
+                    handler.handle(event);
+                }
+            }
+            return null;
+        } catch (RuntimeException e) {
+            return e;
+        }
+    }
+
+    private void complete(List<Long> done, List<OutboxEvent> failures, List<Throwable> errors) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            if (!done.isEmpty()) {
+                outboxEventRepository.markProcessed(done, now);
+            }
+            for (int i = 0; i < failures.size(); i++) {
+                OutboxEvent event = failures.get(i);
+                String message = errors.get(i).getClass().getSimpleName() + ": " + errors.get(i).getMessage();
+                event.setLastError(message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message);
+                if (event.getAttempts() >= maxAttempts) {
+                    event.setProcessedAt(now);
+                    failed.get(event.getEventType()).increment();
+                    System.err.println("ERROR (OutboxRelay): Giving up on outbox event " + event.getId() + " (" + event.getEventType()
+                            + ", parcel " + event.getParcelId() + ") after " + event.getAttempts() + " attempts: " + message);
+                } else {
+                    event.setAvailableAt(now.plus(backoff(event.getAttempts())));
+                    retried.get(event.getEventType()).increment();
+                    System.err.println("ERROR (OutboxRelay): Outbox event " + event.getId() + " (" + event.getEventType()
+                            + ") failed, retrying at " + event.getAvailableAt() + ": " + message);
+                }
+                outboxEventRepository.save(event);
+            }
+        });
+    }
+
+    // 5 s, 10 s, 20 s, ... up to the maximum
+    private Duration backoff(int attempts) {
+        long seconds = initialBackoffSeconds << Math.min(attempts - 1, 30);
+        return Duration.ofSeconds(Math.min(seconds, maxBackoffSeconds));
+    }
+
+    @Scheduled(cron = "${outbox.cleanup.cron:0 15 * * * *}")
+    public void deleteProcessedEvents() {
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(retentionHours);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        long deleted = 0;
+        int chunk;
+        do {
+            // Small transactions, so the DELETE does not hold locks on the whole table
+            chunk = transaction.execute(status -> outboxEventRepository.deleteProcessedBefore(cutoff, DELETE_CHUNK));
+            deleted += chunk;
+        } while (chunk == DELETE_CHUNK);
+        System.out.println("DEBUG (OutboxRelay): Deleted " + deleted + " outbox events processed before " + cutoff);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Map<String, Map<OutboxEventType, LongAdder>> outcomes = Map.of("processed", processed, "dropped", dropped,
+                "retried", retried, "failed", failed);
+        outcomes.forEach((outcome, byType) -> byType.forEach((type, counter) ->
+                FunctionCounter.builder("routegenius.outbox.events", counter, LongAdder::sum)
+                        .description("Outbox events relayed, by outcome of the attempt")
+                        .tag("type", type.name())
+                        .tag("outcome", outcome)
+                        .register(registry)));
+        Gauge.builder("routegenius.outbox.pending", outboxEventRepository, OutboxEventRepository::countByProcessedAtIsNull)
+                .description("Outbox events not yet processed, including those waiting for a retry")
+                .register(registry);
+    }
+
+    private static Map<OutboxEventType, LongAdder> counters() {
+        Map<OutboxEventType, LongAdder> counters = new EnumMap<>(OutboxEventType.class);
+        for (OutboxEventType type : OutboxEventType.values()) {
+            counters.put(type, new LongAdder());
+        }
+        return counters;
+    }
+}
@@ -0,0 +1,62 @@
+package com.routegenius.backend.service.impl;
+
+import com.routegenius.backend.entity.OutboxEvent;
+import com.routegenius.backend.service.OutboxService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+public class OutboxServiceImpl implements OutboxService {
+
+    private static final int INSERT_CHUNK = 500; // Rows per multi-row INSERT
+    private static final int PARAMETERS = 9; // Placeholders per row; attempts is always 0
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(OutboxEvent event) {
+        record(List.of(event));
+    }
+
+    // Outbox rows use IDENTITY ids, which Hibernate cannot batch, so they are inserted with plain JDBC on the
+    // transaction's connection, as tracking events are by scan ingest
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(List<OutboxEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        for (int from = 0; from < events.size(); from += INSERT_CHUNK) {
+            List<OutboxEvent> chunk = events.subList(from, Math.min(from + INSERT_CHUNK, events.size()));
+            StringBuilder sql = new StringBuilder("INSERT INTO outbox_events (event_type, parcel_id, status, location, city, " +
+                    "country, notification_id, created_at, available_at, attempts) VALUES ");
+            Object[] args = new Object[chunk.size() * PARAMETERS];
+            for (int i = 0; i < chunk.size(); i++) {
+                OutboxEvent event = chunk.get(i);
+                sql.append(i == 0 ? "(?, ?, ?, ?, ?, ?, ?, ?, ?, 0)" : ", (?, ?, ?, ?, ?, ?, ?, ?, ?, 0)");
+                int offset = i * PARAMETERS;
+                args[offset] = event.getEventType().name();
+                args[offset + 1] = event.getParcelId();
+                args[offset + 2] = event.getStatus() != null ? event.getStatus().name() : null;
+                args[offset + 3] = event.getLocation();
+                args[offset + 4] = event.getCity();
+                args[offset + 5] = event.getCountry();
+                args[offset + 6] = event.getNotificationId();
+                args[offset + 7] = now;
+                args[offset + 8] = now;
+            }
+            jdbcTemplate.update(sql.toString(), args);
+        }
+        System.out.println("DEBUG (OutboxServiceImpl): Recorded " + events.size() + " outbox events.");
+    }
+}
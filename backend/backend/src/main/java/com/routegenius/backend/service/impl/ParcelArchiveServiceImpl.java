@@ -0,0 +1,499 @@
+package com.routegenius.backend.service.impl;
+
+import com.routegenius.backend.dto.ParcelArchiveStatsResponse;
+import com.routegenius.backend.entity.Feedback;
+import com.routegenius.backend.entity.Parcel;
+import com.routegenius.backend.entity.ParcelStatus;
+import com.routegenius.backend.entity.TrackingEvent;
+import com.routegenius.backend.entity.User;
+import com.routegenius.backend.repository.FeedbackRepository;
+import com.routegenius.backend.repository.ParcelRepository;
+import com.routegenius.backend.repository.TrackingEventRepository;
+import com.routegenius.backend.service.ParcelArchiveService;
+import com.routegenius.backend.service.ParcelPurgeService;
+import com.routegenius.backend.util.ArchiveSegment;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Cold storage for closed parcels. Parcels that have been DELIVERED, RETURNED or CANCELLED for a while are
+ * copied, together with their tracking history and feedback, into immutable compressed segment files (see ArchiveSegment)
+ * and then deleted from the hot tables, which keeps those tables and their indexes small.
+ *
+ * Every archive run writes new segments; existing segments are never modified. A segment is only
+ * deleted as a whole once it is older than the retention period. Lookups that miss the database go
+ * through the segments newest first using the memory-mapped tracking ID and parcel ID indexes.
+ *
+ * Archiving is off by default. To turn it on, set archive.enabled and an absolute archive.dir; the application
+ * does not start with archiving enabled and no directory or a relative one, since archived rows are deleted from
+ * MySQL and must not end up in whatever directory the node was started from. With several nodes, point
+ * archive.dir at a shared volume and enable archiving on one node only; the others only set archive.dir and
+ * pick up new segments when they rescan the directory. Without archive.dir there are no segments to read.
+ */
+@Service
+@RequiredArgsConstructor
+public class ParcelArchiveServiceImpl implements ParcelArchiveService {
+
+    private static final String SEGMENT_PREFIX = "parcels-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final int RECORD_VERSION = 3; // Version 2 added the recipient coordinates, version 3 the feedback
+
+    private final ParcelRepository parcelRepository;
+    private final TrackingEventRepository trackingEventRepository;
+    private final FeedbackRepository feedbackRepository;
+    private final ParcelPurgeService parcelPurgeService;
+
+    // Absolute path of the segment directory; unset means no archive
+    @Value("${archive.dir:}")
+    private String archiveDir;
+
+    @Value("${archive.enabled:false}")
+    private boolean archiveEnabled;
+
+    // Closed parcels are archived once they have not changed for this long
+    @Value("${archive.after-days:30}")
+    private int archiveAfterDays;
+
+    // Segments are deleted once they are older than this, so parcels stay trackable at least this long after archiving
+    @Value("${archive.retention-days:365}")
+    private int retentionDays;
+
+    @Value("${archive.segment-max-parcels:100000}")
+    private int segmentMaxParcels;
+
+    @Value("${archive.records-per-block:64}")
+    private int recordsPerBlock;
+
+    @Value("${archive.load-batch-size:1000}")
+    private int loadBatchSize;
+
+    private volatile List<ArchiveSegment> segments = List.of(); // Newest first; replaced as a whole, never modified
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final ReentrantLock segmentLock = new ReentrantLock(); // Held while scanning or writing segments
+    private volatile LocalDateTime lastRunAt;
+    private volatile long lastRunParcelsArchived;
+    private volatile long lastRunParcelsDeleted;
+    private volatile long lastRunDurationMs;
+
+    @PostConstruct
+    public void openSegments() {
+        if (!archiveDir.isBlank() && !Paths.get(archiveDir).isAbsolute()) {
+            throw new IllegalStateException("archive.dir must be an absolute path, got '" + archiveDir + "'");
+        }
+        if (archiveEnabled && archiveDir.isBlank()) {
+            throw new IllegalStateException("archive.enabled is set but archive.dir is not; set it to an absolute path");
+        }
+        refreshSegments();
+    }
+
+    /**
+     * Opens segments written by other nodes, drops segments that have disappeared and deletes expired ones.
+     */
+    @Scheduled(initialDelayString = "${archive.rescan-interval-ms:60000}", fixedDelayString = "${archive.rescan-interval-ms:60000}")
+    public void refreshSegments() {
+        if (archiveDir.isBlank()) {
+            return; // No archive configured
+        }
+        segmentLock.lock();
+        try {
+            Path dir = Paths.get(archiveDir);
+            try {
+                Files.createDirectories(dir);
+            } catch (IOException e) {
+                System.err.println("ERROR (ParcelArchiveServiceImpl): Could not create archive directory " + dir.toAbsolutePath() + ": " + e.getMessage());
+                return;
+            }
+
+            Map<Path, ArchiveSegment> open = segments.stream().collect(Collectors.toMap(ArchiveSegment::getPath, Function.identity()));
+            long expiredBefore = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(retentionDays);
+            List<ArchiveSegment> refreshed = new ArrayList<>();
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+                for (Path file : files) {
+                    ArchiveSegment segment = open.remove(file);
+                    if (segment == null) {
+                        segment = openSegment(file);
+                        if (segment == null) {
+                            continue;
+                        }
+                    }
+                    if (archiveEnabled && segment.getCreatedAtMillis() < expiredBefore) {
+                        System.out.println("DEBUG (ParcelArchiveServiceImpl): Deleting expired archive segment " + file.getFileName());
+                        closeQuietly(segment);
+                        Files.deleteIfExists(file);
+                        continue;
+                    }
+                    refreshed.add(segment);
+                }
+            } catch (IOException e) {
+                System.err.println("ERROR (ParcelArchiveServiceImpl): Could not scan archive directory: " + e.getMessage());
+                return;
+            }
+            open.values().forEach(ParcelArchiveServiceImpl::closeQuietly); // Files removed by another node
+            refreshed.sort(Comparator.comparingLong(ArchiveSegment::getCreatedAtMillis).reversed());
+            segments = Collections.unmodifiableList(refreshed);
+        } finally {
+            segmentLock.unlock();
+        }
+    }
+
+    @Override
+    public Optional<ArchivedParcel> findByTrackingId(String normalizedTrackingId) {
+        lookups.increment();
+        for (ArchiveSegment segment : segments) {
+            byte[] record = segment.findByKey(normalizedTrackingId);
+            if (record != null) {
+                hits.increment();
+                return Optional.of(decode(record));
+            }
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public Optional<ArchivedParcel> findByParcelId(Long parcelId) {
+        lookups.increment();
+        for (ArchiveSegment segment : segments) {
+            if (parcelId < segment.getMinId() || parcelId > segment.getMaxId()) {
+                continue;
+            }
+            byte[] record = segment.findById(parcelId);
+            if (record != null) {
+                hits.increment();
+                return Optional.of(decode(record));
+            }
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public void forEachTrackingId(Consumer<String> consumer) {
+        for (ArchiveSegment segment : segments) {
+            segment.forEachKey(consumer);
+        }
+    }
+
+    @Override
+    @Scheduled(cron = "${archive.cron:0 30 2 * * *}")
+    public ParcelArchiveStatsResponse archiveClosedParcels() {
+        segmentLock.lock();
+        try {
+            if (!archiveEnabled) {
+                System.out.println("DEBUG (ParcelArchiveServiceImpl): Archiving is disabled on this node.");
+                return getStats();
+            }
+            long start = System.currentTimeMillis();
+            LocalDateTime cutoff = LocalDateTime.now().minusDays(archiveAfterDays);
+            System.out.println("DEBUG (ParcelArchiveServiceImpl): Archiving closed parcels last updated before " + cutoff);
+
+            long archived = 0;
+            long deleted = 0;
+            long afterId = 0L;
+            boolean exhausted = false;
+            try {
+                while (!exhausted) {
+                    Path target = Paths.get(archiveDir, SEGMENT_PREFIX + System.currentTimeMillis() + SEGMENT_SUFFIX);
+                    List<Long> archivedIds = new ArrayList<>();
+                    try (ArchiveSegment.Writer writer = ArchiveSegment.create(target, recordsPerBlock)) {
+                        while (archivedIds.size() < segmentMaxParcels) {
+                            int size = Math.min(loadBatchSize, segmentMaxParcels - archivedIds.size());
+                            List<Long> ids = parcelRepository.findPurgeCandidateIds(ParcelStatus.CLOSED_STATUSES, cutoff, afterId, PageRequest.of(0, size));
+                            if (!ids.isEmpty()) {
+                                afterId = ids.get(ids.size() - 1);
+                                archivedIds.addAll(appendBatch(writer, ids));
+                            }
+                            if (ids.size() < size) {
+                                exhausted = true;
+                                break;
+                            }
+                        }
+                        if (archivedIds.isEmpty()) {
+                            break;
+                        }
+                        writer.finish();
+                    }
+
+                    // The segment is on disk and visible before anything is removed from the database
+                    ArchiveSegment segment = ArchiveSegment.open(target);
+                    List<ArchiveSegment> updated = new ArrayList<>(segments.size() + 1);
+                    updated.add(segment);
+                    updated.addAll(segments);
+                    segments = Collections.unmodifiableList(updated);
+                    archived += archivedIds.size();
+                    deleted += parcelPurgeService.deleteArchivedParcels(archivedIds, cutoff);
+                    System.out.println("DEBUG (ParcelArchiveServiceImpl): Wrote archive segment " + target.getFileName() + " with " + archivedIds.size()
+                            + " parcels (" + segment.getSizeBytes() / 1024 + " KiB).");
+                }
+            } catch (IOException e) {
+                System.err.println("ERROR (ParcelArchiveServiceImpl): Archiving failed, nothing was deleted for the unfinished segment: " + e.getMessage());
+            }
+
+            lastRunAt = LocalDateTime.now();
+            lastRunParcelsArchived = archived;
+            lastRunParcelsDeleted = deleted;
+            lastRunDurationMs = System.currentTimeMillis() - start;
+            System.out.println("DEBUG (ParcelArchiveServiceImpl): Archived " + archived + " parcels, deleted " + deleted + " from the database in " + lastRunDurationMs + " ms.");
+            return getStats();
+        } finally {
+            segmentLock.unlock();
+        }
+    }
+
+    @Override
+    public ParcelArchiveStatsResponse getStats() {
+        List<ArchiveSegment> current = segments;
+        return ParcelArchiveStatsResponse.builder()
+                .segments(current.size())
+                .archivedParcels(current.stream().mapToLong(ArchiveSegment::getRecordCount).sum())
+                .sizeBytes(current.stream().mapToLong(ArchiveSegment::getSizeBytes).sum())
+                .lookups(lookups.sum())
+                .hits(hits.sum())
+                .lastRunAt(lastRunAt)
+                .lastRunParcelsArchived(lastRunParcelsArchived)
+                .lastRunParcelsDeleted(lastRunParcelsDeleted)
+                .lastRunDurationMs(lastRunDurationMs)
+                .build();
+    }
+
+    /**
+     * Loads a batch of parcels with their events and feedback and appends them to the segment.
+     * @return The ids actually written (parcels deleted in the meantime are missing).
+     */
+    private List<Long> appendBatch(ArchiveSegment.Writer writer, List<Long> ids) throws IOException {
+        List<Parcel> parcels = new ArrayList<>(parcelRepository.findAllById(ids));
+        parcels.sort(Comparator.comparing(Parcel::getId));
+        Map<Long, List<TrackingEvent>> eventsByParcel = new HashMap<>();
+        for (TrackingEvent event : trackingEventRepository.findByParcelIds(ids)) {
+            eventsByParcel.computeIfAbsent(event.getParcel().getId(), id -> new ArrayList<>()).add(event);
+        }
+        Map<Long, List<Feedback>> feedbackByParcel = new HashMap<>();
+        for (Feedback feedback : feedbackRepository.findByParcelIds(ids)) {
+            feedbackByParcel.computeIfAbsent(feedback.getParcel().getId(), id -> new ArrayList<>()).add(feedback);
+        }
+        List<Long> written = new ArrayList<>(parcels.size());
+        for (Parcel parcel : parcels) {
+            writer.append(parcel.getId(), parcel.getTrackingId(), encode(parcel, eventsByParcel.getOrDefault(parcel.getId(), List.of()),
+                    feedbackByParcel.getOrDefault(parcel.getId(), List.of())));
+            written.add(parcel.getId());
+        }
+        return written;
+    }
+
+    private static ArchiveSegment openSegment(Path file) {
+        try {
+            return ArchiveSegment.open(file);
+        } catch (IOException e) {
+            System.err.println("ERROR (ParcelArchiveServiceImpl): Skipping unreadable archive segment " + file + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static void closeQuietly(ArchiveSegment segment) {
+        try {
+            segment.close();
+        } catch (IOException e) {
+            System.err.println("ERROR (ParcelArchiveServiceImpl): Could not close archive segment " + segment.getPath() + ": " + e.getMessage());
+        }
+    }
+
+    // --- Record encoding: a compact binary form of the parcel, its events and its feedback ---
+
+    private static byte[] encode(Parcel parcel, List<TrackingEvent> events, List<Feedback> feedback) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(512);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(RECORD_VERSION);
+            out.writeLong(parcel.getId());
+            writeString(out, parcel.getTrackingId());
+            out.writeLong(parcel.getSenderId());
+            out.writeLong(parcel.getRecipientId());
+            writeString(out, parcel.getSenderAddress());
+            writeString(out, parcel.getRecipientAddress());
+            writeString(out, parcel.getSenderPhone());
+            writeString(out, parcel.getRecipientPhone());
+            writeString(out, parcel.getDescription());
+            writeDouble(out, parcel.getWeight());
+            writeDouble(out, parcel.getDimensionsLength());
+            writeDouble(out, parcel.getDimensionsWidth());
+            writeDouble(out, parcel.getDimensionsHeight());
+            writeString(out, parcel.getStatus() != null ? parcel.getStatus().name() : null);
+            writeDateTime(out, parcel.getEstimatedDeliveryDate());
+            writeDateTime(out, parcel.getActualDeliveryDate());
+            writeString(out, parcel.getCurrentLocation());
+            writeString(out, parcel.getCurrentCity());
+            writeString(out, parcel.getCurrentCountry());
+            writeDateTime(out, parcel.getCreatedAt());
+            writeDateTime(out, parcel.getLastUpdatedAt());
+            writeDouble(out, parcel.getRecipientLatitude());
+            writeDouble(out, parcel.getRecipientLongitude());
+            out.writeInt(events.size());
+            for (TrackingEvent event : events) {
+                out.writeLong(event.getId());
+                writeString(out, event.getStatus() != null ? event.getStatus().name() : null);
+                writeString(out, event.getLocationDescription());
+                writeString(out, event.getCity());
+                writeString(out, event.getCountry());
+                writeDateTime(out, event.getTimestamp());
+            }
+            out.writeInt(feedback.size());
+            for (Feedback entry : feedback) {
+                out.writeLong(entry.getId());
+                out.writeLong(entry.getUser().getId());
+                out.writeInt(entry.getRating());
+                writeString(out, entry.getComment());
+                writeDateTime(out, entry.getTimestamp());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // Cannot happen for an in-memory stream
+        }
+        return bytes.toByteArray();
+    }
+
+    private static ArchivedParcel decode(byte[] record) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(record))) {
+            int version = in.readByte();
+            if (version < 1 || version > RECORD_VERSION) {
+                throw new IllegalStateException("Unsupported archive record version " + version);
+            }
+            Parcel parcel = Parcel.builder()
+                    .id(in.readLong())
+                    .trackingId(readString(in))
+                    .senderId(in.readLong())
+                    .recipientId(in.readLong())
+                    .senderAddress(readString(in))
+                    .recipientAddress(readString(in))
+                    .senderPhone(readString(in))
+                    .recipientPhone(readString(in))
+                    .description(readString(in))
+                    .weight(readDouble(in))
+                    .dimensionsLength(readDouble(in))
+                    .dimensionsWidth(readDouble(in))
+                    .dimensionsHeight(readDouble(in))
+                    .status(readStatus(in))
+                    .estimatedDeliveryDate(readDateTime(in))
+                    .actualDeliveryDate(readDateTime(in))
+                    .currentLocation(readString(in))
+                    .currentCity(readString(in))
+                    .currentCountry(readString(in))
+                    .createdAt(readDateTime(in))
+                    .lastUpdatedAt(readDateTime(in))
+                    .build();
+            if (version >= 2) {
+                parcel.setRecipientLatitude(readDouble(in));
+                parcel.setRecipientLongitude(readDouble(in));
+            }
+            int eventCount = in.readInt();
+            List<TrackingEvent> events = new ArrayList<>(eventCount);
+            for (int i = 0; i < eventCount; i++) {
+                events.add(TrackingEvent.builder()
+                        .id(in.readLong())
+                        .parcel(parcel)
+                        .status(readStatus(in))
+                        .locationDescription(readString(in))
+                        .city(readString(in))
+                        .country(readString(in))
+                        .timestamp(readDateTime(in))
+                        .build());
+            }
+            int feedbackCount = version >= 3 ? in.readInt() : 0;
+            List<Feedback> feedback = new ArrayList<>(feedbackCount);
+            for (int i = 0; i < feedbackCount; i++) {
+                feedback.add(Feedback.builder()
+                        .id(in.readLong())
+                        .parcel(parcel)
+                        .user(User.builder().id(in.readLong()).build())
+                        .rating(in.readInt())
+                        .comment(readString(in))
+                        .timestamp(readDateTime(in))
+                        .build());
+            }
+            return new ArchivedParcel(parcel, events, feedback);
+        } catch (IOException e) {
+            throw new IllegalStateException("Corrupt archive record: " + e.getMessage(), e);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeDouble(DataOutputStream out, Double value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeDouble(value);
+        }
+    }
+
+    private static Double readDouble(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readDouble() : null;
+    }
+
+    // LocalDateTime has no zone; it is stored as if it were UTC so it reads back unchanged
+    private static void writeDateTime(DataOutputStream out, LocalDateTime value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value.toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(value.getNano());
+        }
+    }
+
+    private static LocalDateTime readDateTime(DataInputStream in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        long seconds = in.readLong();
+        int nanos = in.readInt();
+        return LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC);
+    }
+
+    private static ParcelStatus readStatus(DataInputStream in) throws IOException {
+        String status = readString(in);
+        return status != null ? ParcelStatus.valueOf(status) : null;
+    }
+}
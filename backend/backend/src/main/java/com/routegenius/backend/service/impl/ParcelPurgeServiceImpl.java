@@ -0,0 +1,258 @@
+package com.routegenius.backend.service.impl;
+
+import com.routegenius.backend.dto.ParcelPurgeResponse;
+import com.routegenius.backend.entity.Parcel;
+import com.routegenius.backend.entity.ParcelStatus;
+import com.routegenius.backend.repository.FeedbackDailyRollupRepository;
+import com.routegenius.backend.repository.FeedbackRepository;
+import com.routegenius.backend.repository.NotificationRepository;
+import com.routegenius.backend.repository.ParcelRepository;
+import com.routegenius.backend.repository.TrackingEventRepository;
+import com.routegenius.backend.service.ParcelPurgeService;
+import com.routegenius.backend.service.ParcelStatsService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Deletes parcels and everything that references them with one DELETE per table, keyed by parcel id.
+ *
+ * Purges walk the eligible parcels in id order and delete them in chunks, each in its own short
+ * transaction, so row locks are held for milliseconds and never pile up behind one long transaction.
+ * Between chunks the purge pauses for at least as long as the chunk took, which caps it at about half
+ * of one connection's time. A purge of many parcels takes minutes, so it runs on its own thread and
+ * publishes its totals after every chunk.
+ */
+@Service
+@RequiredArgsConstructor
+public class ParcelPurgeServiceImpl implements ParcelPurgeService {
+
+    private final ParcelRepository parcelRepository;
+    private final TrackingEventRepository trackingEventRepository;
+    private final NotificationRepository notificationRepository;
+    private final FeedbackRepository feedbackRepository;
+    private final FeedbackDailyRollupRepository feedbackDailyRollupRepository;
+    private final ParcelStatsService parcelStatsService;
+    private final PlatformTransactionManager transactionManager;
+
+    private final ReentrantLock purgeLock = new ReentrantLock(); // Purges and archive deletions never overlap
+    private final ReentrantLock startLock = new ReentrantLock();
+
+    private static final String RUNNING = "RUNNING";
+    private static final String FINISHED = "FINISHED";
+    private static final String FAILED = "FAILED";
+
+    private ExecutorService purgeExecutor;
+    private volatile ParcelPurgeResponse purgeStatus; // Replaced, never modified, so readers always see a consistent snapshot
+
+    @Value("${purge.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${purge.throttle-ms:200}")
+    private long throttleMs;
+
+    @Value("${purge.chunk-timeout-seconds:30}")
+    private int chunkTimeoutSeconds;
+
+    @PostConstruct
+    void start() {
+        purgeExecutor = Executors.newSingleThreadExecutor(Thread.ofPlatform().name("parcel-purge").daemon().factory());
+    }
+
+    @PreDestroy
+    void stop() {
+        // Interrupts the pause between chunks; the chunk in flight commits or rolls back as a whole
+        purgeExecutor.shutdownNow();
+    }
+
+    @Override
+    @Transactional
+    public void deleteWithDependents(List<Parcel> parcels) {
+        delete(parcels, false);
+    }
+
+    @Override
+    public ParcelPurgeResponse startPurge(LocalDateTime cutoff, int limit) {
+        startLock.lock();
+        try {
+            ParcelPurgeResponse current = purgeStatus;
+            if (current != null && RUNNING.equals(current.getState())) {
+                System.out.println("DEBUG (ParcelPurgeServiceImpl): A purge started at " + current.getStartedAt() + " is still running.");
+                return current;
+            }
+            LocalDateTime startedAt = LocalDateTime.now();
+            ParcelPurgeResponse started = status(RUNNING, startedAt, cutoff, limit, new Totals(), 0, false, null);
+            purgeStatus = started;
+            purgeExecutor.execute(() -> purgeClosedParcels(startedAt, cutoff, limit));
+            return started;
+        } finally {
+            startLock.unlock();
+        }
+    }
+
+    @Override
+    public ParcelPurgeResponse getPurgeStatus() {
+        return purgeStatus;
+    }
+
+    private void purgeClosedParcels(LocalDateTime startedAt, LocalDateTime cutoff, int limit) {
+        purgeLock.lock();
+        long start = System.currentTimeMillis();
+        Totals totals = new Totals();
+        try {
+            System.out.println("DEBUG (ParcelPurgeServiceImpl): Purging closed parcels last updated before " + cutoff + ", limit " + limit);
+            TransactionTemplate chunkTransaction = chunkTransaction();
+
+            long afterId = 0L;
+            boolean completed = false;
+            while (totals.parcels < limit) {
+                int size = (int) Math.min(chunkSize, limit - totals.parcels);
+                List<Long> candidateIds = parcelRepository.findPurgeCandidateIds(ParcelStatus.CLOSED_STATUSES, cutoff, afterId, PageRequest.of(0, size));
+                if (candidateIds.isEmpty()) {
+                    completed = true;
+                    break;
+                }
+                afterId = candidateIds.get(candidateIds.size() - 1);
+
+                long chunkStart = System.currentTimeMillis();
+                totals.add(deleteChunk(chunkTransaction, candidateIds, cutoff, false));
+                purgeStatus = status(RUNNING, startedAt, cutoff, limit, totals, System.currentTimeMillis() - start, false, null);
+
+                if (candidateIds.size() < size) {
+                    completed = true;
+                    break;
+                }
+                if (!pause(Math.max(throttleMs, System.currentTimeMillis() - chunkStart))) {
+                    break;
+                }
+            }
+
+            long duration = System.currentTimeMillis() - start;
+            System.out.println("DEBUG (ParcelPurgeServiceImpl): Purged " + totals.parcels + " parcels in " + totals.chunks + " chunks and " + duration + " ms.");
+            purgeStatus = status(FINISHED, startedAt, cutoff, limit, totals, duration, completed, null);
+        } catch (RuntimeException e) {
+            // Chunks already committed stay deleted; running the purge again picks up the rest
+            System.err.println("ERROR (ParcelPurgeServiceImpl): Purge failed after " + totals.parcels + " parcels: " + e.getMessage());
+            purgeStatus = status(FAILED, startedAt, cutoff, limit, totals, System.currentTimeMillis() - start, false, e.getMessage());
+        } finally {
+            purgeLock.unlock();
+        }
+    }
+
+    private static ParcelPurgeResponse status(String state, LocalDateTime startedAt, LocalDateTime cutoff, int limit, Totals totals,
+                                              long durationMs, boolean completed, String error) {
+        return ParcelPurgeResponse.builder()
+                .state(state)
+                .startedAt(startedAt)
+                .cutoff(cutoff)
+                .limit(limit)
+                .parcelsDeleted(totals.parcels)
+                .trackingEventsDeleted(totals.trackingEvents)
+                .notificationsDeleted(totals.notifications)
+                .feedbackDeleted(totals.feedback)
+                .chunks(totals.chunks)
+                .durationMs(durationMs)
+                .completed(completed)
+                .error(error)
+                .build();
+    }
+
+    @Override
+    public long deleteArchivedParcels(List<Long> parcelIds, LocalDateTime cutoff) {
+        purgeLock.lock();
+        try {
+            TransactionTemplate chunkTransaction = chunkTransaction();
+            long deleted = 0;
+            for (int from = 0; from < parcelIds.size(); from += chunkSize) {
+                if (from > 0 && !pause(throttleMs)) {
+                    break;
+                }
+                List<Long> chunkIds = parcelIds.subList(from, Math.min(parcelIds.size(), from + chunkSize));
+                deleted += deleteChunk(chunkTransaction, chunkIds, cutoff, true).parcels;
+            }
+            return deleted;
+        } finally {
+            purgeLock.unlock();
+        }
+    }
+
+    /**
+     * Locks the candidates by primary key, re-checks that they are still eligible and deletes them, all in one short transaction.
+     */
+    private Totals deleteChunk(TransactionTemplate chunkTransaction, List<Long> candidateIds, LocalDateTime cutoff, boolean archived) {
+        Totals chunk = chunkTransaction.execute(status ->
+                delete(parcelRepository.lockPurgeCandidates(candidateIds, ParcelStatus.CLOSED_STATUSES, cutoff), archived));
+        chunk.chunks = 1;
+        return chunk;
+    }
+
+    private TransactionTemplate chunkTransaction() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setTimeout(chunkTimeoutSeconds);
+        return template;
+    }
+
+    /**
+     * Deletes the parcels and the rows that reference them. Archived parcels keep their ratings in the rollups
+     * and their notifications, which have no foreign key to the parcel; their feedback has one and is in the
+     * archive record instead.
+     */
+    private Totals delete(List<Parcel> parcels, boolean archived) {
+        Totals totals = new Totals();
+        if (parcels.isEmpty()) {
+            return totals;
+        }
+        List<Long> ids = parcels.stream().map(Parcel::getId).collect(Collectors.toList());
+        // Children first; the rollup update has to read the feedback before it is deleted
+        if (!archived) {
+            feedbackDailyRollupRepository.subtractFeedbackOfParcels(ids);
+            totals.notifications = notificationRepository.deleteByParcelIds(ids);
+        }
+        totals.feedback = feedbackRepository.deleteByParcelIds(ids);
+        totals.trackingEvents = trackingEventRepository.deleteByParcelIds(ids);
+        totals.parcels = parcelRepository.deleteByIds(ids);
+        for (Parcel parcel : parcels) {
+            parcelStatsService.recordChange(ParcelStatsService.Contribution.of(parcel), null);
+        }
+        return totals;
+    }
+
+    private static boolean pause(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static final class Totals {
+        private long parcels;
+        private long trackingEvents;
+        private long notifications;
+        private long feedback;
+        private int chunks;
+
+        void add(Totals other) {
+            parcels += other.parcels;
+            trackingEvents += other.trackingEvents;
+            notifications += other.notifications;
+            feedback += other.feedback;
+            chunks += other.chunks;
+        }
+    }
+}
@@ -1,32 +1,80 @@
 package com.routegenius.backend.service.impl;
 
+import com.routegenius.backend.dto.EtaResponse;
 import com.routegenius.backend.dto.ParcelRequest;
 import com.routegenius.backend.dto.ParcelResponse;
+import com.routegenius.backend.dto.ParcelSearchRequest;
+import com.routegenius.backend.dto.ParcelSearchResponse;
+import com.routegenius.backend.entity.OutboxEvent;
 import com.routegenius.backend.entity.Parcel;
 import com.routegenius.backend.entity.ParcelStatus;
 import com.routegenius.backend.entity.TrackingEvent;
 import com.routegenius.backend.entity.User;
 import com.routegenius.backend.exception.ResourceNotFoundException;
+import com.routegenius.backend.exception.UpdateConflictException;
 import com.routegenius.backend.repository.ParcelRepository;
 import com.routegenius.backend.repository.TrackingEventRepository;
 import com.routegenius.backend.repository.UserRepository;
+import com.routegenius.backend.service.EtaService;
+import com.routegenius.backend.service.OutboxService;
+import com.routegenius.backend.service.GeocodingService;
+import com.routegenius.backend.service.ParcelArchiveService;
+import com.routegenius.backend.service.ParcelPurgeService;
 import com.routegenius.backend.service.ParcelService;
+import com.routegenius.backend.service.ParcelStatsService;
+import com.routegenius.backend.service.TrackingIdFilterService;
+import com.routegenius.backend.util.Gazetteer;
+import com.routegenius.backend.util.TrackingIdGenerator;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class ParcelServiceImpl implements ParcelService {
 
+    private static final int DEFAULT_SEARCH_PAGE_SIZE = 50;
+    private static final int MAX_SEARCH_PAGE_SIZE = 200;
+    private static final String UPDATE_CONFLICTS = "routegenius.parcels.update.conflicts";
+
     private final ParcelRepository parcelRepository;
     private final UserRepository userRepository;
     private final TrackingEventRepository trackingEventRepository;
+    private final ParcelStatsService parcelStatsService;
+    private final TrackingIdFilterService trackingIdFilterService;
+    private final ParcelPurgeService parcelPurgeService;
+    private final ParcelArchiveService parcelArchiveService;
+    private final GeocodingService geocodingService;
+    private final EtaService etaService;
+    private final OutboxService outboxService;
+    private final PlatformTransactionManager transactionManager;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${parcel.update.max-attempts:5}")
+    private int updateMaxAttempts;
+    @Value("${parcel.update.backoff-ms:20}")
+    private long updateBackoffMs;
+    @Value("${parcel.update.max-backoff-ms:500}")
+    private long updateMaxBackoffMs;
+    // Lock the row for the whole update instead; kept for comparison (see ParcelUpdateConcurrencyTests)
+    @Value("${parcel.update.pessimistic-locking:false}")
+    private boolean pessimisticLocking;
 
     @Override
     @Transactional
@@ -56,9 +104,17 @@ public class ParcelServiceImpl implements ParcelService {
                 .currentLocation(request.getCurrentLocation())
                 .currentCity(request.getCurrentCity())
                 .currentCountry(request.getCurrentCountry())
+                .recipientLatitude(request.getRecipientLatitude())
+                .recipientLongitude(request.getRecipientLongitude())
                 .build();
+        if (parcel.getRecipientLatitude() == null || parcel.getRecipientLongitude() == null) {
+            geocodeRecipient(parcel);
+        }
 
         Parcel savedParcel = parcelRepository.save(parcel);
+        parcelStatsService.recordChange(null, ParcelStatsService.Contribution.of(savedParcel));
+        // Added before commit on purpose: a rolled-back ID left in the filter only costs one extra database lookup
+        trackingIdFilterService.add(savedParcel.getTrackingId());
         System.out.println("DEBUG (ParcelServiceImpl): Parcel saved to repository with ID: " + savedParcel.getId() + ", Tracking ID: " + savedParcel.getTrackingId());
 
         // Create initial tracking event for the new parcel
@@ -70,11 +126,17 @@ public class ParcelServiceImpl implements ParcelService {
                 savedParcel.getCurrentCountry()
         );
         System.out.println("DEBUG (ParcelServiceImpl): createTrackingEvent called for initial event.");
+        // Side effects (notification, email) run from the outbox once this transaction has committed
+        outboxService.record(OutboxEvent.parcelChanged(savedParcel, true));
+        if (request.getEstimatedDeliveryDate() == null) {
+            refreshEstimatedDeliveryDate(savedParcel);
+        }
 
         return mapToParcelResponse(savedParcel);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public ParcelResponse getParcelById(Long id) {
         Parcel parcel = parcelRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Parcel not found with ID: " + id));
@@ -82,13 +144,52 @@ public class ParcelServiceImpl implements ParcelService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public ParcelResponse getParcelByTrackingId(String trackingId) {
-        Parcel parcel = parcelRepository.findByTrackingId(trackingId)
-                .orElseThrow(() -> new ResourceNotFoundException("Parcel not found with Tracking ID: " + trackingId));
+        // Reject malformed IDs (wrong length, alphabet or check character) before touching the database
+        String normalizedTrackingId = TrackingIdGenerator.normalize(trackingId);
+        if (normalizedTrackingId == null) {
+            throw new IllegalArgumentException("Invalid tracking ID format: " + trackingId);
+        }
+        // Unknown IDs (typos, guessing) are answered from the Bloom filter without a database query
+        if (trackingIdFilterService.isDefinitelyAbsent(normalizedTrackingId)) {
+            throw new ResourceNotFoundException("Parcel not found with Tracking ID: " + trackingId);
+        }
+        Parcel parcel = parcelRepository.findByTrackingId(normalizedTrackingId)
+                // Closed parcels move to the archive after a while and stay trackable from there
+                .or(() -> parcelArchiveService.findByTrackingId(normalizedTrackingId).map(ParcelArchiveService.ArchivedParcel::getParcel))
+                .orElseThrow(() -> {
+                    trackingIdFilterService.recordDatabaseMiss();
+                    return new ResourceNotFoundException("Parcel not found with Tracking ID: " + trackingId);
+                });
         return mapToParcelResponse(parcel);
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public EtaResponse getParcelEta(String trackingId) {
+        String normalizedTrackingId = TrackingIdGenerator.normalize(trackingId);
+        if (normalizedTrackingId == null) {
+            throw new IllegalArgumentException("Invalid tracking ID format: " + trackingId);
+        }
+        if (trackingIdFilterService.isDefinitelyAbsent(normalizedTrackingId)) {
+            throw new ResourceNotFoundException("Parcel not found with Tracking ID: " + trackingId);
+        }
+        Optional<Parcel> active = parcelRepository.findByTrackingId(normalizedTrackingId);
+        // Archived parcels are closed, so there is nothing to estimate; they only need to exist
+        Parcel parcel = active
+                .or(() -> parcelArchiveService.findByTrackingId(normalizedTrackingId).map(ParcelArchiveService.ArchivedParcel::getParcel))
+                .orElseThrow(() -> new ResourceNotFoundException("Parcel not found with Tracking ID: " + trackingId));
+        LocalDateTime lastEventAt = active.flatMap(trackingEventRepository::findFirstByParcelOrderByTimestampDescIdDesc)
+                .map(TrackingEvent::getTimestamp)
+                .orElse(parcel.getLastUpdatedAt());
+        EtaResponse eta = etaService.estimate(parcel.getCurrentCity(), parcel.getStatus(), lastEventAt);
+        eta.setTrackingId(parcel.getTrackingId());
+        return eta;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public List<ParcelResponse> getAllParcels() {
         return parcelRepository.findAll().stream()
                 .map(this::mapToParcelResponse)
@@ -96,10 +197,43 @@ public class ParcelServiceImpl implements ParcelService {
     }
 
     @Override
-    @Transactional
+    // Not @Transactional: every attempt runs in a transaction of its own. Called inside an outer transaction, the
+    // attempts would join it and a conflict could not be retried
     public ParcelResponse updateParcel(Long id, ParcelRequest request) {
         System.out.println("DEBUG (ParcelServiceImpl): updateParcel method called for ID: " + id);
-        Parcel existingParcel = parcelRepository.findById(id)
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transaction.execute(status -> applyUpdate(id, request));
+            } catch (OptimisticLockingFailureException e) {
+                // Another writer committed since this attempt read the parcel. The request only carries the fields to
+                // change, so applying it again to a fresh read keeps both updates
+                if (attempt >= updateMaxAttempts) {
+                    meterRegistry.counter(UPDATE_CONFLICTS, "outcome", "exhausted").increment();
+                    System.err.println("ERROR (ParcelServiceImpl): Update of parcel " + id + " still conflicting after " + attempt + " attempts.");
+                    throw new UpdateConflictException("Parcel " + id + " is being changed by others; the update was not applied. Try again.", e);
+                }
+                meterRegistry.counter(UPDATE_CONFLICTS, "outcome", "retried").increment();
+                System.out.println("DEBUG (ParcelServiceImpl): Update of parcel " + id + " conflicted on attempt " + attempt + ", retrying.");
+                backOff(id, attempt, e);
+            }
+        }
+    }
+
+    // Full jitter: a random wait up to an exponentially growing bound, so writers that collided do not collide again
+    private void backOff(Long id, int attempt, OptimisticLockingFailureException conflict) {
+        long bound = Math.min(updateMaxBackoffMs, updateBackoffMs << Math.min(attempt - 1, 20));
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(bound + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UpdateConflictException("Update of parcel " + id + " interrupted while retrying.", conflict);
+        }
+    }
+
+    private ParcelResponse applyUpdate(Long id, ParcelRequest request) {
+        Optional<Parcel> found = pessimisticLocking ? parcelRepository.lockById(id) : parcelRepository.findById(id);
+        Parcel existingParcel = found
                 .orElseThrow(() -> new ResourceNotFoundException("Parcel not found with ID: " + id));
 
         // Store old values to detect changes for tracking events
@@ -108,6 +242,7 @@ public class ParcelServiceImpl implements ParcelService {
         String oldCity = existingParcel.getCurrentCity();
         String oldCountry = existingParcel.getCurrentCountry();
         LocalDateTime oldActualDeliveryDate = existingParcel.getActualDeliveryDate(); // Track old actual delivery date
+        ParcelStatsService.Contribution oldContribution = ParcelStatsService.Contribution.of(existingParcel);
 
         // Update parcel fields
         if (request.getSenderId() != null && !request.getSenderId().equals(existingParcel.getSenderId())) {
@@ -122,6 +257,8 @@ public class ParcelServiceImpl implements ParcelService {
         }
 
         if (request.getSenderAddress() != null) existingParcel.setSenderAddress(request.getSenderAddress());
+        boolean recipientAddressChanged = request.getRecipientAddress() != null
+                && !request.getRecipientAddress().equals(existingParcel.getRecipientAddress());
         if (request.getRecipientAddress() != null) existingParcel.setRecipientAddress(request.getRecipientAddress());
         if (request.getSenderPhone() != null) existingParcel.setSenderPhone(request.getSenderPhone());
         if (request.getRecipientPhone() != null) existingParcel.setRecipientPhone(request.getRecipientPhone());
@@ -137,17 +274,30 @@ public class ParcelServiceImpl implements ParcelService {
         if (request.getCurrentLocation() != null) existingParcel.setCurrentLocation(request.getCurrentLocation());
         if (request.getCurrentCity() != null) existingParcel.setCurrentCity(request.getCurrentCity());
         if (request.getCurrentCountry() != null) existingParcel.setCurrentCountry(request.getCurrentCountry());
+        if (request.getRecipientLatitude() != null) existingParcel.setRecipientLatitude(request.getRecipientLatitude());
+        if (request.getRecipientLongitude() != null) existingParcel.setRecipientLongitude(request.getRecipientLongitude());
+        // Coordinates of the old address are wrong for the new one, unless the request supplies new ones
+        if (recipientAddressChanged && (request.getRecipientLatitude() == null || request.getRecipientLongitude() == null)) {
+            geocodeRecipient(existingParcel);
+        }
 
-        Parcel updatedParcel = parcelRepository.save(existingParcel);
+        boolean statusChanged = !Objects.equals(oldStatus, existingParcel.getStatus());
+        boolean locationChanged = !Objects.equals(oldLocation, existingParcel.getCurrentLocation());
+        boolean cityChanged = !Objects.equals(oldCity, existingParcel.getCurrentCity());
+        boolean countryChanged = !Objects.equals(oldCountry, existingParcel.getCurrentCountry());
+        boolean actualDeliveryDateChanged = !Objects.equals(oldActualDeliveryDate, existingParcel.getActualDeliveryDate());
+        // A date typed in by an admin wins; otherwise every move refreshes the estimate from transit history
+        if ((statusChanged || locationChanged || cityChanged || countryChanged) && request.getEstimatedDeliveryDate() == null) {
+            refreshEstimatedDeliveryDate(existingParcel);
+        }
+
+        // Flushed after the last change to the parcel, so the update is one UPDATE with one version increment, a
+        // conflict surfaces before the tracking event and outbox rows are written, and the response carries the new version
+        Parcel updatedParcel = parcelRepository.saveAndFlush(existingParcel);
+        parcelStatsService.recordChange(oldContribution, ParcelStatsService.Contribution.of(updatedParcel));
         System.out.println("DEBUG (ParcelServiceImpl): Parcel updated and saved to repository with ID: " + updatedParcel.getId());
 
         // Create tracking event if status or location/city/country changed
-        boolean statusChanged = !Objects.equals(oldStatus, updatedParcel.getStatus());
-        boolean locationChanged = !Objects.equals(oldLocation, updatedParcel.getCurrentLocation());
-        boolean cityChanged = !Objects.equals(oldCity, updatedParcel.getCurrentCity());
-        boolean countryChanged = !Objects.equals(oldCountry, updatedParcel.getCurrentCountry());
-        boolean actualDeliveryDateChanged = !Objects.equals(oldActualDeliveryDate, updatedParcel.getActualDeliveryDate());
-
 
         if (statusChanged || locationChanged || cityChanged || countryChanged || actualDeliveryDateChanged) {
             String eventDescription = "";
@@ -185,7 +335,9 @@ public class ParcelServiceImpl implements ParcelService {
             );
             System.out.println("DEBUG (ParcelServiceImpl): createTrackingEvent called for update event.");
         }
-
+        if (statusChanged || locationChanged || cityChanged || countryChanged) {
+            outboxService.record(OutboxEvent.parcelChanged(updatedParcel, statusChanged));
+        }
         return mapToParcelResponse(updatedParcel);
     }
 
@@ -193,17 +345,15 @@ public class ParcelServiceImpl implements ParcelService {
     @Transactional
     public void deleteParcel(Long id) {
         System.out.println("DEBUG (ParcelServiceImpl): deleteParcel method called for ID: " + id);
-        if (!parcelRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Parcel not found with ID: " + id);
-        }
         Parcel parcelToDelete = parcelRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Parcel not found with ID: " + id));
-        trackingEventRepository.deleteAll(trackingEventRepository.findByParcelOrderByTimestampAsc(parcelToDelete));
-        parcelRepository.deleteById(id);
-        System.out.println("DEBUG (ParcelServiceImpl): Parcel and associated tracking events deleted for ID: " + id);
+        // One DELETE per table keyed by parcel id instead of loading and deleting tracking events one by one
+        parcelPurgeService.deleteWithDependents(List.of(parcelToDelete));
+        System.out.println("DEBUG (ParcelServiceImpl): Parcel and associated tracking events, notifications and feedback deleted for ID: " + id);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<ParcelResponse> getMyParcels(Long userId) {
         // IMPORTANT: Add more logging here
         System.out.println("DEBUG (ParcelServiceImpl): getMyParcels method called for User ID: " + userId);
@@ -215,19 +365,78 @@ public class ParcelServiceImpl implements ParcelService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<TrackingEvent> getParcelTrackingHistory(Long parcelId) {
         System.out.println("DEBUG (ParcelServiceImpl): getParcelTrackingHistory method called for Parcel ID: " + parcelId);
-        Parcel parcel = parcelRepository.findById(parcelId)
-                .orElseThrow(() -> new ResourceNotFoundException("Parcel not found with ID: " + parcelId));
-        List<TrackingEvent> events = trackingEventRepository.findByParcelOrderByTimestampAsc(parcel);
+        Optional<Parcel> parcel = parcelRepository.findById(parcelId);
+        List<TrackingEvent> events;
+        if (parcel.isPresent()) {
+            events = trackingEventRepository.findByParcelOrderByTimestampAsc(parcel.get());
+        } else {
+            events = parcelArchiveService.findByParcelId(parcelId)
+                    .map(ParcelArchiveService.ArchivedParcel::getEvents)
+                    .orElseThrow(() -> new ResourceNotFoundException("Parcel not found with ID: " + parcelId));
+        }
         System.out.println("DEBUG (ParcelServiceImpl): Found " + events.size() + " tracking events for parcel ID: " + parcelId);
         return events;
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public ParcelSearchResponse searchParcels(ParcelSearchRequest request) {
+        int size = request.getSize() != null ? request.getSize() : DEFAULT_SEARCH_PAGE_SIZE;
+        if (size < 1 || size > MAX_SEARCH_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_SEARCH_PAGE_SIZE + ".");
+        }
+        System.out.println("DEBUG (ParcelServiceImpl): searchParcels method called with criteria: " + request);
+
+        // Fetch one extra row to know whether another page exists without running a COUNT query
+        List<Parcel> parcels = parcelRepository.search(request, size + 1);
+        boolean hasMore = parcels.size() > size;
+        if (hasMore) {
+            parcels = parcels.subList(0, size);
+        }
+
+        // Resolve all senders and recipients of the page with one query instead of two lookups per parcel
+        Set<Long> userIds = new HashSet<>();
+        for (Parcel parcel : parcels) {
+            userIds.add(parcel.getSenderId());
+            userIds.add(parcel.getRecipientId());
+        }
+        Map<Long, User> usersById = userRepository.findAllById(userIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+
+        List<ParcelResponse> responses = parcels.stream()
+                .map(parcel -> mapToParcelResponse(parcel, usersById.get(parcel.getSenderId()), usersById.get(parcel.getRecipientId())))
+                .collect(Collectors.toList());
+        return ParcelSearchResponse.builder()
+                .parcels(responses)
+                .nextCursor(hasMore ? parcels.get(parcels.size() - 1).getId() : null)
+                .build();
+    }
+
+    // Sets the estimated delivery date to the P50 estimate for the parcel's new state, if there is enough history for one
+    private void refreshEstimatedDeliveryDate(Parcel parcel) {
+        EtaResponse eta = etaService.estimate(parcel.getCurrentCity(), parcel.getStatus(), LocalDateTime.now());
+        if (eta.isAvailable()) {
+            parcel.setEstimatedDeliveryDate(eta.getEstimatedDeliveryP50());
+        }
+    }
+
+    // Sets the recipient coordinates from the local gazetteer, or clears them if the address cannot be located
+    private void geocodeRecipient(Parcel parcel) {
+        Optional<Gazetteer.Match> match = geocodingService.geocode(parcel.getRecipientAddress());
+        parcel.setRecipientLatitude(match.map(Gazetteer.Match::getLatitude).orElse(null));
+        parcel.setRecipientLongitude(match.map(Gazetteer.Match::getLongitude).orElse(null));
+    }
+
     private ParcelResponse mapToParcelResponse(Parcel parcel) {
         User sender = userRepository.findById(parcel.getSenderId()).orElse(null);
         User recipient = userRepository.findById(parcel.getRecipientId()).orElse(null);
+        return mapToParcelResponse(parcel, sender, recipient);
+    }
 
+    private ParcelResponse mapToParcelResponse(Parcel parcel, User sender, User recipient) {
         return ParcelResponse.builder()
                 .id(parcel.getId())
                 .trackingId(parcel.getTrackingId())
@@ -252,8 +461,11 @@ public class ParcelServiceImpl implements ParcelService {
                 .currentLocation(parcel.getCurrentLocation())
                 .currentCity(parcel.getCurrentCity())
                 .currentCountry(parcel.getCurrentCountry())
+                .recipientLatitude(parcel.getRecipientLatitude())
+                .recipientLongitude(parcel.getRecipientLongitude())
                 .createdAt(parcel.getCreatedAt())
                 .lastUpdatedAt(parcel.getLastUpdatedAt())
+                .version(parcel.getVersion())
                 .build();
     }
 
@@ -267,7 +479,12 @@ public class ParcelServiceImpl implements ParcelService {
                 .country(country)
                 .timestamp(LocalDateTime.now())
                 .build();
+        // The previous event is read before saving so the new one cannot be mistaken for it
+        Optional<TrackingEvent> previous = parcel.getId() != null
+                ? trackingEventRepository.findFirstByParcelOrderByTimestampDescIdDesc(parcel)
+                : Optional.empty();
         trackingEventRepository.save(event);
+        previous.ifPresent(p -> etaService.recordTransition(p, event));
         System.out.println("DEBUG (ParcelServiceImpl): Successfully created tracking event for parcel " + parcel.getTrackingId() + ".");
     }
 }
@@ -0,0 +1,285 @@
+package com.routegenius.backend.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.routegenius.backend.dto.ParcelStatsResponse;
+import com.routegenius.backend.entity.ParcelStatus;
+import com.routegenius.backend.repository.ParcelRepository;
+import com.routegenius.backend.service.ParcelStatsService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Keeps the operational dashboard counters in memory. Every parcel write adds its delta to
+ * LongAdder counters (striped internally, so concurrent writers do not contend on one cache line),
+ * and reads just sum them up.
+ *
+ * The counters only see writes made through this node, so they are periodically reconciled
+ * against GROUP BY queries. Writes that happen while a reconciliation is running are journaled and
+ * re-applied on top of the fresh database values (a write committing mid-query can be counted twice
+ * until the next run, which is fine for a dashboard). A snapshot file written on shutdown and after each
+ * reconciliation makes the counters available immediately after a restart.
+ */
+@Service
+@RequiredArgsConstructor
+public class ParcelStatsServiceImpl implements ParcelStatsService {
+
+    private static final String UNKNOWN = "Unknown";
+
+    private final ParcelRepository parcelRepository;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Value("${stats.snapshot.path:${java.io.tmpdir}/routegenius-parcel-stats.json}")
+    private String snapshotPath;
+
+    private volatile Counters counters = new Counters();
+    private volatile Counters journal; // Non-null while a reconciliation is reading the database
+    private volatile LocalDateTime lastReconciledAt;
+    // Updates take the shared lock, the counter swap at the end of a reconciliation takes the exclusive one
+    private final ReentrantReadWriteLock swapLock = new ReentrantReadWriteLock();
+    private final ReentrantLock reconcileLock = new ReentrantLock(); // One reconciliation at a time
+
+    @PostConstruct
+    public void loadSnapshot() {
+        File file = new File(snapshotPath);
+        if (!file.isFile()) {
+            System.out.println("DEBUG (ParcelStatsServiceImpl): No stats snapshot found at " + snapshotPath + ", waiting for first reconciliation.");
+            return;
+        }
+        try {
+            PersistedCounters persisted = objectMapper.readValue(file, PersistedCounters.class);
+            counters = Counters.fromPersisted(persisted);
+            lastReconciledAt = LocalDateTime.ofInstant(Instant.ofEpochMilli(persisted.reconciledAtEpochMs), ZoneId.systemDefault());
+            System.out.println("DEBUG (ParcelStatsServiceImpl): Loaded stats snapshot from " + snapshotPath);
+        } catch (IOException e) {
+            System.err.println("ERROR (ParcelStatsServiceImpl): Could not read stats snapshot, ignoring it: " + e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void saveSnapshotOnShutdown() {
+        saveSnapshot(counters);
+    }
+
+    @Override
+    public ParcelStatsResponse getStats() {
+        Counters current = counters;
+        Map<ParcelStatus, Long> byStatus = new EnumMap<>(ParcelStatus.class);
+        long total = 0;
+        for (ParcelStatus status : ParcelStatus.values()) {
+            long count = current.byStatus.get(status).sum();
+            byStatus.put(status, count);
+            total += count;
+        }
+        long delivered = current.deliveredCount.sum();
+        long deliveredSeconds = current.deliveredSeconds.sum();
+        return ParcelStatsResponse.builder()
+                .totalParcels(total)
+                .byStatus(byStatus)
+                .byCity(nonZero(current.byCity))
+                .byCountry(nonZero(current.byCountry))
+                .deliveredWithDates(delivered)
+                .averageDeliveryHours(delivered > 0 ? deliveredSeconds / 3600.0 / delivered : null)
+                .lastReconciledAt(lastReconciledAt)
+                .build();
+    }
+
+    @Override
+    public void recordChange(Contribution before, Contribution after) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(before, after);
+                }
+            });
+        } else {
+            apply(before, after);
+        }
+    }
+
+    @Override
+    @Scheduled(initialDelayString = "${stats.reconcile.initial-delay-ms:30000}", fixedDelayString = "${stats.reconcile.interval-ms:300000}")
+    public void reconcile() {
+        reconcileLock.lock();
+        try {
+            long start = System.currentTimeMillis();
+            journal = new Counters();
+            try {
+                Counters fresh = new Counters();
+                for (Object[] row : parcelRepository.countByStatus()) {
+                    fresh.byStatus.get((ParcelStatus) row[0]).add(((Number) row[1]).longValue());
+                }
+                for (Object[] row : parcelRepository.countByCurrentCity()) {
+                    fresh.adder(fresh.byCity, (String) row[0]).add(((Number) row[1]).longValue());
+                }
+                for (Object[] row : parcelRepository.countByCurrentCountry()) {
+                    fresh.adder(fresh.byCountry, (String) row[0]).add(((Number) row[1]).longValue());
+                }
+                List<Object[]> deliveryTotals = parcelRepository.sumDeliveryTimes();
+                if (!deliveryTotals.isEmpty()) {
+                    Object[] row = deliveryTotals.get(0);
+                    fresh.deliveredCount.add(((Number) row[0]).longValue());
+                    fresh.deliveredSeconds.add(((Number) row[1]).longValue());
+                }
+
+                swapLock.writeLock().lock();
+                try {
+                    fresh.addAll(journal);
+                    counters = fresh;
+                    journal = null;
+                } finally {
+                    swapLock.writeLock().unlock();
+                }
+                lastReconciledAt = LocalDateTime.now();
+                saveSnapshot(fresh);
+                System.out.println("DEBUG (ParcelStatsServiceImpl): Parcel stats reconciled in " + (System.currentTimeMillis() - start) + " ms.");
+            } catch (RuntimeException e) {
+                journal = null;
+                System.err.println("ERROR (ParcelStatsServiceImpl): Parcel stats reconciliation failed: " + e.getMessage());
+            }
+        } finally {
+            reconcileLock.unlock();
+        }
+    }
+
+    private void apply(Contribution before, Contribution after) {
+        swapLock.readLock().lock();
+        try {
+            Counters current = counters;
+            Counters pending = journal;
+            if (before != null) {
+                current.add(before, -1);
+                if (pending != null) pending.add(before, -1);
+            }
+            if (after != null) {
+                current.add(after, 1);
+                if (pending != null) pending.add(after, 1);
+            }
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    private void saveSnapshot(Counters source) {
+        try {
+            PersistedCounters persisted = source.toPersisted();
+            persisted.reconciledAtEpochMs = lastReconciledAt != null
+                    ? lastReconciledAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                    : System.currentTimeMillis();
+            File target = new File(snapshotPath);
+            File temp = new File(snapshotPath + ".tmp");
+            objectMapper.writeValue(temp, persisted);
+            if (!temp.renameTo(target)) {
+                System.err.println("ERROR (ParcelStatsServiceImpl): Could not move stats snapshot into place at " + snapshotPath);
+            }
+        } catch (IOException e) {
+            System.err.println("ERROR (ParcelStatsServiceImpl): Could not write stats snapshot: " + e.getMessage());
+        }
+    }
+
+    private static Map<String, Long> nonZero(Map<String, LongAdder> adders) {
+        Map<String, Long> result = new TreeMap<>();
+        adders.forEach((key, adder) -> {
+            long value = adder.sum();
+            if (value != 0) {
+                result.put(key, value);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * One complete set of counters.
+     */
+    private static final class Counters {
+        private final Map<ParcelStatus, LongAdder> byStatus = new EnumMap<>(ParcelStatus.class);
+        private final ConcurrentHashMap<String, LongAdder> byCity = new ConcurrentHashMap<>();
+        private final ConcurrentHashMap<String, LongAdder> byCountry = new ConcurrentHashMap<>();
+        private final LongAdder deliveredCount = new LongAdder();
+        private final LongAdder deliveredSeconds = new LongAdder();
+
+        Counters() {
+            // All status adders exist up front, so the EnumMap is never modified after construction
+            for (ParcelStatus status : ParcelStatus.values()) {
+                byStatus.put(status, new LongAdder());
+            }
+        }
+
+        void add(Contribution contribution, int sign) {
+            if (contribution.getStatus() != null) {
+                byStatus.get(contribution.getStatus()).add(sign);
+            }
+            adder(byCity, contribution.getCity()).add(sign);
+            adder(byCountry, contribution.getCountry()).add(sign);
+            if (contribution.isDelivered()) {
+                deliveredCount.add(sign);
+                deliveredSeconds.add(sign * contribution.getDeliverySeconds());
+            }
+        }
+
+        void addAll(Counters other) {
+            other.byStatus.forEach((status, adder) -> byStatus.get(status).add(adder.sum()));
+            other.byCity.forEach((city, adder) -> adder(byCity, city).add(adder.sum()));
+            other.byCountry.forEach((country, adder) -> adder(byCountry, country).add(adder.sum()));
+            deliveredCount.add(other.deliveredCount.sum());
+            deliveredSeconds.add(other.deliveredSeconds.sum());
+        }
+
+        LongAdder adder(ConcurrentHashMap<String, LongAdder> map, String key) {
+            return map.computeIfAbsent(key == null || key.isBlank() ? UNKNOWN : key, k -> new LongAdder());
+        }
+
+        PersistedCounters toPersisted() {
+            PersistedCounters persisted = new PersistedCounters();
+            byStatus.forEach((status, adder) -> persisted.byStatus.put(status.name(), adder.sum()));
+            byCity.forEach((city, adder) -> persisted.byCity.put(city, adder.sum()));
+            byCountry.forEach((country, adder) -> persisted.byCountry.put(country, adder.sum()));
+            persisted.deliveredCount = deliveredCount.sum();
+            persisted.deliveredSeconds = deliveredSeconds.sum();
+            return persisted;
+        }
+
+        static Counters fromPersisted(PersistedCounters persisted) {
+            Counters counters = new Counters();
+            persisted.byStatus.forEach((status, value) -> counters.byStatus.get(ParcelStatus.valueOf(status)).add(value));
+            persisted.byCity.forEach((city, value) -> counters.adder(counters.byCity, city).add(value));
+            persisted.byCountry.forEach((country, value) -> counters.adder(counters.byCountry, country).add(value));
+            counters.deliveredCount.add(persisted.deliveredCount);
+            counters.deliveredSeconds.add(persisted.deliveredSeconds);
+            return counters;
+        }
+    }
+
+    /**
+     * JSON layout of the snapshot file.
+     */
+    public static class PersistedCounters {
+        public Map<String, Long> byStatus = new HashMap<>();
+        public Map<String, Long> byCity = new HashMap<>();
+        public Map<String, Long> byCountry = new HashMap<>();
+        public long deliveredCount;
+        public long deliveredSeconds;
+        public long reconciledAtEpochMs;
+    }
+}
@@ -0,0 +1,330 @@
+package com.routegenius.backend.service.impl;
+
+import com.routegenius.backend.dto.JfrRecordingRequest;
+import com.routegenius.backend.dto.JfrRecordingResponse;
+import com.routegenius.backend.dto.RequestSpan;
+import com.routegenius.backend.dto.SlowRequestResponse;
+import com.routegenius.backend.exception.ResourceNotFoundException;
+import com.routegenius.backend.profiling.ExternalCallEvent;
+import com.routegenius.backend.profiling.HttpRequestEvent;
+import com.routegenius.backend.profiling.JwtEvent;
+import com.routegenius.backend.profiling.PasswordHashEvent;
+import com.routegenius.backend.profiling.RepositoryCallEvent;
+import com.routegenius.backend.profiling.RequestProfile;
+import com.routegenius.backend.profiling.ServiceCallEvent;
+import com.routegenius.backend.service.ProfilingService;
+import jdk.jfr.Configuration;
+import jdk.jfr.Event;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded JFR recordings on demand plus a ring buffer of slow requests.
+ *
+ * Recordings are written to profiling.recording-dir; only the newest profiling.keep-recordings are kept. The
+ * slow-request buffer holds the last profiling.slow-requests entries and is written without locks: a request
+ * under the threshold costs one comparison here.
+ */
+@Service
+public class ProfilingServiceImpl implements ProfilingService {
+
+    private static final List<Class<? extends Event>> ROUTEGENIUS_EVENTS = List.of(HttpRequestEvent.class,
+            ServiceCallEvent.class, RepositoryCallEvent.class, ExternalCallEvent.class, JwtEvent.class,
+            PasswordHashEvent.class);
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final long slowThresholdNanos;
+    private final AtomicReferenceArray<SlowRequestResponse> slowRequests;
+    private final AtomicLong slowRequestCount = new AtomicLong();
+
+    @Value("${profiling.recording-dir:${java.io.tmpdir}/routegenius-jfr}")
+    private Path recordingDir;
+    @Value("${profiling.max-recording-seconds:1800}")
+    private int maxRecordingSeconds;
+    @Value("${profiling.max-recording-mb:500}")
+    private int maxRecordingMb;
+    @Value("${profiling.keep-recordings:10}")
+    private int keepRecordings;
+
+    private final Map<Long, ManagedRecording> recordings = new LinkedHashMap<>(); // Oldest first; guarded by lock
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public ProfilingServiceImpl(@Value("${profiling.slow-request-threshold-ms:500}") long slowThresholdMs,
+                                @Value("${profiling.slow-requests:200}") int capacity) {
+        // A threshold of 0 or less turns the sampler off
+        this.slowThresholdNanos = slowThresholdMs > 0 ? slowThresholdMs * 1_000_000 : Long.MAX_VALUE;
+        this.slowRequests = new AtomicReferenceArray<>(Math.max(1, capacity));
+    }
+
+    @Override
+    public JfrRecordingResponse startRecording(JfrRecordingRequest request) {
+        lock.lock();
+        try {
+            int durationSeconds = request.getDurationSeconds() == null ? Math.min(60, maxRecordingSeconds) : request.getDurationSeconds();
+            int maxSizeMb = request.getMaxSizeMb() == null ? Math.min(100, maxRecordingMb) : request.getMaxSizeMb();
+            String settings = request.getSettings() == null ? "default" : request.getSettings();
+            long thresholdMs = request.getThresholdMs() == null ? 0 : request.getThresholdMs();
+            if (durationSeconds <= 0 || durationSeconds > maxRecordingSeconds) {
+                throw new IllegalArgumentException("Duration must be between 1 and " + maxRecordingSeconds + " seconds");
+            }
+            if (maxSizeMb <= 0 || maxSizeMb > maxRecordingMb) {
+                throw new IllegalArgumentException("Maximum size must be between 1 and " + maxRecordingMb + " MB");
+            }
+            if (!settings.equals("default") && !settings.equals("profile")) {
+                throw new IllegalArgumentException("Settings must be 'default' or 'profile'");
+            }
+            if (thresholdMs < 0) {
+                throw new IllegalArgumentException("Threshold must not be negative");
+            }
+            for (ManagedRecording managed : recordings.values()) {
+                if (managed.recording.getState() == RecordingState.RUNNING) {
+                    throw new IllegalArgumentException("Recording " + managed.recording.getId() + " is still running; stop it first");
+                }
+            }
+
+            Recording recording;
+            try {
+                Files.createDirectories(recordingDir);
+                recording = new Recording(Configuration.getConfiguration(settings));
+                recording.setName("routegenius-" + LocalDateTime.now().format(FILE_TIME));
+                recording.setDestination(recordingDir.resolve(recording.getName() + ".jfr"));
+            } catch (IOException | java.text.ParseException e) {
+                throw new IllegalStateException("Could not prepare the JFR recording: " + e.getMessage(), e);
+            }
+            recording.setToDisk(true);
+            recording.setMaxSize(maxSizeMb * 1024L * 1024L);
+            recording.setDuration(Duration.ofSeconds(durationSeconds));
+            for (Class<? extends Event> eventType : ROUTEGENIUS_EVENTS) {
+                recording.enable(eventType).withThreshold(Duration.ofMillis(thresholdMs));
+            }
+            recording.start();
+            System.out.println("DEBUG (ProfilingServiceImpl): Started JFR recording " + recording.getName() + " for " + durationSeconds + " s");
+
+            recordings.put(recording.getId(), new ManagedRecording(recording, settings, thresholdMs, LocalDateTime.now()));
+            evictOldRecordings();
+            return toResponse(recordings.get(recording.getId()));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public JfrRecordingResponse stopRecording(long id) {
+        lock.lock();
+        try {
+            ManagedRecording managed = find(id);
+            if (managed.recording.getState() == RecordingState.RUNNING) {
+                managed.recording.stop(); // Writes the destination file
+                System.out.println("DEBUG (ProfilingServiceImpl): Stopped JFR recording " + managed.recording.getName());
+            }
+            return toResponse(managed);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public List<JfrRecordingResponse> getRecordings() {
+        lock.lock();
+        try {
+            List<JfrRecordingResponse> responses = new ArrayList<>();
+            for (ManagedRecording managed : recordings.values()) {
+                responses.add(0, toResponse(managed));
+            }
+            return responses;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Path getRecordingFile(long id) {
+        lock.lock();
+        try {
+            ManagedRecording managed = find(id);
+            if (managed.recording.getState() == RecordingState.RUNNING || managed.recording.getState() == RecordingState.NEW) {
+                throw new IllegalArgumentException("Recording " + id + " is still running");
+            }
+            Path file = managed.recording.getDestination();
+            if (file == null || !Files.exists(file)) {
+                throw new ResourceNotFoundException("The file of recording " + id + " no longer exists");
+            }
+            return file;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void recordRequest(String method, String path, int status, RequestProfile profile) {
+        long durationNanos = profile.getDurationNanos();
+        if (durationNanos < slowThresholdNanos) {
+            return;
+        }
+        SlowRequestResponse entry = SlowRequestResponse.builder()
+                .method(method)
+                .path(path)
+                .status(status)
+                .startedAt(LocalDateTime.now().minusNanos(durationNanos))
+                .durationMs(millis(durationNanos))
+                .selfTimeMs(selfTimes(profile, durationNanos))
+                .spans(spans(profile))
+                .droppedSpans(profile.getDroppedSpans())
+                .build();
+        long slot = slowRequestCount.getAndIncrement();
+        slowRequests.set((int) (slot % slowRequests.length()), entry);
+    }
+
+    @Override
+    public List<SlowRequestResponse> getSlowRequests() {
+        long newest = slowRequestCount.get() - 1;
+        List<SlowRequestResponse> result = new ArrayList<>();
+        for (long slot = newest; slot >= 0 && slot > newest - slowRequests.length(); slot--) {
+            SlowRequestResponse entry = slowRequests.get((int) (slot % slowRequests.length()));
+            if (entry != null) {
+                result.add(entry);
+            }
+        }
+        return result;
+    }
+
+    private static List<RequestSpan> spans(RequestProfile profile) {
+        List<RequestSpan> spans = new ArrayList<>(profile.getSpanCount());
+        Integer[] order = new Integer[profile.getSpanCount()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        // Recorded as they ended; report them as they started, parents before children
+        java.util.Arrays.sort(order, Comparator.<Integer>comparingLong(profile::offsetNanos).thenComparingInt(profile::depth));
+        for (int i : order) {
+            spans.add(RequestSpan.builder()
+                    .kind(profile.kind(i))
+                    .name(profile.owner(i) + "." + profile.operation(i))
+                    .depth(profile.depth(i))
+                    .offsetMs(millis(profile.offsetNanos(i)))
+                    .durationMs(millis(profile.durationNanos(i)))
+                    .build());
+        }
+        return spans;
+    }
+
+    /**
+     * Time per kind with nested spans subtracted, so a repository call inside a service method counts as "db"
+     * only. Each span's children are the spans one level deeper that lie within it.
+     */
+    private static Map<String, Double> selfTimes(RequestProfile profile, long durationNanos) {
+        Map<String, Long> nanos = new LinkedHashMap<>();
+        long topLevel = 0;
+        int count = profile.getSpanCount();
+        for (int i = 0; i < count; i++) {
+            long self = profile.durationNanos(i);
+            long start = profile.offsetNanos(i);
+            long end = start + profile.durationNanos(i);
+            for (int j = 0; j < count; j++) {
+                if (profile.depth(j) == profile.depth(i) + 1 && profile.offsetNanos(j) >= start && profile.offsetNanos(j) < end) {
+                    self -= profile.durationNanos(j);
+                }
+            }
+            nanos.merge(profile.kind(i), Math.max(0, self), Long::sum);
+            if (profile.depth(i) == 0) {
+                topLevel += profile.durationNanos(i);
+            }
+        }
+        nanos.put("other", Math.max(0, durationNanos - topLevel));
+        Map<String, Double> millis = new LinkedHashMap<>();
+        nanos.forEach((kind, value) -> millis.put(kind, millis(value)));
+        return millis;
+    }
+
+    private ManagedRecording find(long id) {
+        ManagedRecording managed = recordings.get(id);
+        if (managed == null) {
+            throw new ResourceNotFoundException("JFR recording not found with ID: " + id);
+        }
+        return managed;
+    }
+
+    // Closes and deletes the oldest finished recordings beyond the ones to keep
+    private void evictOldRecordings() {
+        while (recordings.size() > keepRecordings) {
+            Long oldest = null;
+            for (Map.Entry<Long, ManagedRecording> entry : recordings.entrySet()) {
+                if (entry.getValue().recording.getState() != RecordingState.RUNNING) {
+                    oldest = entry.getKey();
+                    break;
+                }
+            }
+            if (oldest == null) {
+                return;
+            }
+            Recording recording = recordings.remove(oldest).recording;
+            recording.close();
+            try {
+                if (recording.getDestination() != null) {
+                    Files.deleteIfExists(recording.getDestination());
+                }
+            } catch (IOException e) {
+                System.err.println("ERROR (ProfilingServiceImpl): Could not delete " + recording.getDestination() + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private JfrRecordingResponse toResponse(ManagedRecording managed) {
+        Recording recording = managed.recording;
+        long fileSize = 0;
+        Path file = recording.getDestination();
+        try {
+            if (file != null && recording.getState() != RecordingState.RUNNING && Files.exists(file)) {
+                fileSize = Files.size(file);
+            }
+        } catch (IOException e) {
+            System.err.println("ERROR (ProfilingServiceImpl): Could not read the size of " + file + ": " + e.getMessage());
+        }
+        return JfrRecordingResponse.builder()
+                .id(recording.getId())
+                .name(recording.getName())
+                .state(recording.getState().name())
+                .settings(managed.settings)
+                .thresholdMs(managed.thresholdMs)
+                .startedAt(managed.startedAt)
+                .durationSeconds(recording.getDuration() == null ? 0 : recording.getDuration().toSeconds())
+                .maxSizeBytes(recording.getMaxSize())
+                .fileSizeBytes(fileSize)
+                .build();
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 10_000.0) / 100.0;
+    }
+
+    private static final class ManagedRecording {
+        private final Recording recording;
+        private final String settings;
+        private final long thresholdMs;
+        private final LocalDateTime startedAt;
+
+        private ManagedRecording(Recording recording, String settings, long thresholdMs, LocalDateTime startedAt) {
+            this.recording = recording;
+            this.settings = settings;
+            this.thresholdMs = thresholdMs;
+            this.startedAt = startedAt;
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.routegenius.backend.service.impl;
+
+import com.routegenius.backend.dto.CityRoutePlan;
+import com.routegenius.backend.dto.CourierRoute;
+import com.routegenius.backend.dto.RoutePlanRequest;
+import com.routegenius.backend.dto.RoutePlanResponse;
+import com.routegenius.backend.dto.RouteStop;
+import com.routegenius.backend.entity.Parcel;
+import com.routegenius.backend.entity.ParcelStatus;
+import com.routegenius.backend.repository.ParcelRepository;
+import com.routegenius.backend.service.RoutePlanningService;
+import com.routegenius.backend.util.RouteOptimizer;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class RoutePlanningServiceImpl implements RoutePlanningService {
+
+    private static final Set<ParcelStatus> ROUTABLE_STATUSES = EnumSet.of(ParcelStatus.PENDING, ParcelStatus.DISPATCHED);
+    private static final int DEFAULT_MAX_STOPS_PER_ROUTE = 150;
+    private static final int MAX_COURIERS_PER_CITY = 500;
+    private static final int MAX_STOPS_PER_ROUTE = 5000;
+
+    private final ParcelRepository parcelRepository;
+
+    // Dedicated pool so long solves do not occupy the common pool used by parallel streams elsewhere
+    private final ForkJoinPool routingPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+    @PreDestroy
+    public void shutdown() {
+        routingPool.shutdownNow();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public RoutePlanResponse planRoutes(RoutePlanRequest request) {
+        RoutePlanRequest options = request != null ? request : new RoutePlanRequest();
+        int couriers = options.getCouriersPerCity() != null ? options.getCouriersPerCity() : 1;
+        int maxStops = options.getMaxStopsPerRoute() != null ? options.getMaxStopsPerRoute() : DEFAULT_MAX_STOPS_PER_ROUTE;
+        if (couriers < 1 || couriers > MAX_COURIERS_PER_CITY || maxStops < 1 || maxStops > MAX_STOPS_PER_ROUTE) {
+            throw new IllegalArgumentException("couriersPerCity must be between 1 and " + MAX_COURIERS_PER_CITY
+                    + " and maxStopsPerRoute between 1 and " + MAX_STOPS_PER_ROUTE + ".");
+        }
+        boolean hasDepot = options.getDepotLatitude() != null || options.getDepotLongitude() != null;
+        if (hasDepot && (options.getDepotLatitude() == null || options.getDepotLongitude() == null
+                || options.getCities() == null || options.getCities().size() != 1)) {
+            throw new IllegalArgumentException("A depot needs both coordinates and exactly one city.");
+        }
+        System.out.println("DEBUG (RoutePlanningServiceImpl): planRoutes called for cities " + options.getCities() + ", couriers per city: " + couriers);
+
+        long start = System.currentTimeMillis();
+        List<Parcel> parcels = options.getCities() == null || options.getCities().isEmpty()
+                ? parcelRepository.findByStatusIn(ROUTABLE_STATUSES)
+                : parcelRepository.findByStatusInAndCurrentCityIn(ROUTABLE_STATUSES, options.getCities());
+        Map<String, List<Parcel>> byCity = parcels.stream()
+                .collect(Collectors.groupingBy(Parcel::getCurrentCity, TreeMap::new, Collectors.toList()));
+
+        List<CityRoutePlan> plans;
+        try {
+            plans = routingPool.submit(() -> byCity.entrySet().parallelStream()
+                    .map(entry -> planCity(entry.getKey(), entry.getValue(), couriers, maxStops,
+                            options.getDepotLatitude(), options.getDepotLongitude()))
+                    .collect(Collectors.toList())).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Route planning was interrupted.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Route planning failed.", e.getCause());
+        }
+
+        int planned = plans.stream().mapToInt(CityRoutePlan::getStops).sum();
+        int skipped = plans.stream().mapToInt(CityRoutePlan::getSkippedWithoutCoordinates).sum();
+        long duration = System.currentTimeMillis() - start;
+        System.out.println("DEBUG (RoutePlanningServiceImpl): Planned " + planned + " stops in " + plans.size() + " cities in " + duration + " ms.");
+        return RoutePlanResponse.builder()
+                .cities(plans)
+                .parcelsPlanned(planned)
+                .parcelsWithoutCoordinates(skipped)
+                .solveTimeMs(duration)
+                .build();
+    }
+
+    private CityRoutePlan planCity(String city, List<Parcel> cityParcels, int couriers, int maxStops, Double depotLatitude, Double depotLongitude) {
+        long start = System.currentTimeMillis();
+        List<Parcel> routable = new ArrayList<>(cityParcels.size());
+        for (Parcel parcel : cityParcels) {
+            if (parcel.getRecipientLatitude() != null && parcel.getRecipientLongitude() != null) {
+                routable.add(parcel);
+            }
+        }
+        int n = routable.size();
+        double[] latitudes = new double[n];
+        double[] longitudes = new double[n];
+        double latitudeSum = 0;
+        double longitudeSum = 0;
+        for (int i = 0; i < n; i++) {
+            latitudes[i] = routable.get(i).getRecipientLatitude();
+            longitudes[i] = routable.get(i).getRecipientLongitude();
+            latitudeSum += latitudes[i];
+            longitudeSum += longitudes[i];
+        }
+        double depotLat = depotLatitude != null ? depotLatitude : (n > 0 ? latitudeSum / n : 0);
+        double depotLon = depotLongitude != null ? depotLongitude : (n > 0 ? longitudeSum / n : 0);
+
+        int[][] plannedRoutes = RouteOptimizer.plan(latitudes, longitudes, depotLat, depotLon, couriers, maxStops);
+        List<CourierRoute> routes = new ArrayList<>(plannedRoutes.length);
+        double totalDistance = 0;
+        for (int r = 0; r < plannedRoutes.length; r++) {
+            int[] route = plannedRoutes[r];
+            List<RouteStop> stops = new ArrayList<>(route.length);
+            for (int i = 0; i < route.length; i++) {
+                Parcel parcel = routable.get(route[i]);
+                stops.add(RouteStop.builder()
+                        .sequence(i + 1)
+                        .parcelId(parcel.getId())
+                        .trackingId(parcel.getTrackingId())
+                        .recipientAddress(parcel.getRecipientAddress())
+                        .latitude(parcel.getRecipientLatitude())
+                        .longitude(parcel.getRecipientLongitude())
+                        .build());
+            }
+            double distance = RouteOptimizer.routeLengthKm(latitudes, longitudes, depotLat, depotLon, route);
+            totalDistance += distance;
+            routes.add(CourierRoute.builder().courier(r + 1).distanceKm(distance).stops(stops).build());
+        }
+        return CityRoutePlan.builder()
+                .city(city)
+                .depotLatitude(depotLat)
+                .depotLongitude(depotLon)
+                .stops(n)
+                .skippedWithoutCoordinates(cityParcels.size() - n)
+                .totalDistanceKm(totalDistance)
+                .solveTimeMs(System.currentTimeMillis() - start)
+                .routes(routes)
+                .build();
+    }
+}
@@ -0,0 +1,532 @@
+package com.routegenius.backend.service.impl;
+
+import com.routegenius.backend.dto.EtaResponse;
+import com.routegenius.backend.dto.ScanIngestResponse;
+import com.routegenius.backend.dto.ScanRequest;
+import com.routegenius.backend.entity.OutboxEvent;
+import com.routegenius.backend.entity.Parcel;
+import com.routegenius.backend.entity.ParcelStatus;
+import com.routegenius.backend.entity.TrackingEvent;
+import com.routegenius.backend.exception.BulkheadFullException;
+import com.routegenius.backend.repository.ParcelRepository;
+import com.routegenius.backend.repository.TrackingEventRepository;
+import com.routegenius.backend.service.EtaService;
+import com.routegenius.backend.service.OutboxService;
+import com.routegenius.backend.service.ParcelStatsService;
+import com.routegenius.backend.service.ScanIngestService;
+import com.routegenius.backend.service.TrackingIdFilterService;
+import com.routegenius.backend.util.ScanCoalescer;
+import com.routegenius.backend.util.TrackingIdGenerator;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Group commit for hub scans.
+ *
+ * Request threads validate their batch, append it to a shared buffer and wait. A single flusher thread takes
+ * the whole buffer once scan.ingest.window-ms has passed since its first scan, or earlier when it reaches
+ * scan.ingest.max-batch scans. It writes everything in one transaction:
+ * - one query resolves all tracking IDs;
+ * - one query reads the latest event of each parcel;
+ * - one multi-row INSERT per 500 tracking events;
+ * - one JDBC batch of parcel UPDATEs. Connector/J sends that batch in one round trip only when
+ *   rewriteBatchedStatements=true is set on the JDBC URL;
+ * - one multi-row INSERT per 500 outbox events, one for each parcel that moved.
+ * Then it releases all waiting requests at once. Buffering a window also lets repeated and out-of-order scans
+ * of a parcel be sorted out before anything is written (see {@link ScanCoalescer}).
+ *
+ * Parcel UPDATEs carry the version check. A flush that collides with a concurrent admin update is retried up
+ * to scan.ingest.max-flush-attempts times. If a flush fails, or a request stops waiting for it after
+ * scan.ingest.commit-timeout-ms, the request gets an error and the scanner resends the batch. Ingest is
+ * idempotent, so a resend is safe even if the first flush did commit: its newest scans repeat the parcel's
+ * current state and its older ones are late scans, which are checked against the stored history on parcel,
+ * time, status and city.
+ */
+@Service
+@RequiredArgsConstructor
+public class ScanIngestServiceImpl implements ScanIngestService, MeterBinder {
+
+    private static final int QUERY_CHUNK = 1000; // IN-list size for the lookups
+    private static final int INSERT_CHUNK = 500; // Rows per multi-row INSERT, 3000 placeholders
+    private static final int MAX_FIELD_LENGTH = 255; // VARCHAR(255) columns
+
+    private final ParcelRepository parcelRepository;
+    private final TrackingEventRepository trackingEventRepository;
+    private final TrackingIdFilterService trackingIdFilterService;
+    private final ParcelStatsService parcelStatsService;
+    private final EtaService etaService;
+    private final OutboxService outboxService;
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${scan.ingest.window-ms:50}")
+    private long windowMs;
+    @Value("${scan.ingest.max-batch:5000}")
+    private int maxBatch;
+    @Value("${scan.ingest.max-pending:50000}")
+    private int maxPending;
+    @Value("${scan.ingest.commit-timeout-ms:30000}")
+    private long commitTimeoutMs;
+    @Value("${scan.ingest.max-clock-skew-seconds:300}")
+    private long maxClockSkewSeconds;
+    @Value("${scan.ingest.max-flush-attempts:3}")
+    private int maxFlushAttempts;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition scansPending = lock.newCondition();
+    private List<PendingScan> pending = new ArrayList<>(); // Guarded by lock
+    private long firstPendingNanos; // Guarded by lock
+    private volatile boolean running;
+    private Thread flusher;
+
+    private final LongAdder applied = new LongAdder();
+    private final LongAdder late = new LongAdder();
+    private final LongAdder duplicates = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+    private final LongAdder flushNanos = new LongAdder();
+    private final LongAdder conflicts = new LongAdder();
+
+    @PostConstruct
+    void start() {
+        running = true;
+        flusher = Thread.ofPlatform().name("scan-ingest-flusher").daemon().start(this::flushLoop);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        lock.lock();
+        try {
+            running = false;
+            scansPending.signal();
+        } finally {
+            lock.unlock();
+        }
+        // The flusher commits what is still buffered before it exits
+        flusher.join(commitTimeoutMs);
+    }
+
+    @Override
+    public ScanIngestResponse ingest(List<ScanRequest> scans) {
+        Ticket ticket = new Ticket(scans.size());
+        LocalDateTime latestAllowed = LocalDateTime.now().plusSeconds(maxClockSkewSeconds);
+        List<PendingScan> accepted = new ArrayList<>(scans.size());
+        for (ScanRequest scan : scans) {
+            String normalizedTrackingId = TrackingIdGenerator.normalize(scan.getTrackingId());
+            String problem = normalizedTrackingId == null ? "invalid tracking ID" : problem(scan, latestAllowed);
+            if (problem == null && trackingIdFilterService.isDefinitelyAbsent(normalizedTrackingId)) {
+                problem = "unknown tracking ID";
+            }
+            if (problem != null) {
+                ticket.reject(scan.getTrackingId(), problem);
+            } else {
+                accepted.add(new PendingScan(normalizedTrackingId, scan, ticket));
+            }
+        }
+        rejected.add(ticket.rejections.size());
+        if (!accepted.isEmpty()) {
+            enqueue(accepted);
+            awaitCommit(ticket);
+        }
+        return ticket.toResponse();
+    }
+
+    private static String problem(ScanRequest scan, LocalDateTime latestAllowed) {
+        if (scan.getStatus() == null) {
+            return "status is required";
+        }
+        if (scan.getScannedAt() == null) {
+            return "scannedAt is required";
+        }
+        if (scan.getScannedAt().isAfter(latestAllowed)) {
+            return "scannedAt is in the future";
+        }
+        if (tooLong(scan.getLocation()) || tooLong(scan.getCity()) || tooLong(scan.getCountry())) {
+            return "location, city or country longer than " + MAX_FIELD_LENGTH + " characters";
+        }
+        return null;
+    }
+
+    private static boolean tooLong(String value) {
+        return value != null && value.length() > MAX_FIELD_LENGTH;
+    }
+
+    private void enqueue(List<PendingScan> scans) {
+        lock.lock();
+        try {
+            if (!running) {
+                throw new BulkheadFullException("Scan ingest is shutting down");
+            }
+            if (pending.size() + scans.size() > maxPending) {
+                throw new BulkheadFullException("Scan ingest queue is full (" + pending.size() + " scans waiting)");
+            }
+            if (pending.isEmpty()) {
+                firstPendingNanos = System.nanoTime();
+            }
+            // The whole batch goes into one flush, so its request is answered by one commit
+            pending.addAll(scans);
+            if (pending.size() == scans.size() || pending.size() >= maxBatch) {
+                scansPending.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void awaitCommit(Ticket ticket) {
+        try {
+            ticket.committed.get(commitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Scans were not committed within " + commitTimeoutMs + " ms; resend them");
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException runtime ? runtime : new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the scans to be committed");
+        }
+    }
+
+    private void flushLoop() {
+        while (true) {
+            List<PendingScan> batch;
+            lock.lock();
+            try {
+                while (running && pending.isEmpty()) {
+                    scansPending.awaitUninterruptibly();
+                }
+                long windowEnd = firstPendingNanos + TimeUnit.MILLISECONDS.toNanos(windowMs);
+                long remaining;
+                while (running && pending.size() < maxBatch && (remaining = windowEnd - System.nanoTime()) > 0) {
+                    scansPending.awaitNanos(remaining);
+                }
+                if (pending.isEmpty()) {
+                    return; // Stopped and drained
+                }
+                batch = pending;
+                pending = new ArrayList<>();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                continue;
+            } finally {
+                lock.unlock();
+            }
+            flush(batch);
+        }
+    }
+
+    private void flush(List<PendingScan> batch) {
+        long start = System.nanoTime();
+        Set<Ticket> tickets = Collections.newSetFromMap(new IdentityHashMap<>());
+        batch.forEach(scan -> tickets.add(scan.ticket));
+        try {
+            Outcome outcome = applyWithRetry(batch);
+            outcome.applied.forEach(scan -> scan.ticket.applied++);
+            outcome.late.forEach(scan -> scan.ticket.late++);
+            outcome.duplicates.forEach(scan -> scan.ticket.duplicates++);
+            outcome.unknown.forEach(scan -> scan.ticket.reject(scan.trackingId, "unknown tracking ID"));
+            applied.add(outcome.applied.size());
+            late.add(outcome.late.size());
+            duplicates.add(outcome.duplicates.size());
+            rejected.add(outcome.unknown.size());
+            tickets.forEach(ticket -> ticket.committed.complete(null));
+        } catch (RuntimeException e) {
+            System.err.println("ERROR (ScanIngestServiceImpl): Flush of " + batch.size() + " scans failed: " + e.getMessage());
+            tickets.forEach(ticket -> ticket.committed.completeExceptionally(e));
+        } finally {
+            flushes.increment();
+            flushNanos.add(System.nanoTime() - start);
+        }
+        System.out.println("DEBUG (ScanIngestServiceImpl): Flushed " + batch.size() + " scans from " + tickets.size()
+                + " requests in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms.");
+    }
+
+    // An admin update committed to one of the batch's parcels while the flush ran. The flush is rolled back and run
+    // again from fresh reads. Tickets are only credited after the commit, so the repeat does not count twice
+    private Outcome applyWithRetry(List<PendingScan> batch) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transaction.execute(status -> apply(batch));
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= maxFlushAttempts) {
+                    throw e;
+                }
+                conflicts.increment();
+                System.out.println("DEBUG (ScanIngestServiceImpl): Flush conflicted with a concurrent parcel update, retrying.");
+            }
+        }
+    }
+
+    private Outcome apply(List<PendingScan> batch) {
+        Map<String, List<PendingScan>> byTrackingId = new LinkedHashMap<>();
+        for (PendingScan scan : batch) {
+            byTrackingId.computeIfAbsent(scan.trackingId, id -> new ArrayList<>()).add(scan);
+        }
+        Map<String, Parcel> parcels = new HashMap<>();
+        for (List<String> chunk : chunks(new ArrayList<>(byTrackingId.keySet()))) {
+            parcelRepository.findByTrackingIdIn(chunk).forEach(parcel -> parcels.put(parcel.getTrackingId(), parcel));
+        }
+        Map<Long, Object[]> latestEvents = new HashMap<>();
+        for (List<Long> chunk : chunks(parcels.values().stream().map(Parcel::getId).toList())) {
+            trackingEventRepository.findLatestRowsByParcelIds(chunk).forEach(row -> latestEvents.put((Long) row[0], row));
+        }
+        Set<String> recorded = recordedLateEvents(byTrackingId, parcels, latestEvents);
+        // The parcel UPDATEs are sent as JDBC batches when the transaction flushes
+        entityManager.unwrap(Session.class).setJdbcBatchSize(INSERT_CHUNK);
+
+        Outcome outcome = new Outcome();
+        List<Object[]> eventRows = new ArrayList<>();
+        List<OutboxEvent> outboxEvents = new ArrayList<>();
+        byTrackingId.forEach((trackingId, scans) -> {
+            Parcel parcel = parcels.get(trackingId);
+            if (parcel == null) {
+                // Passed the Bloom filter but is not in the table (a false positive, or the parcel was archived)
+                trackingIdFilterService.recordDatabaseMiss();
+                outcome.unknown.addAll(scans);
+                return;
+            }
+            Object[] latest = latestEvents.get(parcel.getId());
+            ScanCoalescer.State current = new ScanCoalescer.State(parcel.getStatus(), parcel.getCurrentLocation(),
+                    parcel.getCurrentCity(), parcel.getCurrentCountry(), latest != null ? (LocalDateTime) latest[3] : null);
+            ScanCoalescer.Result<PendingScan> result = ScanCoalescer.coalesce(current, scans,
+                    state -> recorded.contains(eventKey(parcel.getId(), state.getSince(), state.getStatus(), state.getCity())));
+
+            outcome.duplicates.addAll(result.getDuplicates());
+            for (ScanCoalescer.Step<PendingScan> step : result.getLate()) {
+                eventRows.add(eventRow(parcel.getId(), step.getState()));
+                outcome.late.add(step.getScan());
+            }
+            if (result.getApplied().isEmpty()) {
+                return;
+            }
+
+            TrackingEvent previous = latest != null
+                    ? TrackingEvent.builder().city((String) latest[1]).status((ParcelStatus) latest[2]).timestamp((LocalDateTime) latest[3]).build()
+                    : null;
+            for (ScanCoalescer.Step<PendingScan> step : result.getApplied()) {
+                eventRows.add(eventRow(parcel.getId(), step.getState()));
+                outcome.applied.add(step.getScan());
+                TrackingEvent next = TrackingEvent.builder().city(step.getState().getCity())
+                        .status(step.getState().getStatus()).timestamp(step.getState().getSince()).build();
+                if (previous != null) {
+                    etaService.recordTransition(previous, next);
+                }
+                previous = next;
+            }
+            moveParcel(parcel, result.finalState(current));
+            // One event per parcel for the whole window, with the state it ended in
+            outboxEvents.add(OutboxEvent.parcelChanged(parcel, parcel.getStatus() != current.getStatus()));
+        });
+        insertEvents(eventRows);
+        outboxService.record(outboxEvents);
+        return outcome;
+    }
+
+    // Stored events at the times of the batch's late scans. A resent batch arrives with its older scans late, and
+    // only the history tells whether they were committed before
+    private Set<String> recordedLateEvents(Map<String, List<PendingScan>> byTrackingId, Map<String, Parcel> parcels,
+                                           Map<Long, Object[]> latestEvents) {
+        Map<Long, Set<LocalDateTime>> lateTimes = new LinkedHashMap<>();
+        byTrackingId.forEach((trackingId, scans) -> {
+            Parcel parcel = parcels.get(trackingId);
+            Object[] latest = parcel != null ? latestEvents.get(parcel.getId()) : null;
+            if (latest == null) {
+                return;
+            }
+            LocalDateTime since = (LocalDateTime) latest[3];
+            for (PendingScan scan : scans) {
+                if (scan.getScannedAt().isBefore(since)) {
+                    lateTimes.computeIfAbsent(parcel.getId(), id -> new HashSet<>()).add(scan.getScannedAt());
+                }
+            }
+        });
+        Set<String> recorded = new HashSet<>();
+        for (List<Long> chunk : chunks(new ArrayList<>(lateTimes.keySet()))) {
+            Set<LocalDateTime> times = new HashSet<>();
+            chunk.forEach(parcelId -> times.addAll(lateTimes.get(parcelId)));
+            for (Object[] row : trackingEventRepository.findRowsByParcelIdsAndTimestamps(chunk, times)) {
+                recorded.add(eventKey((Long) row[0], (LocalDateTime) row[3], (ParcelStatus) row[2], (String) row[1]));
+            }
+        }
+        return recorded;
+    }
+
+    private static String eventKey(Long parcelId, LocalDateTime timestamp, ParcelStatus status, String city) {
+        return parcelId + "|" + timestamp + "|" + status + "|" + city;
+    }
+
+    // Same bookkeeping as an admin update: counters, delivery date, refreshed estimate
+    private void moveParcel(Parcel parcel, ScanCoalescer.State state) {
+        ParcelStatsService.Contribution before = ParcelStatsService.Contribution.of(parcel);
+        parcel.setStatus(state.getStatus());
+        parcel.setCurrentLocation(state.getLocation());
+        parcel.setCurrentCity(state.getCity());
+        parcel.setCurrentCountry(state.getCountry());
+        if (state.getStatus() == ParcelStatus.DELIVERED && parcel.getActualDeliveryDate() == null) {
+            parcel.setActualDeliveryDate(state.getSince());
+        }
+        EtaResponse eta = etaService.estimate(state.getCity(), state.getStatus(), state.getSince());
+        if (eta.isAvailable()) {
+            parcel.setEstimatedDeliveryDate(eta.getEstimatedDeliveryP50());
+        }
+        parcelStatsService.recordChange(before, ParcelStatsService.Contribution.of(parcel));
+    }
+
+    private static Object[] eventRow(Long parcelId, ScanCoalescer.State state) {
+        String description = "Scanned at " + (state.getLocation() != null ? state.getLocation() : "N/A") + ", "
+                + (state.getCity() != null ? state.getCity() : "N/A") + ", "
+                + (state.getCountry() != null ? state.getCountry() : "N/A");
+        return new Object[]{parcelId, state.getStatus().name(), description, state.getCity(), state.getCountry(),
+                Timestamp.valueOf(state.getSince())};
+    }
+
+    // Tracking events use IDENTITY ids, which Hibernate cannot batch, so they are inserted with plain JDBC
+    private void insertEvents(List<Object[]> rows) {
+        for (List<Object[]> chunk : chunks(rows, INSERT_CHUNK)) {
+            StringBuilder sql = new StringBuilder(
+                    "INSERT INTO tracking_events (parcel_id, status, location_description, city, country, timestamp) VALUES ");
+            Object[] args = new Object[chunk.size() * 6];
+            for (int i = 0; i < chunk.size(); i++) {
+                sql.append(i == 0 ? "(?, ?, ?, ?, ?, ?)" : ", (?, ?, ?, ?, ?, ?)");
+                System.arraycopy(chunk.get(i), 0, args, i * 6, 6);
+            }
+            jdbcTemplate.update(sql.toString(), args);
+        }
+    }
+
+    private static <T> List<List<T>> chunks(List<T> values) {
+        return chunks(values, QUERY_CHUNK);
+    }
+
+    private static <T> List<List<T>> chunks(List<T> values, int size) {
+        List<List<T>> chunks = new ArrayList<>();
+        for (int from = 0; from < values.size(); from += size) {
+            chunks.add(values.subList(from, Math.min(from + size, values.size())));
+        }
+        return chunks;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Map<String, LongAdder> outcomes = Map.of("applied", applied, "late", late, "duplicate", duplicates, "rejected", rejected);
+        outcomes.forEach((outcome, counter) -> FunctionCounter.builder("routegenius.scans", counter, LongAdder::sum)
+                .description("Ingested hub scans by outcome")
+                .tag("outcome", outcome)
+                .register(registry));
+        Gauge.builder("routegenius.scans.pending", this, service -> service.pendingCount())
+                .description("Scans waiting for the next group commit")
+                .register(registry);
+        FunctionTimer.builder("routegenius.scans.flush", this, service -> service.flushes.sum(),
+                        service -> service.flushNanos.sum(), TimeUnit.NANOSECONDS)
+                .description("Group commits of scan batches")
+                .register(registry);
+        FunctionCounter.builder("routegenius.scans.flush.conflicts", conflicts, LongAdder::sum)
+                .description("Group commits retried after a concurrent parcel update")
+                .register(registry);
+    }
+
+    private int pendingCount() {
+        lock.lock();
+        try {
+            return pending.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // A scan waiting for the flusher, with the request it came from
+    private static final class PendingScan implements ScanCoalescer.Scan {
+        private final String trackingId;
+        private final ScanRequest request;
+        private final Ticket ticket;
+
+        private PendingScan(String trackingId, ScanRequest request, Ticket ticket) {
+            this.trackingId = trackingId;
+            this.request = request;
+            this.ticket = ticket;
+        }
+
+        public ParcelStatus getStatus() { return request.getStatus(); }
+        public String getLocation() { return request.getLocation(); }
+        public String getCity() { return request.getCity(); }
+        public String getCountry() { return request.getCountry(); }
+        // At the precision of the timestamp column, so a resent scan compares equal to the stored event
+        public LocalDateTime getScannedAt() { return request.getScannedAt().truncatedTo(ChronoUnit.MICROS); }
+    }
+
+    // One request's share of a flush. Written by the request thread before enqueueing and by the flusher before
+    // completing the future, so the request thread sees every count once the future is done.
+    private static final class Ticket {
+        private final int received;
+        private final CompletableFuture<Void> committed = new CompletableFuture<>();
+        private final List<String> rejections = new ArrayList<>();
+        private int applied;
+        private int late;
+        private int duplicates;
+
+        private Ticket(int received) {
+            this.received = received;
+        }
+
+        private void reject(String trackingId, String reason) {
+            rejections.add(trackingId + ": " + reason);
+        }
+
+        private ScanIngestResponse toResponse() {
+            return ScanIngestResponse.builder()
+                    .received(received)
+                    .applied(applied)
+                    .late(late)
+                    .duplicates(duplicates)
+                    .rejected(rejections.size())
+                    .rejections(rejections)
+                    .build();
+        }
+    }
+
+    // The scans of a flush by verdict, credited to their tickets once the flush has committed
+    private static final class Outcome {
+        private final List<PendingScan> applied = new ArrayList<>();
+        private final List<PendingScan> late = new ArrayList<>();
+        private final List<PendingScan> duplicates = new ArrayList<>();
+        private final List<PendingScan> unknown = new ArrayList<>();
+    }
+}
@@ -0,0 +1,216 @@
+package com.routegenius.backend.service.impl;
+
+import com.routegenius.backend.dto.TrackingFilterStatsResponse;
+import com.routegenius.backend.repository.ParcelRepository;
+import com.routegenius.backend.service.ParcelArchiveService;
+import com.routegenius.backend.service.TrackingIdFilterService;
+import com.routegenius.backend.util.BloomFilter;
+import com.routegenius.backend.util.TrackingIdGenerator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongFunction;
+
+/**
+ * Bloom filter over all tracking IDs, used to answer lookups for IDs that do not exist
+ * (typos, guessing, scraping) without a database round trip.
+ *
+ * The filter is built at startup and rebuilt periodically (which also resizes it for the current row count).
+ * In between, parcels created on this node are added directly and parcels created on other nodes are
+ * picked up by a catch-up job every few seconds. Since a Bloom filter has no false negatives, a miss is
+ * only trusted when the parcel could not have been created after the last catch-up: the creation time
+ * embedded in current-format tracking IDs must lie safely before the last sync. Legacy IDs carry no
+ * timestamp and rely on the filter alone; they are no longer issued, so they are all covered by the build.
+ *
+ * A parcel commits some time after its created_at, and not in id order, so each catch-up re-reads every
+ * parcel created since the sync margin before the previous sync started. Any parcel whose transaction took
+ * less than the margin is therefore loaded by the first catch-up that starts after its commit, and until
+ * then its own misses are not trusted either.
+ */
+@Service
+@RequiredArgsConstructor
+public class TrackingIdFilterServiceImpl implements TrackingIdFilterService {
+
+    private static final int LOAD_BATCH_SIZE = 10000;
+    // IDs whose embedded time is this far in the future cannot have been issued (allows for clock skew)
+    private static final long FUTURE_TOLERANCE_MS = 60_000;
+
+    private final ParcelRepository parcelRepository;
+    private final ParcelArchiveService parcelArchiveService;
+
+    @Value("${tracking-filter.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    // Capacity is sized as row count * headroom, so the filter stays accurate until the next rebuild
+    @Value("${tracking-filter.headroom:2.0}")
+    private double headroom;
+
+    @Value("${tracking-filter.min-capacity:1000000}")
+    private long minCapacity;
+
+    // Misses are only trusted for IDs created at least this long before the last catch-up started, and each
+    // catch-up re-reads parcels created this long before the previous one. Must exceed the longest transaction
+    // that creates a parcel, plus the clock skew between nodes.
+    @Value("${tracking-filter.sync-margin-ms:30000}")
+    private long syncMarginMs;
+
+    private volatile BloomFilter filter; // Null until the first build has finished
+    private volatile BloomFilter rebuilding; // Receives live additions while a rebuild is loading
+    private volatile long syncedUpToMillis;
+    private volatile LocalDateTime lastRebuildAt;
+
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder shortCircuited = new LongAdder();
+    private final LongAdder falsePositives = new LongAdder();
+    private final ReentrantLock syncLock = new ReentrantLock(); // Serializes rebuild() and catchUp()
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        rebuild();
+    }
+
+    @Override
+    public boolean isDefinitelyAbsent(String normalizedTrackingId) {
+        lookups.increment();
+        BloomFilter current = filter;
+        if (current == null) {
+            return false;
+        }
+        long createdAt = TrackingIdGenerator.timestampMillis(normalizedTrackingId);
+        if (createdAt > System.currentTimeMillis() + FUTURE_TOLERANCE_MS) {
+            shortCircuited.increment();
+            return true;
+        }
+        if (current.mightContain(normalizedTrackingId)) {
+            return false;
+        }
+        if (createdAt >= 0 && createdAt >= syncedUpToMillis - syncMarginMs) {
+            return false; // Possibly created on another node since the last catch-up
+        }
+        shortCircuited.increment();
+        return true;
+    }
+
+    @Override
+    public void recordDatabaseMiss() {
+        falsePositives.increment();
+    }
+
+    @Override
+    public void add(String trackingId) {
+        BloomFilter current = filter;
+        if (current != null) {
+            current.put(trackingId);
+        }
+        BloomFilter pending = rebuilding;
+        if (pending != null) {
+            pending.put(trackingId);
+        }
+    }
+
+    @Override
+    @Scheduled(initialDelayString = "${tracking-filter.rebuild.interval-ms:21600000}", fixedDelayString = "${tracking-filter.rebuild.interval-ms:21600000}")
+    public void rebuild() {
+        syncLock.lock();
+        try {
+            long start = System.currentTimeMillis();
+            long archived = parcelArchiveService.getStats().getArchivedParcels();
+            long expected = Math.max(minCapacity, (long) ((parcelRepository.count() + archived) * headroom));
+            BloomFilter fresh = BloomFilter.create(expected, falsePositiveRate);
+            rebuilding = fresh;
+            try {
+                load(fresh, lastId -> parcelRepository.findTrackingIdsAfter(lastId, PageRequest.of(0, LOAD_BATCH_SIZE)));
+                // Archived parcels are no longer in the table but can still be tracked
+                parcelArchiveService.forEachTrackingId(fresh::put);
+                filter = fresh;
+                syncedUpToMillis = start;
+                lastRebuildAt = LocalDateTime.now();
+            } catch (RuntimeException e) {
+                System.err.println("ERROR (TrackingIdFilterServiceImpl): Tracking ID filter rebuild failed: " + e.getMessage());
+                return;
+            } finally {
+                rebuilding = null;
+            }
+            System.out.println("DEBUG (TrackingIdFilterServiceImpl): Tracking ID filter built with " + fresh.getInsertions() + " IDs ("
+                    + (fresh.getBitCount() / 8 / 1024) + " KiB) in " + (System.currentTimeMillis() - start) + " ms.");
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    /**
+     * Adds tracking IDs of parcels created through other nodes since the last sync, including ones that
+     * committed late with an id below parcels already seen.
+     */
+    @Scheduled(initialDelayString = "${tracking-filter.sync-interval-ms:5000}", fixedDelayString = "${tracking-filter.sync-interval-ms:5000}")
+    public void catchUp() {
+        syncLock.lock();
+        try {
+            BloomFilter current = filter;
+            if (current == null) {
+                return;
+            }
+            long start = System.currentTimeMillis();
+            LocalDateTime since = LocalDateTime.ofInstant(Instant.ofEpochMilli(syncedUpToMillis - syncMarginMs), ZoneId.systemDefault());
+            try {
+                load(current, lastId -> parcelRepository.findTrackingIdsCreatedSince(since, lastId, PageRequest.of(0, LOAD_BATCH_SIZE)));
+                syncedUpToMillis = start;
+            } catch (RuntimeException e) {
+                System.err.println("ERROR (TrackingIdFilterServiceImpl): Tracking ID filter catch-up failed: " + e.getMessage());
+                return;
+            }
+            if (current.getExpectedFalsePositiveRate() > 2 * falsePositiveRate) {
+                System.out.println("DEBUG (TrackingIdFilterServiceImpl): Tracking ID filter is over capacity, rebuilding early.");
+                rebuild();
+            }
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    @Override
+    public TrackingFilterStatsResponse getStats() {
+        BloomFilter current = filter;
+        return TrackingFilterStatsResponse.builder()
+                .ready(current != null)
+                .lookups(lookups.sum())
+                .shortCircuited(shortCircuited.sum())
+                .falsePositives(falsePositives.sum())
+                .insertions(current != null ? current.getInsertions() : 0)
+                .bitCount(current != null ? current.getBitCount() : 0)
+                .hashCount(current != null ? current.getHashCount() : 0)
+                .expectedFalsePositiveRate(current != null ? current.getExpectedFalsePositiveRate() : 0)
+                .lastRebuildAt(lastRebuildAt)
+                .build();
+    }
+
+    /**
+     * Loads the tracking IDs returned by a keyset query into the filter, batch by batch.
+     * @param nextBatch Returns the next batch of (id, trackingId) rows with an id greater than the one given.
+     */
+    private void load(BloomFilter target, LongFunction<List<Object[]>> nextBatch) {
+        long lastId = 0L;
+        List<Object[]> batch;
+        do {
+            batch = nextBatch.apply(lastId);
+            for (Object[] row : batch) {
+                lastId = ((Number) row[0]).longValue();
+                String trackingId = (String) row[1];
+                if (trackingId != null) {
+                    target.put(trackingId);
+                }
+            }
+        } while (batch.size() == LOAD_BATCH_SIZE);
+    }
+}
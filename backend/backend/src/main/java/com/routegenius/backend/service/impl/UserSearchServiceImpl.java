@@ -0,0 +1,180 @@
+package com.routegenius.backend.service.impl;
+
+import com.routegenius.backend.entity.User;
+import com.routegenius.backend.repository.UserRepository;
+import com.routegenius.backend.service.UserSearchService;
+import com.routegenius.backend.util.TrigramIndex;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class UserSearchServiceImpl implements UserSearchService {
+
+    private static final int REBUILD_BATCH_SIZE = 5000;
+
+    private final UserRepository userRepository;
+
+    private final ReentrantLock rebuildLock = new ReentrantLock(); // One rebuild at a time
+    private final ReentrantLock updateLock = new ReentrantLock(); // Orders live updates against the swap
+
+    // Fields indexed per user: first name, last name, email. Null until the first build has finished.
+    private volatile TrigramIndex index;
+    // Live updates made while a rebuild runs, by user id (null value: removed). A batch read before an update
+    // committed may put a stale row into the new index, so these are applied over it before the swap.
+    private Map<Long, User> pendingUpdates; // Guarded by updateLock
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildIndexOnStartup() {
+        rebuildIndex();
+    }
+
+    @Override
+    public void rebuildIndex() {
+        rebuildLock.lock();
+        try {
+            long start = System.currentTimeMillis();
+            TrigramIndex fresh = new TrigramIndex(3);
+            updateLock.lock();
+            try {
+                pendingUpdates = new HashMap<>();
+            } finally {
+                updateLock.unlock();
+            }
+            try {
+                long lastId = 0L;
+                List<User> batch;
+                do {
+                    batch = userRepository.findByIdGreaterThanOrderByIdAsc(lastId, PageRequest.of(0, REBUILD_BATCH_SIZE));
+                    for (User user : batch) {
+                        put(fresh, user);
+                        lastId = user.getId();
+                    }
+                } while (batch.size() == REBUILD_BATCH_SIZE);
+
+                updateLock.lock();
+                try {
+                    pendingUpdates.forEach((userId, user) -> {
+                        if (user != null) {
+                            put(fresh, user);
+                        } else {
+                            fresh.remove(userId);
+                        }
+                    });
+                    index = fresh;
+                } finally {
+                    updateLock.unlock();
+                }
+            } finally {
+                updateLock.lock();
+                try {
+                    pendingUpdates = null;
+                } finally {
+                    updateLock.unlock();
+                }
+            }
+            System.out.println("DEBUG (UserSearchServiceImpl): User search index built with " + fresh.size() + " users in " + (System.currentTimeMillis() - start) + " ms.");
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    @Override
+    public Page<User> searchUsers(String searchTerm, int page, int size) {
+        TrigramIndex current = index;
+        if (current == null) {
+            return searchRepository(searchTerm, page, size);
+        }
+        TrigramIndex.Result result = current.search(searchTerm, page, size);
+        long[] ids = result.getIds();
+        List<Long> idList = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            idList.add(id);
+        }
+
+        // Load only the users on this page by primary key and restore the ranked order
+        Map<Long, User> usersById = userRepository.findAllById(idList).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        List<User> users = new ArrayList<>(ids.length);
+        for (Long id : idList) {
+            User user = usersById.get(id);
+            if (user != null) {
+                users.add(user);
+            }
+        }
+        return new PageImpl<>(users, PageRequest.of(page, size), result.getTotal());
+    }
+
+    @Override
+    public void indexUser(User user) {
+        afterCommit(() -> apply(user.getId(), user));
+    }
+
+    @Override
+    public void removeUser(Long userId) {
+        afterCommit(() -> apply(userId, null));
+    }
+
+    // Slow (leading-wildcard LIKE), but only used until the startup build has finished
+    private Page<User> searchRepository(String searchTerm, int page, int size) {
+        PageRequest pageRequest = PageRequest.of(page, size, Sort.by("id"));
+        if (searchTerm == null || searchTerm.isBlank()) {
+            return userRepository.findAll(pageRequest);
+        }
+        String term = searchTerm.trim();
+        return userRepository.findByFirstNameContainingIgnoreCaseOrLastNameContainingIgnoreCaseOrEmailContainingIgnoreCase(
+                term, term, term, pageRequest);
+    }
+
+    private void apply(Long userId, User user) {
+        updateLock.lock();
+        try {
+            TrigramIndex current = index;
+            if (current != null) {
+                if (user != null) {
+                    put(current, user);
+                } else {
+                    current.remove(userId);
+                }
+            }
+            if (pendingUpdates != null) {
+                pendingUpdates.put(userId, user);
+            }
+        } finally {
+            updateLock.unlock();
+        }
+    }
+
+    private void put(TrigramIndex target, User user) {
+        target.put(user.getId(), user.getFirstName(), user.getLastName(), user.getEmail());
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
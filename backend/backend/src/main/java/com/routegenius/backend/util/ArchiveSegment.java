@@ -0,0 +1,438 @@
+package com.routegenius.backend.util;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Immutable, compressed file of records that can be looked up by a numeric id or by a short string key.
+ * Records are opaque byte arrays; ids must be appended in ascending order and keys must be unique
+ * ASCII strings of at most {@value #KEY_LENGTH} characters (tracking IDs).
+ *
+ * Layout (all numbers big-endian):
+ * <pre>
+ *   header       magic, version, 8 reserved bytes
+ *   blocks       Deflate-compressed groups of records, each record stored as [int length][bytes]
+ *   block table  per block: long offset, int compressed length, int raw length, int CRC32 of the raw bytes
+ *   id index     per record in id order: long id, int block, int position in block
+ *   key index    per record in key order: key zero-padded to 16 bytes, int block, int position in block
+ *   footer       long block table offset, int block count, long id index offset, long key index offset,
+ *                int record count, long creation time (epoch ms), magic
+ * </pre>
+ * Records are compressed in blocks rather than one by one so that Deflate sees enough repetition
+ * (addresses, cities, status names) to be effective. A segment is written once to a temporary file,
+ * forced to disk and then renamed, so readers never see a partial segment.
+ *
+ * Readers memory-map the whole file and binary-search the indexes in place, so an open segment costs
+ * no heap beyond this object and lookups are served from the page cache.
+ */
+public final class ArchiveSegment implements Closeable {
+
+    public static final int KEY_LENGTH = 16;
+
+    private static final int MAGIC = 0x52474153; // "RGAS"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    private static final int FOOTER_SIZE = 8 + 4 + 8 + 8 + 4 + 8 + 4;
+    private static final int BLOCK_ENTRY_SIZE = 8 + 4 + 4 + 4;
+    private static final int ID_ENTRY_SIZE = 8 + 4 + 4;
+    private static final int KEY_ENTRY_SIZE = KEY_LENGTH + 4 + 4;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final long blockTableOffset;
+    private final int blockCount;
+    private final long idIndexOffset;
+    private final long keyIndexOffset;
+    private final int recordCount;
+    private final long createdAtMillis;
+
+    private ArchiveSegment(Path path, FileChannel channel, MappedByteBuffer buffer) throws IOException {
+        this.path = path;
+        this.channel = channel;
+        this.buffer = buffer;
+        int size = buffer.capacity();
+        if (size < HEADER_SIZE + FOOTER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(size - 4) != MAGIC) {
+            throw new IOException("Not an archive segment: " + path);
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("Unsupported archive segment version " + buffer.getInt(4) + ": " + path);
+        }
+        int footer = size - FOOTER_SIZE;
+        this.blockTableOffset = buffer.getLong(footer);
+        this.blockCount = buffer.getInt(footer + 8);
+        this.idIndexOffset = buffer.getLong(footer + 12);
+        this.keyIndexOffset = buffer.getLong(footer + 20);
+        this.recordCount = buffer.getInt(footer + 28);
+        this.createdAtMillis = buffer.getLong(footer + 32);
+    }
+
+    /**
+     * Opens a finished segment file for reading.
+     */
+    public static ArchiveSegment open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Archive segment larger than 2 GiB: " + path);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new ArchiveSegment(path, channel, buffer);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Starts writing a new segment. Nothing is visible at {@code target} until {@link Writer#finish()}.
+     *
+     * @param target          Final path of the segment file.
+     * @param recordsPerBlock Number of records compressed together.
+     */
+    public static Writer create(Path target, int recordsPerBlock) throws IOException {
+        return new Writer(target, recordsPerBlock);
+    }
+
+    public Path getPath() { return path; }
+    public int getRecordCount() { return recordCount; }
+    public long getCreatedAtMillis() { return createdAtMillis; }
+    public long getSizeBytes() { return buffer.capacity(); }
+
+    public long getMinId() {
+        return recordCount == 0 ? Long.MAX_VALUE : buffer.getLong((int) idIndexOffset);
+    }
+
+    public long getMaxId() {
+        return recordCount == 0 ? Long.MIN_VALUE : buffer.getLong((int) idIndexOffset + (recordCount - 1) * ID_ENTRY_SIZE);
+    }
+
+    /**
+     * Looks up a record by id.
+     *
+     * @return The record bytes, or null if the segment has no record with this id.
+     */
+    public byte[] findById(long id) {
+        int low = 0;
+        int high = recordCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int entry = (int) idIndexOffset + mid * ID_ENTRY_SIZE;
+            long candidate = buffer.getLong(entry);
+            if (candidate < id) {
+                low = mid + 1;
+            } else if (candidate > id) {
+                high = mid - 1;
+            } else {
+                return readRecord(buffer.getInt(entry + 8), buffer.getInt(entry + 12));
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Looks up a record by key.
+     *
+     * @return The record bytes, or null if the segment has no record with this key.
+     */
+    public byte[] findByKey(String key) {
+        byte[] wanted = encodeKey(key);
+        if (wanted == null) {
+            return null;
+        }
+        int low = 0;
+        int high = recordCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int entry = (int) keyIndexOffset + mid * KEY_ENTRY_SIZE;
+            int cmp = compareKey(entry, wanted);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return readRecord(buffer.getInt(entry + KEY_LENGTH), buffer.getInt(entry + KEY_LENGTH + 4));
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Passes every key in the segment, in key order, to the consumer.
+     */
+    public void forEachKey(Consumer<String> consumer) {
+        byte[] key = new byte[KEY_LENGTH];
+        for (int i = 0; i < recordCount; i++) {
+            buffer.get((int) keyIndexOffset + i * KEY_ENTRY_SIZE, key);
+            int length = 0;
+            while (length < KEY_LENGTH && key[length] != 0) {
+                length++;
+            }
+            consumer.accept(new String(key, 0, length, StandardCharsets.US_ASCII));
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        // The mapping itself is released when the buffer is garbage collected
+        channel.close();
+    }
+
+    private int compareKey(int entry, byte[] wanted) {
+        for (int i = 0; i < KEY_LENGTH; i++) {
+            int cmp = Byte.compareUnsigned(buffer.get(entry + i), wanted[i]);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return 0;
+    }
+
+    private byte[] readRecord(int block, int position) {
+        if (block < 0 || block >= blockCount) {
+            throw new IllegalStateException("Corrupt archive segment " + path + ": block " + block + " out of range");
+        }
+        int entry = (int) blockTableOffset + block * BLOCK_ENTRY_SIZE;
+        int offset = (int) buffer.getLong(entry);
+        int compressedLength = buffer.getInt(entry + 8);
+        int rawLength = buffer.getInt(entry + 12);
+        int checksum = buffer.getInt(entry + 16);
+
+        byte[] raw = new byte[rawLength];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(buffer.slice(offset, compressedLength));
+            int read = 0;
+            while (read < rawLength && !inflater.finished()) {
+                int n = inflater.inflate(raw, read, rawLength - read);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                read += n;
+            }
+            if (read != rawLength) {
+                throw new IllegalStateException("Corrupt archive segment " + path + ": block " + block + " is truncated");
+            }
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupt archive segment " + path + ": " + e.getMessage(), e);
+        } finally {
+            inflater.end();
+        }
+        CRC32 crc = new CRC32();
+        crc.update(raw);
+        if ((int) crc.getValue() != checksum) {
+            throw new IllegalStateException("Corrupt archive segment " + path + ": checksum mismatch in block " + block);
+        }
+
+        ByteBuffer records = ByteBuffer.wrap(raw);
+        for (int i = 0; i < position; i++) {
+            records.position(records.position() + 4 + records.getInt());
+        }
+        byte[] record = new byte[records.getInt()];
+        records.get(record);
+        return record;
+    }
+
+    private static byte[] encodeKey(String key) {
+        if (key == null || key.isEmpty() || key.length() > KEY_LENGTH) {
+            return null;
+        }
+        byte[] bytes = new byte[KEY_LENGTH];
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            if (c == 0 || c > 127) {
+                return null;
+            }
+            bytes[i] = (byte) c;
+        }
+        return bytes;
+    }
+
+    /**
+     * Writes one segment file. Not thread-safe.
+     */
+    public static final class Writer implements Closeable {
+
+        private final Path target;
+        private final Path temp;
+        private final int recordsPerBlock;
+        private final FileChannel channel;
+        private final DataOutputStream out;
+        private final Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        private final ByteArrayOutputStream blockBuffer = new ByteArrayOutputStream(64 * 1024);
+        private final DataOutputStream block = new DataOutputStream(blockBuffer);
+        private final ByteArrayOutputStream blockTable = new ByteArrayOutputStream();
+        private final DataOutputStream blockTableOut = new DataOutputStream(blockTable);
+        private final ByteArrayOutputStream idIndex = new ByteArrayOutputStream();
+        private final DataOutputStream idIndexOut = new DataOutputStream(idIndex);
+        private final List<KeyEntry> keys = new ArrayList<>();
+        private long position;
+        private int blockCount;
+        private int recordsInBlock;
+        private int recordCount;
+        private long lastId = Long.MIN_VALUE;
+        private boolean finished;
+
+        private Writer(Path target, int recordsPerBlock) throws IOException {
+            if (recordsPerBlock <= 0) {
+                throw new IllegalArgumentException("Records per block must be positive.");
+            }
+            this.target = target;
+            this.temp = target.resolveSibling(target.getFileName() + ".tmp");
+            this.recordsPerBlock = recordsPerBlock;
+            this.channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+            OutputStream stream = Channels.newOutputStream(channel);
+            this.out = new DataOutputStream(new BufferedOutputStream(stream, 256 * 1024));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(0L);
+            position = HEADER_SIZE;
+        }
+
+        /**
+         * Appends a record. Ids must be strictly increasing; keys must be unique.
+         */
+        public void append(long id, String key, byte[] record) throws IOException {
+            if (id <= lastId) {
+                throw new IllegalArgumentException("Archive record ids must be strictly increasing: " + id + " after " + lastId);
+            }
+            byte[] encodedKey = encodeKey(key);
+            if (encodedKey == null) {
+                throw new IllegalArgumentException("Archive key must be 1-" + KEY_LENGTH + " ASCII characters: " + key);
+            }
+            lastId = id;
+            block.writeInt(record.length);
+            block.write(record);
+            idIndexOut.writeLong(id);
+            idIndexOut.writeInt(blockCount);
+            idIndexOut.writeInt(recordsInBlock);
+            keys.add(new KeyEntry(encodedKey, blockCount, recordsInBlock));
+            recordCount++;
+            if (++recordsInBlock == recordsPerBlock) {
+                flushBlock();
+            }
+        }
+
+        public int getRecordCount() {
+            return recordCount;
+        }
+
+        /**
+         * Writes the indexes and footer, forces the file to disk and moves it to its final path.
+         */
+        public void finish() throws IOException {
+            if (recordsInBlock > 0) {
+                flushBlock();
+            }
+            long blockTableOffset = position;
+            blockTable.writeTo(out);
+            position += blockTable.size();
+
+            long idIndexOffset = position;
+            idIndex.writeTo(out);
+            position += idIndex.size();
+
+            long keyIndexOffset = position;
+            keys.sort((a, b) -> Arrays.compareUnsigned(a.key, b.key));
+            for (int i = 0; i < keys.size(); i++) {
+                KeyEntry entry = keys.get(i);
+                if (i > 0 && Arrays.equals(entry.key, keys.get(i - 1).key)) {
+                    throw new IllegalArgumentException("Duplicate archive key: " + new String(entry.key, StandardCharsets.US_ASCII).trim());
+                }
+                out.write(entry.key);
+                out.writeInt(entry.block);
+                out.writeInt(entry.position);
+            }
+            position += (long) keys.size() * KEY_ENTRY_SIZE;
+
+            out.writeLong(blockTableOffset);
+            out.writeInt(blockCount);
+            out.writeLong(idIndexOffset);
+            out.writeLong(keyIndexOffset);
+            out.writeInt(recordCount);
+            out.writeLong(System.currentTimeMillis());
+            out.writeInt(MAGIC);
+            position += FOOTER_SIZE;
+            if (position > Integer.MAX_VALUE) {
+                throw new IOException("Archive segment would exceed 2 GiB; use fewer records per segment.");
+            }
+            out.flush();
+            channel.force(true);
+            out.close();
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            finished = true;
+        }
+
+        /**
+         * Discards an unfinished segment.
+         */
+        @Override
+        public void close() throws IOException {
+            deflater.end();
+            if (!finished) {
+                out.close();
+                Files.deleteIfExists(temp);
+            }
+        }
+
+        private void flushBlock() throws IOException {
+            byte[] raw = blockBuffer.toByteArray();
+            CRC32 crc = new CRC32();
+            crc.update(raw);
+
+            deflater.reset();
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(raw.length / 2 + 64);
+            byte[] chunk = new byte[16 * 1024];
+            while (!deflater.finished()) {
+                int n = deflater.deflate(chunk);
+                compressed.write(chunk, 0, n);
+            }
+
+            blockTableOut.writeLong(position);
+            blockTableOut.writeInt(compressed.size());
+            blockTableOut.writeInt(raw.length);
+            blockTableOut.writeInt((int) crc.getValue());
+            compressed.writeTo(out);
+            position += compressed.size();
+
+            blockBuffer.reset();
+            recordsInBlock = 0;
+            blockCount++;
+        }
+
+        private static final class KeyEntry {
+            private final byte[] key;
+            private final int block;
+            private final int position;
+
+            KeyEntry(byte[] key, int block, int position) {
+                this.key = key;
+                this.block = block;
+                this.position = position;
+            }
+        }
+    }
+}
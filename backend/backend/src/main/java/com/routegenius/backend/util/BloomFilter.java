@@ -0,0 +1,117 @@
+package com.routegenius.backend.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe Bloom filter for strings. {@link #mightContain} never returns false for a value that was
+ * added; it returns true for a value that was never added with roughly the false-positive rate the
+ * filter was sized for.
+ *
+ * Bits live in an AtomicLongArray, so concurrent {@link #put} calls are lock-free and readers never
+ * block. Bit positions come from two 64-bit hashes combined as h1 + i * h2 (Kirsch-Mitzenmacher).
+ */
+public class BloomFilter {
+
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashCount;
+    private final LongAdder insertions = new LongAdder();
+
+    private BloomFilter(long bitCount, int hashCount) {
+        long wordCount = (bitCount + 63) / 64;
+        if (wordCount > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Bloom filter too large: " + bitCount + " bits");
+        }
+        this.words = new AtomicLongArray((int) wordCount);
+        this.bitCount = wordCount * 64;
+        this.hashCount = hashCount;
+    }
+
+    /**
+     * Creates a filter sized for the given number of values and target false-positive probability.
+     *
+     * @param expectedInsertions Number of values the filter should hold at the target rate.
+     * @param falsePositiveRate  Target false-positive probability, e.g. 0.01 for 1%.
+     */
+    public static BloomFilter create(long expectedInsertions, double falsePositiveRate) {
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("False-positive rate must be between 0 and 1.");
+        }
+        long n = Math.max(1, expectedInsertions);
+        // Optimal size m = -n ln p / (ln 2)^2 and hash count k = (m / n) ln 2
+        long bits = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int hashes = Math.max(1, (int) Math.round((double) bits / n * Math.log(2)));
+        return new BloomFilter(Math.max(64, bits), hashes);
+    }
+
+    /**
+     * Adds a value. Only a put that sets at least one bit counts as an insertion, so re-adding known values
+     * (as the periodic catch-up does) leaves the insertion count and the estimated false-positive rate alone.
+     * A new value whose bits were all set already is not counted either; it already tested positive.
+     *
+     * @return True if the filter changed.
+     */
+    public boolean put(CharSequence value) {
+        long h1 = hash(value, 0x9E3779B97F4A7C15L);
+        long h2 = hash(value, 0xC2B2AE3D27D4EB4FL) | 1; // Odd step, so the probe sequence does not collapse
+        boolean changed = false;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, bitCount);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current = words.get(word);
+            // Only write when the bit is not set yet; most puts of known values are then read-only
+            while ((current & mask) == 0) {
+                if (words.compareAndSet(word, current, current | mask)) {
+                    changed = true;
+                    break;
+                }
+                current = words.get(word);
+            }
+        }
+        if (changed) {
+            insertions.increment();
+        }
+        return changed;
+    }
+
+    public boolean mightContain(CharSequence value) {
+        long h1 = hash(value, 0x9E3779B97F4A7C15L);
+        long h2 = hash(value, 0xC2B2AE3D27D4EB4FL) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, bitCount);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long getBitCount() { return bitCount; }
+    public int getHashCount() { return hashCount; }
+    public long getInsertions() { return insertions.sum(); }
+
+    /**
+     * Estimated false-positive probability for the number of values inserted so far: (1 - e^(-k n / m))^k.
+     */
+    public double getExpectedFalsePositiveRate() {
+        double n = insertions.sum();
+        return Math.pow(1 - Math.exp(-hashCount * n / bitCount), hashCount);
+    }
+
+    private static long hash(CharSequence value, long seed) {
+        long h = seed;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001B3L; // FNV-1a style accumulation
+        }
+        // MurmurHash3 finaliser spreads the bits over the whole word
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
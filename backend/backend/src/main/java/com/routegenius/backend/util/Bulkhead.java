@@ -0,0 +1,104 @@
+package com.routegenius.backend.util;
+
+import com.routegenius.backend.exception.BulkheadFullException;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Semaphore bulkhead: at most maxConcurrent callers use a downstream at once, at most maxWaiting more wait
+ * for a slot, and none waits longer than maxWait. Everyone else is rejected with a
+ * {@link BulkheadFullException} straight away, so a burst of cheap (virtual) threads turns into fast
+ * rejections instead of an unbounded queue in front of the pool or the remote service.
+ *
+ * Waiting parks the thread in {@link Semaphore}, which unmounts a virtual thread from its carrier.
+ */
+public final class Bulkhead {
+
+    private final String name;
+    private final int maxConcurrent;
+    private final int maxWaiting;
+    private final long maxWaitNanos;
+    private final Semaphore permits;
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+
+    public Bulkhead(String name, int maxConcurrent, int maxWaiting, Duration maxWait) {
+        if (maxConcurrent <= 0) {
+            throw new IllegalArgumentException("Bulkhead " + name + " needs at least one permit");
+        }
+        if (maxWaiting < 0 || maxWait.isNegative()) {
+            throw new IllegalArgumentException("Bulkhead " + name + " needs a non-negative queue and wait");
+        }
+        this.name = name;
+        this.maxConcurrent = maxConcurrent;
+        this.maxWaiting = maxWaiting;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.permits = new Semaphore(maxConcurrent, true);
+    }
+
+    /**
+     * Takes a slot, waiting up to maxWait for one. Every successful call must be paired with {@link #release()}.
+     *
+     * @throws BulkheadFullException if the queue is full, the wait timed out or the thread was interrupted.
+     */
+    public void acquire() {
+        if (permits.tryAcquire()) {
+            return;
+        }
+        if (waiting.incrementAndGet() > maxWaiting) {
+            waiting.decrementAndGet();
+            throw reject("too many callers waiting");
+        }
+        try {
+            if (!permits.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS)) {
+                throw reject("no slot within " + TimeUnit.NANOSECONDS.toMillis(maxWaitNanos) + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw reject("interrupted while waiting");
+        } finally {
+            waiting.decrementAndGet();
+        }
+    }
+
+    public void release() {
+        permits.release();
+    }
+
+    private BulkheadFullException reject(String reason) {
+        rejected.increment();
+        return new BulkheadFullException(name + " is at its limit of " + maxConcurrent + " concurrent calls: " + reason);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    public int getMaxWaiting() {
+        return maxWaiting;
+    }
+
+    public Duration getMaxWait() {
+        return Duration.ofNanos(maxWaitNanos);
+    }
+
+    public int getInUse() {
+        return maxConcurrent - permits.availablePermits();
+    }
+
+    public int getWaiting() {
+        return waiting.get();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+}
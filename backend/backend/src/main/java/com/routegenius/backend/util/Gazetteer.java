@@ -0,0 +1,373 @@
+package com.routegenius.backend.util;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Offline geocoder backed by a sorted, memory-mapped index of place names.
+ *
+ * The index is compiled once from a tab-separated gazetteer with one place per line:
+ * <pre>
+ *   kind  name  city  latitude  longitude
+ * </pre>
+ * where kind is {@code city}, {@code postcode} or {@code street}; city is only used for streets,
+ * since street names repeat across cities. Lines starting with {@code #} are ignored.
+ *
+ * Names are reduced to normalised tokens (lower case, accents and punctuation removed, common street
+ * abbreviations expanded) and stored as keys such as {@code c:london}, {@code p:sw1a1aa} or
+ * {@code s:london:baker street}, so an address is matched by normalising it the same way and
+ * binary-searching candidate token windows. Lookups run against the mapped file without copying it
+ * onto the heap.
+ *
+ * Layout (all numbers big-endian):
+ * <pre>
+ *   header   magic, version, int entry count, int reserved
+ *   entries  per key in unsigned byte order: int key offset, int key length, int latitude, int longitude
+ *            (coordinates in millionths of a degree)
+ *   keys     UTF-8 key bytes
+ * </pre>
+ */
+public final class Gazetteer {
+
+    public enum Precision { POSTCODE, STREET, CITY }
+
+    /**
+     * Coordinates found for an address and how precisely they locate it.
+     */
+    public static final class Match {
+        private final double latitude;
+        private final double longitude;
+        private final Precision precision;
+
+        public Match(double latitude, double longitude, Precision precision) {
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.precision = precision;
+        }
+
+        public double getLatitude() { return latitude; }
+        public double getLongitude() { return longitude; }
+        public Precision getPrecision() { return precision; }
+    }
+
+    private static final int MAGIC = 0x52474758; // "RGGX"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    private static final int ENTRY_SIZE = 16;
+    private static final double E6 = 1_000_000.0;
+    private static final int MAX_CITY_TOKENS = 3;
+    private static final int MAX_STREET_TOKENS = 6;
+
+    private static final Map<String, String> ABBREVIATIONS = Map.ofEntries(
+            Map.entry("st", "street"), Map.entry("str", "street"), Map.entry("rd", "road"),
+            Map.entry("ave", "avenue"), Map.entry("av", "avenue"), Map.entry("ln", "lane"),
+            Map.entry("dr", "drive"), Map.entry("sq", "square"), Map.entry("pl", "place"),
+            Map.entry("blvd", "boulevard"), Map.entry("ct", "court"), Map.entry("cres", "crescent"),
+            Map.entry("hwy", "highway"), Map.entry("mt", "mount"));
+
+    private final MappedByteBuffer buffer;
+    private final int entryCount;
+    private final int keysOffset;
+
+    private Gazetteer(MappedByteBuffer buffer, Path path) throws IOException {
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a gazetteer index: " + path);
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("Unsupported gazetteer index version " + buffer.getInt(4) + ": " + path);
+        }
+        this.entryCount = buffer.getInt(8);
+        this.keysOffset = HEADER_SIZE + entryCount * ENTRY_SIZE;
+        if (entryCount < 0 || keysOffset > buffer.capacity()) {
+            throw new IOException("Corrupt gazetteer index: " + path);
+        }
+    }
+
+    /**
+     * Maps a compiled index. The mapping stays valid after the file channel is closed, so there is
+     * nothing to release; an index that is no longer referenced is unmapped by the garbage collector.
+     */
+    public static Gazetteer open(Path index) throws IOException {
+        try (FileChannel channel = FileChannel.open(index, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Gazetteer index is too large to map: " + index);
+            }
+            return new Gazetteer(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), index);
+        }
+    }
+
+    /**
+     * Compiles a tab-separated gazetteer into an index file. The index is written to a temporary file and
+     * renamed, so a concurrently opened index is never partial. When a key occurs more than once, the first
+     * line wins.
+     * @return The number of distinct keys written.
+     */
+    public static int compile(Path source, Path target) throws IOException {
+        List<Object[]> entries = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(source, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] columns = line.split("\t", -1);
+                if (columns.length < 5) {
+                    throw new IOException("Expected 5 tab-separated columns at line " + lineNumber + " of " + source);
+                }
+                String key = key(columns[0].trim(), columns[1], columns[2]);
+                if (key == null) {
+                    continue;
+                }
+                try {
+                    int latitude = (int) Math.round(Double.parseDouble(columns[3].trim()) * E6);
+                    int longitude = (int) Math.round(Double.parseDouble(columns[4].trim()) * E6);
+                    entries.add(new Object[]{key.getBytes(StandardCharsets.UTF_8), latitude, longitude});
+                } catch (NumberFormatException e) {
+                    throw new IOException("Invalid coordinates at line " + lineNumber + " of " + source);
+                }
+            }
+        }
+        // Stable sort, so the first line of a duplicate key comes first
+        entries.sort((a, b) -> Arrays.compareUnsigned((byte[]) a[0], (byte[]) b[0]));
+        List<Object[]> distinct = new ArrayList<>(entries.size());
+        for (Object[] entry : entries) {
+            if (distinct.isEmpty() || !Arrays.equals((byte[]) distinct.get(distinct.size() - 1)[0], (byte[]) entry[0])) {
+                distinct.add(entry);
+            }
+        }
+
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(distinct.size());
+            out.writeInt(0);
+            int keyOffset = 0;
+            for (Object[] entry : distinct) {
+                byte[] key = (byte[]) entry[0];
+                out.writeInt(keyOffset);
+                out.writeInt(key.length);
+                out.writeInt((Integer) entry[1]);
+                out.writeInt((Integer) entry[2]);
+                keyOffset += key.length;
+            }
+            for (Object[] entry : distinct) {
+                out.write((byte[]) entry[0]);
+            }
+            out.flush();
+            channel.force(true);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return distinct.size();
+    }
+
+    public int getEntryCount() { return entryCount; }
+    public long getSizeBytes() { return buffer.capacity(); }
+
+    /**
+     * Geocodes a free-text address. A postcode is preferred, then a street within a city named in the
+     * address, then the city itself.
+     * @return The best match, or null if no part of the address is in the gazetteer.
+     */
+    public Match geocode(String address) {
+        String normalized = normalize(address);
+        if (normalized.isEmpty()) {
+            return null;
+        }
+        String[] tokens = normalized.split(" ");
+        int n = tokens.length;
+
+        // Postcodes usually come last; they are stored without spaces and may be written as one or two tokens
+        for (int i = n - 1; i >= 0; i--) {
+            if (!containsDigit(tokens[i])) {
+                continue;
+            }
+            int entry = find("p:" + tokens[i]);
+            if (entry < 0 && i + 1 < n) {
+                entry = find("p:" + tokens[i] + tokens[i + 1]);
+            }
+            if (entry >= 0) {
+                return match(entry, Precision.POSTCODE);
+            }
+        }
+
+        // The city is searched from the end of the address, longest name first
+        int cityEntry = -1;
+        int cityStart = -1;
+        String city = null;
+        for (int end = n; end > 0 && cityEntry < 0; end--) {
+            for (int length = Math.min(MAX_CITY_TOKENS, end); length >= 1; length--) {
+                String candidate = join(tokens, end - length, end);
+                int entry = find("c:" + candidate);
+                if (entry >= 0) {
+                    cityEntry = entry;
+                    cityStart = end - length;
+                    city = candidate;
+                    break;
+                }
+            }
+        }
+        if (cityEntry < 0) {
+            return null;
+        }
+
+        // Longest street name before the city, so "high street" wins over "high"
+        String prefix = "s:" + city + ":";
+        for (int length = Math.min(MAX_STREET_TOKENS, cityStart); length >= 1; length--) {
+            for (int start = 0; start + length <= cityStart; start++) {
+                int entry = find(prefix + join(tokens, start, start + length));
+                if (entry >= 0) {
+                    return match(entry, Precision.STREET);
+                }
+            }
+        }
+        return match(cityEntry, Precision.CITY);
+    }
+
+    /**
+     * Lower-cases text, strips accents and punctuation, expands common street abbreviations and
+     * separates the resulting tokens with single spaces.
+     */
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String source = text;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) >= 0x80) {
+                source = Normalizer.normalize(text, Normalizer.Form.NFD);
+                break;
+            }
+        }
+        StringBuilder out = new StringBuilder(source.length());
+        StringBuilder token = new StringBuilder(16);
+        for (int i = 0; i < source.length(); i++) {
+            char c = source.charAt(i);
+            if (c == '\'' || c == '\u2019' || Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue; // "St John's" -> "st johns", "Zürich" -> "zurich"
+            }
+            if (Character.isLetterOrDigit(c)) {
+                token.append(Character.toLowerCase(c));
+            } else {
+                appendToken(out, token);
+            }
+        }
+        appendToken(out, token);
+        return out.toString();
+    }
+
+    private static void appendToken(StringBuilder out, StringBuilder token) {
+        if (token.length() == 0) {
+            return;
+        }
+        if (out.length() > 0) {
+            out.append(' ');
+        }
+        String word = token.toString();
+        out.append(ABBREVIATIONS.getOrDefault(word, word));
+        token.setLength(0);
+    }
+
+    private static String key(String kind, String name, String city) {
+        String normalizedName = normalize(name);
+        if (normalizedName.isEmpty()) {
+            return null;
+        }
+        switch (kind.toLowerCase()) {
+            case "city":
+                return "c:" + normalizedName;
+            case "postcode":
+                return "p:" + normalizedName.replace(" ", "");
+            case "street":
+                String normalizedCity = normalize(city);
+                return normalizedCity.isEmpty() ? null : "s:" + normalizedCity + ":" + normalizedName;
+            default:
+                throw new IllegalArgumentException("Unknown gazetteer entry kind: " + kind);
+        }
+    }
+
+    private Match match(int entry, Precision precision) {
+        int position = HEADER_SIZE + entry * ENTRY_SIZE;
+        return new Match(buffer.getInt(position + 8) / E6, buffer.getInt(position + 12) / E6, precision);
+    }
+
+    /**
+     * @return The entry index of the key, or -1.
+     */
+    private int find(String key) {
+        byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+        int low = 0;
+        int high = entryCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = compareKey(mid, bytes);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private int compareKey(int entry, byte[] key) {
+        int position = HEADER_SIZE + entry * ENTRY_SIZE;
+        int offset = keysOffset + buffer.getInt(position);
+        int length = buffer.getInt(position + 4);
+        int common = Math.min(length, key.length);
+        for (int i = 0; i < common; i++) {
+            int cmp = Integer.compare(buffer.get(offset + i) & 0xFF, key[i] & 0xFF);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return Integer.compare(length, key.length);
+    }
+
+    private static boolean containsDigit(String token) {
+        for (int i = 0; i < token.length(); i++) {
+            if (Character.isDigit(token.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String join(String[] tokens, int from, int to) {
+        if (to - from == 1) {
+            return tokens[from];
+        }
+        StringBuilder joined = new StringBuilder();
+        for (int i = from; i < to; i++) {
+            if (i > from) {
+                joined.append(' ');
+            }
+            joined.append(tokens[i]);
+        }
+        return joined.toString();
+    }
+}
@@ -0,0 +1,764 @@
+package com.routegenius.backend.util;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Immutable, directed graph of hubs (cities) with travel times on the edges, answering fastest-path queries.
+ *
+ * Edges are stored in compressed sparse row form: the outgoing edges of hub v are
+ * {@code targets[offsets[v] .. offsets[v + 1])} with matching {@code weights}.
+ *
+ * Queries use a contraction hierarchy built with the graph. Hubs are contracted one at a time, least
+ * important first: by edge difference (shortcuts added minus edges removed), plus contracted neighbours and
+ * the depth below the hub, which keeps the hierarchy flat. When a hub v is contracted, a shortcut u -> w
+ * replaces u -> v -> w unless a local witness search finds a path from u to w that is no longer and avoids v.
+ * A query runs Dijkstra from the source upwards in the order and from the target backwards, also upwards;
+ * the fastest path meets at its most important hub. Stall-on-demand skips hubs that a search already reached
+ * faster through a more important hub. Both searches see a few hundred hubs even in graphs with tens of
+ * thousands, so queries take microseconds instead of the milliseconds of plain Dijkstra. Shortcuts remember
+ * the hub they bypass so the full path can be unpacked.
+ *
+ * The graph is shared between threads; each thread queries through its own {@link Search}, whose arrays are
+ * reused between queries and reset in O(1) with a generation counter.
+ */
+public final class HubGraph {
+
+    // Witness searches stop after this many hubs; a missed witness only costs an unnecessary shortcut
+    private static final int WITNESS_SETTLE_LIMIT = 500;
+
+    private final String[] names;
+    private final Map<String, Integer> ids;
+    private final int[] outOffsets;
+    private final int[] outTargets;
+    private final double[] outWeights;
+    private final int[] rank; // Contraction order
+    // Upward edges v -> w with rank[w] > rank[v], grouped by v
+    private final int[] upOffsets;
+    private final int[] upTargets;
+    private final double[] upWeights;
+    private final int[] upMiddle; // Bypassed hub of a shortcut, -1 for an original edge
+    // Edges u -> v with rank[u] > rank[v], grouped by v (searched backwards from the target)
+    private final int[] downOffsets;
+    private final int[] downSources;
+    private final double[] downWeights;
+    private final int[] downMiddle;
+    private final int shortcutCount;
+
+    private HubGraph(String[] names, int[] outOffsets, int[] outTargets, double[] outWeights) {
+        this.names = names;
+        this.ids = new HashMap<>(names.length * 2);
+        for (int i = 0; i < names.length; i++) {
+            ids.put(key(names[i]), i);
+        }
+        this.outOffsets = outOffsets;
+        this.outTargets = outTargets;
+        this.outWeights = outWeights;
+
+        Contraction contraction = new Contraction();
+        contraction.run();
+        this.rank = contraction.rank;
+        int n = names.length;
+        int[] upCount = new int[n + 1];
+        int[] downCount = new int[n + 1];
+        int shortcuts = 0;
+        for (int v = 0; v < n; v++) {
+            EdgeList out = contraction.out[v];
+            for (int i = 0; i < out.size; i++) {
+                if (rank[out.nodes[i]] > rank[v]) {
+                    upCount[v + 1]++;
+                } else {
+                    downCount[out.nodes[i] + 1]++;
+                }
+                if (out.middles[i] >= 0) {
+                    shortcuts++;
+                }
+            }
+        }
+        for (int v = 0; v < n; v++) {
+            upCount[v + 1] += upCount[v];
+            downCount[v + 1] += downCount[v];
+        }
+        this.upOffsets = upCount;
+        this.downOffsets = downCount;
+        this.upTargets = new int[upCount[n]];
+        this.upWeights = new double[upCount[n]];
+        this.upMiddle = new int[upCount[n]];
+        this.downSources = new int[downCount[n]];
+        this.downWeights = new double[downCount[n]];
+        this.downMiddle = new int[downCount[n]];
+        int[] upNext = Arrays.copyOf(upCount, n);
+        int[] downNext = Arrays.copyOf(downCount, n);
+        for (int v = 0; v < n; v++) {
+            EdgeList out = contraction.out[v];
+            for (int i = 0; i < out.size; i++) {
+                int w = out.nodes[i];
+                if (rank[w] > rank[v]) {
+                    int slot = upNext[v]++;
+                    upTargets[slot] = w;
+                    upWeights[slot] = out.weights[i];
+                    upMiddle[slot] = out.middles[i];
+                } else {
+                    int slot = downNext[w]++;
+                    downSources[slot] = v;
+                    downWeights[slot] = out.weights[i];
+                    downMiddle[slot] = out.middles[i];
+                }
+            }
+        }
+        this.shortcutCount = shortcuts;
+    }
+
+    /**
+     * Builds a graph and its contraction hierarchy from an edge list. Of parallel edges the fastest is kept;
+     * self loops are dropped.
+     *
+     * @param names       Hub names; hubs are looked up case-insensitively.
+     * @param edgeFrom    Source hub index per edge.
+     * @param edgeTo      Target hub index per edge.
+     * @param edgeWeights Non-negative travel time per edge.
+     */
+    public static HubGraph build(String[] names, int[] edgeFrom, int[] edgeTo, double[] edgeWeights) {
+        int n = names.length;
+        int m = edgeFrom.length;
+        if (edgeTo.length != m || edgeWeights.length != m) {
+            throw new IllegalArgumentException("Edge arrays must have the same length.");
+        }
+        // Outgoing edges grouped by source, self loops dropped
+        int[] outOffsets = new int[n + 1];
+        for (int e = 0; e < m; e++) {
+            if (edgeFrom[e] < 0 || edgeFrom[e] >= n || edgeTo[e] < 0 || edgeTo[e] >= n) {
+                throw new IllegalArgumentException("Edge " + e + " refers to an unknown hub.");
+            }
+            if (!(edgeWeights[e] >= 0) || Double.isInfinite(edgeWeights[e])) {
+                throw new IllegalArgumentException("Edge " + e + " has an invalid weight.");
+            }
+            if (edgeFrom[e] != edgeTo[e]) {
+                outOffsets[edgeFrom[e] + 1]++;
+            }
+        }
+        for (int v = 0; v < n; v++) {
+            outOffsets[v + 1] += outOffsets[v];
+        }
+        int[] rawTargets = new int[outOffsets[n]];
+        double[] rawWeights = new double[outOffsets[n]];
+        int[] next = Arrays.copyOf(outOffsets, n);
+        for (int e = 0; e < m; e++) {
+            if (edgeFrom[e] != edgeTo[e]) {
+                int slot = next[edgeFrom[e]]++;
+                rawTargets[slot] = edgeTo[e];
+                rawWeights[slot] = edgeWeights[e];
+            }
+        }
+
+        // Parallel edges collapse into the fastest one; slotOf[target] remembers where a row already holds that target
+        int[] outTargets = new int[rawTargets.length];
+        double[] outWeights = new double[rawTargets.length];
+        int[] slotOf = new int[n];
+        int[] rowOf = new int[n];
+        Arrays.fill(rowOf, -1);
+        int count = 0;
+        int rowStart = 0;
+        for (int v = 0; v < n; v++) {
+            int compactedStart = count;
+            for (int e = rowStart; e < outOffsets[v + 1]; e++) {
+                int w = rawTargets[e];
+                if (rowOf[w] == v) {
+                    outWeights[slotOf[w]] = Math.min(outWeights[slotOf[w]], rawWeights[e]);
+                } else {
+                    rowOf[w] = v;
+                    slotOf[w] = count;
+                    outTargets[count] = w;
+                    outWeights[count] = rawWeights[e];
+                    count++;
+                }
+            }
+            rowStart = outOffsets[v + 1];
+            outOffsets[v] = compactedStart;
+        }
+        outOffsets[n] = count;
+        return new HubGraph(names.clone(), outOffsets, Arrays.copyOf(outTargets, count), Arrays.copyOf(outWeights, count));
+    }
+
+    public int getHubCount() { return names.length; }
+    public int getEdgeCount() { return outTargets.length; }
+    public int getShortcutCount() { return shortcutCount; }
+
+    public String getName(int hub) {
+        return names[hub];
+    }
+
+    /**
+     * @return The index of the hub, or -1 if it is not in the graph.
+     */
+    public int indexOf(String name) {
+        Integer id = name != null ? ids.get(key(name)) : null;
+        return id != null ? id : -1;
+    }
+
+    /**
+     * Travel time of the direct edge between two hubs, or NaN if there is none.
+     */
+    public double edgeWeight(int from, int to) {
+        for (int e = outOffsets[from]; e < outOffsets[from + 1]; e++) {
+            if (outTargets[e] == to) {
+                return outWeights[e];
+            }
+        }
+        return Double.NaN;
+    }
+
+    /**
+     * Creates the per-thread search state. Not thread-safe; keep one per thread.
+     */
+    public Search newSearch() {
+        return new Search();
+    }
+
+    /**
+     * Result of a path query.
+     */
+    public static final class Path {
+        private final int[] hubs;
+        private final double cost;
+        private final int settled;
+
+        Path(int[] hubs, double cost, int settled) {
+            this.hubs = hubs;
+            this.cost = cost;
+            this.settled = settled;
+        }
+
+        public int[] getHubs() { return hubs; }
+        public double getCost() { return cost; }
+        public int getSettled() { return settled; } // Hubs taken off the queues; a measure of query work
+    }
+
+    /**
+     * Reusable search arrays for one thread.
+     */
+    public final class Search {
+        private final double[] forwardDistance = new double[names.length];
+        private final double[] backwardDistance = new double[names.length];
+        private final int[] forwardParent = new int[names.length]; // Index of the edge used to reach the hub
+        private final int[] backwardParent = new int[names.length];
+        private final int[] forwardSeen = new int[names.length];
+        private final int[] backwardSeen = new int[names.length];
+        private final IndexedHeap forwardQueue = new IndexedHeap(names.length);
+        private final IndexedHeap backwardQueue = new IndexedHeap(names.length);
+        private int generation;
+
+        private Search() {
+        }
+
+        /**
+         * Fastest path using the contraction hierarchy.
+         * @return The path, or null if the target cannot be reached.
+         */
+        public Path fastestPath(int source, int target) {
+            nextGeneration();
+            forwardQueue.clear();
+            backwardQueue.clear();
+            reach(forwardDistance, forwardParent, forwardSeen, forwardQueue, source, 0, -1);
+            reach(backwardDistance, backwardParent, backwardSeen, backwardQueue, target, 0, -1);
+            double best = Double.POSITIVE_INFINITY;
+            int meeting = -1;
+            int settled = 0;
+            while (!forwardQueue.isEmpty() || !backwardQueue.isEmpty()) {
+                double forwardMin = forwardQueue.isEmpty() ? Double.POSITIVE_INFINITY : forwardQueue.minKey();
+                double backwardMin = backwardQueue.isEmpty() ? Double.POSITIVE_INFINITY : backwardQueue.minKey();
+                if (Math.min(forwardMin, backwardMin) >= best) {
+                    break;
+                }
+                settled++;
+                if (forwardMin <= backwardMin) {
+                    int v = forwardQueue.pop();
+                    if (backwardSeen[v] == generation && forwardDistance[v] + backwardDistance[v] < best) {
+                        best = forwardDistance[v] + backwardDistance[v];
+                        meeting = v;
+                    }
+                    if (stalledForward(v)) {
+                        continue;
+                    }
+                    for (int e = upOffsets[v]; e < upOffsets[v + 1]; e++) {
+                        reach(forwardDistance, forwardParent, forwardSeen, forwardQueue, upTargets[e], forwardDistance[v] + upWeights[e], e);
+                    }
+                } else {
+                    int v = backwardQueue.pop();
+                    if (forwardSeen[v] == generation && forwardDistance[v] + backwardDistance[v] < best) {
+                        best = forwardDistance[v] + backwardDistance[v];
+                        meeting = v;
+                    }
+                    if (stalledBackward(v)) {
+                        continue;
+                    }
+                    for (int e = downOffsets[v]; e < downOffsets[v + 1]; e++) {
+                        reach(backwardDistance, backwardParent, backwardSeen, backwardQueue, downSources[e], backwardDistance[v] + downWeights[e], e);
+                    }
+                }
+            }
+            if (meeting < 0) {
+                return null;
+            }
+            return new Path(unpack(source, meeting), best, settled);
+        }
+
+        /**
+         * Fastest path with plain Dijkstra on the original edges, for comparison and testing.
+         */
+        public Path fastestPathDijkstra(int source, int target) {
+            nextGeneration();
+            forwardQueue.clear();
+            reach(forwardDistance, forwardParent, forwardSeen, forwardQueue, source, 0, -1);
+            int settled = 0;
+            while (!forwardQueue.isEmpty()) {
+                int v = forwardQueue.pop();
+                settled++;
+                if (v == target) {
+                    int length = 0;
+                    for (int w = target; w != -1; w = forwardParent[w]) {
+                        length++;
+                    }
+                    int[] hubs = new int[length];
+                    for (int w = target, i = length - 1; w != -1; w = forwardParent[w], i--) {
+                        hubs[i] = w;
+                    }
+                    return new Path(hubs, forwardDistance[target], settled);
+                }
+                for (int e = outOffsets[v]; e < outOffsets[v + 1]; e++) {
+                    int w = outTargets[e];
+                    double candidate = forwardDistance[v] + outWeights[e];
+                    if (forwardSeen[w] != generation || candidate < forwardDistance[w]) {
+                        forwardDistance[w] = candidate;
+                        forwardParent[w] = v; // Parent hub here, not an edge index
+                        forwardSeen[w] = generation;
+                        forwardQueue.pushOrDecrease(w, candidate);
+                    }
+                }
+            }
+            return null;
+        }
+
+        // Stall-on-demand: a hub reached faster from a more important hub the search has already seen is not on
+        // any shortest upward path, so its edges need not be relaxed
+        private boolean stalledForward(int v) {
+            for (int e = downOffsets[v]; e < downOffsets[v + 1]; e++) {
+                int u = downSources[e];
+                if (forwardSeen[u] == generation && forwardDistance[u] + downWeights[e] < forwardDistance[v]) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean stalledBackward(int v) {
+            for (int e = upOffsets[v]; e < upOffsets[v + 1]; e++) {
+                int w = upTargets[e];
+                if (backwardSeen[w] == generation && backwardDistance[w] + upWeights[e] < backwardDistance[v]) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void nextGeneration() {
+            if (++generation == 0) {
+                Arrays.fill(forwardSeen, 0);
+                Arrays.fill(backwardSeen, 0);
+                generation = 1;
+            }
+        }
+
+        private void reach(double[] distance, int[] parent, int[] seen, IndexedHeap queue, int v, double candidate, int edge) {
+            if (seen[v] != generation || candidate < distance[v]) {
+                distance[v] = candidate;
+                parent[v] = edge;
+                seen[v] = generation;
+                queue.pushOrDecrease(v, candidate);
+            }
+        }
+
+        // Source -> meeting hub over upward edges, then meeting hub -> target over the backward search's edges
+        private int[] unpack(int source, int meeting) {
+            IntList hubs = new IntList();
+            IntList upward = new IntList();
+            for (int v = meeting; v != source; ) {
+                int e = forwardParent[v];
+                upward.add(e);
+                v = sourceOfUpEdge(e);
+            }
+            hubs.add(source);
+            for (int i = upward.size - 1; i >= 0; i--) {
+                int e = upward.values[i];
+                expand(sourceOfUpEdge(e), upTargets[e], upMiddle[e], hubs);
+            }
+            for (int v = meeting; backwardParent[v] != -1; ) {
+                int e = backwardParent[v];
+                int to = targetOfDownEdge(e);
+                expand(v, to, downMiddle[e], hubs);
+                v = to;
+            }
+            return Arrays.copyOf(hubs.values, hubs.size);
+        }
+    }
+
+    // Appends the hubs after 'from' on the edge from -> to, recursively replacing shortcuts by the hubs they bypass
+    private void expand(int from, int to, int middle, IntList hubs) {
+        if (middle < 0) {
+            hubs.add(to);
+            return;
+        }
+        // The bypassed hub ranks below both ends: from -> middle is a downward edge, middle -> to an upward one
+        int first = findDownEdge(from, middle);
+        expand(from, middle, downMiddle[first], hubs);
+        int second = findUpEdge(middle, to);
+        expand(middle, to, upMiddle[second], hubs);
+    }
+
+    private int findUpEdge(int from, int to) {
+        for (int e = upOffsets[from]; e < upOffsets[from + 1]; e++) {
+            if (upTargets[e] == to) {
+                return e;
+            }
+        }
+        throw new IllegalStateException("Missing hierarchy edge " + from + " -> " + to);
+    }
+
+    private int findDownEdge(int from, int to) {
+        for (int e = downOffsets[to]; e < downOffsets[to + 1]; e++) {
+            if (downSources[e] == from) {
+                return e;
+            }
+        }
+        throw new IllegalStateException("Missing hierarchy edge " + from + " -> " + to);
+    }
+
+    private int sourceOfUpEdge(int edge) {
+        return ownerOf(upOffsets, edge);
+    }
+
+    private int targetOfDownEdge(int edge) {
+        return ownerOf(downOffsets, edge);
+    }
+
+    // The hub whose CSR row contains the edge, by binary search over the offsets
+    private static int ownerOf(int[] offsets, int edge) {
+        int low = 0;
+        int high = offsets.length - 2;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (offsets[mid] <= edge) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    private static String key(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Node contraction on mutable adjacency lists; only used while building.
+     */
+    private final class Contraction {
+        private final int n = names.length;
+        private final EdgeList[] out = new EdgeList[n];
+        private final EdgeList[] in = new EdgeList[n];
+        private final boolean[] contracted = new boolean[n];
+        private final int[] contractedNeighbours = new int[n];
+        private final int[] level = new int[n];
+        private final int[] rank = new int[n];
+        // Witness search state
+        private final double[] distance = new double[n];
+        private final int[] seen = new int[n];
+        private final IndexedHeap queue = new IndexedHeap(n);
+        private int generation;
+
+        void run() {
+            for (int v = 0; v < n; v++) {
+                out[v] = new EdgeList();
+                in[v] = new EdgeList();
+            }
+            for (int v = 0; v < n; v++) {
+                for (int e = outOffsets[v]; e < outOffsets[v + 1]; e++) {
+                    out[v].add(outTargets[e], outWeights[e], -1);
+                    in[outTargets[e]].add(v, outWeights[e], -1);
+                }
+            }
+            IndexedHeap order = new IndexedHeap(n);
+            for (int v = 0; v < n; v++) {
+                order.push(v, priority(v));
+            }
+            int next = 0;
+            while (!order.isEmpty()) {
+                int v = order.pop();
+                // Lazy update: priorities go stale as neighbours are contracted, so re-check before committing
+                double current = priority(v);
+                if (!order.isEmpty() && current > order.minKey()) {
+                    order.push(v, current);
+                    continue;
+                }
+                contract(v, false);
+                contracted[v] = true;
+                rank[v] = next++;
+                for (int i = 0; i < out[v].size; i++) {
+                    settleNeighbour(v, out[v].nodes[i]);
+                }
+                for (int i = 0; i < in[v].size; i++) {
+                    settleNeighbour(v, in[v].nodes[i]);
+                }
+            }
+        }
+
+        private void settleNeighbour(int v, int neighbour) {
+            contractedNeighbours[neighbour]++;
+            level[neighbour] = Math.max(level[neighbour], level[v] + 1);
+        }
+
+        private double priority(int v) {
+            int removed = 0;
+            for (int i = 0; i < in[v].size; i++) {
+                if (!contracted[in[v].nodes[i]]) {
+                    removed++;
+                }
+            }
+            for (int i = 0; i < out[v].size; i++) {
+                if (!contracted[out[v].nodes[i]]) {
+                    removed++;
+                }
+            }
+            return contract(v, true) - removed + contractedNeighbours[v] + level[v];
+        }
+
+        /**
+         * Adds the shortcuts needed to remove v, or with {@code simulate} only counts them.
+         */
+        private int contract(int v, boolean simulate) {
+            int shortcuts = 0;
+            EdgeList incoming = in[v];
+            EdgeList outgoing = out[v];
+            double maxOut = 0;
+            for (int j = 0; j < outgoing.size; j++) {
+                if (!contracted[outgoing.nodes[j]]) {
+                    maxOut = Math.max(maxOut, outgoing.weights[j]);
+                }
+            }
+            for (int i = 0; i < incoming.size; i++) {
+                int u = incoming.nodes[i];
+                if (contracted[u]) {
+                    continue;
+                }
+                double toV = incoming.weights[i];
+                witnessSearch(u, v, toV + maxOut);
+                for (int j = 0; j < outgoing.size; j++) {
+                    int w = outgoing.nodes[j];
+                    if (contracted[w] || w == u) {
+                        continue;
+                    }
+                    double viaV = toV + outgoing.weights[j];
+                    if (seen[w] == generation && distance[w] <= viaV) {
+                        continue; // Witness path without v
+                    }
+                    shortcuts++;
+                    if (!simulate) {
+                        addOrImprove(u, w, viaV, v);
+                    }
+                }
+            }
+            return shortcuts;
+        }
+
+        private void witnessSearch(int source, int excluded, double limit) {
+            if (++generation == 0) {
+                Arrays.fill(seen, 0);
+                generation = 1;
+            }
+            queue.clear();
+            distance[source] = 0;
+            seen[source] = generation;
+            queue.push(source, 0);
+            int settled = 0;
+            while (!queue.isEmpty() && settled < WITNESS_SETTLE_LIMIT) {
+                int x = queue.pop();
+                settled++;
+                if (distance[x] > limit) {
+                    break;
+                }
+                EdgeList edges = out[x];
+                for (int i = 0; i < edges.size; i++) {
+                    int y = edges.nodes[i];
+                    if (y == excluded || contracted[y]) {
+                        continue;
+                    }
+                    double candidate = distance[x] + edges.weights[i];
+                    if (seen[y] != generation || candidate < distance[y]) {
+                        distance[y] = candidate;
+                        seen[y] = generation;
+                        queue.pushOrDecrease(y, candidate);
+                    }
+                }
+            }
+        }
+
+        private void addOrImprove(int u, int w, double weight, int middle) {
+            int existing = out[u].indexOf(w);
+            if (existing >= 0) {
+                if (weight < out[u].weights[existing]) {
+                    out[u].weights[existing] = weight;
+                    out[u].middles[existing] = middle;
+                    int reverse = in[w].indexOf(u);
+                    in[w].weights[reverse] = weight;
+                    in[w].middles[reverse] = middle;
+                }
+                return;
+            }
+            out[u].add(w, weight, middle);
+            in[w].add(u, weight, middle);
+        }
+    }
+
+    /**
+     * Growable adjacency list of one hub.
+     */
+    private static final class EdgeList {
+        int[] nodes = new int[4];
+        double[] weights = new double[4];
+        int[] middles = new int[4];
+        int size;
+
+        void add(int node, double weight, int middle) {
+            if (size == nodes.length) {
+                nodes = Arrays.copyOf(nodes, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+                middles = Arrays.copyOf(middles, size * 2);
+            }
+            nodes[size] = node;
+            weights[size] = weight;
+            middles[size] = middle;
+            size++;
+        }
+
+        int indexOf(int node) {
+            for (int i = 0; i < size; i++) {
+                if (nodes[i] == node) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+
+    private static final class IntList {
+        int[] values = new int[16];
+        int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+
+    /**
+     * Binary min-heap of hub indexes keyed by a double, with decrease-key.
+     */
+    private static final class IndexedHeap {
+        private final int[] heap;
+        private final double[] keys;
+        private final int[] position; // Index in heap + 1, 0 when absent
+        private int size;
+
+        IndexedHeap(int capacity) {
+            heap = new int[capacity];
+            keys = new double[capacity];
+            position = new int[capacity];
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        double minKey() {
+            return keys[heap[0]];
+        }
+
+        void clear() {
+            for (int i = 0; i < size; i++) {
+                position[heap[i]] = 0;
+            }
+            size = 0;
+        }
+
+        void push(int v, double key) {
+            keys[v] = key;
+            heap[size] = v;
+            position[v] = size + 1;
+            siftUp(size++);
+        }
+
+        void pushOrDecrease(int v, double key) {
+            if (position[v] == 0) {
+                push(v, key);
+            } else if (key < keys[v]) {
+                keys[v] = key;
+                siftUp(position[v] - 1);
+            }
+        }
+
+        int pop() {
+            int top = heap[0];
+            position[top] = 0;
+            size--;
+            if (size > 0) {
+                heap[0] = heap[size];
+                position[heap[0]] = 1;
+                siftDown(0);
+            }
+            return top;
+        }
+
+        private void siftUp(int i) {
+            int v = heap[i];
+            double key = keys[v];
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                int p = heap[parent];
+                if (keys[p] <= key) {
+                    break;
+                }
+                heap[i] = p;
+                position[p] = i + 1;
+                i = parent;
+            }
+            heap[i] = v;
+            position[v] = i + 1;
+        }
+
+        private void siftDown(int i) {
+            int v = heap[i];
+            double key = keys[v];
+            int half = size >>> 1;
+            while (i < half) {
+                int child = 2 * i + 1;
+                int right = child + 1;
+                if (right < size && keys[heap[right]] < keys[heap[child]]) {
+                    child = right;
+                }
+                if (keys[heap[child]] >= key) {
+                    break;
+                }
+                heap[i] = heap[child];
+                position[heap[i]] = i + 1;
+                i = child;
+            }
+            heap[i] = v;
+            position[v] = i + 1;
+        }
+    }
+}
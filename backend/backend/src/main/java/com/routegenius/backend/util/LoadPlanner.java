@@ -0,0 +1,358 @@
+package com.routegenius.backend.util;
+
+import java.util.Arrays;
+
+/**
+ * Assigns parcels to vehicles with weight and volume limits (multi-dimensional bin packing).
+ *
+ * A parcel can only go into a vehicle whose cargo space it fits into in at least one of its six
+ * axis-aligned orientations; with both boxes' sides sorted, that is the case exactly when each side of the
+ * parcel is no longer than the matching side of the cargo space. Volume is capped at a fill factor of the
+ * cargo space, since real loads cannot be packed without gaps.
+ *
+ * Packing starts with first-fit decreasing: parcels ordered by their largest relative size (weight or volume
+ * share of an average vehicle) go into the first vehicle, largest vehicles first, with room for them.
+ * Local search then tries to
+ * <ul>
+ *   <li>empty the least loaded vehicles by moving all their parcels into other vehicles already in use, and</li>
+ *   <li>place parcels that did not fit by moving one parcel out of a vehicle into another to make room.</li>
+ * </ul>
+ * All state lives in primitive arrays and nothing is shared, so separate depots can be planned in parallel.
+ */
+public final class LoadPlanner {
+
+    private static final double EPSILON = 1e-9;
+    // Caps the insertion search when the fleet is far too small for the parcels
+    private static final long MAX_INSERTION_EVALUATIONS = 20_000_000L;
+
+    private final int parcelCount;
+    private final int vehicleCount;
+    private final double[] weight;
+    private final double[] volume;
+    private final double[] side1; // Sorted sides, shortest first
+    private final double[] side2;
+    private final double[] side3;
+    private final double[] maxWeight;
+    private final double[] maxVolume;
+    private final double[] cargo1;
+    private final double[] cargo2;
+    private final double[] cargo3;
+    private final double[] loadWeight;
+    private final double[] loadVolume;
+    private final int[] assignment;
+    private final int[][] items; // Parcels per vehicle; the first itemCount[v] entries are valid
+    private final int[] itemCount;
+    private final int[] positionInVehicle;
+    private final double[] sizeKey;
+
+    private LoadPlanner(double[] weights, double[] lengths, double[] widths, double[] heights,
+                        double[] vehicleMaxWeights, double[] cargoLengths, double[] cargoWidths, double[] cargoHeights,
+                        double fillFactor) {
+        parcelCount = weights.length;
+        vehicleCount = vehicleMaxWeights.length;
+        weight = weights;
+        volume = new double[parcelCount];
+        side1 = new double[parcelCount];
+        side2 = new double[parcelCount];
+        side3 = new double[parcelCount];
+        sortSides(lengths, widths, heights, side1, side2, side3);
+        for (int p = 0; p < parcelCount; p++) {
+            volume[p] = side1[p] * side2[p] * side3[p];
+        }
+        maxWeight = vehicleMaxWeights;
+        maxVolume = new double[vehicleCount];
+        cargo1 = new double[vehicleCount];
+        cargo2 = new double[vehicleCount];
+        cargo3 = new double[vehicleCount];
+        sortSides(cargoLengths, cargoWidths, cargoHeights, cargo1, cargo2, cargo3);
+        for (int v = 0; v < vehicleCount; v++) {
+            maxVolume[v] = cargo1[v] * cargo2[v] * cargo3[v] * fillFactor;
+        }
+        loadWeight = new double[vehicleCount];
+        loadVolume = new double[vehicleCount];
+        assignment = new int[parcelCount];
+        Arrays.fill(assignment, -1);
+        items = new int[vehicleCount][8];
+        itemCount = new int[vehicleCount];
+        positionInVehicle = new int[parcelCount];
+
+        double averageWeight = 0;
+        double averageVolume = 0;
+        for (int v = 0; v < vehicleCount; v++) {
+            averageWeight += maxWeight[v] / vehicleCount;
+            averageVolume += maxVolume[v] / vehicleCount;
+        }
+        sizeKey = new double[parcelCount];
+        for (int p = 0; p < parcelCount; p++) {
+            sizeKey[p] = Math.max(averageWeight > 0 ? weight[p] / averageWeight : 0, averageVolume > 0 ? volume[p] / averageVolume : 0);
+        }
+    }
+
+    /**
+     * Plans the load of one depot.
+     *
+     * @param weights            Parcel weights.
+     * @param lengths            Parcel lengths, in the same unit as the cargo dimensions.
+     * @param widths             Parcel widths.
+     * @param heights            Parcel heights.
+     * @param vehicleMaxWeights  Maximum payload per vehicle, in the unit of the parcel weights.
+     * @param cargoLengths       Cargo space length per vehicle.
+     * @param cargoWidths        Cargo space width per vehicle.
+     * @param cargoHeights       Cargo space height per vehicle.
+     * @param fillFactor         Share of the cargo volume that can actually be used, in (0, 1].
+     * @return For each parcel the index of its vehicle, or -1 if it could not be loaded.
+     */
+    public static int[] plan(double[] weights, double[] lengths, double[] widths, double[] heights,
+                             double[] vehicleMaxWeights, double[] cargoLengths, double[] cargoWidths, double[] cargoHeights,
+                             double fillFactor) {
+        int n = weights.length;
+        int vehicles = vehicleMaxWeights.length;
+        if (lengths.length != n || widths.length != n || heights.length != n) {
+            throw new IllegalArgumentException("Parcel arrays must have the same length.");
+        }
+        if (cargoLengths.length != vehicles || cargoWidths.length != vehicles || cargoHeights.length != vehicles) {
+            throw new IllegalArgumentException("Vehicle arrays must have the same length.");
+        }
+        if (!(fillFactor > 0 && fillFactor <= 1)) {
+            throw new IllegalArgumentException("Fill factor must be in (0, 1].");
+        }
+        LoadPlanner planner = new LoadPlanner(weights, lengths, widths, heights,
+                vehicleMaxWeights, cargoLengths, cargoWidths, cargoHeights, fillFactor);
+        if (n == 0 || vehicles == 0) {
+            return planner.assignment;
+        }
+        int[] parcelOrder = planner.parcelsBySizeDescending();
+        planner.firstFitDecreasing(parcelOrder);
+        planner.emptyLightVehicles();
+        planner.insertUnassigned(parcelOrder);
+        return planner.assignment;
+    }
+
+    /**
+     * Whether a box fits into a cargo space in any axis-aligned orientation.
+     */
+    public static boolean fitsInAnyOrientation(double length, double width, double height,
+                                               double cargoLength, double cargoWidth, double cargoHeight) {
+        double[] box = {length, width, height};
+        double[] cargo = {cargoLength, cargoWidth, cargoHeight};
+        Arrays.sort(box);
+        Arrays.sort(cargo);
+        return box[0] <= cargo[0] + EPSILON && box[1] <= cargo[1] + EPSILON && box[2] <= cargo[2] + EPSILON;
+    }
+
+    private void firstFitDecreasing(int[] parcelOrder) {
+        int[] vehicleOrder = vehiclesByCapacityDescending();
+        for (int p : parcelOrder) {
+            for (int v : vehicleOrder) {
+                if (fits(p, v)) {
+                    place(p, v);
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Tries to free vehicles in use, least loaded first, by moving all of their parcels into the other
+     * vehicles in use. A vehicle that cannot be emptied is left exactly as it was and not tried again:
+     * later moves only make the other vehicles fuller.
+     */
+    private void emptyLightVehicles() {
+        for (int v : usedVehiclesByLoadAscending()) {
+            tryEmpty(v);
+        }
+    }
+
+    private boolean tryEmpty(int vehicle) {
+        int count = itemCount[vehicle];
+        int[] moving = Arrays.copyOf(items[vehicle], count);
+        sortBySizeDescending(moving);
+        int moved = 0;
+        for (int p : moving) {
+            int target = -1;
+            for (int w = 0; w < vehicleCount; w++) {
+                if (w != vehicle && itemCount[w] > 0 && fits(p, w)) {
+                    target = w;
+                    break;
+                }
+            }
+            if (target < 0) {
+                break;
+            }
+            remove(p);
+            place(p, target);
+            moved++;
+        }
+        if (moved == count) {
+            return true;
+        }
+        for (int i = 0; i < moved; i++) {
+            remove(moving[i]);
+            place(moving[i], vehicle);
+        }
+        return false;
+    }
+
+    /**
+     * Places parcels that did not fit, first directly (emptying vehicles may have freed some), then by
+     * moving one parcel from a vehicle into another vehicle to make room.
+     */
+    private void insertUnassigned(int[] parcelOrder) {
+        long evaluations = 0;
+        for (int u : parcelOrder) {
+            if (assignment[u] >= 0) {
+                continue;
+            }
+            int direct = -1;
+            for (int v = 0; v < vehicleCount && direct < 0; v++) {
+                if (fits(u, v)) {
+                    direct = v;
+                }
+            }
+            if (direct >= 0) {
+                place(u, direct);
+                continue;
+            }
+            if (evaluations > MAX_INSERTION_EVALUATIONS) {
+                continue;
+            }
+            boolean placed = false;
+            for (int v = 0; v < vehicleCount && !placed; v++) {
+                if (!fitsSides(u, v)) {
+                    continue;
+                }
+                double weightNeeded = loadWeight[v] + weight[u] - maxWeight[v];
+                double volumeNeeded = loadVolume[v] + volume[u] - maxVolume[v];
+                for (int i = 0; i < itemCount[v] && !placed; i++) {
+                    int p = items[v][i];
+                    evaluations++;
+                    if (weight[p] + EPSILON < weightNeeded || volume[p] + EPSILON < volumeNeeded) {
+                        continue;
+                    }
+                    for (int w = 0; w < vehicleCount; w++) {
+                        evaluations++;
+                        if (w != v && fits(p, w)) {
+                            remove(p);
+                            place(p, w);
+                            place(u, v);
+                            placed = true;
+                            break;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private boolean fits(int p, int v) {
+        return fitsSides(p, v)
+                && loadWeight[v] + weight[p] <= maxWeight[v] + EPSILON
+                && loadVolume[v] + volume[p] <= maxVolume[v] + EPSILON;
+    }
+
+    private boolean fitsSides(int p, int v) {
+        return side1[p] <= cargo1[v] + EPSILON && side2[p] <= cargo2[v] + EPSILON && side3[p] <= cargo3[v] + EPSILON;
+    }
+
+    private void place(int p, int v) {
+        if (itemCount[v] == items[v].length) {
+            items[v] = Arrays.copyOf(items[v], items[v].length * 2);
+        }
+        positionInVehicle[p] = itemCount[v];
+        items[v][itemCount[v]++] = p;
+        assignment[p] = v;
+        loadWeight[v] += weight[p];
+        loadVolume[v] += volume[p];
+    }
+
+    private void remove(int p) {
+        int v = assignment[p];
+        int position = positionInVehicle[p];
+        int last = items[v][--itemCount[v]];
+        items[v][position] = last;
+        positionInVehicle[last] = position;
+        assignment[p] = -1;
+        loadWeight[v] -= weight[p];
+        loadVolume[v] -= volume[p];
+        if (itemCount[v] == 0) {
+            // Avoid drift from repeated floating point additions and subtractions
+            loadWeight[v] = 0;
+            loadVolume[v] = 0;
+        }
+    }
+
+    private int[] parcelsBySizeDescending() {
+        int[] order = new int[parcelCount];
+        for (int p = 0; p < parcelCount; p++) {
+            order[p] = p;
+        }
+        sortBySizeDescending(order);
+        return order;
+    }
+
+    // Sorts indexes by a non-negative key packed with the index into a long, avoiding boxed comparators
+    private void sortBySizeDescending(int[] parcels) {
+        long[] packed = new long[parcels.length];
+        for (int i = 0; i < parcels.length; i++) {
+            packed[i] = pack((float) sizeKey[parcels[i]], parcels[i]);
+        }
+        Arrays.sort(packed);
+        for (int i = 0; i < parcels.length; i++) {
+            parcels[i] = (int) packed[parcels.length - 1 - i];
+        }
+    }
+
+    private int[] vehiclesByCapacityDescending() {
+        double averageWeight = 0;
+        double averageVolume = 0;
+        for (int v = 0; v < vehicleCount; v++) {
+            averageWeight += maxWeight[v] / vehicleCount;
+            averageVolume += maxVolume[v] / vehicleCount;
+        }
+        long[] packed = new long[vehicleCount];
+        for (int v = 0; v < vehicleCount; v++) {
+            double capacity = (averageWeight > 0 ? maxWeight[v] / averageWeight : 0) + (averageVolume > 0 ? maxVolume[v] / averageVolume : 0);
+            // Index stored reversed, so that vehicles of equal capacity keep the fleet order after reversing
+            packed[v] = pack((float) capacity, vehicleCount - 1 - v);
+        }
+        Arrays.sort(packed);
+        int[] order = new int[vehicleCount];
+        for (int i = 0; i < vehicleCount; i++) {
+            order[i] = vehicleCount - 1 - (int) packed[vehicleCount - 1 - i];
+        }
+        return order;
+    }
+
+    private int[] usedVehiclesByLoadAscending() {
+        long[] packed = new long[vehicleCount];
+        int used = 0;
+        for (int v = 0; v < vehicleCount; v++) {
+            if (itemCount[v] > 0) {
+                double load = Math.max(maxWeight[v] > 0 ? loadWeight[v] / maxWeight[v] : 0, maxVolume[v] > 0 ? loadVolume[v] / maxVolume[v] : 0);
+                packed[used++] = pack((float) load, v);
+            }
+        }
+        Arrays.sort(packed, 0, used);
+        int[] order = new int[used];
+        for (int i = 0; i < used; i++) {
+            order[i] = (int) packed[i];
+        }
+        return order;
+    }
+
+    // The bits of a non-negative float sort like the float itself
+    private static long pack(float key, int index) {
+        return ((long) Float.floatToIntBits(Math.max(0f, key)) << 32) | index;
+    }
+
+    private static void sortSides(double[] a, double[] b, double[] c, double[] shortest, double[] middle, double[] longest) {
+        for (int i = 0; i < a.length; i++) {
+            double x = a[i];
+            double y = b[i];
+            double z = c[i];
+            shortest[i] = Math.min(x, Math.min(y, z));
+            middle[i] = Math.max(Math.min(x, y), Math.min(Math.max(x, y), z));
+            longest[i] = Math.max(x, Math.max(y, z));
+        }
+    }
+}
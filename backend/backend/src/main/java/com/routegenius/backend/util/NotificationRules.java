@@ -0,0 +1,167 @@
+package com.routegenius.backend.util;
+
+import com.routegenius.backend.entity.ParcelStatus;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Decides who hears about a parcel's status change.
+ *
+ * The rules say, per status, which audiences are notified: the parcel's sender, its recipient, and the watchers
+ * of the sender (support staff subscribed to a merchant's parcels). A subscription names a watcher, a merchant
+ * and optionally one status; without a status it covers every status. Watchers are indexed by merchant and
+ * status as sorted arrays of user IDs, so resolving an event costs one hash lookup and a copy, however many
+ * merchants and subscriptions there are.
+ *
+ * Instances are immutable and shared between threads; a changed subscription means building a new one.
+ */
+public final class NotificationRules {
+
+    public enum Audience { SENDER, RECIPIENT, WATCHER }
+
+    private static final long[] NONE = new long[0];
+    private static final ParcelStatus[] STATUSES = ParcelStatus.values();
+
+    private final Map<ParcelStatus, Set<Audience>> rules;
+    private final Map<Long, long[][]> watchers; // Merchant -> status ordinal -> watcher IDs, ascending
+    private final int subscriptionCount;
+
+    private NotificationRules(Map<ParcelStatus, Set<Audience>> rules, Map<Long, long[][]> watchers, int subscriptionCount) {
+        this.rules = rules;
+        this.watchers = watchers;
+        this.subscriptionCount = subscriptionCount;
+    }
+
+    /**
+     * Parses rules written as {@code STATUS:AUDIENCE,AUDIENCE;STATUS:AUDIENCE}, e.g.
+     * {@code IN_TRANSIT:RECIPIENT;DELIVERED:SENDER,RECIPIENT,WATCHER}. Statuses that are not listed notify nobody.
+     * @throws IllegalArgumentException If a status or audience is unknown or a status is listed twice.
+     */
+    public static Map<ParcelStatus, Set<Audience>> parseRules(String spec) {
+        Map<ParcelStatus, Set<Audience>> rules = new EnumMap<>(ParcelStatus.class);
+        for (String rule : spec.split(";")) {
+            if (rule.isBlank()) {
+                continue;
+            }
+            String[] parts = rule.split(":", 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Notification rule '" + rule.trim() + "' is not STATUS:AUDIENCE,...");
+            }
+            ParcelStatus status = ParcelStatus.valueOf(parts[0].trim().toUpperCase(Locale.ROOT));
+            Set<Audience> audiences = EnumSet.noneOf(Audience.class);
+            for (String audience : parts[1].split(",")) {
+                if (!audience.isBlank()) {
+                    audiences.add(Audience.valueOf(audience.trim().toUpperCase(Locale.ROOT)));
+                }
+            }
+            if (rules.put(status, audiences) != null) {
+                throw new IllegalArgumentException("Notification rules list " + status + " twice");
+            }
+        }
+        return rules;
+    }
+
+    public static Builder builder(Map<ParcelStatus, Set<Audience>> rules) {
+        return new Builder(rules);
+    }
+
+    /**
+     * @return The users to notify, each once: the recipient, then the sender, then the watchers in ID order.
+     */
+    public long[] resolve(long senderId, long recipientId, ParcelStatus status) {
+        Set<Audience> audiences = rules.getOrDefault(status, Set.of());
+        boolean toRecipient = audiences.contains(Audience.RECIPIENT);
+        boolean toSender = audiences.contains(Audience.SENDER) && !(toRecipient && senderId == recipientId);
+        long[][] byStatus = audiences.contains(Audience.WATCHER) ? watchers.get(senderId) : null;
+        long[] watching = byStatus != null ? byStatus[status.ordinal()] : NONE;
+
+        long[] users = new long[(toRecipient ? 1 : 0) + (toSender ? 1 : 0) + watching.length];
+        int size = 0;
+        if (toRecipient) {
+            users[size++] = recipientId;
+        }
+        if (toSender) {
+            users[size++] = senderId;
+        }
+        for (long watcher : watching) {
+            // Watchers are distinct among themselves; only the parties to the parcel can repeat
+            if (!(toRecipient && watcher == recipientId) && !(toSender && watcher == senderId)) {
+                users[size++] = watcher;
+            }
+        }
+        return size == users.length ? users : Arrays.copyOf(users, size);
+    }
+
+    public int getMerchantCount() {
+        return watchers.size();
+    }
+
+    public int getSubscriptionCount() {
+        return subscriptionCount;
+    }
+
+    public static final class Builder {
+        private final Map<ParcelStatus, Set<Audience>> rules;
+        // Merchant -> status ordinal (the last slot for "every status") -> watcher IDs in any order, maybe repeated
+        private final Map<Long, long[][]> pending = new HashMap<>();
+        private final Map<Long, int[]> sizes = new HashMap<>();
+        private int subscriptionCount;
+
+        private Builder(Map<ParcelStatus, Set<Audience>> rules) {
+            this.rules = new EnumMap<>(ParcelStatus.class);
+            rules.forEach((status, audiences) -> this.rules.put(status, audiences.isEmpty()
+                    ? EnumSet.noneOf(Audience.class) : EnumSet.copyOf(audiences)));
+        }
+
+        /**
+         * @param status The one status the watcher wants, or null for every status.
+         */
+        public Builder watch(long watcherId, long merchantId, ParcelStatus status) {
+            int slot = status != null ? status.ordinal() : STATUSES.length;
+            long[][] lists = pending.computeIfAbsent(merchantId, id -> new long[STATUSES.length + 1][4]);
+            int[] counts = sizes.computeIfAbsent(merchantId, id -> new int[STATUSES.length + 1]);
+            if (counts[slot] == lists[slot].length) {
+                lists[slot] = Arrays.copyOf(lists[slot], lists[slot].length * 2);
+            }
+            lists[slot][counts[slot]++] = watcherId;
+            subscriptionCount++;
+            return this;
+        }
+
+        public NotificationRules build() {
+            Map<Long, long[][]> watchers = new HashMap<>(pending.size() * 2);
+            pending.forEach((merchantId, lists) -> {
+                int[] counts = sizes.get(merchantId);
+                long[] everyStatus = Arrays.copyOf(lists[STATUSES.length], counts[STATUSES.length]);
+                long[][] byStatus = new long[STATUSES.length][];
+                for (int s = 0; s < STATUSES.length; s++) {
+                    long[] merged = Arrays.copyOf(everyStatus, everyStatus.length + counts[s]);
+                    System.arraycopy(lists[s], 0, merged, everyStatus.length, counts[s]);
+                    byStatus[s] = distinctSorted(merged);
+                }
+                watchers.put(merchantId, byStatus);
+            });
+            return new NotificationRules(rules, watchers, subscriptionCount);
+        }
+
+        private static long[] distinctSorted(long[] ids) {
+            if (ids.length == 0) {
+                return NONE;
+            }
+            Arrays.sort(ids);
+            int size = 1;
+            for (int i = 1; i < ids.length; i++) {
+                if (ids[i] != ids[size - 1]) {
+                    ids[size++] = ids[i];
+                }
+            }
+            return size == ids.length ? ids : Arrays.copyOf(ids, size);
+        }
+    }
+}
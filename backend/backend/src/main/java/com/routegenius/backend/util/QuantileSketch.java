@@ -0,0 +1,184 @@
+package com.routegenius.backend.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+/**
+ * Streaming quantile sketch with relative error guarantees, for non-negative values such as durations.
+ *
+ * Values are counted in logarithmically sized buckets: bucket i holds values in (gamma^(i-1), gamma^i] with
+ * gamma = (1 + a) / (1 - a), so any quantile is returned within a relative error a of the true value.
+ * Adding a value is O(1), memory depends only on the range of values (about 450 buckets cover one second
+ * to one year at 2%), and two sketches with the same accuracy merge exactly by adding their counts, which is
+ * what lets several nodes contribute to one persisted sketch.
+ *
+ * Not thread-safe; callers synchronize.
+ */
+public final class QuantileSketch {
+
+    public static final double DEFAULT_RELATIVE_ACCURACY = 0.02;
+
+    private static final byte FORMAT_VERSION = 1;
+    // Values up to this size are counted as zero; durations are in seconds, so this is well below one second
+    private static final double MIN_VALUE = 1e-3;
+
+    private final double relativeAccuracy;
+    private final double gamma;
+    private final double logGamma;
+    private long zeroCount;
+    private long count;
+    private int offset; // Bucket index of counts[0]
+    private long[] counts = new long[0];
+
+    public QuantileSketch() {
+        this(DEFAULT_RELATIVE_ACCURACY);
+    }
+
+    public QuantileSketch(double relativeAccuracy) {
+        if (!(relativeAccuracy > 0 && relativeAccuracy < 1)) {
+            throw new IllegalArgumentException("Relative accuracy must be between 0 and 1.");
+        }
+        this.relativeAccuracy = relativeAccuracy;
+        this.gamma = (1 + relativeAccuracy) / (1 - relativeAccuracy);
+        this.logGamma = Math.log(gamma);
+    }
+
+    public long getCount() { return count; }
+    public double getRelativeAccuracy() { return relativeAccuracy; }
+
+    public void add(double value) {
+        add(value, 1);
+    }
+
+    public void add(double value, long times) {
+        if (value < 0 || Double.isNaN(value) || Double.isInfinite(value)) {
+            throw new IllegalArgumentException("Value must be a finite, non-negative number: " + value);
+        }
+        if (times <= 0) {
+            return;
+        }
+        count += times;
+        if (value <= MIN_VALUE) {
+            zeroCount += times;
+            return;
+        }
+        int index = (int) Math.ceil(Math.log(value) / logGamma);
+        ensureBucket(index);
+        counts[index - offset] += times;
+    }
+
+    /**
+     * Adds all values of another sketch with the same accuracy.
+     */
+    public void merge(QuantileSketch other) {
+        if (other.relativeAccuracy != relativeAccuracy) {
+            throw new IllegalArgumentException("Only sketches with the same accuracy can be merged.");
+        }
+        if (other.count == 0) {
+            return;
+        }
+        count += other.count;
+        zeroCount += other.zeroCount;
+        if (other.counts.length == 0) {
+            return;
+        }
+        ensureBucket(other.offset);
+        ensureBucket(other.offset + other.counts.length - 1);
+        for (int i = 0; i < other.counts.length; i++) {
+            counts[other.offset + i - offset] += other.counts[i];
+        }
+    }
+
+    /**
+     * @param q Quantile between 0 and 1, e.g. 0.9 for the 90th percentile.
+     * @return The estimated value, or NaN when the sketch is empty.
+     */
+    public double quantile(double q) {
+        if (q < 0 || q > 1) {
+            throw new IllegalArgumentException("Quantile must be between 0 and 1.");
+        }
+        if (count == 0) {
+            return Double.NaN;
+        }
+        long rank = (long) Math.floor(q * (count - 1));
+        if (rank < zeroCount) {
+            return 0;
+        }
+        long seen = zeroCount;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen > rank) {
+                // Midpoint in relative terms of (gamma^(i-1), gamma^i], so the error is at most relativeAccuracy
+                return 2 * Math.pow(gamma, offset + i) / (gamma + 1);
+            }
+        }
+        return 2 * Math.pow(gamma, offset + counts.length - 1) / (gamma + 1);
+    }
+
+    public QuantileSketch copy() {
+        QuantileSketch copy = new QuantileSketch(relativeAccuracy);
+        copy.merge(this);
+        return copy;
+    }
+
+    public byte[] toBytes() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(32 + counts.length * 8);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(FORMAT_VERSION);
+            out.writeDouble(relativeAccuracy);
+            out.writeLong(zeroCount);
+            out.writeInt(offset);
+            out.writeInt(counts.length);
+            for (long bucket : counts) {
+                out.writeLong(bucket);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static QuantileSketch fromBytes(byte[] data) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            byte version = in.readByte();
+            if (version != FORMAT_VERSION) {
+                throw new IllegalArgumentException("Unsupported quantile sketch format " + version);
+            }
+            QuantileSketch sketch = new QuantileSketch(in.readDouble());
+            sketch.zeroCount = in.readLong();
+            sketch.count = sketch.zeroCount;
+            sketch.offset = in.readInt();
+            sketch.counts = new long[in.readInt()];
+            for (int i = 0; i < sketch.counts.length; i++) {
+                sketch.counts[i] = in.readLong();
+                sketch.count += sketch.counts[i];
+            }
+            return sketch;
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Corrupt quantile sketch", e);
+        }
+    }
+
+    private void ensureBucket(int index) {
+        if (counts.length == 0) {
+            offset = index;
+            counts = new long[8];
+            return;
+        }
+        if (index < offset) {
+            // Grow downwards with some slack so that a run of smaller values does not copy on every add
+            int newOffset = Math.min(index, offset - Math.max(8, counts.length / 2));
+            long[] grown = new long[counts.length + (offset - newOffset)];
+            System.arraycopy(counts, 0, grown, offset - newOffset, counts.length);
+            counts = grown;
+            offset = newOffset;
+        } else if (index >= offset + counts.length) {
+            counts = Arrays.copyOf(counts, Math.max(index - offset + 1, counts.length + Math.max(8, counts.length / 2)));
+        }
+    }
+}
@@ -0,0 +1,473 @@
+package com.routegenius.backend.util;
+
+import java.util.Arrays;
+
+/**
+ * Plans delivery routes that start and end at a depot, for one or more couriers.
+ *
+ * Stops are split between couriers by a sweep around the depot: they are sorted by bearing and cut into
+ * contiguous sectors of (nearly) equal size, starting at the widest angular gap. Each sector is then solved
+ * as a travelling salesman tour: a nearest-neighbour construction followed by 2-opt and Or-opt local search
+ * (moving chains of 1-3 stops). Both improvement moves only look at each stop's nearest neighbours, so a
+ * pass costs O(n * K) distance evaluations instead of O(n^2).
+ *
+ * Distances are straight-line kilometres on a local equirectangular projection, which is accurate to well
+ * under 1% at city scale. All work happens on primitive arrays; instances are not shared between threads,
+ * so different cities and couriers can be solved in parallel.
+ */
+public final class RouteOptimizer {
+
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+    private static final int NEIGHBOURS = 10;
+    private static final int MAX_OR_OPT_SEGMENT = 3;
+    private static final int MAX_PASSES = 200;
+    private static final double EPSILON = 1e-9;
+
+    private RouteOptimizer() {
+    }
+
+    /**
+     * Plans one route per courier.
+     *
+     * @param latitudes        Stop latitudes.
+     * @param longitudes       Stop longitudes.
+     * @param depotLatitude    Latitude where every route starts and ends.
+     * @param depotLongitude   Longitude where every route starts and ends.
+     * @param couriers         Number of couriers available.
+     * @param maxStopsPerRoute Maximum stops per route; more routes than couriers are planned if needed.
+     * @return For each route, the indexes of its stops in visiting order (depot not included).
+     */
+    public static int[][] plan(double[] latitudes, double[] longitudes, double depotLatitude, double depotLongitude,
+                               int couriers, int maxStopsPerRoute) {
+        int n = latitudes.length;
+        if (longitudes.length != n) {
+            throw new IllegalArgumentException("Latitude and longitude arrays must have the same length.");
+        }
+        if (couriers < 1 || maxStopsPerRoute < 1) {
+            throw new IllegalArgumentException("Couriers and max stops per route must be positive.");
+        }
+        if (n == 0) {
+            return new int[0][];
+        }
+        double[] x = new double[n];
+        double[] y = new double[n];
+        project(latitudes, longitudes, depotLatitude, depotLongitude, x, y);
+
+        int routeCount = Math.min(n, Math.max(couriers, (n + maxStopsPerRoute - 1) / maxStopsPerRoute));
+        int[][] sectors = sweep(x, y, routeCount);
+        int[][] routes = new int[sectors.length][];
+        for (int r = 0; r < sectors.length; r++) {
+            routes[r] = solveTour(sectors[r], x, y);
+        }
+        return routes;
+    }
+
+    /**
+     * Orders stops for a single courier (no splitting).
+     */
+    public static int[] planSingleRoute(double[] latitudes, double[] longitudes, double depotLatitude, double depotLongitude) {
+        int[][] routes = plan(latitudes, longitudes, depotLatitude, depotLongitude, 1, Math.max(1, latitudes.length));
+        return routes.length == 0 ? new int[0] : routes[0];
+    }
+
+    /**
+     * Orders stops by repeatedly visiting the nearest unvisited one, without improvement. Useful as a baseline.
+     */
+    public static int[] nearestNeighbourRoute(double[] latitudes, double[] longitudes, double depotLatitude, double depotLongitude) {
+        int n = latitudes.length;
+        double[] x = new double[n];
+        double[] y = new double[n];
+        project(latitudes, longitudes, depotLatitude, depotLongitude, x, y);
+        int[] all = new int[n];
+        for (int i = 0; i < n; i++) {
+            all[i] = i;
+        }
+        Tour tour = new Tour(all, x, y);
+        tour.buildNearestNeighbour();
+        return tour.stopsFromDepot();
+    }
+
+    /**
+     * Great-circle length of a route from the depot through the stops and back, in kilometres.
+     */
+    public static double routeLengthKm(double[] latitudes, double[] longitudes, double depotLatitude, double depotLongitude, int[] route) {
+        if (route.length == 0) {
+            return 0;
+        }
+        double length = haversineKm(depotLatitude, depotLongitude, latitudes[route[0]], longitudes[route[0]]);
+        for (int i = 1; i < route.length; i++) {
+            length += haversineKm(latitudes[route[i - 1]], longitudes[route[i - 1]], latitudes[route[i]], longitudes[route[i]]);
+        }
+        int last = route[route.length - 1];
+        return length + haversineKm(latitudes[last], longitudes[last], depotLatitude, depotLongitude);
+    }
+
+    public static double haversineKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    private static void project(double[] latitudes, double[] longitudes, double originLat, double originLon, double[] x, double[] y) {
+        double cosLat = Math.cos(Math.toRadians(originLat));
+        for (int i = 0; i < latitudes.length; i++) {
+            x[i] = EARTH_RADIUS_KM * Math.toRadians(longitudes[i] - originLon) * cosLat;
+            y[i] = EARTH_RADIUS_KM * Math.toRadians(latitudes[i] - originLat);
+        }
+    }
+
+    /**
+     * Splits stops into contiguous angular sectors around the depot (at the origin) of nearly equal size.
+     */
+    private static int[][] sweep(double[] x, double[] y, int routeCount) {
+        int n = x.length;
+        if (routeCount == 1) {
+            int[] all = new int[n];
+            for (int i = 0; i < n; i++) {
+                all[i] = i;
+            }
+            return new int[][]{all};
+        }
+        // Sort stop indexes by bearing; packing (angle, index) into one long keeps the sort primitive
+        long[] keyed = new long[n];
+        double[] angle = new double[n];
+        for (int i = 0; i < n; i++) {
+            angle[i] = Math.atan2(y[i], x[i]);
+        }
+        int[] order = sortByKey(angle, keyed);
+
+        // Start at the widest gap between consecutive bearings, so no sector straddles a dense cluster boundary
+        int start = 0;
+        double widest = angle[order[0]] + 2 * Math.PI - angle[order[n - 1]];
+        for (int i = 1; i < n; i++) {
+            double gap = angle[order[i]] - angle[order[i - 1]];
+            if (gap > widest) {
+                widest = gap;
+                start = i;
+            }
+        }
+
+        int[][] sectors = new int[routeCount][];
+        int offset = 0;
+        for (int r = 0; r < routeCount; r++) {
+            int size = n / routeCount + (r < n % routeCount ? 1 : 0);
+            int[] sector = new int[size];
+            for (int i = 0; i < size; i++) {
+                sector[i] = order[(start + offset + i) % n];
+            }
+            sectors[r] = sector;
+            offset += size;
+        }
+        return sectors;
+    }
+
+    private static int[] sortByKey(double[] key, long[] scratch) {
+        int n = key.length;
+        // Order-preserving mapping of doubles to longs, with the index in the low bits
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (double k : key) {
+            min = Math.min(min, k);
+            max = Math.max(max, k);
+        }
+        double scale = max > min ? ((1L << 40) - 1) / (max - min) : 0;
+        for (int i = 0; i < n; i++) {
+            scratch[i] = ((long) ((key[i] - min) * scale) << 23) | i;
+        }
+        Arrays.sort(scratch);
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = (int) (scratch[i] & ((1L << 23) - 1));
+        }
+        return order;
+    }
+
+    private static int[] solveTour(int[] stops, double[] x, double[] y) {
+        Tour tour = new Tour(stops, x, y);
+        tour.buildNearestNeighbour();
+        if (stops.length >= 3) {
+            tour.buildNeighbourLists();
+            for (int pass = 0; pass < MAX_PASSES; pass++) {
+                boolean improved = tour.twoOptPass();
+                improved |= tour.orOptPass();
+                if (!improved) {
+                    break;
+                }
+            }
+        }
+        return tour.stopsFromDepot();
+    }
+
+    /**
+     * A closed tour over the depot (node 0) and the stops of one route (nodes 1..m), stored as
+     * an order array plus the inverse position array.
+     */
+    static final class Tour {
+        private final int n;
+        private final int[] stopIndex; // node -> index into the caller's arrays (node 0 is the depot)
+        private final double[] px;
+        private final double[] py;
+        private final int[] order;
+        private final int[] pos;
+        private int[][] neighbours;
+
+        Tour(int[] stops, double[] x, double[] y) {
+            this.n = stops.length + 1;
+            this.stopIndex = new int[n];
+            this.px = new double[n];
+            this.py = new double[n];
+            stopIndex[0] = -1;
+            for (int i = 0; i < stops.length; i++) {
+                stopIndex[i + 1] = stops[i];
+                px[i + 1] = x[stops[i]];
+                py[i + 1] = y[stops[i]];
+            }
+            this.order = new int[n];
+            this.pos = new int[n];
+        }
+
+        double dist(int a, int b) {
+            double dx = px[a] - px[b];
+            double dy = py[a] - py[b];
+            return Math.sqrt(dx * dx + dy * dy);
+        }
+
+        double length() {
+            double total = 0;
+            for (int i = 0; i < n; i++) {
+                total += dist(order[i], order[i + 1 == n ? 0 : i + 1]);
+            }
+            return total;
+        }
+
+        int succ(int node) {
+            int p = pos[node] + 1;
+            return order[p == n ? 0 : p];
+        }
+
+        int pred(int node) {
+            int p = pos[node] - 1;
+            return order[p < 0 ? n - 1 : p];
+        }
+
+        void buildNearestNeighbour() {
+            boolean[] visited = new boolean[n];
+            int current = 0;
+            visited[0] = true;
+            order[0] = 0;
+            pos[0] = 0;
+            for (int i = 1; i < n; i++) {
+                int best = -1;
+                double bestDistance = Double.MAX_VALUE;
+                for (int candidate = 1; candidate < n; candidate++) {
+                    if (!visited[candidate]) {
+                        double d = dist(current, candidate);
+                        if (d < bestDistance) {
+                            bestDistance = d;
+                            best = candidate;
+                        }
+                    }
+                }
+                visited[best] = true;
+                order[i] = best;
+                pos[best] = i;
+                current = best;
+            }
+        }
+
+        void buildNeighbourLists() {
+            int k = Math.min(NEIGHBOURS, n - 1);
+            neighbours = new int[n][k];
+            double[] bestDistances = new double[k];
+            for (int a = 0; a < n; a++) {
+                int[] list = neighbours[a];
+                int size = 0;
+                for (int b = 0; b < n; b++) {
+                    if (b == a) {
+                        continue;
+                    }
+                    double d = dist(a, b);
+                    if (size == k && d >= bestDistances[k - 1]) {
+                        continue;
+                    }
+                    // Insertion into the small sorted candidate list
+                    int i = size < k ? size++ : k - 1;
+                    while (i > 0 && bestDistances[i - 1] > d) {
+                        bestDistances[i] = bestDistances[i - 1];
+                        list[i] = list[i - 1];
+                        i--;
+                    }
+                    bestDistances[i] = d;
+                    list[i] = b;
+                }
+            }
+        }
+
+        /**
+         * One first-improvement pass of 2-opt over every node and its neighbour list.
+         */
+        boolean twoOptPass() {
+            boolean improved = false;
+            for (int a = 0; a < n; a++) {
+                boolean moved;
+                do {
+                    moved = false;
+                    for (int direction = 0; direction < 2 && !moved; direction++) {
+                        boolean forward = direction == 0;
+                        int b = forward ? succ(a) : pred(a);
+                        double dab = dist(a, b);
+                        for (int c : neighbours[a]) {
+                            double g1 = dab - dist(a, c);
+                            if (g1 <= EPSILON) {
+                                break; // Neighbours are sorted, so no later c can give a positive first gain
+                            }
+                            int d = forward ? succ(c) : pred(c);
+                            if (c == b || d == a) {
+                                continue;
+                            }
+                            double gain = g1 + dist(c, d) - dist(b, d);
+                            if (gain > EPSILON) {
+                                if (forward) {
+                                    exchange(a, b, c, d);
+                                } else {
+                                    exchange(b, a, d, c);
+                                }
+                                moved = true;
+                                improved = true;
+                                break;
+                            }
+                        }
+                    }
+                } while (moved);
+            }
+            return improved;
+        }
+
+        /**
+         * One first-improvement pass of Or-opt: move a chain of 1-3 consecutive nodes next to a neighbour,
+         * in either orientation.
+         */
+        boolean orOptPass() {
+            boolean improved = false;
+            for (int length = 1; length <= MAX_OR_OPT_SEGMENT && length <= n - 3; length++) {
+                for (int first = 0; first < n; first++) {
+                    int s1 = first;
+                    int s2 = s1;
+                    for (int i = 1; i < length; i++) {
+                        s2 = succ(s2);
+                    }
+                    int p = pred(s1);
+                    int next = succ(s2);
+                    double removeGain = dist(p, s1) + dist(s2, next) - dist(p, next);
+                    if (removeGain <= EPSILON) {
+                        continue;
+                    }
+                    if (tryInsert(s1, s2, length, p, next, removeGain, neighbours[s1])
+                            || (length > 1 && tryInsert(s1, s2, length, p, next, removeGain, neighbours[s2]))) {
+                        improved = true;
+                    }
+                }
+            }
+            return improved;
+        }
+
+        private boolean tryInsert(int s1, int s2, int length, int p, int next, double removeGain, int[] candidates) {
+            for (int c : candidates) {
+                if (inSegment(c, s1, length)) {
+                    continue;
+                }
+                // Try the edge after c and the edge before c
+                for (int side = 0; side < 2; side++) {
+                    int e = side == 0 ? c : pred(c);
+                    int f = side == 0 ? succ(c) : c;
+                    if (e == s2 || f == s1 || inSegment(e, s1, length) || inSegment(f, s1, length)) {
+                        continue;
+                    }
+                    double reversedCost = dist(e, s2) + dist(s1, f);
+                    double forwardCost = dist(e, s1) + dist(s2, f);
+                    boolean forward = forwardCost <= reversedCost;
+                    double gain = removeGain + dist(e, f) - Math.min(forwardCost, reversedCost);
+                    if (gain > EPSILON) {
+                        moveSegment(s1, s2, p, next, e, f, forward);
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        private boolean inSegment(int node, int s1, int length) {
+            int current = s1;
+            for (int i = 0; i < length; i++) {
+                if (current == node) {
+                    return true;
+                }
+                current = succ(current);
+            }
+            return false;
+        }
+
+        /**
+         * Moves the chain s1..s2 (between p and next) into the edge (e, f), as a sequence of 2-opt exchanges.
+         */
+        private void moveSegment(int s1, int s2, int p, int next, int e, int f, boolean forward) {
+            exchange(p, s1, e, f);     // p-e and s1-f:           p e .. next s2..s1 f
+            exchange(p, e, next, s2);  // p-next and e-s2:        p next .. e s2..s1 f
+            if (forward) {
+                exchange(e, s2, s1, f); // e-s1 and s2-f:          p next .. e s1..s2 f
+            }
+        }
+
+        /**
+         * Replaces the edges (a, b) and (c, d) with (a, c) and (b, d). Both edges must run the same way
+         * round the tour (b after a and d after c, or b before a and d before c).
+         */
+        private void exchange(int a, int b, int c, int d) {
+            if (succ(a) == b) {
+                reverse(pos[b], pos[c]);
+            } else {
+                reverse(pos[a], pos[d]);
+            }
+        }
+
+        /**
+         * Reverses the path between two positions (inclusive, wrapping around), or the rest of the tour
+         * when that is shorter; both give the same cycle.
+         */
+        private void reverse(int from, int to) {
+            int length = to - from;
+            if (length < 0) {
+                length += n;
+            }
+            length++;
+            if (length * 2 > n) {
+                int newFrom = to + 1;
+                int newTo = from - 1;
+                from = newFrom == n ? 0 : newFrom;
+                to = newTo < 0 ? n - 1 : newTo;
+                length = n - length;
+            }
+            for (int s = 0; s < length / 2; s++) {
+                int a = order[from];
+                int b = order[to];
+                order[from] = b;
+                pos[b] = from;
+                order[to] = a;
+                pos[a] = to;
+                from = from + 1 == n ? 0 : from + 1;
+                to = to == 0 ? n - 1 : to - 1;
+            }
+        }
+
+        int[] stopsFromDepot() {
+            int[] stops = new int[n - 1];
+            int p = pos[0];
+            for (int i = 1; i < n; i++) {
+                stops[i - 1] = stopIndex[order[(p + i) % n]];
+            }
+            return stops;
+        }
+    }
+}
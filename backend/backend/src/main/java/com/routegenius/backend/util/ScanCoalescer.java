@@ -0,0 +1,152 @@
+package com.routegenius.backend.util;
+
+import com.routegenius.backend.entity.ParcelStatus;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Predicate;
+
+/**
+ * Turns the hub scans of one parcel collected during an ingest window into the state changes to record.
+ *
+ * Scans are put in time order first, so scans that arrived out of order are applied in the order they happened.
+ * A scan that repeats the state the parcel is already in (same status, location, city and country) is a
+ * duplicate and is dropped. A scan taken before the parcel's latest recorded event arrived late. It still
+ * belongs in the history, but must not move the parcel back to an older state, and is dropped if the history
+ * already has it: a scanner that resends a committed batch sends its older scans as late ones. Missing
+ * location, city or country mean "unchanged" and are filled in from the state before the scan.
+ */
+public final class ScanCoalescer {
+
+    /**
+     * One scan as the coalescer sees it.
+     */
+    public interface Scan {
+        ParcelStatus getStatus();
+        String getLocation();
+        String getCity();
+        String getCountry();
+        LocalDateTime getScannedAt();
+    }
+
+    /**
+     * Where a parcel is, and since when.
+     */
+    public static final class State {
+        private final ParcelStatus status;
+        private final String location;
+        private final String city;
+        private final String country;
+        private final LocalDateTime since; // Time of the latest recorded event, or null if there is none
+
+        public State(ParcelStatus status, String location, String city, String country, LocalDateTime since) {
+            this.status = status;
+            this.location = location;
+            this.city = city;
+            this.country = country;
+            this.since = since;
+        }
+
+        public ParcelStatus getStatus() { return status; }
+        public String getLocation() { return location; }
+        public String getCity() { return city; }
+        public String getCountry() { return country; }
+        public LocalDateTime getSince() { return since; }
+
+        boolean sameAs(State other) {
+            return status == other.status && Objects.equals(location, other.location)
+                    && Objects.equals(city, other.city) && Objects.equals(country, other.country);
+        }
+    }
+
+    /**
+     * A scan to record, with missing fields filled in.
+     */
+    public static final class Step<S extends Scan> {
+        private final S scan;
+        private final State state;
+
+        private Step(S scan, State state) {
+            this.scan = scan;
+            this.state = state;
+        }
+
+        public S getScan() { return scan; }
+        public State getState() { return state; }
+    }
+
+    /**
+     * What to do with the scans of one parcel.
+     */
+    public static final class Result<S extends Scan> {
+        private final List<Step<S>> applied = new ArrayList<>();
+        private final List<Step<S>> late = new ArrayList<>();
+        private final List<S> duplicates = new ArrayList<>();
+
+        /** Scans that move the parcel, oldest first; the last one is its new state. */
+        public List<Step<S>> getApplied() { return applied; }
+        /** Scans older than the latest recorded event: history only, oldest first. */
+        public List<Step<S>> getLate() { return late; }
+        /** Scans that changed nothing. */
+        public List<S> getDuplicates() { return duplicates; }
+
+        public State finalState(State current) {
+            return applied.isEmpty() ? current : applied.get(applied.size() - 1).state;
+        }
+    }
+
+    private ScanCoalescer() {
+    }
+
+    /**
+     * @param current The parcel's state before this window.
+     * @param scans The window's scans for the parcel, in arrival order. Ties in scan time keep that order.
+     * @return The scans split into applied, late and duplicate.
+     */
+    public static <S extends Scan> Result<S> coalesce(State current, List<S> scans) {
+        return coalesce(current, scans, state -> false);
+    }
+
+    /**
+     * @param current The parcel's state before this window.
+     * @param scans The window's scans for the parcel, in arrival order. Ties in scan time keep that order.
+     * @param recorded Whether the stored history already has an event for a late scan's state and time.
+     * @return The scans split into applied, late and duplicate.
+     */
+    public static <S extends Scan> Result<S> coalesce(State current, List<S> scans, Predicate<State> recorded) {
+        List<S> ordered = new ArrayList<>(scans);
+        ordered.sort(Comparator.comparing(Scan::getScannedAt)); // Stable, so arrival order breaks ties
+
+        Result<S> result = new Result<>();
+        State state = current;
+        State lastLate = null;
+        for (S scan : ordered) {
+            boolean isLate = current.since != null && scan.getScannedAt().isBefore(current.since);
+            // Late scans are filled in from the previous late scan, since the current state is newer than they are
+            State base = isLate ? (lastLate != null ? lastLate : current) : state;
+            State next = new State(scan.getStatus(),
+                    scan.getLocation() != null ? scan.getLocation() : base.location,
+                    scan.getCity() != null ? scan.getCity() : base.city,
+                    scan.getCountry() != null ? scan.getCountry() : base.country,
+                    scan.getScannedAt());
+            if (isLate) {
+                if ((lastLate != null && lastLate.sameAs(next)) || recorded.test(next)) {
+                    result.duplicates.add(scan);
+                    lastLate = next;
+                } else {
+                    result.late.add(new Step<>(scan, next));
+                    lastLate = next;
+                }
+            } else if (state.sameAs(next)) {
+                result.duplicates.add(scan);
+            } else {
+                result.applied.add(new Step<>(scan, next));
+                state = next;
+            }
+        }
+        return result;
+    }
+}
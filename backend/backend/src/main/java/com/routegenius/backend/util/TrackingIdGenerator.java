@@ -1,11 +1,225 @@
 package com.routegenius.backend.util;
 
-import java.util.UUID;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
 
-public class TrackingIdGenerator {
+/**
+ * Generates compact, roughly time-ordered tracking IDs such as "0A91GXWY40M01V".
+ *
+ * Each ID packs a 63-bit value (41 bits of milliseconds since 2024-01-01, 10 bits of node id and a
+ * 12-bit per-millisecond sequence) into 13 characters of Crockford's base32 alphabet, followed by one
+ * Luhn mod 32 check character. Because the timestamp comes first and the width is fixed, new IDs sort
+ * after older ones and inserts land at the right-hand end of the unique index.
+ *
+ * Generation is lock-free: the last (timestamp, sequence) pair lives in one AtomicLong that is advanced
+ * with compare-and-set. When more than 4096 IDs are requested in one millisecond (or the clock moves
+ * backwards) the sequence simply carries into the next millisecond, so IDs stay unique and monotonic.
+ * IDs are unique across nodes as long as every node runs with a distinct node id
+ * (system property or environment variable "ROUTEGENIUS_NODE_ID", 0-1023).
+ */
+public final class TrackingIdGenerator {
 
+    static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    public static final int ID_LENGTH = 14; // 13 payload characters + 1 check character
+
+    private static final long EPOCH_MILLIS = 1704067200000L; // 2024-01-01T00:00:00Z
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final int PAYLOAD_LENGTH = ID_LENGTH - 1;
+    // Maps an ASCII character to its base32 digit, or -1
+    private static final int[] DECODE = new int[128];
+
+    static {
+        Arrays.fill(DECODE, -1);
+        for (int i = 0; i < ALPHABET.length; i++) {
+            DECODE[ALPHABET[i]] = i;
+            DECODE[Character.toLowerCase(ALPHABET[i])] = i;
+        }
+        // Crockford decoding: commonly confused letters map onto the digits they look like
+        DECODE['O'] = DECODE['o'] = 0;
+        DECODE['I'] = DECODE['i'] = DECODE['L'] = DECODE['l'] = 1;
+    }
+
+    private static final TrackingIdGenerator DEFAULT = new TrackingIdGenerator(defaultNodeId());
+
+    private final long nodeBits;
+    // (milliseconds since EPOCH << SEQUENCE_BITS) | sequence of the last ID handed out
+    private final AtomicLong lastTimeAndSequence = new AtomicLong();
+
+    public TrackingIdGenerator(int nodeId) {
+        if (nodeId < 0 || nodeId >= (1 << NODE_BITS)) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + ((1 << NODE_BITS) - 1));
+        }
+        this.nodeBits = (long) nodeId << SEQUENCE_BITS;
+    }
+
+    /**
+     * Generates a tracking ID using this JVM's default generator.
+     */
     public static String generateTrackingId() {
-        // Generates a UUID and removes hyphens to make it more compact
-        return UUID.randomUUID().toString().replace("-", "").toUpperCase();
+        return DEFAULT.next();
+    }
+
+    /**
+     * Generates the next tracking ID of this generator.
+     */
+    public String next() {
+        long now = (System.currentTimeMillis() - EPOCH_MILLIS) << SEQUENCE_BITS;
+        long previous;
+        long next;
+        do {
+            previous = lastTimeAndSequence.get();
+            next = now > previous ? now : previous + 1;
+        } while (!lastTimeAndSequence.compareAndSet(previous, next));
+
+        long timestamp = next >>> SEQUENCE_BITS;
+        long sequence = next & ((1L << SEQUENCE_BITS) - 1);
+        long value = (timestamp << (NODE_BITS + SEQUENCE_BITS)) | nodeBits | sequence;
+        return encode(value);
+    }
+
+    /**
+     * Builds the ID a generator with the given node id hands out at the given time and sequence number.
+     * Meant for synthetic data that needs IDs matching back-dated creation times.
+     *
+     * @param epochMillis Creation time; must not be before 2024-01-01.
+     * @param nodeId Node id, 0-1023.
+     * @param sequence Per-millisecond sequence number, 0-4095.
+     */
+    public static String forTimestamp(long epochMillis, int nodeId, int sequence) {
+        if (epochMillis < EPOCH_MILLIS) {
+            throw new IllegalArgumentException("Tracking IDs cannot predate 2024-01-01");
+        }
+        if (nodeId < 0 || nodeId >= (1 << NODE_BITS) || sequence < 0 || sequence >= (1 << SEQUENCE_BITS)) {
+            throw new IllegalArgumentException("Node id or sequence out of range");
+        }
+        long value = ((epochMillis - EPOCH_MILLIS) << (NODE_BITS + SEQUENCE_BITS)) | ((long) nodeId << SEQUENCE_BITS) | sequence;
+        return encode(value);
+    }
+
+    /**
+     * Normalises a user-supplied tracking ID (trims, upper-cases, maps O/I/L onto 0/1) and checks its
+     * format. Legacy IDs (first 10 characters of an upper-case UUID) are accepted unchanged.
+     *
+     * @param trackingId The raw tracking ID.
+     * @return The normalised tracking ID, or null when it cannot be a valid tracking ID.
+     */
+    public static String normalize(String trackingId) {
+        if (trackingId == null) {
+            return null;
+        }
+        String candidate = trackingId.trim();
+        if (isLegacyId(candidate)) {
+            return candidate.toUpperCase(Locale.ROOT);
+        }
+        if (candidate.length() != ID_LENGTH) {
+            return null;
+        }
+        char[] normalized = new char[ID_LENGTH];
+        int[] digits = new int[ID_LENGTH];
+        for (int i = 0; i < ID_LENGTH; i++) {
+            char c = candidate.charAt(i);
+            int digit = c < 128 ? DECODE[c] : -1;
+            if (digit < 0) {
+                return null;
+            }
+            digits[i] = digit;
+            normalized[i] = ALPHABET[digit];
+        }
+        if (digits[0] > 7) {
+            return null; // The 63-bit payload leaves only 3 bits for the first character
+        }
+        return luhnSum(digits, ID_LENGTH, 1) % ALPHABET.length == 0 ? new String(normalized) : null;
+    }
+
+    /**
+     * Checks whether a string is a well-formed tracking ID (current format with a valid check character, or legacy format).
+     */
+    public static boolean isValid(String trackingId) {
+        return normalize(trackingId) != null;
+    }
+
+    /**
+     * Extracts the creation time embedded in a tracking ID.
+     *
+     * @param normalizedTrackingId A tracking ID as returned by {@link #normalize}.
+     * @return Epoch milliseconds at which the ID was generated, or -1 for legacy IDs.
+     */
+    public static long timestampMillis(String normalizedTrackingId) {
+        if (normalizedTrackingId.length() != ID_LENGTH) {
+            return -1;
+        }
+        long value = 0;
+        for (int i = 0; i < PAYLOAD_LENGTH; i++) {
+            value = (value << 5) | DECODE[normalizedTrackingId.charAt(i)];
+        }
+        return (value >>> (NODE_BITS + SEQUENCE_BITS)) + EPOCH_MILLIS;
+    }
+
+    static String encode(long value) {
+        // Digits are produced right to left, which is also the order the Luhn sum walks them
+        char[] chars = new char[ID_LENGTH];
+        int n = ALPHABET.length;
+        int factor = 2;
+        int sum = 0;
+        for (int i = PAYLOAD_LENGTH - 1; i >= 0; i--) {
+            int digit = (int) (value & 31);
+            chars[i] = ALPHABET[digit];
+            value >>>= 5;
+            int addend = factor * digit;
+            factor = factor == 2 ? 1 : 2;
+            sum += addend / n + addend % n;
+        }
+        int remainder = sum % n;
+        chars[PAYLOAD_LENGTH] = ALPHABET[(n - remainder) % n];
+        return new String(chars);
+    }
+
+    /**
+     * Luhn mod N sum over the digits, doubling every second digit starting with {@code firstFactor} at the right end.
+     * Summing over payload plus check character with firstFactor = 1 yields a multiple of N for valid IDs.
+     */
+    private static int luhnSum(int[] digits, int length, int firstFactor) {
+        int n = ALPHABET.length;
+        int factor = firstFactor;
+        int sum = 0;
+        for (int i = length - 1; i >= 0; i--) {
+            int addend = factor * digits[i];
+            factor = factor == 2 ? 1 : 2;
+            sum += addend / n + addend % n;
+        }
+        return sum;
+    }
+
+    private static boolean isLegacyId(String id) {
+        // Legacy IDs were UUID.randomUUID().toString().substring(0, 10).toUpperCase(): 8 hex digits, '-', 1 hex digit
+        if (id.length() != 10 || id.charAt(8) != '-') {
+            return false;
+        }
+        for (int i = 0; i < 10; i++) {
+            if (i != 8 && Character.digit(id.charAt(i), 16) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int defaultNodeId() {
+        String configured = System.getProperty("ROUTEGENIUS_NODE_ID", System.getenv("ROUTEGENIUS_NODE_ID"));
+        if (configured != null && !configured.isBlank()) {
+            return Integer.parseInt(configured.trim());
+        }
+        // Fallback for single-node setups: derive a node id from host name and process id
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "localhost";
+        }
+        String runtime = ManagementFactory.getRuntimeMXBean().getName();
+        return ((host + "/" + runtime).hashCode() & 0x7fffffff) % (1 << NODE_BITS);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,390 @@
+package com.routegenius.backend.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongConsumer;
+
+/**
+ * In-memory trigram (3-gram) inverted index over a small set of text fields per document.
+ * Documents are identified by a numeric id (e.g. a user id) that must fit into an int.
+ *
+ * Every field value is lower-cased and padded with two boundary characters at the start,
+ * so "jo" is indexed as [BB j], [B jo], [jo ...] and short search terms (1 or 2 characters)
+ * can still be answered as a "field starts with" lookup. Longer terms are answered as a
+ * substring match: the posting lists of all query trigrams are intersected and each
+ * candidate is verified against the stored field values, so there are no false positives.
+ *
+ * Posting lists are sorted int arrays (no boxing) and results are ranked with a bucket sort
+ * by score, which keeps the per-query cost linear in the size of the smallest posting list.
+ */
+public class TrigramIndex {
+
+    private static final char BOUNDARY = '\u0002';
+
+    // Score contributions per field: exact match > prefix match > substring match
+    private static final int EXACT_SCORE = 8;
+    private static final int PREFIX_SCORE = 4;
+    private static final int CONTAINS_SCORE = 1;
+
+    private final int fieldCount;
+    private final int maxScore;
+    private final Map<Long, IntPostingList> postings = new HashMap<>();
+    private final Map<Integer, String[]> documents = new HashMap<>();
+    private final IntPostingList allDocuments = new IntPostingList();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public TrigramIndex(int fieldCount) {
+        if (fieldCount <= 0) {
+            throw new IllegalArgumentException("Field count must be positive.");
+        }
+        this.fieldCount = fieldCount;
+        this.maxScore = fieldCount * (EXACT_SCORE + PREFIX_SCORE + CONTAINS_SCORE);
+    }
+
+    /**
+     * Adds a document or replaces the indexed fields of an existing one.
+     *
+     * @param id     The document id (must be between 0 and Integer.MAX_VALUE).
+     * @param fields The field values, in the same order for every document. Null values are allowed.
+     */
+    public void put(long id, String... fields) {
+        int doc = toDoc(id);
+        if (fields.length != fieldCount) {
+            throw new IllegalArgumentException("Expected " + fieldCount + " fields but got " + fields.length);
+        }
+        String[] normalized = new String[fieldCount];
+        for (int i = 0; i < fieldCount; i++) {
+            normalized[i] = normalize(fields[i]);
+        }
+
+        lock.writeLock().lock();
+        try {
+            String[] previous = documents.put(doc, normalized);
+            if (previous != null) {
+                removePostings(doc, previous);
+            } else {
+                allDocuments.add(doc);
+            }
+            for (String value : normalized) {
+                forEachTrigram(value, key -> postings.computeIfAbsent(key, k -> new IntPostingList()).add(doc));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a document from the index. Unknown ids are ignored.
+     *
+     * @param id The document id.
+     */
+    public void remove(long id) {
+        int doc = toDoc(id);
+        lock.writeLock().lock();
+        try {
+            String[] previous = documents.remove(doc);
+            if (previous != null) {
+                removePostings(doc, previous);
+                allDocuments.remove(doc);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes every document from the index.
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+            allDocuments.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return allDocuments.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Searches the index and returns one page of matching document ids, best matches first.
+     * A blank term matches every document, ordered by id.
+     *
+     * @param term The search term (case-insensitive).
+     * @param page Zero-based page number.
+     * @param size Page size.
+     * @return The total number of matches and the ids on the requested page.
+     */
+    public Result search(String term, int page, int size) {
+        if (page < 0 || size <= 0) {
+            throw new IllegalArgumentException("Page must be >= 0 and size must be > 0.");
+        }
+        String query = normalize(term).trim();
+        long offset = (long) page * size;
+
+        lock.readLock().lock();
+        try {
+            if (query.isEmpty()) {
+                return slice(allDocuments.docs, allDocuments.size(), offset, size);
+            }
+
+            int[] candidates = candidates(query);
+            if (candidates.length == 0) {
+                return new Result(0, new long[0]);
+            }
+
+            // Score every candidate and bucket it by score. Candidates are in ascending id order,
+            // so filling the buckets in order keeps ties sorted by id without a comparison sort.
+            byte[] scores = new byte[candidates.length];
+            int[] bucketCounts = new int[maxScore + 1];
+            int total = 0;
+            for (int i = 0; i < candidates.length; i++) {
+                int score = score(documents.get(candidates[i]), query);
+                scores[i] = (byte) score;
+                if (score > 0) {
+                    bucketCounts[score]++;
+                    total++;
+                }
+            }
+            if (offset >= total) {
+                return new Result(total, new long[0]);
+            }
+
+            int[] bucketStart = new int[maxScore + 1];
+            int running = 0;
+            for (int score = maxScore; score > 0; score--) {
+                bucketStart[score] = running;
+                running += bucketCounts[score];
+            }
+            int[] ranked = new int[total];
+            for (int i = 0; i < candidates.length; i++) {
+                int score = scores[i];
+                if (score > 0) {
+                    ranked[bucketStart[score]++] = candidates[i];
+                }
+            }
+            return slice(ranked, total, offset, size);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int[] candidates(String query) {
+        List<IntPostingList> lists = new ArrayList<>();
+        if (query.length() < 3) {
+            // Short terms can only be answered as a prefix lookup on the padded start trigram
+            String padded = query.length() == 1 ? "" + BOUNDARY + BOUNDARY + query : BOUNDARY + query;
+            IntPostingList list = postings.get(encode(padded.charAt(0), padded.charAt(1), padded.charAt(2)));
+            if (list == null) {
+                return new int[0];
+            }
+            lists.add(list);
+        } else {
+            for (int i = 0; i + 2 < query.length(); i++) {
+                IntPostingList list = postings.get(encode(query.charAt(i), query.charAt(i + 1), query.charAt(i + 2)));
+                if (list == null) {
+                    return new int[0]; // A trigram nobody has means no document can match
+                }
+                if (!lists.contains(list)) {
+                    lists.add(list);
+                }
+            }
+        }
+
+        // Intersect starting from the rarest trigram so the candidate set shrinks as fast as possible
+        lists.sort((a, b) -> Integer.compare(a.size(), b.size()));
+        IntPostingList smallest = lists.get(0);
+        int[] result = Arrays.copyOf(smallest.docs, smallest.size());
+        int resultSize = result.length;
+        for (int l = 1; l < lists.size() && resultSize > 0; l++) {
+            IntPostingList other = lists.get(l);
+            int kept = 0;
+            int from = 0;
+            for (int i = 0; i < resultSize; i++) {
+                int pos = other.search(result[i], from);
+                if (pos >= 0) {
+                    result[kept++] = result[i];
+                    from = pos + 1;
+                } else {
+                    from = -pos - 1;
+                }
+            }
+            resultSize = kept;
+        }
+        return resultSize == result.length ? result : Arrays.copyOf(result, resultSize);
+    }
+
+    private int score(String[] fields, String query) {
+        int score = 0;
+        for (String field : fields) {
+            if (field.isEmpty()) {
+                continue;
+            }
+            if (field.equals(query)) {
+                score += EXACT_SCORE + PREFIX_SCORE + CONTAINS_SCORE;
+            } else if (field.startsWith(query)) {
+                score += PREFIX_SCORE + CONTAINS_SCORE;
+            } else if (query.length() >= 3 && field.contains(query)) {
+                score += CONTAINS_SCORE;
+            }
+        }
+        return score;
+    }
+
+    private void removePostings(int doc, String[] fields) {
+        for (String value : fields) {
+            forEachTrigram(value, key -> {
+                IntPostingList list = postings.get(key);
+                if (list != null) {
+                    list.remove(doc);
+                    if (list.size() == 0) {
+                        postings.remove(key);
+                    }
+                }
+            });
+        }
+    }
+
+    private static Result slice(int[] docs, int total, long offset, int size) {
+        if (offset >= total) {
+            return new Result(total, new long[0]);
+        }
+        int from = (int) offset;
+        int to = (int) Math.min(total, offset + size);
+        long[] ids = new long[to - from];
+        for (int i = from; i < to; i++) {
+            ids[i - from] = docs[i];
+        }
+        return new Result(total, ids);
+    }
+
+    private static void forEachTrigram(String value, LongConsumer consumer) {
+        if (value.isEmpty()) {
+            return;
+        }
+        char a = BOUNDARY;
+        char b = BOUNDARY;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            consumer.accept(encode(a, b, c));
+            a = b;
+            b = c;
+        }
+    }
+
+    private static long encode(char a, char b, char c) {
+        return ((long) a << 32) | ((long) b << 16) | c;
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.toLowerCase(Locale.ROOT);
+    }
+
+    private static int toDoc(long id) {
+        if (id < 0 || id > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Document id out of range: " + id);
+        }
+        return (int) id;
+    }
+
+    /**
+     * One page of search results.
+     */
+    public static final class Result {
+        private final long total;
+        private final long[] ids;
+
+        public Result(long total, long[] ids) {
+            this.total = total;
+            this.ids = ids;
+        }
+
+        public long getTotal() { return total; }
+        public long[] getIds() { return ids; }
+    }
+
+    /**
+     * Sorted, growable list of int document ids.
+     */
+    static final class IntPostingList {
+        private int[] docs = new int[4];
+        private int size;
+
+        int size() {
+            return size;
+        }
+
+        void add(int doc) {
+            if (size > 0 && docs[size - 1] < doc) {
+                append(doc); // Fast path: ids mostly arrive in ascending order
+                return;
+            }
+            int pos = Arrays.binarySearch(docs, 0, size, doc);
+            if (pos >= 0) {
+                return;
+            }
+            int insertAt = -pos - 1;
+            ensureCapacity();
+            System.arraycopy(docs, insertAt, docs, insertAt + 1, size - insertAt);
+            docs[insertAt] = doc;
+            size++;
+        }
+
+        void remove(int doc) {
+            int pos = Arrays.binarySearch(docs, 0, size, doc);
+            if (pos < 0) {
+                return;
+            }
+            System.arraycopy(docs, pos + 1, docs, pos, size - pos - 1);
+            size--;
+        }
+
+        void clear() {
+            docs = new int[4];
+            size = 0;
+        }
+
+        /**
+         * Galloping search starting at {@code from}, with the same return convention as Arrays.binarySearch.
+         * Probing 1, 2, 4, ... slots ahead first keeps intersections of very unequal lists cheap.
+         */
+        int search(int doc, int from) {
+            if (from >= size) {
+                return -size - 1;
+            }
+            int step = 1;
+            int hi = from;
+            while (hi < size && docs[hi] < doc) {
+                from = hi + 1;
+                hi += step;
+                step <<= 1;
+            }
+            return Arrays.binarySearch(docs, from, Math.min(hi + 1, size), doc);
+        }
+
+        private void append(int doc) {
+            ensureCapacity();
+            docs[size++] = doc;
+        }
+
+        private void ensureCapacity() {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, docs.length + (docs.length >> 1) + 1);
+            }
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.routegenius.backend;
+
+import com.routegenius.backend.config.Bulkheads;
+import com.routegenius.backend.entity.OutboxEvent;
+import com.routegenius.backend.entity.Parcel;
+import com.routegenius.backend.entity.ParcelStatus;
+import com.routegenius.backend.repository.NotificationRepository;
+import com.routegenius.backend.repository.ParcelRepository;
+import com.routegenius.backend.repository.UserRepository;
+import com.routegenius.backend.service.MailService;
+import com.routegenius.backend.service.NotificationSubscriptionService;
+import com.routegenius.backend.service.OutboxService;
+import com.routegenius.backend.service.impl.NotificationServiceImpl;
+import com.routegenius.backend.util.Bulkhead;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.web.client.RestTemplate;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * The fan-out of NotificationServiceImpl.generateNotificationForParcelStatusChange against mocks: Gemini is
+ * asked once per audience, every user gets the wording for their role, and all notifications are stored with
+ * one INSERT and queued for mail with one outbox write, in a transaction that opens only after Gemini has answered.
+ */
+class NotificationFanOutTests {
+
+    private static final long SENDER = 1;
+    private static final long RECIPIENT = 2;
+
+    private final ParcelRepository parcelRepository = mock(ParcelRepository.class);
+    private final NotificationSubscriptionService subscriptionService = mock(NotificationSubscriptionService.class);
+    private final RestTemplate restTemplate = mock(RestTemplate.class);
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final OutboxService outboxService = mock(OutboxService.class);
+    private final List<String> prompts = new ArrayList<>();
+    private final List<String> storedMessages = new ArrayList<>();
+    private final AtomicInteger openTransactions = new AtomicInteger();
+    private final List<Integer> transactionsOpenDuringGemini = new ArrayList<>();
+    private NotificationServiceImpl service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        when(parcelRepository.findById(5L)).thenReturn(Optional.of(Parcel.builder().id(5L).trackingId("RG0000000000005")
+                .senderId(SENDER).recipientId(RECIPIENT).status(ParcelStatus.DELIVERED).build()));
+        // Gemini answers with the audience it was asked to write for
+        when(restTemplate.postForEntity(anyString(), any(), eq(String.class))).thenAnswer(invocation -> {
+            String prompt = invocation.getArgument(1).toString();
+            prompts.add(prompt);
+            transactionsOpenDuringGemini.add(openTransactions.get());
+            String text = prompt.contains("recipient of") ? "to recipient" : prompt.contains("sender of") ? "to sender" : "to watcher";
+            return ResponseEntity.ok("{\"candidates\":[{\"content\":{\"parts\":[{\"text\":\"" + text + "\"}]}}]}");
+        });
+        // Runs the statement creator against a mock connection to see the messages, and hands out generated keys
+        when(jdbcTemplate.update(any(PreparedStatementCreator.class), any(KeyHolder.class))).thenAnswer(invocation -> {
+            Connection connection = mock(Connection.class);
+            PreparedStatement statement = mock(PreparedStatement.class);
+            when(connection.prepareStatement(anyString(), anyInt())).thenReturn(statement);
+            doAnswer(set -> storedMessages.add(set.getArgument(1))).when(statement).setString(intThat(i -> i % 5 == 3), anyString());
+            invocation.<PreparedStatementCreator>getArgument(0).createPreparedStatement(connection);
+            KeyHolder keys = invocation.getArgument(1);
+            for (int i = 0; i < storedMessages.size(); i++) {
+                keys.getKeyList().add(Map.of("GENERATED_KEY", 100L + i));
+            }
+            return storedMessages.size();
+        });
+        Bulkheads bulkheads = mock(Bulkheads.class);
+        when(bulkheads.gemini()).thenReturn(new Bulkhead("gemini", 4, 4, Duration.ofSeconds(1)));
+
+        // Counts open transactions, so the Gemini stand-in can check it is not called inside one
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> {
+            openTransactions.incrementAndGet();
+            return mock(TransactionStatus.class);
+        });
+        doAnswer(invocation -> openTransactions.decrementAndGet()).when(transactionManager).commit(any());
+        doAnswer(invocation -> openTransactions.decrementAndGet()).when(transactionManager).rollback(any());
+
+        service = new NotificationServiceImpl(mock(NotificationRepository.class), parcelRepository, mock(UserRepository.class),
+                restTemplate, mock(MailService.class), outboxService, subscriptionService, jdbcTemplate,
+                new SimpleMeterRegistry(), bulkheads, transactionManager);
+        ReflectionTestUtils.setField(service, "geminiApiKey", "test-key");
+        ReflectionTestUtils.invokeMethod(service, "registerMeters");
+    }
+
+    @Test
+    void rendersOneMessagePerAudience() {
+        when(subscriptionService.resolveRecipients(any(), eq(ParcelStatus.DELIVERED))).thenReturn(new long[]{RECIPIENT, SENDER, 31, 32, 33});
+
+        service.generateNotificationForParcelStatusChange(5L, ParcelStatus.DELIVERED);
+
+        assertEquals(3, prompts.size(), "One Gemini call per audience, not per user");
+        assertEquals(List.of(0, 0, 0), transactionsOpenDuringGemini, "No connection is held while Gemini writes");
+        assertEquals(0, openTransactions.get());
+        assertEquals(List.of("to recipient", "to sender", "to watcher", "to watcher", "to watcher"), storedMessages);
+        verify(jdbcTemplate, times(1)).update(any(PreparedStatementCreator.class), any(KeyHolder.class));
+        verify(outboxService).record(argThat((List<OutboxEvent> emails) -> emails.size() == 5
+                && emails.stream().allMatch(email -> email.getNotificationId() >= 100)));
+    }
+
+    @Test
+    void aRecipientWhoIsAlsoTheSenderGetsTheRecipientsWording() {
+        when(parcelRepository.findById(5L)).thenReturn(Optional.of(Parcel.builder().id(5L).trackingId("RG0000000000005")
+                .senderId(RECIPIENT).recipientId(RECIPIENT).status(ParcelStatus.DELIVERED).build()));
+        when(subscriptionService.resolveRecipients(any(), eq(ParcelStatus.DELIVERED))).thenReturn(new long[]{RECIPIENT});
+
+        service.generateNotificationForParcelStatusChange(5L, ParcelStatus.DELIVERED);
+
+        assertEquals(1, prompts.size());
+        assertEquals(List.of("to recipient"), storedMessages);
+    }
+
+    @Test
+    void noOneToNotifyMeansNoGeminiCall() {
+        when(subscriptionService.resolveRecipients(any(), eq(ParcelStatus.DELIVERED))).thenReturn(new long[0]);
+
+        service.generateNotificationForParcelStatusChange(5L, ParcelStatus.DELIVERED);
+
+        assertTrue(prompts.isEmpty());
+        verifyNoInteractions(jdbcTemplate, outboxService);
+    }
+}
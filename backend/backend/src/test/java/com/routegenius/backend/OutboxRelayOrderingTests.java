@@ -0,0 +1,103 @@
+package com.routegenius.backend;
+
+import com.routegenius.backend.entity.OutboxEvent;
+import com.routegenius.backend.entity.OutboxEventType;
+import com.routegenius.backend.entity.ParcelStatus;
+import com.routegenius.backend.repository.OutboxEventRepository;
+import com.routegenius.backend.service.OutboxHandler;
+import com.routegenius.backend.service.impl.OutboxRelay;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+/**
+ * Dispatch of a claimed batch by OutboxRelay, against a mocked repository: events of one parcel run one at a
+ * time and in claim order, while different parcels still run in parallel.
+ */
+class OutboxRelayOrderingTests {
+
+    private static final int PARCELS = 6;
+    private static final int EVENTS_PER_PARCEL = 10;
+
+    private final OutboxEventRepository repository = mock(OutboxEventRepository.class);
+    private final Map<Long, List<Long>> handledByParcel = new ConcurrentHashMap<>();
+    private final Map<Long, Boolean> running = new ConcurrentHashMap<>();
+    private final List<String> overlaps = Collections.synchronizedList(new ArrayList<>());
+    private final List<String> threads = Collections.synchronizedList(new ArrayList<>());
+    private OutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        List<OutboxEvent> batch = new ArrayList<>();
+        for (long id = 1; id <= PARCELS * EVENTS_PER_PARCEL; id++) {
+            batch.add(OutboxEvent.builder().id(id).eventType(OutboxEventType.PARCEL_STATUS_CHANGED)
+                    .parcelId(100 + id % PARCELS).status(ParcelStatus.IN_TRANSIT).build());
+        }
+        when(repository.lockDueEvents(any(), anyInt())).thenReturn(batch).thenReturn(List.of());
+
+        OutboxHandler handler = new OutboxHandler() {
+            @Override
+            public boolean handles(OutboxEventType type) {
+                return true;
+            }
+
+            @Override
+            public void handle(OutboxEvent event) {
+                if (running.put(event.getParcelId(), true) != null) {
+                    overlaps.add("parcel " + event.getParcelId() + " at event " + event.getId());
+                }
+                threads.add(Thread.currentThread().getName());
+                try {
+                    Thread.sleep(ThreadLocalRandom.current().nextInt(3));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                handledByParcel.computeIfAbsent(event.getParcelId(), id -> Collections.synchronizedList(new ArrayList<>())).add(event.getId());
+                running.remove(event.getParcelId());
+            }
+        };
+
+        relay = new OutboxRelay(repository, List.of(handler), mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(relay, "enabled", true);
+        ReflectionTestUtils.setField(relay, "batchSize", PARCELS * EVENTS_PER_PARCEL);
+        ReflectionTestUtils.setField(relay, "concurrency", 4);
+        ReflectionTestUtils.setField(relay, "leaseSeconds", 300L);
+        ReflectionTestUtils.setField(relay, "maxAttempts", 10);
+        ReflectionTestUtils.invokeMethod(relay, "start");
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.invokeMethod(relay, "stop");
+    }
+
+    @Test
+    void eventsOfOneParcelRunOneAtATimeInClaimOrder() {
+        relay.relay();
+
+        assertEquals(List.of(), overlaps);
+        assertEquals(PARCELS, handledByParcel.size());
+        handledByParcel.forEach((parcelId, ids) -> {
+            assertEquals(EVENTS_PER_PARCEL, ids.size());
+            List<Long> sorted = new ArrayList<>(ids);
+            Collections.sort(sorted);
+            assertEquals(sorted, ids, "Events of parcel " + parcelId + " out of order");
+        });
+        assertTrue(threads.stream().distinct().count() > 1, "Different parcels still run in parallel");
+        verify(repository).markProcessed(argThat(ids -> ids.size() == PARCELS * EVENTS_PER_PARCEL), any());
+    }
+}
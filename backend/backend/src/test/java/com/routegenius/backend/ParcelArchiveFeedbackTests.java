@@ -0,0 +1,112 @@
+package com.routegenius.backend;
+
+import com.routegenius.backend.dto.FeedbackResponse;
+import com.routegenius.backend.entity.Feedback;
+import com.routegenius.backend.entity.Parcel;
+import com.routegenius.backend.entity.ParcelStatus;
+import com.routegenius.backend.entity.User;
+import com.routegenius.backend.repository.FeedbackDailyRollupRepository;
+import com.routegenius.backend.repository.FeedbackRepository;
+import com.routegenius.backend.repository.NotificationRepository;
+import com.routegenius.backend.repository.ParcelRepository;
+import com.routegenius.backend.repository.TrackingEventRepository;
+import com.routegenius.backend.repository.UserRepository;
+import com.routegenius.backend.service.ParcelPurgeService;
+import com.routegenius.backend.service.ParcelStatsService;
+import com.routegenius.backend.service.impl.FeedbackServiceImpl;
+import com.routegenius.backend.service.impl.ParcelArchiveServiceImpl;
+import com.routegenius.backend.service.impl.ParcelPurgeServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+/**
+ * Archiving a parcel keeps its feedback readable and its notifications in the database. Repositories are
+ * mocked; the segment is written to a temporary directory.
+ */
+class ParcelArchiveFeedbackTests {
+
+    @TempDir
+    Path dir;
+
+    private final ParcelRepository parcelRepository = mock(ParcelRepository.class);
+    private final FeedbackRepository feedbackRepository = mock(FeedbackRepository.class);
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final ParcelPurgeService parcelPurgeService = mock(ParcelPurgeService.class);
+    private final Parcel parcel = Parcel.builder().id(7L).trackingId("RG0000000000007").senderId(1L).recipientId(2L)
+            .status(ParcelStatus.DELIVERED).createdAt(LocalDateTime.of(2025, 1, 2, 8, 0))
+            .lastUpdatedAt(LocalDateTime.of(2025, 1, 5, 8, 0)).build();
+    private final User recipient = User.builder().id(2L).email("ana@example.com").firstName("Ana").build();
+    private ParcelArchiveServiceImpl archive;
+
+    @BeforeEach
+    void setUp() {
+        TrackingEventRepository trackingEventRepository = mock(TrackingEventRepository.class);
+        when(parcelRepository.findPurgeCandidateIds(any(), any(), anyLong(), any())).thenReturn(List.of(7L));
+        when(parcelRepository.findAllById(List.of(7L))).thenReturn(List.of(parcel));
+        when(trackingEventRepository.findByParcelIds(List.of(7L))).thenReturn(List.of());
+        when(feedbackRepository.findByParcelIds(List.of(7L))).thenReturn(List.of(Feedback.builder().id(30L).parcel(parcel)
+                .user(recipient).rating(4).comment("Left with the neighbour").timestamp(LocalDateTime.of(2025, 1, 6, 9, 30)).build()));
+        when(parcelPurgeService.deleteArchivedParcels(any(), any())).thenReturn(1L);
+
+        archive = new ParcelArchiveServiceImpl(parcelRepository, trackingEventRepository, feedbackRepository, parcelPurgeService);
+        ReflectionTestUtils.setField(archive, "archiveDir", dir.toString());
+        ReflectionTestUtils.setField(archive, "archiveEnabled", true);
+        ReflectionTestUtils.setField(archive, "archiveAfterDays", 30);
+        ReflectionTestUtils.setField(archive, "retentionDays", 365);
+        ReflectionTestUtils.setField(archive, "segmentMaxParcels", 100);
+        ReflectionTestUtils.setField(archive, "recordsPerBlock", 8);
+        ReflectionTestUtils.setField(archive, "loadBatchSize", 10);
+        archive.openSegments();
+    }
+
+    @Test
+    void feedbackOfAnArchivedParcelCanStillBeRead() {
+        assertEquals(1, archive.archiveClosedParcels().getLastRunParcelsArchived());
+
+        // The parcel and its feedback are gone from the database
+        when(feedbackRepository.findResponseByParcelId(7L)).thenReturn(Optional.empty());
+        when(parcelRepository.existsById(7L)).thenReturn(false);
+        when(userRepository.findById(2L)).thenReturn(Optional.of(recipient));
+        FeedbackServiceImpl feedbackService = new FeedbackServiceImpl(feedbackRepository, parcelRepository, userRepository,
+                mock(FeedbackDailyRollupRepository.class), archive);
+
+        FeedbackResponse feedback = feedbackService.getFeedbackByParcelId(7L).orElseThrow();
+        assertEquals(30L, feedback.getId());
+        assertEquals("RG0000000000007", feedback.getParcelTrackingId());
+        assertEquals(2L, feedback.getUserId());
+        assertEquals("ana@example.com", feedback.getUserEmail());
+        assertEquals(4, feedback.getRating());
+        assertEquals("Left with the neighbour", feedback.getComment());
+        assertEquals(LocalDateTime.of(2025, 1, 6, 9, 30), feedback.getTimestamp());
+    }
+
+    @Test
+    void deletingArchivedParcelsKeepsTheirNotificationsAndRatings() {
+        NotificationRepository notificationRepository = mock(NotificationRepository.class);
+        FeedbackDailyRollupRepository rollupRepository = mock(FeedbackDailyRollupRepository.class);
+        ParcelPurgeServiceImpl purgeService = new ParcelPurgeServiceImpl(parcelRepository, mock(TrackingEventRepository.class),
+                notificationRepository, feedbackRepository, rollupRepository, mock(ParcelStatsService.class),
+                mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(purgeService, "chunkSize", 500);
+        when(parcelRepository.lockPurgeCandidates(any(), any(), any())).thenReturn(List.of(parcel));
+        when(parcelRepository.deleteByIds(List.of(7L))).thenReturn(1);
+
+        assertEquals(1, purgeService.deleteArchivedParcels(List.of(7L), LocalDateTime.of(2025, 2, 1, 0, 0)));
+
+        verify(feedbackRepository).deleteByParcelIds(List.of(7L));
+        verifyNoInteractions(notificationRepository, rollupRepository);
+    }
+}
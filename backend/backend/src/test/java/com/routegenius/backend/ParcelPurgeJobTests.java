@@ -0,0 +1,107 @@
+package com.routegenius.backend;
+
+import com.routegenius.backend.dto.ParcelPurgeResponse;
+import com.routegenius.backend.repository.FeedbackDailyRollupRepository;
+import com.routegenius.backend.repository.FeedbackRepository;
+import com.routegenius.backend.repository.NotificationRepository;
+import com.routegenius.backend.repository.ParcelRepository;
+import com.routegenius.backend.repository.TrackingEventRepository;
+import com.routegenius.backend.service.ParcelStatsService;
+import com.routegenius.backend.service.impl.ParcelPurgeServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * The background purge of ParcelPurgeServiceImpl, against mocked repositories: the request that starts it
+ * returns at once and the status reports the outcome.
+ */
+class ParcelPurgeJobTests {
+
+    private static final LocalDateTime CUTOFF = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    private final ParcelRepository parcelRepository = mock(ParcelRepository.class);
+    private ParcelPurgeServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        service = new ParcelPurgeServiceImpl(parcelRepository, mock(TrackingEventRepository.class), mock(NotificationRepository.class),
+                mock(FeedbackRepository.class), mock(FeedbackDailyRollupRepository.class), mock(ParcelStatsService.class),
+                mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(service, "chunkSize", 500);
+        ReflectionTestUtils.invokeMethod(service, "start");
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.invokeMethod(service, "stop");
+    }
+
+    @Test
+    void aPurgeReportsItsOutcomeWhenItFinishes() throws InterruptedException {
+        when(parcelRepository.findPurgeCandidateIds(any(), any(), anyLong(), any())).thenReturn(List.of());
+
+        ParcelPurgeResponse started = service.startPurge(CUTOFF, 1000);
+        assertEquals("RUNNING", started.getState());
+        assertEquals(1000, started.getLimit());
+
+        ParcelPurgeResponse finished = awaitEnd();
+        assertEquals("FINISHED", finished.getState());
+        assertTrue(finished.isCompleted());
+        assertEquals(0, finished.getParcelsDeleted());
+        assertEquals(started.getStartedAt(), finished.getStartedAt());
+    }
+
+    @Test
+    void startingWhileAPurgeRunsReturnsTheRunningOne() throws InterruptedException {
+        CountDownLatch reading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(parcelRepository.findPurgeCandidateIds(any(), any(), anyLong(), any())).thenAnswer(invocation -> {
+            reading.countDown();
+            release.await();
+            return List.of();
+        });
+
+        ParcelPurgeResponse first = service.startPurge(CUTOFF, 1000);
+        assertTrue(reading.await(5, TimeUnit.SECONDS));
+        ParcelPurgeResponse second = service.startPurge(CUTOFF.plusDays(1), 50);
+        assertSame(first, second);
+
+        release.countDown();
+        assertEquals("FINISHED", awaitEnd().getState());
+        verify(parcelRepository, times(1)).findPurgeCandidateIds(any(), any(), anyLong(), any());
+    }
+
+    @Test
+    void aFailedPurgeReportsTheError() throws InterruptedException {
+        when(parcelRepository.findPurgeCandidateIds(any(), any(), anyLong(), any())).thenThrow(new IllegalStateException("Connection refused"));
+
+        service.startPurge(CUTOFF, 1000);
+
+        ParcelPurgeResponse failed = awaitEnd();
+        assertEquals("FAILED", failed.getState());
+        assertEquals("Connection refused", failed.getError());
+        assertFalse(failed.isCompleted());
+    }
+
+    private ParcelPurgeResponse awaitEnd() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        ParcelPurgeResponse status = service.getPurgeStatus();
+        while ("RUNNING".equals(status.getState()) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            status = service.getPurgeStatus();
+        }
+        return status;
+    }
+}
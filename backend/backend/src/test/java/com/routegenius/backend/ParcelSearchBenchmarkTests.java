@@ -0,0 +1,146 @@
+package com.routegenius.backend;
+
+import com.routegenius.backend.dto.ParcelSearchRequest;
+import com.routegenius.backend.dto.ParcelSearchResponse;
+import com.routegenius.backend.entity.ParcelStatus;
+import com.routegenius.backend.service.ParcelService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Supplier;
+
+/**
+ * Benchmark for the admin parcel search on a multi-million-row 'parcels' table.
+ * Disabled by default; run it against a scratch MySQL database, e.g.
+ *
+ *   mvn test -Dtest=ParcelSearchBenchmarkTests -Dbenchmark=true -Dbenchmark.parcels=3000000 \
+ *       -Dspring.datasource.url=jdbc:mysql://localhost:3306/routegenius_bench
+ *
+ * The dataset is seeded once (rows with a 'BM' tracking ID prefix) and reused by later runs.
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ParcelSearchBenchmarkTests {
+
+    private static final String[] CITIES = {"Hyderabad", "Bengaluru", "Mumbai", "Delhi", "Chennai", "Pune", "Kolkata",
+            "Ahmedabad", "Jaipur", "Lucknow", "Warangal", "Vijayawada", "Nagpur", "Indore", "Bhopal", "Surat"};
+    private static final int ITERATIONS = 30;
+    private static final int PAGES_PER_ITERATION = 20;
+
+    @Autowired
+    private ParcelService parcelService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    void seedDataset() {
+        int target = Integer.getInteger("benchmark.parcels", 2_000_000);
+        Integer existing = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM parcels WHERE tracking_id LIKE 'BM%'", Integer.class);
+        int start = existing == null ? 0 : existing;
+        System.out.println("BENCHMARK: " + start + " seeded parcels found, target " + target);
+
+        Random random = new Random(42);
+        LocalDateTime now = LocalDateTime.now();
+        String sql = "INSERT INTO parcels (tracking_id, sender_id, recipient_id, sender_address, recipient_address, sender_phone, " +
+                "recipient_phone, description, weight, dimensions_length, dimensions_width, dimensions_height, status, " +
+                "estimated_delivery_date, actual_delivery_date, current_location, current_city, current_country, created_at, last_updated_at) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        List<Object[]> batch = new ArrayList<>(5000);
+        for (int i = start; i < target; i++) {
+            // Skewed city popularity: low indexes are picked far more often
+            String city = CITIES[(int) (CITIES.length * Math.pow(random.nextDouble(), 2.5))];
+            ParcelStatus status = pickStatus(random);
+            LocalDateTime createdAt = now.minusMinutes(random.nextInt(365 * 24 * 60));
+            LocalDateTime eta = createdAt.plusDays(1 + random.nextInt(7));
+            batch.add(new Object[]{
+                    String.format("BM%08d", i), 1 + random.nextInt(100_000), 1 + random.nextInt(100_000),
+                    "Sender street " + i, "Recipient street " + i, "9000000000", "9000000001", "Benchmark parcel",
+                    0.5 + random.nextDouble() * 20, 10.0, 10.0, 10.0, status.name(), Timestamp.valueOf(eta),
+                    status == ParcelStatus.DELIVERED ? Timestamp.valueOf(eta) : null,
+                    "Hub " + city, city, "India", Timestamp.valueOf(createdAt), Timestamp.valueOf(createdAt.plusHours(random.nextInt(72)))
+            });
+            if (batch.size() == 5000) {
+                jdbcTemplate.batchUpdate(sql, batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, batch);
+        }
+        System.out.println("BENCHMARK: dataset ready with " + target + " parcels");
+    }
+
+    @Test
+    void benchmarkSearchScenarios() {
+        LocalDateTime now = LocalDateTime.now();
+        Map<String, Supplier<ParcelSearchRequest>> scenarios = new LinkedHashMap<>();
+        scenarios.put("status set", () -> ParcelSearchRequest.builder()
+                .statuses(EnumSet.of(ParcelStatus.PENDING, ParcelStatus.DISPATCHED)).build());
+        scenarios.put("city + status", () -> ParcelSearchRequest.builder()
+                .currentCity("Warangal").statuses(EnumSet.of(ParcelStatus.IN_TRANSIT)).build());
+        scenarios.put("created last 7 days", () -> ParcelSearchRequest.builder()
+                .createdFrom(now.minusDays(7)).build());
+        scenarios.put("overdue", () -> ParcelSearchRequest.builder().overdue(true).build());
+        scenarios.put("tracking prefix", () -> ParcelSearchRequest.builder().trackingIdPrefix("BM0012").build());
+        scenarios.put("sender id", () -> ParcelSearchRequest.builder().senderId(4242L).build());
+
+        for (Map.Entry<String, Supplier<ParcelSearchRequest>> scenario : scenarios.entrySet()) {
+            long[] firstPage = new long[ITERATIONS];
+            long[] deepPage = new long[ITERATIONS];
+            for (int i = 0; i < ITERATIONS; i++) {
+                ParcelSearchRequest request = scenario.getValue().get();
+                request.setSize(50);
+                for (int page = 0; page < PAGES_PER_ITERATION; page++) {
+                    long start = System.nanoTime();
+                    ParcelSearchResponse response = parcelService.searchParcels(request);
+                    long elapsed = System.nanoTime() - start;
+                    if (page == 0) {
+                        firstPage[i] = elapsed;
+                    }
+                    deepPage[i] = elapsed;
+                    if (response.getNextCursor() == null) {
+                        break;
+                    }
+                    request.setCursor(response.getNextCursor());
+                }
+            }
+            System.out.printf("BENCHMARK: %-22s first page p50=%6.2f ms p95=%6.2f ms | last page p50=%6.2f ms p95=%6.2f ms%n",
+                    scenario.getKey(), percentile(firstPage, 50), percentile(firstPage, 95),
+                    percentile(deepPage, 50), percentile(deepPage, 95));
+        }
+    }
+
+    private static ParcelStatus pickStatus(Random random) {
+        int roll = random.nextInt(100);
+        if (roll < 60) return ParcelStatus.DELIVERED;
+        if (roll < 72) return ParcelStatus.IN_TRANSIT;
+        if (roll < 82) return ParcelStatus.DISPATCHED;
+        if (roll < 90) return ParcelStatus.PENDING;
+        if (roll < 94) return ParcelStatus.EXCEPTION;
+        if (roll < 97) return ParcelStatus.RETURNED;
+        return ParcelStatus.CANCELLED;
+    }
+
+    private static double percentile(long[] nanos, int percentile) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        int index = Math.min(sorted.length - 1, (int) Math.ceil(percentile / 100.0 * sorted.length) - 1);
+        return sorted[Math.max(0, index)] / 1_000_000.0;
+    }
+}
@@ -0,0 +1,47 @@
+package com.routegenius.backend;
+
+import com.routegenius.backend.entity.Parcel;
+import com.routegenius.backend.entity.ParcelStatus;
+import com.routegenius.backend.service.ParcelStatsService.Contribution;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Which parcels count towards the delivery time average, and with how many seconds; has to agree with
+ * ParcelRepository.sumDeliveryTimes, which the reconcile uses.
+ */
+class ParcelStatsContributionTests {
+
+    private static final LocalDateTime CREATED = LocalDateTime.of(2026, 3, 1, 12, 0);
+
+    @Test
+    void aDeliveredParcelCountsWithItsDeliveryTime() {
+        Contribution contribution = Contribution.of(parcel(ParcelStatus.DELIVERED, CREATED.plusHours(2)));
+        assertTrue(contribution.isDelivered());
+        assertEquals(7200, contribution.getDeliverySeconds());
+    }
+
+    @Test
+    void aDeliveryDateBeforeCreationCountsAsZero() {
+        Contribution contribution = Contribution.of(parcel(ParcelStatus.DELIVERED, CREATED.minusDays(1)));
+        assertTrue(contribution.isDelivered());
+        assertEquals(0, contribution.getDeliverySeconds());
+    }
+
+    @Test
+    void parcelsNotDeliveredOrWithoutADeliveryDateDoNotCount() {
+        assertFalse(Contribution.of(parcel(ParcelStatus.IN_TRANSIT, CREATED.plusHours(2))).isDelivered());
+        assertFalse(Contribution.of(parcel(ParcelStatus.DELIVERED, null)).isDelivered());
+    }
+
+    private static Parcel parcel(ParcelStatus status, LocalDateTime deliveredAt) {
+        Parcel parcel = new Parcel();
+        parcel.setStatus(status);
+        parcel.setCreatedAt(CREATED);
+        parcel.setActualDeliveryDate(deliveredAt);
+        return parcel;
+    }
+}
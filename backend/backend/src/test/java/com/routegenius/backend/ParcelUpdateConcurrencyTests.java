@@ -0,0 +1,188 @@
+package com.routegenius.backend;
+
+import com.routegenius.backend.dto.ParcelRequest;
+import com.routegenius.backend.dto.ParcelResponse;
+import com.routegenius.backend.entity.Role;
+import com.routegenius.backend.entity.User;
+import com.routegenius.backend.exception.UpdateConflictException;
+import com.routegenius.backend.repository.UserRepository;
+import com.routegenius.backend.service.ParcelService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Concurrent updates of one parcel: each writer owns one field and sets it again and again, the way a scanner,
+ * the admin UI and a bulk job touch different fields of the same parcel. Afterwards every field must hold its
+ * writer's last successful value and the history must have one event per successful move. A lost update shows
+ * up as a field holding an older value. The same load runs with optimistic locking plus retry and with
+ * pessimistic row locks. The optimistic run must keep at least half the throughput of the pessimistic one.
+ *
+ * Disabled by default; run it against a scratch MySQL database, e.g.
+ *
+ *   mvn test -Dtest=ParcelUpdateConcurrencyTests -Dbenchmark=true \
+ *       -Dspring.datasource.url=jdbc:mysql://localhost:3306/routegenius_bench
+ */
+@SpringBootTest(properties = {"outbox.relay.enabled=false", "parcel.update.max-attempts=20"})
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ParcelUpdateConcurrencyTests {
+
+    private static final int UPDATES_PER_WRITER = Integer.getInteger("benchmark.updates", 200);
+    private static final String[] CITIES = {"Hyderabad", "Vijayawada"};
+
+    @Autowired
+    private ParcelService parcelService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<Long> userIds = new ArrayList<>();
+    private final List<Long> parcelIds = new ArrayList<>();
+
+    // One field per writer: how to set it, how to read it back, and the value of update i
+    private static final class Field {
+        private final String name;
+        private final BiConsumer<ParcelRequest, Object> setter;
+        private final Function<ParcelResponse, Object> getter;
+        private final Function<Integer, Object> value;
+
+        Field(String name, BiConsumer<ParcelRequest, Object> setter, Function<ParcelResponse, Object> getter, Function<Integer, Object> value) {
+            this.name = name;
+            this.setter = setter;
+            this.getter = getter;
+            this.value = value;
+        }
+    }
+
+    private static final List<Field> FIELDS = List.of(
+            new Field("senderAddress", (r, v) -> r.setSenderAddress((String) v), ParcelResponse::getSenderAddress, i -> "Sender street " + i),
+            new Field("senderPhone", (r, v) -> r.setSenderPhone((String) v), ParcelResponse::getSenderPhone, i -> "90000" + (10000 + i)),
+            new Field("recipientPhone", (r, v) -> r.setRecipientPhone((String) v), ParcelResponse::getRecipientPhone, i -> "91000" + (10000 + i)),
+            new Field("description", (r, v) -> r.setDescription((String) v), ParcelResponse::getDescription, i -> "Revision " + i),
+            new Field("weight", (r, v) -> r.setWeight((Double) v), ParcelResponse::getWeight, i -> 1.0 + i),
+            new Field("dimensionsLength", (r, v) -> r.setDimensionsLength((Double) v), ParcelResponse::getDimensionsLength, i -> 10.0 + i),
+            new Field("dimensionsWidth", (r, v) -> r.setDimensionsWidth((Double) v), ParcelResponse::getDimensionsWidth, i -> 20.0 + i),
+            // The scanner: every update that changes the city must add exactly one tracking event
+            new Field("currentCity", (r, v) -> {
+                r.setCurrentCity((String) v);
+                r.setCurrentLocation(v + " hub");
+            }, ParcelResponse::getCurrentCity, i -> CITIES[(i + 1) % 2])
+    );
+
+    @BeforeAll
+    void createUsers() {
+        for (String name : List.of("sender", "recipient")) {
+            User user = userRepository.save(User.builder().firstName("Concurrency").lastName(name)
+                    .email("concurrency-" + name + "-" + System.nanoTime() + "@test.routegenius.local")
+                    .password("unused").role(Role.USER).build());
+            userIds.add(user.getId());
+        }
+    }
+
+    @AfterAll
+    void cleanUp() {
+        parcelIds.forEach(parcelService::deleteParcel);
+        userRepository.deleteAllById(userIds);
+    }
+
+    @Test
+    void noLostUpdatesAndNoThroughputCollapse() throws Exception {
+        double pessimistic = run(true);
+        double optimistic = run(false);
+        System.out.printf("BENCHMARK: %d writers x %d updates of one parcel: optimistic %.0f updates/s, pessimistic %.0f updates/s%n",
+                FIELDS.size(), UPDATES_PER_WRITER, optimistic, pessimistic);
+        assertTrue(optimistic >= 0.5 * pessimistic,
+                "Optimistic locking with retry fell to " + Math.round(optimistic) + " updates/s against " + Math.round(pessimistic) + " with row locks");
+    }
+
+    // Returns the successful updates per second
+    private double run(boolean pessimisticLocking) throws Exception {
+        ReflectionTestUtils.setField(AopTestUtils.getUltimateTargetObject(parcelService), "pessimisticLocking", pessimisticLocking);
+        ParcelResponse created = parcelService.createParcel(ParcelRequest.builder().senderId(userIds.get(0)).recipientId(userIds.get(1))
+                .senderAddress("Sender street").recipientAddress("Recipient street").description("Concurrency test parcel")
+                .weight(1.0).currentLocation(CITIES[0] + " hub").currentCity(CITIES[0]).currentCountry("India")
+                .recipientLatitude(17.4).recipientLongitude(78.5).build());
+        Long id = created.getId();
+        parcelIds.add(id);
+        long initialVersion = parcelService.getParcelById(id).getVersion();
+
+        ExecutorService executor = Executors.newFixedThreadPool(FIELDS.size());
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<int[]>> writers = new ArrayList<>();
+        for (Field field : FIELDS) {
+            // Returns the number of successful updates, the index of the last one, and how many of them changed the
+            // field (after a rejected update the scanner can send the city the parcel is already in)
+            writers.add(executor.submit(() -> {
+                start.await();
+                int succeeded = 0;
+                int last = -1;
+                int changes = 0;
+                Object current = field.getter.apply(created);
+                for (int i = 0; i < UPDATES_PER_WRITER; i++) {
+                    Object value = field.value.apply(i);
+                    ParcelRequest request = new ParcelRequest();
+                    field.setter.accept(request, value);
+                    try {
+                        parcelService.updateParcel(id, request);
+                        succeeded++;
+                        last = i;
+                        changes += Objects.equals(value, current) ? 0 : 1;
+                        current = value;
+                    } catch (UpdateConflictException e) {
+                        // Reported as 409; the field keeps its previous value
+                    }
+                }
+                return new int[]{succeeded, last, changes};
+            }));
+        }
+        long began = System.nanoTime();
+        start.countDown();
+        int total = 0;
+        int changes = 0;
+        int[][] results = new int[FIELDS.size()][];
+        for (int w = 0; w < FIELDS.size(); w++) {
+            results[w] = writers.get(w).get();
+            total += results[w][0];
+            changes += results[w][2];
+        }
+        double seconds = (System.nanoTime() - began) / 1e9;
+        executor.shutdown();
+
+        ParcelResponse after = parcelService.getParcelById(id);
+        String mode = pessimisticLocking ? "pessimistic" : "optimistic";
+        for (int w = 0; w < FIELDS.size(); w++) {
+            Field field = FIELDS.get(w);
+            assertTrue(results[w][1] >= 0, mode + ": no update of " + field.name + " succeeded");
+            assertEquals(field.value.apply(results[w][1]), field.getter.apply(after), mode + ": lost update of " + field.name);
+        }
+        int moves = results[FIELDS.size() - 1][2];
+        Integer events = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM tracking_events WHERE parcel_id = ?", Integer.class, id);
+        assertEquals(1 + moves, events, mode + ": the history must have the creation event plus one event per move");
+        assertEquals(changes, after.getVersion() - initialVersion, mode + ": every update that changed the parcel increments the version once");
+        System.out.printf("BENCHMARK: %s: %d of %d updates succeeded in %.2f s%n", mode, total, FIELDS.size() * UPDATES_PER_WRITER, seconds);
+        return total / seconds;
+    }
+}
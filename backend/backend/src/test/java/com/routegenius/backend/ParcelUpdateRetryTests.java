@@ -0,0 +1,105 @@
+package com.routegenius.backend;
+
+import com.routegenius.backend.dto.ParcelRequest;
+import com.routegenius.backend.dto.ParcelResponse;
+import com.routegenius.backend.entity.Parcel;
+import com.routegenius.backend.entity.ParcelStatus;
+import com.routegenius.backend.exception.UpdateConflictException;
+import com.routegenius.backend.repository.ParcelRepository;
+import com.routegenius.backend.repository.TrackingEventRepository;
+import com.routegenius.backend.repository.UserRepository;
+import com.routegenius.backend.service.EtaService;
+import com.routegenius.backend.service.GeocodingService;
+import com.routegenius.backend.service.OutboxService;
+import com.routegenius.backend.service.ParcelArchiveService;
+import com.routegenius.backend.service.ParcelPurgeService;
+import com.routegenius.backend.service.ParcelStatsService;
+import com.routegenius.backend.service.TrackingIdFilterService;
+import com.routegenius.backend.service.impl.ParcelServiceImpl;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * The retry loop of ParcelServiceImpl.updateParcel, against mocked repositories. Each findById returns a fresh
+ * copy of the stored parcel, as a new transaction would read it. ParcelUpdateConcurrencyTests runs the same
+ * against MySQL with real concurrent writers.
+ */
+class ParcelUpdateRetryTests {
+
+    private final ParcelRepository parcelRepository = mock(ParcelRepository.class);
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ParcelServiceImpl service;
+    // The committed row
+    private String storedDescription = "Books";
+    private String storedPhone = "9000000000";
+    private long storedVersion = 3;
+
+    @BeforeEach
+    void setUp() {
+        when(parcelRepository.findById(7L)).thenAnswer(invocation -> Optional.of(Parcel.builder().id(7L)
+                .trackingId("RG0000000000007").senderId(1L).recipientId(2L).status(ParcelStatus.IN_TRANSIT)
+                .createdAt(LocalDateTime.of(2025, 6, 1, 8, 0))
+                .description(storedDescription).senderPhone(storedPhone).version(storedVersion).build()));
+        service = new ParcelServiceImpl(parcelRepository, mock(UserRepository.class), mock(TrackingEventRepository.class),
+                mock(ParcelStatsService.class), mock(TrackingIdFilterService.class), mock(ParcelPurgeService.class),
+                mock(ParcelArchiveService.class), mock(GeocodingService.class), mock(EtaService.class),
+                mock(OutboxService.class), mock(PlatformTransactionManager.class), meterRegistry);
+        ReflectionTestUtils.setField(service, "updateMaxAttempts", 3);
+        ReflectionTestUtils.setField(service, "updateBackoffMs", 1L);
+        ReflectionTestUtils.setField(service, "updateMaxBackoffMs", 5L);
+    }
+
+    @Test
+    void reappliesTheChangeToTheOtherWritersVersion() {
+        AtomicInteger saves = new AtomicInteger();
+        when(parcelRepository.saveAndFlush(any(Parcel.class))).thenAnswer(invocation -> {
+            Parcel parcel = invocation.getArgument(0);
+            if (saves.incrementAndGet() == 1) {
+                // Another writer committed a new phone number after the first attempt read the parcel
+                storedPhone = "9111111111";
+                storedVersion = 4;
+                throw new ObjectOptimisticLockingFailureException(Parcel.class, parcel.getId());
+            }
+            assertEquals(4L, parcel.getVersion(), "The retry must start from the committed version");
+            storedDescription = parcel.getDescription();
+            storedPhone = parcel.getSenderPhone();
+            parcel.setVersion(++storedVersion); // As Hibernate does on flush
+            return parcel;
+        });
+
+        ParcelResponse response = service.updateParcel(7L, ParcelRequest.builder().description("Books, fragile").build());
+
+        assertEquals(2, saves.get());
+        assertEquals("Books, fragile", response.getDescription());
+        assertEquals("9111111111", response.getSenderPhone(), "The other writer's change must survive");
+        assertEquals(5L, response.getVersion());
+        assertEquals(1.0, meterRegistry.counter("routegenius.parcels.update.conflicts", "outcome", "retried").count());
+    }
+
+    @Test
+    void givesUpWithAConflictAfterTheLastAttempt() {
+        when(parcelRepository.saveAndFlush(any(Parcel.class))).thenAnswer(invocation -> {
+            throw new ObjectOptimisticLockingFailureException(Parcel.class, 7L);
+        });
+
+        assertThrows(UpdateConflictException.class,
+                () -> service.updateParcel(7L, ParcelRequest.builder().description("Books, fragile").build()));
+
+        verify(parcelRepository, times(3)).saveAndFlush(any(Parcel.class));
+        assertEquals(2.0, meterRegistry.counter("routegenius.parcels.update.conflicts", "outcome", "retried").count());
+        assertEquals(1.0, meterRegistry.counter("routegenius.parcels.update.conflicts", "outcome", "exhausted").count());
+    }
+}
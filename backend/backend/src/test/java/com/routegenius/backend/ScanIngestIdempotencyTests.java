@@ -0,0 +1,109 @@
+package com.routegenius.backend;
+
+import com.routegenius.backend.dto.ParcelRequest;
+import com.routegenius.backend.dto.ParcelResponse;
+import com.routegenius.backend.dto.ScanIngestResponse;
+import com.routegenius.backend.dto.ScanRequest;
+import com.routegenius.backend.entity.ParcelStatus;
+import com.routegenius.backend.entity.Role;
+import com.routegenius.backend.entity.User;
+import com.routegenius.backend.repository.UserRepository;
+import com.routegenius.backend.service.ParcelService;
+import com.routegenius.backend.service.ScanIngestService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A scanner that gives up waiting for a commit resends its batch, even though the first flush may still commit.
+ * The resend must not add tracking events or move the parcel again.
+ *
+ * Disabled by default; run it against a scratch MySQL database, e.g.
+ *
+ *   mvn test -Dtest=ScanIngestIdempotencyTests -Dbenchmark=true \
+ *       -Dspring.datasource.url=jdbc:mysql://localhost:3306/routegenius_bench
+ */
+@SpringBootTest(properties = "outbox.relay.enabled=false")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ScanIngestIdempotencyTests {
+
+    @Autowired
+    private ScanIngestService scanIngestService;
+
+    @Autowired
+    private ParcelService parcelService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<Long> userIds = new ArrayList<>();
+    private Long parcelId;
+
+    @BeforeAll
+    void createParcel() {
+        for (String name : List.of("sender", "recipient")) {
+            User user = userRepository.save(User.builder().firstName("Idempotency").lastName(name)
+                    .email("idempotency-" + name + "-" + System.nanoTime() + "@test.routegenius.local")
+                    .password("unused").role(Role.USER).build());
+            userIds.add(user.getId());
+        }
+        parcelId = parcelService.createParcel(ParcelRequest.builder().senderId(userIds.get(0)).recipientId(userIds.get(1))
+                .senderAddress("Sender street").recipientAddress("Recipient street").description("Idempotency test parcel")
+                .weight(1.0).currentLocation("Hyderabad hub").currentCity("Hyderabad").currentCountry("India")
+                .recipientLatitude(17.4).recipientLongitude(78.5).build()).getId();
+    }
+
+    @AfterAll
+    void cleanUp() {
+        parcelService.deleteParcel(parcelId);
+        userRepository.deleteAllById(userIds);
+    }
+
+    @Test
+    void resendingACommittedBatchAddsNoEvents() {
+        String trackingId = parcelService.getParcelById(parcelId).getTrackingId();
+        // Sub-microsecond digits as a scanner clock may send them; the column keeps microseconds
+        LocalDateTime start = LocalDateTime.now().plusSeconds(1).withNano(123_456_789);
+        List<ScanRequest> batch = List.of(
+                scan(trackingId, ParcelStatus.IN_TRANSIT, "Hyderabad", start),
+                scan(trackingId, ParcelStatus.IN_TRANSIT, "Vijayawada", start.plusSeconds(10)),
+                scan(trackingId, ParcelStatus.IN_TRANSIT, "Guntur", start.plusSeconds(20)));
+
+        ScanIngestResponse first = scanIngestService.ingest(batch);
+        assertEquals(3, first.getApplied());
+        int events = countEvents();
+        ParcelResponse afterFirst = parcelService.getParcelById(parcelId);
+
+        ScanIngestResponse resent = scanIngestService.ingest(batch);
+
+        assertEquals(0, resent.getApplied());
+        assertEquals(0, resent.getLate());
+        assertEquals(3, resent.getDuplicates());
+        assertEquals(events, countEvents(), "A resent batch must not add tracking events");
+        assertEquals(afterFirst.getVersion(), parcelService.getParcelById(parcelId).getVersion());
+    }
+
+    private static ScanRequest scan(String trackingId, ParcelStatus status, String city, LocalDateTime scannedAt) {
+        return ScanRequest.builder().trackingId(trackingId).status(status).location(city + " hub").city(city)
+                .country("India").scannedAt(scannedAt).build();
+    }
+
+    private int countEvents() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM tracking_events WHERE parcel_id = ?", Integer.class, parcelId);
+    }
+}
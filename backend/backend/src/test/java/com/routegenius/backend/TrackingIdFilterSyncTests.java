@@ -0,0 +1,91 @@
+package com.routegenius.backend;
+
+import com.routegenius.backend.dto.ParcelArchiveStatsResponse;
+import com.routegenius.backend.repository.ParcelRepository;
+import com.routegenius.backend.service.ParcelArchiveService;
+import com.routegenius.backend.service.impl.TrackingIdFilterServiceImpl;
+import com.routegenius.backend.util.TrackingIdGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * The catch-up of TrackingIdFilterServiceImpl, against a mocked parcel repository: a parcel that commits
+ * after the sync that should have seen it, with an id below ones already loaded, still gets into the filter.
+ */
+class TrackingIdFilterSyncTests {
+
+    private static final long MARGIN_MS = 30_000;
+
+    private final ParcelRepository parcelRepository = mock(ParcelRepository.class);
+    private final ParcelArchiveService parcelArchiveService = mock(ParcelArchiveService.class);
+    private final List<LocalDateTime> catchUpsSince = new ArrayList<>();
+    private final List<Object[]> committedLate = new ArrayList<>();
+    private TrackingIdFilterServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        when(parcelArchiveService.getStats()).thenReturn(ParcelArchiveStatsResponse.builder().build());
+        when(parcelRepository.count()).thenReturn(0L);
+        when(parcelRepository.findTrackingIdsAfter(anyLong(), any())).thenReturn(List.of());
+        when(parcelRepository.findTrackingIdsCreatedSince(any(), eq(0L), any())).thenAnswer(invocation -> {
+            catchUpsSince.add(invocation.getArgument(0));
+            return List.copyOf(committedLate);
+        });
+        service = new TrackingIdFilterServiceImpl(parcelRepository, parcelArchiveService);
+        ReflectionTestUtils.setField(service, "falsePositiveRate", 0.01);
+        ReflectionTestUtils.setField(service, "headroom", 2.0);
+        ReflectionTestUtils.setField(service, "minCapacity", 1000L);
+        ReflectionTestUtils.setField(service, "syncMarginMs", MARGIN_MS);
+        service.rebuild();
+    }
+
+    @Test
+    void aParcelCommittedAfterASyncIsLoadedByTheNextOne() {
+        // Created well before the build, but committed only now and with a low id
+        String trackingId = TrackingIdGenerator.forTimestamp(System.currentTimeMillis() - MARGIN_MS / 2, 3, 1);
+        service.catchUp();
+        committedLate.add(new Object[]{5L, trackingId});
+        service.catchUp();
+
+        assertFalse(service.isDefinitelyAbsent(trackingId));
+        assertEquals(2, catchUpsSince.size());
+
+        // Later catch-ups re-read it, and the creating node adds it too; it still counts once
+        service.catchUp();
+        service.add(trackingId);
+        assertEquals(1, service.getStats().getInsertions());
+    }
+
+    @Test
+    void eachCatchUpRereadsFromTheMarginBeforeThePreviousSync() {
+        LocalDateTime before = LocalDateTime.now();
+        service.catchUp();
+        service.catchUp();
+
+        // The first re-reads from before the build, the second from before the first catch-up
+        assertTrue(catchUpsSince.get(0).isBefore(before.minusNanos(MARGIN_MS * 1_000_000 - 1)));
+        assertFalse(catchUpsSince.get(1).isBefore(catchUpsSince.get(0)));
+        assertFalse(catchUpsSince.get(1).isAfter(LocalDateTime.now().minusNanos(MARGIN_MS * 1_000_000)));
+    }
+
+    @Test
+    void aMissIsTrustedOnlyForIdsOlderThanTheMargin() {
+        service.catchUp();
+        String old = TrackingIdGenerator.forTimestamp(System.currentTimeMillis() - 2 * MARGIN_MS, 3, 2);
+        String recent = TrackingIdGenerator.forTimestamp(System.currentTimeMillis() - MARGIN_MS / 2, 3, 3);
+
+        assertTrue(service.isDefinitelyAbsent(old));
+        assertFalse(service.isDefinitelyAbsent(recent));
+    }
+}
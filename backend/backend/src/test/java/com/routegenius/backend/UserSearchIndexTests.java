@@ -0,0 +1,70 @@
+package com.routegenius.backend;
+
+import com.routegenius.backend.entity.User;
+import com.routegenius.backend.repository.UserRepository;
+import com.routegenius.backend.service.impl.UserSearchServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * UserSearchServiceImpl against a mocked user repository: searches before the first build go to the database,
+ * and live updates made while a rebuild runs win over the rows its batches read.
+ */
+class UserSearchIndexTests {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final UserSearchServiceImpl service = new UserSearchServiceImpl(userRepository);
+
+    @Test
+    void searchesBeforeTheFirstBuildFallBackToTheRepository() {
+        User alice = user(1L, "Alice", "Smith");
+        when(userRepository.findByFirstNameContainingIgnoreCaseOrLastNameContainingIgnoreCaseOrEmailContainingIgnoreCase(
+                eq("ali"), eq("ali"), eq("ali"), any(Pageable.class))).thenReturn(new PageImpl<>(List.of(alice)));
+
+        Page<User> result = service.searchUsers(" ali ", 0, 10);
+
+        assertEquals(List.of(alice), result.getContent());
+        verify(userRepository, never()).findAllById(any());
+    }
+
+    @Test
+    void anUpdateCommittedDuringARebuildIsNotOverwrittenByAStaleBatch() {
+        User stale = user(1L, "Alice", "Smith");
+        User renamed = user(1L, "Alice", "Jones");
+        User removed = user(2L, "Bob", "Smith");
+        // The batch is read before both updates commit, and put into the new index after them
+        when(userRepository.findByIdGreaterThanOrderByIdAsc(anyLong(), any())).thenAnswer(invocation -> {
+            service.indexUser(renamed);
+            service.removeUser(2L);
+            return List.of(stale, removed);
+        });
+        when(userRepository.findAllById(any())).thenAnswer(invocation -> {
+            List<User> users = new ArrayList<>();
+            for (Long id : invocation.<Iterable<Long>>getArgument(0)) {
+                users.add(id == 1L ? renamed : removed);
+            }
+            return users;
+        });
+
+        service.rebuildIndex();
+
+        assertEquals(List.of(renamed), service.searchUsers("jones", 0, 10).getContent());
+        assertEquals(0, service.searchUsers("smith", 0, 10).getTotalElements());
+    }
+
+    private static User user(Long id, String firstName, String lastName) {
+        return User.builder().id(id).firstName(firstName).lastName(lastName)
+                .email(firstName.toLowerCase() + "@example.com").build();
+    }
+}
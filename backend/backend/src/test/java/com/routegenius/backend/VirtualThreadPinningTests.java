@@ -0,0 +1,116 @@
+package com.routegenius.backend;
+
+import com.routegenius.backend.entity.TransitTimeSketch;
+import com.routegenius.backend.entity.User;
+import com.routegenius.backend.repository.TransitTimeSketchRepository;
+import com.routegenius.backend.repository.UserRepository;
+import com.routegenius.backend.service.impl.HubNetworkServiceImpl;
+import com.routegenius.backend.service.impl.UserSearchServiceImpl;
+import com.routegenius.backend.util.Bulkhead;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs code paths that block while holding a lock on virtual threads and fails if JFR reports a
+ * jdk.VirtualThreadPinned event for them. Repositories are mocks that sleep, standing in for a slow query.
+ */
+class VirtualThreadPinningTests {
+
+    private static final long BLOCK_MS = 30;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void detectsBlockingInsideSynchronized() throws Exception {
+        Object monitor = new Object();
+        List<RecordedEvent> pinned = pinnedEvents(() -> {
+            synchronized (monitor) {
+                sleep();
+            }
+        });
+        assertFalse(pinned.isEmpty(), "The detector must see a sleep inside synchronized");
+    }
+
+    @Test
+    void hubNetworkRebuildDoesNotPin() throws Exception {
+        TransitTimeSketchRepository repository = mock(TransitTimeSketchRepository.class);
+        when(repository.findAll()).thenAnswer(invocation -> {
+            sleep();
+            return List.<TransitTimeSketch>of();
+        });
+        HubNetworkServiceImpl service = new HubNetworkServiceImpl(repository);
+
+        assertEquals(List.of(), pinnedEvents(service::rebuild));
+    }
+
+    @Test
+    void userIndexRebuildDoesNotPin() throws Exception {
+        UserRepository repository = mock(UserRepository.class);
+        when(repository.findByIdGreaterThanOrderByIdAsc(anyLong(), any())).thenAnswer(invocation -> {
+            sleep();
+            return List.<User>of();
+        });
+        UserSearchServiceImpl service = new UserSearchServiceImpl(repository);
+
+        assertEquals(List.of(), pinnedEvents(service::rebuildIndex));
+    }
+
+    @Test
+    void waitingForABulkheadDoesNotPin() throws Exception {
+        Bulkhead bulkhead = new Bulkhead("test", 1, 10, Duration.ofSeconds(5));
+        CountDownLatch holding = new CountDownLatch(1);
+        Thread holder = Thread.ofVirtual().start(() -> {
+            bulkhead.acquire();
+            holding.countDown();
+            sleep();
+            bulkhead.release();
+        });
+        holding.await();
+
+        assertEquals(List.of(), pinnedEvents(() -> {
+            bulkhead.acquire();
+            bulkhead.release();
+        }));
+        holder.join();
+    }
+
+    // Runs the task on a virtual thread and returns the pinned events JFR recorded for that thread
+    private List<RecordedEvent> pinnedEvents(Runnable task) throws Exception {
+        Path file = tempDir.resolve("pinning.jfr");
+        String threadName = "pinning-test-" + System.nanoTime();
+        try (Recording recording = new Recording()) {
+            recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ofMillis(BLOCK_MS / 2)).withStackTrace();
+            recording.start();
+            Thread thread = Thread.ofVirtual().name(threadName).start(task);
+            thread.join();
+            recording.stop();
+            recording.dump(file);
+        }
+        return RecordingFile.readAllEvents(file).stream()
+                .filter(event -> event.getThread() != null && threadName.equals(event.getThread().getJavaName()))
+                .toList();
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(BLOCK_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
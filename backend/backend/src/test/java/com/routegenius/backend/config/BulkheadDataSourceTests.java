@@ -0,0 +1,68 @@
+package com.routegenius.backend.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.MapPropertySource;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The data source post-processor of BulkheadConfig in a minimal context: which pools it wraps, and that the
+ * wrapped pools are closed both with the context and through the wrapper.
+ */
+class BulkheadDataSourceTests {
+
+    @Test
+    void withVirtualThreadsThePoolIsWrappedAndStillClosedOnShutdown() {
+        HikariDataSource pool;
+        try (AnnotationConfigApplicationContext context = context(true)) {
+            assertInstanceOf(BulkheadConfig.BulkheadDataSource.class, context.getBean("dataSource", DataSource.class));
+            pool = PoolConfig.pool;
+            assertFalse(pool.isClosed());
+        }
+        assertTrue(pool.isClosed());
+    }
+
+    @Test
+    void closingTheWrapperClosesThePool() throws Exception {
+        try (AnnotationConfigApplicationContext context = context(true)) {
+            ((AutoCloseable) context.getBean("dataSource", DataSource.class)).close();
+            assertTrue(PoolConfig.pool.isClosed());
+        }
+    }
+
+    @Test
+    void onPlatformThreadsThePoolIsLeftAlone() {
+        try (AnnotationConfigApplicationContext context = context(false)) {
+            assertInstanceOf(HikariDataSource.class, context.getBean("dataSource", DataSource.class));
+        }
+        assertTrue(PoolConfig.pool.isClosed());
+    }
+
+    private static AnnotationConfigApplicationContext context(boolean virtualThreads) {
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("test",
+                Map.of("spring.threads.virtual.enabled", String.valueOf(virtualThreads))));
+        context.register(BulkheadConfig.class, Bulkheads.class, PoolConfig.class);
+        context.refresh();
+        return context;
+    }
+
+    @Configuration
+    static class PoolConfig {
+        static HikariDataSource pool;
+
+        // Never started: nothing connects, but close() still marks the pool closed
+        @Bean
+        HikariDataSource dataSource() {
+            pool = new HikariDataSource();
+            return pool;
+        }
+    }
+}
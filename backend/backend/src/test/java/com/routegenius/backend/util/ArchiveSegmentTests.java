@@ -0,0 +1,76 @@
+package com.routegenius.backend.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArchiveSegmentTests {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void recordsCanBeFoundByIdAndByKey() throws Exception {
+        Path file = dir.resolve("parcels-1.seg");
+        int count = 10_000;
+        try (ArchiveSegment.Writer writer = ArchiveSegment.create(file, 64)) {
+            for (int i = 1; i <= count; i++) {
+                writer.append(i * 2L, key(i), payload(i));
+            }
+            writer.finish();
+        }
+
+        try (ArchiveSegment segment = ArchiveSegment.open(file)) {
+            assertEquals(count, segment.getRecordCount());
+            assertEquals(2L, segment.getMinId());
+            assertEquals(count * 2L, segment.getMaxId());
+            for (int i = 1; i <= count; i += 97) {
+                assertArrayEquals(payload(i), segment.findById(i * 2L));
+                assertArrayEquals(payload(i), segment.findByKey(key(i)));
+            }
+            assertNull(segment.findById(3L));
+            assertNull(segment.findByKey("NOT-A-KEY"));
+            assertNull(segment.findByKey("MUCH-TOO-LONG-FOR-A-KEY"));
+
+            List<String> keys = new ArrayList<>();
+            segment.forEachKey(keys::add);
+            assertEquals(count, keys.size());
+            assertTrue(keys.contains(key(1)));
+        }
+    }
+
+    @Test
+    void unfinishedSegmentLeavesNoFileBehind() throws Exception {
+        Path file = dir.resolve("parcels-2.seg");
+        try (ArchiveSegment.Writer writer = ArchiveSegment.create(file, 8)) {
+            writer.append(1L, key(1), payload(1));
+        }
+        try (var files = Files.list(dir)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void idsMustBeAppendedInAscendingOrder() throws Exception {
+        try (ArchiveSegment.Writer writer = ArchiveSegment.create(dir.resolve("parcels-3.seg"), 8)) {
+            writer.append(5L, key(5), payload(5));
+            assertThrows(IllegalArgumentException.class, () -> writer.append(4L, key(4), payload(4)));
+        }
+    }
+
+    private static String key(int i) {
+        // Scrambled so that key order differs from id order
+        return String.format("T%09d", (i * 7919L) % 1_000_003L);
+    }
+
+    private static byte[] payload(int i) {
+        return ("parcel " + i + " | 221B Baker Street, London | DELIVERED").getBytes(StandardCharsets.UTF_8);
+    }
+}
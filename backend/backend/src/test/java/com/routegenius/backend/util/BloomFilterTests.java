@@ -0,0 +1,45 @@
+package com.routegenius.backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BloomFilterTests {
+
+    @Test
+    void addedValuesAreAlwaysFound() {
+        BloomFilter filter = BloomFilter.create(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("RG" + i);
+        }
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain("RG" + i));
+        }
+
+        int falsePositives = 0;
+        for (int i = 10_000; i < 20_000; i++) {
+            if (filter.mightContain("RG" + i)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 300, "false positives: " + falsePositives); // About 100 expected at 1%
+    }
+
+    @Test
+    void puttingTheSameValueAgainChangesNothing() {
+        BloomFilter filter = BloomFilter.create(1_000, 0.01);
+        assertTrue(filter.put("RG0000000000007"));
+        filter.put("RG0000000000008");
+        long insertions = filter.getInsertions();
+        double falsePositiveRate = filter.getExpectedFalsePositiveRate();
+
+        for (int i = 0; i < 100; i++) {
+            assertFalse(filter.put("RG0000000000007"));
+            filter.put("RG0000000000008");
+        }
+
+        assertEquals(2, insertions);
+        assertEquals(insertions, filter.getInsertions());
+        assertEquals(falsePositiveRate, filter.getExpectedFalsePositiveRate());
+    }
+}
@@ -0,0 +1,61 @@
+package com.routegenius.backend.util;
+
+import com.routegenius.backend.exception.BulkheadFullException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BulkheadTests {
+
+    @Test
+    void limitsConcurrentCallsAndTimesOutWaiters() {
+        Bulkhead bulkhead = new Bulkhead("test", 2, 10, Duration.ofMillis(50));
+        bulkhead.acquire();
+        bulkhead.acquire();
+        assertEquals(2, bulkhead.getInUse());
+
+        long start = System.nanoTime();
+        assertThrows(BulkheadFullException.class, bulkhead::acquire);
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+        assertEquals(1, bulkhead.getRejected());
+        assertEquals(0, bulkhead.getWaiting());
+
+        bulkhead.release();
+        bulkhead.acquire();
+        assertEquals(2, bulkhead.getInUse());
+    }
+
+    @Test
+    void waiterGetsTheReleasedSlot() throws Exception {
+        Bulkhead bulkhead = new Bulkhead("test", 1, 1, Duration.ofSeconds(10));
+        bulkhead.acquire();
+        CountDownLatch acquired = new CountDownLatch(1);
+        Thread waiter = Thread.ofVirtual().start(() -> {
+            bulkhead.acquire();
+            acquired.countDown();
+        });
+        while (bulkhead.getWaiting() == 0) {
+            Thread.onSpinWait();
+        }
+        // The single waiting place is taken: the next caller is turned away without waiting
+        long start = System.nanoTime();
+        assertThrows(BulkheadFullException.class, bulkhead::acquire);
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+
+        bulkhead.release();
+        assertTrue(acquired.await(5, TimeUnit.SECONDS));
+        waiter.join();
+        assertEquals(1, bulkhead.getInUse());
+        assertEquals(1, bulkhead.getRejected());
+    }
+
+    @Test
+    void rejectsInvalidLimits() {
+        assertThrows(IllegalArgumentException.class, () -> new Bulkhead("test", 0, 1, Duration.ZERO));
+        assertThrows(IllegalArgumentException.class, () -> new Bulkhead("test", 1, -1, Duration.ZERO));
+    }
+}
@@ -0,0 +1,70 @@
+package com.routegenius.backend.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GazetteerTests {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void addressesResolveToTheMostPreciseEntry() throws Exception {
+        Gazetteer gazetteer = compile(String.join("\n",
+                "# kind\tname\tcity\tlatitude\tlongitude",
+                "city\tLondon\t\t51.507400\t-0.127800",
+                "city\tSt Albans\t\t51.752700\t-0.339400",
+                "city\tZürich\t\t47.376900\t8.541700",
+                "street\tBaker St\tLondon\t51.523700\t-0.158500",
+                "street\tHigh Street\tSt Albans\t51.750000\t-0.340000",
+                "postcode\tSW1A 1AA\t\t51.501000\t-0.141600",
+                "city\tLondon\t\t0\t0"));
+
+        assertEquals(6, gazetteer.getEntryCount()); // The second London line is a duplicate key
+
+        Gazetteer.Match postcode = gazetteer.geocode("Buckingham Palace, London SW1A 1AA");
+        assertEquals(Gazetteer.Precision.POSTCODE, postcode.getPrecision());
+        assertEquals(51.501, postcode.getLatitude(), 1e-9);
+
+        Gazetteer.Match street = gazetteer.geocode("221B Baker Street, London");
+        assertEquals(Gazetteer.Precision.STREET, street.getPrecision());
+        assertEquals(-0.1585, street.getLongitude(), 1e-9);
+        assertEquals(Gazetteer.Precision.STREET, gazetteer.geocode("12 High St., St. Albans").getPrecision());
+
+        Gazetteer.Match city = gazetteer.geocode("Bahnhofstrasse 1, ZURICH");
+        assertEquals(Gazetteer.Precision.CITY, city.getPrecision());
+        assertEquals(47.3769, city.getLatitude(), 1e-9);
+        assertEquals(51.5074, gazetteer.geocode("1 Unknown Road, London").getLatitude(), 1e-9);
+
+        assertNull(gazetteer.geocode("Somewhere else entirely"));
+        assertNull(gazetteer.geocode("  "));
+    }
+
+    @Test
+    void normalizationIgnoresCaseAccentsPunctuationAndAbbreviations() {
+        assertEquals("street johns wood road zurich", Gazetteer.normalize("St. John's Wood Rd, ZÜRICH"));
+        assertEquals("", Gazetteer.normalize(null));
+    }
+
+    @Test
+    void malformedLinesAreRejected() throws Exception {
+        Path source = dir.resolve("bad.tsv");
+        Files.writeString(source, "city\tLondon\t\tnorth\twest\n");
+        assertThrows(IOException.class, () -> Gazetteer.compile(source, dir.resolve("bad.tsv.idx")));
+        assertFalse(Files.exists(dir.resolve("bad.tsv.idx.tmp")));
+    }
+
+    private Gazetteer compile(String content) throws Exception {
+        Path source = dir.resolve("gazetteer.tsv");
+        Path index = dir.resolve("gazetteer.tsv.idx");
+        Files.writeString(source, content);
+        Gazetteer.compile(source, index);
+        return Gazetteer.open(index);
+    }
+}
@@ -0,0 +1,172 @@
+package com.routegenius.backend.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoadPlannerTests {
+
+    private static final double FILL_FACTOR = 0.85;
+
+    @Test
+    void loadsRespectPayloadVolumeAndDimensions() {
+        Fleet fleet = fleet(60);
+        Parcels parcels = randomParcels(5000, 1L);
+        int[] assignment = plan(parcels, fleet);
+
+        assertAllWithinLimits(parcels, fleet, assignment);
+        assertTrue(Arrays.stream(assignment).allMatch(v -> v >= 0), "A fleet this size can carry every parcel");
+    }
+
+    @Test
+    void longParcelsOnlyGoIntoVehiclesTheyFitInUpright() {
+        // A 200 x 30 x 30 parcel fits a 120 x 100 x 220 cargo space only when stood on end
+        Parcels parcels = new Parcels(new double[]{10}, new double[]{200}, new double[]{30}, new double[]{30});
+        Fleet tall = new Fleet(new double[]{500}, new double[]{120}, new double[]{100}, new double[]{220});
+        Fleet low = new Fleet(new double[]{500}, new double[]{120}, new double[]{100}, new double[]{150});
+
+        assertEquals(0, plan(parcels, tall)[0]);
+        assertEquals(-1, plan(parcels, low)[0]);
+        assertTrue(LoadPlanner.fitsInAnyOrientation(200, 30, 30, 120, 100, 220));
+        assertFalse(LoadPlanner.fitsInAnyOrientation(200, 30, 30, 120, 100, 150));
+    }
+
+    @Test
+    void lightlyLoadedVehiclesAreEmptied() {
+        // Ten 100 kg parcels and ten 1000 kg vans: a single van is enough
+        double[] weights = new double[10];
+        double[] sides = new double[10];
+        Arrays.fill(weights, 100);
+        Arrays.fill(sides, 20);
+        int[] assignment = plan(new Parcels(weights, sides, sides, sides), fleet(10));
+
+        assertEquals(1, Arrays.stream(assignment).distinct().count());
+    }
+
+    @Test
+    void parcelsThatFitNowhereAreReported() {
+        Fleet fleet = fleet(1);
+        Parcels parcels = new Parcels(new double[]{900, 900, 5}, new double[]{50, 50, 10}, new double[]{50, 50, 10}, new double[]{50, 50, 10});
+        int[] assignment = plan(parcels, fleet);
+
+        assertEquals(1, Arrays.stream(assignment).filter(v -> v < 0).count());
+        assertAllWithinLimits(parcels, fleet, assignment);
+    }
+
+    /**
+     * Solve time and vehicles used at 50k parcels, against a simple lower bound (total weight or volume
+     * over the average vehicle capacity). Run with {@code -Dbenchmark=true}.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmarkFiftyThousandParcels() {
+        Parcels parcels = randomParcels(50_000, 50_000L);
+        Fleet fleet = fleet(400);
+        for (int run = 0; run < 5; run++) {
+            long start = System.nanoTime();
+            int[] assignment = plan(parcels, fleet);
+            long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+            double totalWeight = 0;
+            double totalVolume = 0;
+            for (int i = 0; i < parcels.weights.length; i++) {
+                totalWeight += parcels.weights[i];
+                totalVolume += parcels.lengths[i] * parcels.widths[i] * parcels.heights[i];
+            }
+            double averageWeight = Arrays.stream(fleet.maxWeights).average().orElse(1);
+            double averageVolume = 0;
+            for (int v = 0; v < fleet.maxWeights.length; v++) {
+                averageVolume += fleet.lengths[v] * fleet.widths[v] * fleet.heights[v] * FILL_FACTOR / fleet.maxWeights.length;
+            }
+            double lowerBound = Math.ceil(Math.max(totalWeight / averageWeight, totalVolume / averageVolume));
+            long used = Arrays.stream(assignment).filter(v -> v >= 0).distinct().count();
+            long unassigned = Arrays.stream(assignment).filter(v -> v < 0).count();
+            System.out.printf("run %d: %d ms, %d vehicles used (lower bound about %.0f), %d unassigned%n",
+                    run, elapsedMs, used, lowerBound, unassigned);
+        }
+    }
+
+    private static int[] plan(Parcels parcels, Fleet fleet) {
+        return LoadPlanner.plan(parcels.weights, parcels.lengths, parcels.widths, parcels.heights,
+                fleet.maxWeights, fleet.lengths, fleet.widths, fleet.heights, FILL_FACTOR);
+    }
+
+    private static void assertAllWithinLimits(Parcels parcels, Fleet fleet, int[] assignment) {
+        int vehicles = fleet.maxWeights.length;
+        double[] weight = new double[vehicles];
+        double[] volume = new double[vehicles];
+        for (int i = 0; i < assignment.length; i++) {
+            int v = assignment[i];
+            if (v < 0) {
+                continue;
+            }
+            assertTrue(LoadPlanner.fitsInAnyOrientation(parcels.lengths[i], parcels.widths[i], parcels.heights[i],
+                    fleet.lengths[v], fleet.widths[v], fleet.heights[v]));
+            weight[v] += parcels.weights[i];
+            volume[v] += parcels.lengths[i] * parcels.widths[i] * parcels.heights[i];
+        }
+        for (int v = 0; v < vehicles; v++) {
+            assertTrue(weight[v] <= fleet.maxWeights[v] + 1e-6, "Vehicle " + v + " overloaded");
+            assertTrue(volume[v] <= fleet.lengths[v] * fleet.widths[v] * fleet.heights[v] * FILL_FACTOR + 1e-3, "Vehicle " + v + " overfilled");
+        }
+    }
+
+    // Three vans of 1000 kg, 320 x 170 x 180 cm for every long van of 1500 kg, 420 x 170 x 190 cm
+    private static Fleet fleet(int vehicles) {
+        Fleet fleet = new Fleet(new double[vehicles], new double[vehicles], new double[vehicles], new double[vehicles]);
+        for (int v = 0; v < vehicles; v++) {
+            boolean longVan = v % 4 == 0;
+            fleet.maxWeights[v] = longVan ? 1500 : 1000;
+            fleet.lengths[v] = longVan ? 420 : 320;
+            fleet.widths[v] = 170;
+            fleet.heights[v] = longVan ? 190 : 180;
+        }
+        return fleet;
+    }
+
+    // Mostly small boxes, some bulky ones and a few long items (rugs, pipes) that only fit the long vans
+    private static Parcels randomParcels(int n, long seed) {
+        Random random = new Random(seed);
+        Parcels parcels = new Parcels(new double[n], new double[n], new double[n], new double[n]);
+        for (int i = 0; i < n; i++) {
+            double scale = random.nextDouble() < 0.1 ? 60 : 30;
+            parcels.lengths[i] = i % 500 == 0 ? 350 : 10 + random.nextDouble() * scale * 2;
+            parcels.widths[i] = 10 + random.nextDouble() * scale;
+            parcels.heights[i] = 5 + random.nextDouble() * scale;
+            parcels.weights[i] = 0.2 + random.nextDouble() * random.nextDouble() * 25;
+        }
+        return parcels;
+    }
+
+    private static final class Parcels {
+        final double[] weights;
+        final double[] lengths;
+        final double[] widths;
+        final double[] heights;
+
+        Parcels(double[] weights, double[] lengths, double[] widths, double[] heights) {
+            this.weights = weights;
+            this.lengths = lengths;
+            this.widths = widths;
+            this.heights = heights;
+        }
+    }
+
+    private static final class Fleet {
+        final double[] maxWeights;
+        final double[] lengths;
+        final double[] widths;
+        final double[] heights;
+
+        Fleet(double[] maxWeights, double[] lengths, double[] widths, double[] heights) {
+            this.maxWeights = maxWeights;
+            this.lengths = lengths;
+            this.widths = widths;
+            this.heights = heights;
+        }
+    }
+}
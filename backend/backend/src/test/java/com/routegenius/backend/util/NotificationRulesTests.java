@@ -0,0 +1,61 @@
+package com.routegenius.backend.util;
+
+import com.routegenius.backend.entity.ParcelStatus;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NotificationRulesTests {
+
+    private static final long SENDER = 10;
+    private static final long RECIPIENT = 20;
+
+    private static final NotificationRules RULES = NotificationRules.builder(NotificationRules.parseRules(
+                    "IN_TRANSIT:RECIPIENT; DELIVERED:recipient,sender,watcher; EXCEPTION:SENDER,WATCHER"))
+            .watch(31, SENDER, null)
+            .watch(32, SENDER, ParcelStatus.EXCEPTION)
+            .watch(31, SENDER, ParcelStatus.DELIVERED) // Already covered by the subscription to every status
+            .watch(33, 99, null)
+            .watch(SENDER, SENDER, null) // The merchant watching its own parcels
+            .build();
+
+    @Test
+    void parsesRulesAndRejectsMistakes() {
+        assertEquals(Set.of(NotificationRules.Audience.RECIPIENT), NotificationRules.parseRules("IN_TRANSIT:RECIPIENT").get(ParcelStatus.IN_TRANSIT));
+        assertThrows(IllegalArgumentException.class, () -> NotificationRules.parseRules("IN_TRANSIT"));
+        assertThrows(IllegalArgumentException.class, () -> NotificationRules.parseRules("LOST:RECIPIENT"));
+        assertThrows(IllegalArgumentException.class, () -> NotificationRules.parseRules("IN_TRANSIT:COURIER"));
+        assertThrows(IllegalArgumentException.class, () -> NotificationRules.parseRules("IN_TRANSIT:RECIPIENT;IN_TRANSIT:SENDER"));
+    }
+
+    @Test
+    void resolvesAudiencesPerStatus() {
+        assertArrayEquals(new long[]{RECIPIENT}, RULES.resolve(SENDER, RECIPIENT, ParcelStatus.IN_TRANSIT));
+        assertArrayEquals(new long[]{RECIPIENT, SENDER, 31}, RULES.resolve(SENDER, RECIPIENT, ParcelStatus.DELIVERED));
+        assertArrayEquals(new long[]{SENDER, 31, 32}, RULES.resolve(SENDER, RECIPIENT, ParcelStatus.EXCEPTION));
+        assertArrayEquals(new long[0], RULES.resolve(SENDER, RECIPIENT, ParcelStatus.PENDING));
+        // Another merchant's watchers are not involved
+        assertArrayEquals(new long[]{RECIPIENT, 77}, RULES.resolve(77, RECIPIENT, ParcelStatus.DELIVERED));
+        assertEquals(2, RULES.getMerchantCount());
+        assertEquals(5, RULES.getSubscriptionCount());
+    }
+
+    @Test
+    void notifiesEveryUserOnce() {
+        // Sender, recipient and watcher are the same person
+        assertArrayEquals(new long[]{SENDER, 31}, RULES.resolve(SENDER, SENDER, ParcelStatus.DELIVERED));
+
+        NotificationRules.Builder builder = NotificationRules.builder(NotificationRules.parseRules("DELIVERED:WATCHER"));
+        for (long watcher = 1000; watcher > 0; watcher--) {
+            builder.watch(watcher, SENDER, watcher % 2 == 0 ? null : ParcelStatus.DELIVERED);
+            builder.watch(watcher, SENDER, null);
+        }
+        long[] watchers = builder.build().resolve(SENDER, RECIPIENT, ParcelStatus.DELIVERED);
+        assertEquals(1000, watchers.length);
+        for (int i = 0; i < watchers.length; i++) {
+            assertEquals(i + 1, watchers[i]);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.routegenius.backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QuantileSketchTests {
+
+    @Test
+    void quantilesAreWithinTheRelativeAccuracy() {
+        Random random = new Random(7L);
+        int n = 100_000;
+        double[] values = new double[n];
+        QuantileSketch sketch = new QuantileSketch();
+        for (int i = 0; i < n; i++) {
+            // Log-normal around three hours, like transit times between hubs
+            values[i] = Math.exp(9.3 + random.nextGaussian());
+            sketch.add(values[i]);
+        }
+        Arrays.sort(values);
+        for (double q : new double[]{0.1, 0.5, 0.9, 0.99}) {
+            double exact = values[(int) Math.floor(q * (n - 1))];
+            assertEquals(exact, sketch.quantile(q), exact * QuantileSketch.DEFAULT_RELATIVE_ACCURACY, "q=" + q);
+        }
+    }
+
+    @Test
+    void mergedAndSerializedSketchesMatchASingleSketch() {
+        QuantileSketch all = new QuantileSketch();
+        QuantileSketch first = new QuantileSketch();
+        QuantileSketch second = new QuantileSketch();
+        for (int i = 1; i <= 10_000; i++) {
+            all.add(i);
+            (i % 3 == 0 ? first : second).add(i);
+        }
+        first.merge(second);
+        QuantileSketch restored = QuantileSketch.fromBytes(first.toBytes());
+
+        assertEquals(all.getCount(), restored.getCount());
+        for (double q : new double[]{0, 0.25, 0.5, 0.9, 1}) {
+            assertEquals(all.quantile(q), restored.quantile(q), 1e-9);
+        }
+    }
+
+    @Test
+    void emptyAndZeroValues() {
+        QuantileSketch sketch = new QuantileSketch();
+        assertTrue(Double.isNaN(sketch.quantile(0.5)));
+        sketch.add(0);
+        sketch.add(0);
+        sketch.add(3600);
+        assertEquals(0, sketch.quantile(0.5));
+        assertEquals(3600, sketch.quantile(1), 3600 * QuantileSketch.DEFAULT_RELATIVE_ACCURACY);
+        assertThrows(IllegalArgumentException.class, () -> sketch.add(-1));
+    }
+}
@@ -0,0 +1,90 @@
+package com.routegenius.backend.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RouteOptimizerTests {
+
+    // Roughly the extent of a city, around central London
+    private static final double DEPOT_LAT = 51.5074;
+    private static final double DEPOT_LON = -0.1278;
+    private static final double SPAN_DEGREES = 0.2;
+
+    @Test
+    void everyStopIsPlannedExactlyOnce() {
+        double[][] stops = randomStops(1000, 1L);
+        int[][] routes = RouteOptimizer.plan(stops[0], stops[1], DEPOT_LAT, DEPOT_LON, 4, 150);
+
+        assertTrue(routes.length >= 7, "1000 stops at 150 per route need at least 7 routes");
+        boolean[] seen = new boolean[1000];
+        for (int[] route : routes) {
+            assertTrue(route.length <= 150);
+            for (int stop : route) {
+                assertFalse(seen[stop], "Stop " + stop + " planned twice");
+                seen[stop] = true;
+            }
+        }
+        for (int i = 0; i < seen.length; i++) {
+            assertTrue(seen[i], "Stop " + i + " not planned");
+        }
+    }
+
+    @Test
+    void optimisedRouteIsNoLongerThanNearestNeighbour() {
+        double[][] stops = randomStops(500, 2L);
+        int[] optimised = RouteOptimizer.planSingleRoute(stops[0], stops[1], DEPOT_LAT, DEPOT_LON);
+        int[] greedy = RouteOptimizer.nearestNeighbourRoute(stops[0], stops[1], DEPOT_LAT, DEPOT_LON);
+
+        assertEquals(500, optimised.length);
+        assertTrue(RouteOptimizer.routeLengthKm(stops[0], stops[1], DEPOT_LAT, DEPOT_LON, optimised)
+                <= RouteOptimizer.routeLengthKm(stops[0], stops[1], DEPOT_LAT, DEPOT_LON, greedy));
+    }
+
+    @Test
+    void emptyAndTinyInputs() {
+        assertEquals(0, RouteOptimizer.plan(new double[0], new double[0], DEPOT_LAT, DEPOT_LON, 3, 10).length);
+        int[][] single = RouteOptimizer.plan(new double[]{DEPOT_LAT + 0.01}, new double[]{DEPOT_LON}, DEPOT_LAT, DEPOT_LON, 3, 10);
+        assertEquals(1, single.length);
+        assertArrayEquals(new int[]{0}, single[0]);
+    }
+
+    /**
+     * Solve time and tour quality for growing stop counts. Run with {@code -Dbenchmark=true}.
+     * Quality is reported against nearest neighbour and against the Beardwood-Halton-Hammersley
+     * estimate 0.7124 * sqrt(n * A) of the optimal tour through n uniform points in area A.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmarkSolveTimeAndQuality() {
+        double heightKm = RouteOptimizer.haversineKm(DEPOT_LAT - SPAN_DEGREES / 2, DEPOT_LON, DEPOT_LAT + SPAN_DEGREES / 2, DEPOT_LON);
+        double widthKm = RouteOptimizer.haversineKm(DEPOT_LAT, DEPOT_LON - SPAN_DEGREES / 2, DEPOT_LAT, DEPOT_LON + SPAN_DEGREES / 2);
+        for (int n : new int[]{100, 500, 1000, 2000, 5000}) {
+            double[][] stops = randomStops(n, n);
+            int[] greedy = RouteOptimizer.nearestNeighbourRoute(stops[0], stops[1], DEPOT_LAT, DEPOT_LON);
+            long start = System.nanoTime();
+            int[] optimised = RouteOptimizer.planSingleRoute(stops[0], stops[1], DEPOT_LAT, DEPOT_LON);
+            long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+            double optimisedKm = RouteOptimizer.routeLengthKm(stops[0], stops[1], DEPOT_LAT, DEPOT_LON, optimised);
+            double greedyKm = RouteOptimizer.routeLengthKm(stops[0], stops[1], DEPOT_LAT, DEPOT_LON, greedy);
+            double estimateKm = 0.7124 * Math.sqrt((n + 1) * heightKm * widthKm);
+            System.out.printf("n=%d: %d ms, %.1f km (nearest neighbour %.1f km, %.1f%% shorter), %.3fx BHH estimate%n",
+                    n, elapsedMs, optimisedKm, greedyKm, 100 * (1 - optimisedKm / greedyKm), optimisedKm / estimateKm);
+        }
+    }
+
+    private static double[][] randomStops(int n, long seed) {
+        Random random = new Random(seed);
+        double[] latitudes = new double[n];
+        double[] longitudes = new double[n];
+        for (int i = 0; i < n; i++) {
+            latitudes[i] = DEPOT_LAT + (random.nextDouble() - 0.5) * SPAN_DEGREES;
+            longitudes[i] = DEPOT_LON + (random.nextDouble() - 0.5) * SPAN_DEGREES;
+        }
+        return new double[][]{latitudes, longitudes};
+    }
+}
@@ -0,0 +1,121 @@
+package com.routegenius.backend.util;
+
+import com.routegenius.backend.entity.ParcelStatus;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScanCoalescerTests {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 6, 1, 8, 0);
+
+    private static final class TestScan implements ScanCoalescer.Scan {
+        private final ParcelStatus status;
+        private final String location;
+        private final String city;
+        private final String country;
+        private final LocalDateTime scannedAt;
+
+        TestScan(ParcelStatus status, String location, String city, String country, LocalDateTime scannedAt) {
+            this.status = status;
+            this.location = location;
+            this.city = city;
+            this.country = country;
+            this.scannedAt = scannedAt;
+        }
+
+        public ParcelStatus getStatus() { return status; }
+        public String getLocation() { return location; }
+        public String getCity() { return city; }
+        public String getCountry() { return country; }
+        public LocalDateTime getScannedAt() { return scannedAt; }
+    }
+
+    private static TestScan scan(ParcelStatus status, String city, int minutes) {
+        return new TestScan(status, city + " hub", city, "India", T0.plusMinutes(minutes));
+    }
+
+    private static final ScanCoalescer.State HYDERABAD =
+            new ScanCoalescer.State(ParcelStatus.DISPATCHED, "Hyderabad hub", "Hyderabad", "India", T0);
+
+    @Test
+    void appliesScansInTimeOrderAndDropsDuplicates() {
+        TestScan arrival = scan(ParcelStatus.IN_TRANSIT, "Vijayawada", 120);
+        TestScan repeat = scan(ParcelStatus.IN_TRANSIT, "Vijayawada", 121);
+        TestScan departure = scan(ParcelStatus.IN_TRANSIT, "Hyderabad", 30);
+        TestScan sameAsCurrent = scan(ParcelStatus.DISPATCHED, "Hyderabad", 10);
+
+        ScanCoalescer.Result<TestScan> result = ScanCoalescer.coalesce(HYDERABAD, List.of(arrival, repeat, departure, sameAsCurrent));
+
+        assertEquals(List.of(departure, arrival), result.getApplied().stream().map(ScanCoalescer.Step::getScan).toList());
+        assertEquals(List.of(sameAsCurrent, repeat), result.getDuplicates());
+        assertTrue(result.getLate().isEmpty());
+        assertEquals("Vijayawada", result.finalState(HYDERABAD).getCity());
+        assertEquals(T0.plusMinutes(120), result.finalState(HYDERABAD).getSince());
+    }
+
+    @Test
+    void lateScansGoToHistoryWithoutMovingTheParcel() {
+        TestScan early = scan(ParcelStatus.PENDING, "Hyderabad", -60);
+        TestScan earlyAgain = scan(ParcelStatus.PENDING, "Hyderabad", -59);
+
+        ScanCoalescer.Result<TestScan> result = ScanCoalescer.coalesce(HYDERABAD, List.of(early, earlyAgain));
+
+        assertTrue(result.getApplied().isEmpty());
+        assertEquals(List.of(early), result.getLate().stream().map(ScanCoalescer.Step::getScan).toList());
+        assertEquals(List.of(earlyAgain), result.getDuplicates());
+        assertSame(HYDERABAD, result.finalState(HYDERABAD));
+    }
+
+    @Test
+    void missingFieldsAreTakenFromThePreviousState() {
+        TestScan statusOnly = new TestScan(ParcelStatus.EXCEPTION, null, null, null, T0.plusMinutes(5));
+        TestScan sameStatusOnly = new TestScan(ParcelStatus.EXCEPTION, null, null, null, T0.plusMinutes(6));
+
+        ScanCoalescer.Result<TestScan> result = ScanCoalescer.coalesce(HYDERABAD, List.of(statusOnly, sameStatusOnly));
+
+        assertEquals(1, result.getApplied().size());
+        ScanCoalescer.State state = result.getApplied().get(0).getState();
+        assertEquals(ParcelStatus.EXCEPTION, state.getStatus());
+        assertEquals("Hyderabad hub", state.getLocation());
+        assertEquals("India", state.getCountry());
+        assertEquals(List.of(sameStatusOnly), result.getDuplicates());
+    }
+
+    @Test
+    void resendingACommittedBatchRecordsNothing() {
+        List<TestScan> batch = List.of(scan(ParcelStatus.IN_TRANSIT, "Hyderabad", 30), scan(ParcelStatus.IN_TRANSIT, "Vijayawada", 120),
+                scan(ParcelStatus.IN_TRANSIT, "Guntur", 180));
+        ScanCoalescer.Result<TestScan> first = ScanCoalescer.coalesce(HYDERABAD, batch);
+        List<ScanCoalescer.State> history = new ArrayList<>();
+        first.getApplied().forEach(step -> history.add(step.getState()));
+        assertEquals(3, history.size());
+
+        // The scanner timed out waiting and sends the same batch again after the first flush committed
+        ScanCoalescer.State committed = first.finalState(HYDERABAD);
+        ScanCoalescer.Result<TestScan> resent = ScanCoalescer.coalesce(committed, batch,
+                state -> history.stream().anyMatch(event -> event.getSince().equals(state.getSince())
+                        && event.getStatus() == state.getStatus() && event.getCity().equals(state.getCity())));
+
+        assertTrue(resent.getApplied().isEmpty());
+        assertTrue(resent.getLate().isEmpty(), "A resent scan must not add a tracking event");
+        assertEquals(batch, resent.getDuplicates());
+        assertSame(committed, resent.finalState(committed));
+    }
+
+    @Test
+    void lateScansMissingFromTheHistoryAreStillRecorded() {
+        TestScan recorded = scan(ParcelStatus.PENDING, "Hyderabad", -60);
+        TestScan missing = scan(ParcelStatus.DISPATCHED, "Secunderabad", -30);
+
+        ScanCoalescer.Result<TestScan> result = ScanCoalescer.coalesce(HYDERABAD, List.of(missing, recorded),
+                state -> state.getSince().equals(recorded.getScannedAt()));
+
+        assertEquals(List.of(missing), result.getLate().stream().map(ScanCoalescer.Step::getScan).toList());
+        assertEquals(List.of(recorded), result.getDuplicates());
+    }
+}
@@ -0,0 +1,100 @@
+package com.routegenius.backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrackingIdGeneratorTests {
+
+    @Test
+    void idsAreUniqueAndOrderedUnderConcurrentGeneration() throws Exception {
+        TrackingIdGenerator generator = new TrackingIdGenerator(7);
+        int threads = 16;
+        int idsPerThread = 100_000;
+        Set<String> seen = ConcurrentHashMap.newKeySet(threads * idsPerThread);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    String previous = null;
+                    for (int i = 0; i < idsPerThread; i++) {
+                        String id = generator.next();
+                        // Within one thread every ID must sort after the previous one
+                        if (previous != null && previous.compareTo(id) >= 0) {
+                            return false;
+                        }
+                        seen.add(id);
+                        previous = id;
+                    }
+                    return true;
+                }));
+            }
+            start.countDown();
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get(), "IDs generated by one thread must be strictly increasing");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(threads * idsPerThread, seen.size(), "Every generated ID must be unique");
+    }
+
+    @Test
+    void generatedIdsAreValidAndDetectSingleCharacterTypos() {
+        String id = new TrackingIdGenerator(1).next();
+        assertEquals(TrackingIdGenerator.ID_LENGTH, id.length());
+        assertTrue(TrackingIdGenerator.isValid(id));
+
+        for (int i = 0; i < id.length(); i++) {
+            for (char replacement : TrackingIdGenerator.ALPHABET) {
+                if (replacement == id.charAt(i)) {
+                    continue;
+                }
+                String typo = id.substring(0, i) + replacement + id.substring(i + 1);
+                assertFalse(TrackingIdGenerator.isValid(typo), "Typo should be rejected: " + typo);
+            }
+        }
+    }
+
+    @Test
+    void normalizeAcceptsLowerCaseAndLegacyIdsAndRejectsGarbage() {
+        String id = new TrackingIdGenerator(2).next();
+        assertEquals(id, TrackingIdGenerator.normalize(id.toLowerCase()));
+        assertEquals(id, TrackingIdGenerator.normalize(" " + id + " "));
+        assertEquals("1A2B3C4D-E", TrackingIdGenerator.normalize("1a2b3c4d-e"));
+
+        assertNull(TrackingIdGenerator.normalize(null));
+        assertNull(TrackingIdGenerator.normalize(""));
+        assertNull(TrackingIdGenerator.normalize("not-a-tracking-id"));
+        assertNull(TrackingIdGenerator.normalize(id.substring(1)));
+        assertNull(TrackingIdGenerator.normalize("ZZZZZZZZZZZZZZ"));
+    }
+
+    @Test
+    void forTimestampEmbedsTheGivenTimeAndKeepsOrder() {
+        long millis = 1735689600000L; // 2025-01-01T00:00:00Z
+        String first = TrackingIdGenerator.forTimestamp(millis, 1023, 0);
+        String second = TrackingIdGenerator.forTimestamp(millis, 1023, 1);
+        String later = TrackingIdGenerator.forTimestamp(millis + 1, 0, 0);
+
+        assertTrue(TrackingIdGenerator.isValid(first));
+        assertEquals(millis, TrackingIdGenerator.timestampMillis(first));
+        assertTrue(first.compareTo(second) < 0);
+        assertTrue(second.compareTo(later) < 0);
+        assertThrows(IllegalArgumentException.class, () -> TrackingIdGenerator.forTimestamp(0, 1, 0));
+        assertThrows(IllegalArgumentException.class, () -> TrackingIdGenerator.forTimestamp(millis, 1024, 0));
+        assertThrows(IllegalArgumentException.class, () -> TrackingIdGenerator.forTimestamp(millis, 1, 4096));
+    }
+}
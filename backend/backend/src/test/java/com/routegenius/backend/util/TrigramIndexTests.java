@@ -0,0 +1,102 @@
+package com.routegenius.backend.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrigramIndexTests {
+
+    private TrigramIndex index;
+
+    @BeforeEach
+    void setUp() {
+        // Username and email, as the user search indexes them
+        index = new TrigramIndex(2);
+        index.put(1, "john", "john@example.com");
+        index.put(2, "johnny", "johnny@example.com");
+        index.put(3, "bjorn", "bjorn@example.org");
+        index.put(4, "mary", "mary.johnson@example.com");
+    }
+
+    @Test
+    void substringMatchesAreRankedExactThenPrefixThenContains() {
+        TrigramIndex.Result result = index.search("john", 0, 10);
+
+        assertEquals(3, result.getTotal());
+        assertArrayEquals(new long[]{1, 2, 4}, result.getIds());
+        assertArrayEquals(new long[]{3}, index.search("jorn", 0, 10).getIds());
+        assertArrayEquals(new long[]{3}, index.search(".org", 0, 10).getIds());
+        assertEquals(0, index.search("xyz", 0, 10).getTotal());
+    }
+
+    @Test
+    void termsShorterThanThreeCharactersOnlyMatchAtTheStartOfAField() {
+        // "jo" occurs inside "bjorn" and "mary.johnson" but only starts the first two
+        assertArrayEquals(new long[]{1, 2}, index.search("jo", 0, 10).getIds());
+        assertArrayEquals(new long[]{4}, index.search("m", 0, 10).getIds());
+        assertArrayEquals(new long[]{3}, index.search("b", 0, 10).getIds());
+        assertEquals(0, index.search("rn", 0, 10).getTotal());
+        assertEquals(0, index.search("q", 0, 10).getTotal());
+    }
+
+    @Test
+    void matchingIgnoresCase() {
+        index.put(5, "McDonald", "Ron.McDonald@Example.COM");
+
+        assertArrayEquals(new long[]{5}, index.search("mcdonald", 0, 10).getIds());
+        assertArrayEquals(new long[]{5}, index.search("MCDON", 0, 10).getIds());
+        assertArrayEquals(new long[]{5}, index.search("cDoN", 0, 10).getIds());
+        assertArrayEquals(new long[]{5}, index.search("Mc", 0, 10).getIds());
+        assertArrayEquals(new long[]{1, 2, 4}, index.search("JOHN", 0, 10).getIds());
+    }
+
+    @Test
+    void putReplacesTheFieldsOfAnExistingDocument() {
+        index.put(3, "bernd", null);
+
+        assertEquals(4, index.size());
+        assertEquals(0, index.search("bjorn", 0, 10).getTotal());
+        assertEquals(0, index.search("example.org", 0, 10).getTotal());
+        assertArrayEquals(new long[]{3}, index.search("bernd", 0, 10).getIds());
+        assertArrayEquals(new long[]{3}, index.search("b", 0, 10).getIds());
+    }
+
+    @Test
+    void removedDocumentsNoLongerMatch() {
+        index.remove(2);
+        index.remove(42); // Unknown ids are ignored
+
+        assertEquals(3, index.size());
+        assertArrayEquals(new long[]{1, 4}, index.search("john", 0, 10).getIds());
+        assertArrayEquals(new long[]{1}, index.search("jo", 0, 10).getIds());
+        assertEquals(0, index.search("johnny", 0, 10).getTotal());
+        assertArrayEquals(new long[]{1, 3, 4}, index.search("", 0, 10).getIds());
+
+        index.clear();
+        assertEquals(0, index.size());
+        assertEquals(0, index.search("john", 0, 10).getTotal());
+    }
+
+    @Test
+    void blankTermsListEveryDocumentByIdInPages() {
+        TrigramIndex.Result first = index.search("  ", 0, 3);
+        TrigramIndex.Result second = index.search(null, 1, 3);
+
+        assertEquals(4, first.getTotal());
+        assertArrayEquals(new long[]{1, 2, 3}, first.getIds());
+        assertArrayEquals(new long[]{4}, second.getIds());
+        assertEquals(0, index.search("john", 5, 3).getIds().length);
+        assertEquals(3, index.search("john", 5, 3).getTotal());
+    }
+
+    @Test
+    void invalidArgumentsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new TrigramIndex(0));
+        assertThrows(IllegalArgumentException.class, () -> index.put(9, "only one field"));
+        assertThrows(IllegalArgumentException.class, () -> index.put(-1, "a", "b"));
+        assertThrows(IllegalArgumentException.class, () -> index.put(Integer.MAX_VALUE + 1L, "a", "b"));
+        assertThrows(IllegalArgumentException.class, () -> index.search("john", -1, 10));
+        assertThrows(IllegalArgumentException.class, () -> index.search("john", 0, 0));
+    }
+}
@@ -0,0 +1,98 @@
+package com.routegenius.backend.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compares a JMH JSON result file with the checked-in baseline and fails if a benchmark got slower.
+ *
+ *   java -cp target/benchmarks.jar com.routegenius.backend.benchmark.BaselineComparison \
+ *       baseline/jmh-baseline.json target/jmh-result.json [threshold-percent]
+ *
+ * A benchmark counts as a regression when its score is worse than the baseline by more than the threshold
+ * (default 10%) and by more than both runs' error margins together, so noise alone does not fail a review.
+ * Benchmarks missing from either file are listed but not judged.
+ */
+public final class BaselineComparison {
+
+    private static final double DEFAULT_THRESHOLD_PERCENT = 10;
+
+    private BaselineComparison() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BaselineComparison <baseline.json> <result.json> [threshold-percent]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_THRESHOLD_PERCENT;
+        Map<String, JsonNode> baseline = read(new File(args[0]));
+        Map<String, JsonNode> current = read(new File(args[1]));
+
+        int regressions = 0;
+        System.out.printf("%-75s %14s %14s %9s%n", "Benchmark", "Baseline", "Current", "Change");
+        for (Map.Entry<String, JsonNode> entry : current.entrySet()) {
+            JsonNode now = entry.getValue();
+            JsonNode before = baseline.get(entry.getKey());
+            String unit = now.path("primaryMetric").path("scoreUnit").asText();
+            double score = now.path("primaryMetric").path("score").asDouble();
+            if (before == null) {
+                System.out.printf("%-75s %14s %14s %9s%n", entry.getKey(), "-", format(score, unit), "new");
+                continue;
+            }
+            double baselineScore = before.path("primaryMetric").path("score").asDouble();
+            double change = (score - baselineScore) / baselineScore * 100;
+            // Throughput modes are better when higher, all time modes when lower
+            double worse = "thrpt".equals(now.path("mode").asText()) ? -change : change;
+            double margin = error(before) + error(now);
+            boolean regression = worse > threshold && Math.abs(score - baselineScore) > margin;
+            if (regression) {
+                regressions++;
+            }
+            System.out.printf("%-75s %14s %14s %+8.1f%%%s%n", entry.getKey(), format(baselineScore, unit),
+                    format(score, unit), change, regression ? "  REGRESSION" : "");
+        }
+        for (String name : baseline.keySet()) {
+            if (!current.containsKey(name)) {
+                System.out.printf("%-75s %14s %14s %9s%n", name, "", "-", "missing");
+            }
+        }
+
+        if (regressions > 0) {
+            System.out.println(regressions + " benchmark(s) regressed by more than " + threshold + "%.");
+            System.exit(1);
+        }
+        System.out.println("No regressions beyond " + threshold + "%.");
+    }
+
+    // Results by benchmark name plus parameters, in file order
+    private static Map<String, JsonNode> read(File file) throws IOException {
+        Map<String, JsonNode> results = new LinkedHashMap<>();
+        for (JsonNode result : new ObjectMapper().readTree(file)) {
+            StringBuilder name = new StringBuilder(result.path("benchmark").asText()
+                    .replace("com.routegenius.backend.benchmark.", ""));
+            JsonNode params = result.path("params");
+            for (Iterator<Map.Entry<String, JsonNode>> it = params.fields(); it.hasNext(); ) {
+                Map.Entry<String, JsonNode> param = it.next();
+                name.append(name.indexOf(":") < 0 ? ":" : ",").append(param.getKey()).append('=').append(param.getValue().asText());
+            }
+            results.put(name.toString(), result);
+        }
+        return results;
+    }
+
+    private static double error(JsonNode result) {
+        double error = result.path("primaryMetric").path("scoreError").asDouble();
+        return Double.isNaN(error) ? 0 : error;
+    }
+
+    private static String format(double score, String unit) {
+        return String.format("%.3f %s", score, unit);
+    }
+}
@@ -0,0 +1,143 @@
+package com.routegenius.backend.benchmark;
+
+import com.routegenius.backend.dto.ParcelResponse;
+import com.routegenius.backend.entity.Parcel;
+import com.routegenius.backend.entity.ParcelStatus;
+import com.routegenius.backend.entity.Role;
+import com.routegenius.backend.entity.TrackingEvent;
+import com.routegenius.backend.entity.User;
+import com.routegenius.backend.util.TrackingIdGenerator;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.reflect.Constructor;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sample entities and helpers shared by the benchmarks. Data is fixed so that runs are comparable.
+ */
+final class Fixtures {
+
+    // Same value as jwt.secret in application.properties, so tokens have the production size
+    static final String JWT_SECRET = "aVeryLongAndSecureRandomKeyForJwtSigningThatIsAtLeast256BitsLongAndShouldBeKeptSecretInProductionEnvironment";
+
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2025, 3, 14, 9, 26, 53);
+    private static final String[] CITIES = {"Hyderabad", "Warangal", "Vijayawada", "Chennai", "Bengaluru"};
+
+    private Fixtures() {
+    }
+
+    static User user(long id, String firstName, Role role) {
+        return User.builder()
+                .id(id)
+                .firstName(firstName)
+                .lastName("Reddy")
+                .email(firstName.toLowerCase() + "@example.com")
+                .password("$2a$10$7EqJtq98hPqEX7fNZaFWoO5zUaQ3bZqvAGmxbuAh5ZpMFu8GZ7nNu")
+                .role(role)
+                .createdAt(CREATED_AT)
+                .lastUpdatedAt(CREATED_AT)
+                .build();
+    }
+
+    static Parcel parcel() {
+        return Parcel.builder()
+                .id(4711L)
+                .trackingId(TrackingIdGenerator.generateTrackingId())
+                .senderId(1L)
+                .recipientId(2L)
+                .senderAddress("Plot 12, Road No. 36, Jubilee Hills, Hyderabad 500033")
+                .recipientAddress("Flat 4B, 7th Cross Road, Indiranagar, Bengaluru 560038")
+                .senderPhone("+91 40 2355 0101")
+                .recipientPhone("+91 80 4112 0202")
+                .description("Books and stationery")
+                .weight(2.4)
+                .dimensionsLength(35.0)
+                .dimensionsWidth(25.0)
+                .dimensionsHeight(12.0)
+                .status(ParcelStatus.IN_TRANSIT)
+                .estimatedDeliveryDate(CREATED_AT.plusDays(3))
+                .currentLocation("Sorting hub")
+                .currentCity("Vijayawada")
+                .currentCountry("India")
+                .recipientLatitude(12.9784)
+                .recipientLongitude(77.6408)
+                .createdAt(CREATED_AT)
+                .lastUpdatedAt(CREATED_AT.plusHours(30))
+                .build();
+    }
+
+    // The response the parcel endpoints build for a parcel, with the two user lookups filled in
+    static ParcelResponse parcelResponse(Parcel parcel) {
+        return ParcelResponse.builder()
+                .id(parcel.getId())
+                .trackingId(parcel.getTrackingId())
+                .senderId(parcel.getSenderId())
+                .senderFirstName("Anil")
+                .senderEmail("anil@example.com")
+                .senderAddress(parcel.getSenderAddress())
+                .senderPhone(parcel.getSenderPhone())
+                .recipientId(parcel.getRecipientId())
+                .recipientFirstName("Bhavana")
+                .recipientEmail("bhavana@example.com")
+                .recipientAddress(parcel.getRecipientAddress())
+                .recipientPhone(parcel.getRecipientPhone())
+                .description(parcel.getDescription())
+                .weight(parcel.getWeight())
+                .dimensionsLength(parcel.getDimensionsLength())
+                .dimensionsWidth(parcel.getDimensionsWidth())
+                .dimensionsHeight(parcel.getDimensionsHeight())
+                .status(parcel.getStatus())
+                .estimatedDeliveryDate(parcel.getEstimatedDeliveryDate())
+                .currentLocation(parcel.getCurrentLocation())
+                .currentCity(parcel.getCurrentCity())
+                .currentCountry(parcel.getCurrentCountry())
+                .recipientLatitude(parcel.getRecipientLatitude())
+                .recipientLongitude(parcel.getRecipientLongitude())
+                .createdAt(parcel.getCreatedAt())
+                .lastUpdatedAt(parcel.getLastUpdatedAt())
+                .build();
+    }
+
+    // The tracking history of a parcel as returned by the tracking endpoint: every event embeds the parcel
+    static List<TrackingEvent> history(Parcel parcel, int events) {
+        List<TrackingEvent> history = new ArrayList<>(events);
+        for (int i = 0; i < events; i++) {
+            history.add(TrackingEvent.builder()
+                    .id(1000L + i)
+                    .parcel(parcel)
+                    .status(i == 0 ? ParcelStatus.PENDING : ParcelStatus.IN_TRANSIT)
+                    .locationDescription(i == 0 ? "Parcel registered" : "Arrived at sorting hub")
+                    .city(CITIES[i % CITIES.length])
+                    .country("India")
+                    .timestamp(CREATED_AT.plusHours(6L * i))
+                    .build());
+        }
+        return history;
+    }
+
+    /**
+     * Creates a Spring component without its dependencies, for benchmarking methods that do not use them.
+     */
+    static <T> T withoutDependencies(Class<T> type) {
+        try {
+            Constructor<?> constructor = type.getDeclaredConstructors()[0];
+            return type.cast(constructor.newInstance(new Object[constructor.getParameterCount()]));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot create " + type.getSimpleName(), e);
+        }
+    }
+
+    /**
+     * Discards System.out, where several hot paths print debug lines on every call. Building those lines is
+     * still measured; writing them to a console is not, as it would mostly measure the terminal.
+     * @return The previous stream, to restore in the tear-down.
+     */
+    static PrintStream silenceStdout() {
+        PrintStream previous = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        return previous;
+    }
+}
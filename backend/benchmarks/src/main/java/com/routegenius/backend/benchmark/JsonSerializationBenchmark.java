@@ -0,0 +1,64 @@
+package com.routegenius.backend.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.routegenius.backend.dto.ParcelResponse;
+import com.routegenius.backend.entity.Parcel;
+import com.routegenius.backend.entity.TrackingEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Response serialisation with the object mapper Spring Boot configures by default: a single parcel, and a
+ * tracking history whose events each embed the full parcel.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class JsonSerializationBenchmark {
+
+    @Param({"10"})
+    private int historyEvents;
+
+    private ObjectMapper objectMapper;
+    private ParcelResponse parcelResponse;
+    private List<TrackingEvent> history;
+
+    @Setup
+    public void setUp() {
+        // Spring Boot's JacksonAutoConfiguration starts from this builder and disables timestamp dates
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, SerializationFeature.WRITE_DURATIONS_AS_TIMESTAMPS)
+                .build();
+        Parcel parcel = Fixtures.parcel();
+        parcelResponse = Fixtures.parcelResponse(parcel);
+        history = Fixtures.history(parcel, historyEvents);
+    }
+
+    @Benchmark
+    public byte[] serializeParcelResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(parcelResponse);
+    }
+
+    @Benchmark
+    public byte[] serializeTrackingHistory() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(history);
+    }
+}
@@ -0,0 +1,95 @@
+package com.routegenius.backend.benchmark;
+
+import com.routegenius.backend.config.JwtAuthenticationFilter;
+import com.routegenius.backend.entity.Role;
+import com.routegenius.backend.entity.User;
+import com.routegenius.backend.service.UserService;
+import com.routegenius.backend.service.impl.JwtServiceImpl;
+import jakarta.servlet.ServletException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The JWT filter end to end, as it runs in front of every request: header parsing, both token parses, the
+ * authentication token and the security context. The user is served from memory instead of the database so
+ * that the result shows the filter's own cost.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class JwtAuthenticationFilterBenchmark {
+
+    private JwtAuthenticationFilter filter;
+    private String authorizationHeader;
+    private PrintStream stdout;
+
+    @Setup
+    public void setUp() {
+        stdout = Fixtures.silenceStdout();
+        JwtServiceImpl jwtService = new JwtServiceImpl();
+        ReflectionTestUtils.setField(jwtService, "jwtSigningKey", Fixtures.JWT_SECRET);
+        User user = Fixtures.user(1L, "Anil", Role.USER);
+        UserService userService = new UserService() {
+            @Override
+            public UserDetailsService userDetailsService() {
+                return username -> user;
+            }
+
+            @Override
+            public User getUserByEmail(String email) {
+                return user;
+            }
+        };
+        filter = new JwtAuthenticationFilter(jwtService, userService);
+        authorizationHeader = "Bearer " + jwtService.generateToken(user);
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.setOut(stdout);
+    }
+
+    @Benchmark
+    public Authentication authenticatedRequest() throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/parcels/my-parcels");
+        request.addHeader("Authorization", authorizationHeader);
+        return filter(request);
+    }
+
+    @Benchmark
+    public Authentication anonymousRequest() throws ServletException, IOException {
+        return filter(new MockHttpServletRequest("GET", "/api/v1/parcels/track/0A91GXWY40M01V"));
+    }
+
+    private Authentication filter(MockHttpServletRequest request) throws ServletException, IOException {
+        try {
+            filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.routegenius.backend.benchmark;
+
+import com.routegenius.backend.entity.ParcelStatus;
+import com.routegenius.backend.util.NotificationRules;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resolving who is notified of one status change when the merchant has 1,000 watchers, among {@code merchants}
+ * merchants with {@code watchersPerMerchant} watchers each. {@code resolve} uses the {@link NotificationRules}
+ * index; {@code scan} is the obvious alternative of checking every subscription and deduplicating with a set.
+ * The database side of the fan-out (one multi-row INSERT per 500 notifications) is not measured here.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class NotificationFanOutBenchmark {
+
+    private static final int SUBSCRIBERS = 1000; // Watchers of the merchant that sends the parcel
+    private static final long MERCHANT = 1;
+    private static final long RECIPIENT = 5_000_000;
+    private static final Map<ParcelStatus, Set<NotificationRules.Audience>> RULES =
+            NotificationRules.parseRules("DELIVERED:RECIPIENT,SENDER,WATCHER");
+
+    @Param({"10", "1000"})
+    public int merchants;
+
+    @Param({"10"})
+    public int watchersPerMerchant;
+
+    private NotificationRules index;
+    // The same subscriptions as rows: watcher, merchant, status ordinal or -1 for every status
+    private long[][] subscriptions;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        NotificationRules.Builder builder = NotificationRules.builder(RULES);
+        int count = SUBSCRIBERS + (merchants - 1) * watchersPerMerchant;
+        subscriptions = new long[count][];
+        int row = 0;
+        for (long merchant = 1; merchant <= merchants; merchant++) {
+            int watchers = merchant == MERCHANT ? SUBSCRIBERS : watchersPerMerchant;
+            for (int w = 0; w < watchers; w++) {
+                long watcher = 1_000_000 + random.nextInt(3_000_000);
+                ParcelStatus status = w % 4 == 0 ? ParcelStatus.DELIVERED : null;
+                builder.watch(watcher, merchant, status);
+                subscriptions[row++] = new long[]{watcher, merchant, status != null ? status.ordinal() : -1};
+            }
+        }
+        index = builder.build();
+    }
+
+    @Benchmark
+    public long[] resolve() {
+        return index.resolve(MERCHANT, RECIPIENT, ParcelStatus.DELIVERED);
+    }
+
+    @Benchmark
+    public Set<Long> scan() {
+        Set<Long> users = new LinkedHashSet<>();
+        users.add(RECIPIENT);
+        users.add(MERCHANT);
+        int delivered = ParcelStatus.DELIVERED.ordinal();
+        for (long[] subscription : subscriptions) {
+            if (subscription[1] == MERCHANT && (subscription[2] == -1 || subscription[2] == delivered)) {
+                users.add(subscription[0]);
+            }
+        }
+        return users;
+    }
+}
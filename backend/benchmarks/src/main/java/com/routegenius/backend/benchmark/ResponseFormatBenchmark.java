@@ -0,0 +1,111 @@
+package com.routegenius.backend.benchmark;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import com.routegenius.backend.dto.ParcelResponse;
+import com.routegenius.backend.entity.Parcel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writing a response body in each negotiable format (JSON, Smile, CBOR), with and without the gzip step the server
+ * adds above its compression threshold. The payloads are a 500-parcel list, the size of an admin listing, and a
+ * 10-event tracking history whose events embed the parcel.
+ *
+ * The time per operation is the CPU cost. The size on the wire is printed once per fork, before the warm-up, as a
+ * "bytes: ..." line in the JMH output.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class ResponseFormatBenchmark {
+
+    @Param({"json", "smile", "cbor"})
+    private String format;
+
+    @Param({"false", "true"})
+    private boolean gzip;
+
+    @Param({"parcel-list", "history"})
+    private String payload;
+
+    private ObjectMapper objectMapper;
+    private Object body;
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(1 << 20);
+
+    @Setup
+    public void setUp() throws IOException {
+        JsonFactory factory = switch (format) {
+            case "json" -> new JsonFactory();
+            // As configured in ResponseFormatConfig
+            case "smile" -> new SmileFactory().enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES);
+            case "cbor" -> new CBORFactory();
+            default -> throw new IllegalArgumentException("Unknown format: " + format);
+        };
+        // Same settings as Boot's mapper, as in JsonSerializationBenchmark
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .factory(factory)
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, SerializationFeature.WRITE_DURATIONS_AS_TIMESTAMPS)
+                .build();
+        Parcel parcel = Fixtures.parcel();
+        body = switch (payload) {
+            case "parcel-list" -> parcelList(500);
+            case "history" -> Fixtures.history(parcel, 10);
+            default -> throw new IllegalArgumentException("Unknown payload: " + payload);
+        };
+        System.err.printf("bytes: %s %s%s = %d%n", payload, format, gzip ? "+gzip" : "", write());
+    }
+
+    @Benchmark
+    public int write() throws IOException {
+        buffer.reset();
+        if (gzip) {
+            // Tomcat compresses with the default deflate level as well
+            try (OutputStream out = new GZIPOutputStream(buffer, 8192)) {
+                objectMapper.writeValue(out, body);
+            }
+        } else {
+            objectMapper.writeValue(buffer, body);
+        }
+        return buffer.size();
+    }
+
+    // Distinct IDs, weights and dates; names and addresses are the same in every row, so the list compresses better
+    // than a real listing would
+    private static List<ParcelResponse> parcelList(int size) {
+        List<ParcelResponse> parcels = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Parcel parcel = Fixtures.parcel();
+            parcel.setId(parcel.getId() + i);
+            parcel.setWeight(0.5 + (i % 40) / 4.0);
+            parcel.setCreatedAt(parcel.getCreatedAt().minusMinutes(17L * i));
+            parcels.add(Fixtures.parcelResponse(parcel));
+        }
+        return parcels;
+    }
+}
@@ -0,0 +1,47 @@
+package com.routegenius.backend.benchmark;
+
+import com.routegenius.backend.util.TrackingIdGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tracking-ID generation, alone and with four threads contending for the same generator, and the
+ * normalisation done on every tracking lookup. At these rates the generator hands out far more than 4096 IDs
+ * per millisecond, so its sequence runs ahead of the clock; that is the carry path, which is still lock-free.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class TrackingIdBenchmark {
+
+    private final String trackingId = TrackingIdGenerator.generateTrackingId().toLowerCase();
+
+    @Benchmark
+    public String generate() {
+        return TrackingIdGenerator.generateTrackingId();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String generateContended() {
+        return TrackingIdGenerator.generateTrackingId();
+    }
+
+    @Benchmark
+    public String normalize() {
+        return TrackingIdGenerator.normalize(trackingId);
+    }
+}
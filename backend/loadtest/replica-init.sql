@@ -0,0 +1,10 @@
+-- Runs once, when the replica's data directory is created. With GTID auto-positioning the replica fetches
+-- everything the primary has written so far, including the schema and a dataset generated before it started.
+CHANGE REPLICATION SOURCE TO
+    SOURCE_HOST = 'mysql',
+    SOURCE_PORT = 3306,
+    SOURCE_USER = 'root',
+    SOURCE_PASSWORD = 'loadtest',
+    SOURCE_AUTO_POSITION = 1,
+    GET_SOURCE_PUBLIC_KEY = 1;
+START REPLICA;
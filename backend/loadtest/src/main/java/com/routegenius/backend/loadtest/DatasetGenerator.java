@@ -0,0 +1,375 @@
+package com.routegenius.backend.loadtest;
+
+import com.routegenius.backend.entity.ParcelStatus;
+import com.routegenius.backend.util.TrackingIdGenerator;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Fills a database, whose schema the backend has already created, with synthetic users, parcels,
+ * tracking events and notifications, and writes a sample of the parcels to a CSV file for the load driver.
+ *
+ *   java -cp target/loadtest.jar com.routegenius.backend.loadtest.DatasetGenerator --users=1000000 --parcels=3000000
+ *
+ * The data is a function of the options alone (including --as-of, which defaults to today's midnight), so two
+ * runs with the same options produce the same rows. Skew follows what a parcel service sees:
+ * - a configurable share of parcels comes from a small set of business senders, Zipf-distributed among them;
+ *   everybody else sends rarely and uniformly
+ * - cities are Zipf-distributed, so a few hubs carry most of the traffic
+ * - volume grows over the covered period, so recent days hold more parcels than old ones
+ * - each parcel walks through its lifecycle (with some cancellations, exceptions and returns) and only the
+ *   events that happened before --as-of are written, so old parcels are closed and recent ones still open
+ *
+ * All users share the password "loadtest". Tracking IDs use node id 1023 and their embedded time matches the
+ * parcel's creation time.
+ */
+public final class DatasetGenerator {
+
+    static final String PASSWORD = "loadtest";
+    static final String ADMIN_EMAIL = "admin@loadtest.routegenius.local";
+    static final int NODE_ID = 1023;
+
+    private static final String DEFAULT_JDBC_URL = "jdbc:mysql://localhost:3306/routegenius_loadtest"
+            + "?useSSL=false&allowPublicKeyRetrieval=true&rewriteBatchedStatements=true";
+    // Ordered by popularity, the Zipf rank picks from the front
+    private static final String[] CITIES = {"Hyderabad", "Mumbai", "Delhi", "Bengaluru", "Chennai", "Kolkata", "Pune",
+            "Ahmedabad", "Jaipur", "Lucknow", "Surat", "Kanpur", "Nagpur", "Indore", "Bhopal", "Visakhapatnam",
+            "Patna", "Vadodara", "Ludhiana", "Agra", "Nashik", "Coimbatore", "Kochi", "Madurai", "Warangal",
+            "Guwahati", "Chandigarh", "Mysuru", "Vijayawada", "Thiruvananthapuram"};
+    private static final String[] STREETS = {"MG Road", "Station Road", "Main Street", "Park Avenue", "Lake View Road",
+            "Temple Street", "Market Road", "Gandhi Nagar", "Nehru Colony", "Industrial Area"};
+    private static final String[] FIRST_NAMES = {"Aarav", "Vivaan", "Aditya", "Ananya", "Diya", "Ishaan", "Kavya",
+            "Meera", "Rohan", "Saanvi", "Arjun", "Priya", "Rahul", "Sneha", "Vikram", "Lakshmi"};
+    private static final String[] LAST_NAMES = {"Sharma", "Reddy", "Patel", "Iyer", "Khan", "Singh", "Das", "Nair",
+            "Gupta", "Rao", "Mehta", "Joshi"};
+    private static final String[] DESCRIPTIONS = {"Documents", "Books", "Electronics", "Clothing", "Medicines",
+            "Spare parts", "Gift box", "Kitchenware", "Shoes", "Toys"};
+
+    private final int users;
+    private final long parcels;
+    private final LocalDateTime asOf;
+    private final LocalDateTime start;
+    private final long seed;
+    private final double businessShare;
+    private final int businessSenders;
+    private final Zipf businessZipf;
+    private final Zipf cityZipf;
+    private final int sampleSize;
+    private final Path targetsFile;
+    private final int batchSize;
+
+    private DatasetGenerator(Options options) {
+        users = options.getInt("users", 1_000_000);
+        parcels = options.getLong("parcels", 3_000_000);
+        String asOfOption = options.get("as-of", null);
+        asOf = asOfOption == null ? LocalDate.now().atStartOfDay() : LocalDateTime.parse(asOfOption);
+        start = asOf.minusDays(options.getInt("days", 180));
+        if (start.isBefore(LocalDateTime.of(2024, 1, 2, 0, 0))) {
+            throw new IllegalArgumentException("The covered period must start after 2024-01-01, the tracking-ID epoch");
+        }
+        seed = options.getLong("seed", 42);
+        businessShare = options.getDouble("business-share", 0.3);
+        businessSenders = Math.max(1, (int) (users * options.getDouble("business-senders", 0.01)));
+        businessZipf = new Zipf(businessSenders, options.getDouble("zipf", 1.0));
+        cityZipf = new Zipf(CITIES.length, 1.0);
+        sampleSize = options.getInt("sample", 100_000);
+        targetsFile = Path.of(options.get("targets", "target/targets.csv"));
+        batchSize = options.getInt("batch", 1_000);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = Options.parse(args);
+        DatasetGenerator generator = new DatasetGenerator(options);
+        try (Connection connection = DriverManager.getConnection(options.get("jdbc-url", DEFAULT_JDBC_URL),
+                options.get("db-user", "root"), options.get("db-password", "loadtest"))) {
+            generator.run(connection);
+        }
+    }
+
+    private void run(Connection connection) throws SQLException, IOException {
+        connection.setAutoCommit(false);
+        try (Statement statement = connection.createStatement()) {
+            // Rows are written in dependency order, so the per-row checks only slow the bulk load down
+            statement.execute("SET unique_checks = 0");
+            statement.execute("SET foreign_key_checks = 0");
+            try (ResultSet rs = statement.executeQuery("SELECT COUNT(*) FROM _user WHERE email = '" + ADMIN_EMAIL + "'")) {
+                rs.next();
+                if (rs.getLong(1) > 0) {
+                    throw new IllegalStateException("The database already holds a load-test dataset; drop and recreate it first");
+                }
+            }
+        }
+        long firstUserId = nextId(connection, "_user");
+        long firstParcelId = nextId(connection, "parcels");
+
+        long started = System.nanoTime();
+        insertUsers(connection, firstUserId);
+        System.out.printf("%,d users in %d s%n", users + 1, (System.nanoTime() - started) / 1_000_000_000);
+        started = System.nanoTime();
+        long[] rows = insertParcels(connection, firstUserId, firstParcelId);
+        System.out.printf("%,d parcels, %,d tracking events and %,d notifications in %d s%n",
+                parcels, rows[0], rows[1], (System.nanoTime() - started) / 1_000_000_000);
+        System.out.println("Load-driver targets written to " + targetsFile.toAbsolutePath());
+    }
+
+    private void insertUsers(Connection connection, long firstUserId) throws SQLException {
+        // One hash for everybody: at BCrypt strength 10, a million hashes take over a day
+        String hash = new BCryptPasswordEncoder().encode(PASSWORD);
+        Random random = new Random(seed);
+        String sql = "INSERT INTO _user (id, first_name, last_name, email, password, role, created_at, last_updated_at) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+        try (PreparedStatement insert = connection.prepareStatement(sql)) {
+            Timestamp registered = Timestamp.valueOf(start.minusDays(30));
+            insert.setLong(1, firstUserId);
+            insert.setString(2, "Load");
+            insert.setString(3, "Admin");
+            insert.setString(4, ADMIN_EMAIL);
+            insert.setString(5, hash);
+            insert.setString(6, "ADMIN");
+            insert.setTimestamp(7, registered);
+            insert.setTimestamp(8, registered);
+            insert.addBatch();
+            for (int i = 0; i < users; i++) {
+                insert.setLong(1, userId(firstUserId, i));
+                insert.setString(2, FIRST_NAMES[random.nextInt(FIRST_NAMES.length)]);
+                insert.setString(3, LAST_NAMES[random.nextInt(LAST_NAMES.length)]);
+                insert.setString(4, email(i));
+                insert.setString(5, hash);
+                insert.setString(6, "USER");
+                insert.setTimestamp(7, registered);
+                insert.setTimestamp(8, registered);
+                insert.addBatch();
+                if ((i + 1) % batchSize == 0) {
+                    insert.executeBatch();
+                    connection.commit();
+                }
+            }
+            insert.executeBatch();
+            connection.commit();
+        }
+    }
+
+    // Returns the number of tracking events and notifications written
+    private long[] insertParcels(Connection connection, long firstUserId, long firstParcelId) throws SQLException, IOException {
+        Random random = new Random(seed + 1);
+        // Separate stream, so the sample size does not change the data
+        Random sampling = new Random(seed + 2);
+        double sampleRate = Math.min(1.0, (double) sampleSize / parcels);
+        long spanMillis = java.time.Duration.between(start, asOf).toMillis();
+        long events = 0;
+        long notifications = 0;
+
+        String parcelSql = "INSERT INTO parcels (id, tracking_id, sender_id, recipient_id, sender_address, recipient_address, "
+                + "sender_phone, recipient_phone, description, weight, dimensions_length, dimensions_width, dimensions_height, "
+                + "status, estimated_delivery_date, actual_delivery_date, current_location, current_city, current_country, "
+                + "created_at, last_updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        String eventSql = "INSERT INTO tracking_events (parcel_id, status, location_description, city, country, `timestamp`) "
+                + "VALUES (?, ?, ?, ?, ?, ?)";
+        String notificationSql = "INSERT INTO notifications (user_id, parcel_id, message, related_status, `timestamp`, is_read) "
+                + "VALUES (?, ?, ?, ?, ?, ?)";
+        Files.createDirectories(targetsFile.toAbsolutePath().getParent());
+        try (PreparedStatement parcelInsert = connection.prepareStatement(parcelSql);
+             PreparedStatement eventInsert = connection.prepareStatement(eventSql);
+             PreparedStatement notificationInsert = connection.prepareStatement(notificationSql);
+             BufferedWriter targets = Files.newBufferedWriter(targetsFile)) {
+            targets.write(Target.HEADER);
+            targets.newLine();
+            long reportEvery = Math.max(1, parcels / 20);
+            for (long i = 0; i < parcels; i++) {
+                // Concave in i: parcels get denser towards the end of the period
+                double position = Math.pow((i + random.nextDouble()) / parcels, 0.7);
+                LocalDateTime createdAt = start.plusNanos((long) (position * spanMillis) * 1_000_000);
+                long parcelId = firstParcelId + i;
+                String trackingId = TrackingIdGenerator.forTimestamp(createdAt.toInstant(ZoneOffset.UTC).toEpochMilli(),
+                        NODE_ID, (int) (i & 4095));
+
+                int sender = random.nextDouble() < businessShare ? businessZipf.sample(random) : random.nextInt(users);
+                int recipient = random.nextInt(users);
+                String origin = CITIES[cityZipf.sample(random)];
+                String destination = CITIES[cityZipf.sample(random)];
+                List<Event> lifecycle = lifecycle(random, createdAt, origin, destination);
+                Event last = lifecycle.get(lifecycle.size() - 1);
+
+                String senderAddress = (1 + random.nextInt(400)) + " " + STREETS[random.nextInt(STREETS.length)] + " " + origin;
+                String recipientAddress = (1 + random.nextInt(400)) + " " + STREETS[random.nextInt(STREETS.length)] + " " + destination;
+                String senderPhone = phone(random);
+                String recipientPhone = phone(random);
+                String description = DESCRIPTIONS[random.nextInt(DESCRIPTIONS.length)];
+                double weight = Math.round(Math.min(50, Math.max(0.1, Math.exp(random.nextGaussian() * 0.8))) * 100) / 100.0;
+                double length = 10 + random.nextInt(50);
+                double width = 10 + random.nextInt(40);
+                double height = 5 + random.nextInt(30);
+                LocalDateTime eta = createdAt.plusDays(2 + random.nextInt(5));
+
+                int p = 1;
+                parcelInsert.setLong(p++, parcelId);
+                parcelInsert.setString(p++, trackingId);
+                parcelInsert.setLong(p++, userId(firstUserId, sender));
+                parcelInsert.setLong(p++, userId(firstUserId, recipient));
+                parcelInsert.setString(p++, senderAddress);
+                parcelInsert.setString(p++, recipientAddress);
+                parcelInsert.setString(p++, senderPhone);
+                parcelInsert.setString(p++, recipientPhone);
+                parcelInsert.setString(p++, description);
+                parcelInsert.setDouble(p++, weight);
+                parcelInsert.setDouble(p++, length);
+                parcelInsert.setDouble(p++, width);
+                parcelInsert.setDouble(p++, height);
+                parcelInsert.setString(p++, last.status.name());
+                parcelInsert.setTimestamp(p++, Timestamp.valueOf(eta));
+                parcelInsert.setTimestamp(p++, last.status == ParcelStatus.DELIVERED ? Timestamp.valueOf(last.time) : null);
+                parcelInsert.setString(p++, last.location);
+                parcelInsert.setString(p++, last.city);
+                parcelInsert.setString(p++, "India");
+                parcelInsert.setTimestamp(p++, Timestamp.valueOf(createdAt));
+                parcelInsert.setTimestamp(p, Timestamp.valueOf(last.time));
+                parcelInsert.addBatch();
+
+                for (Event event : lifecycle) {
+                    eventInsert.setLong(1, parcelId);
+                    eventInsert.setString(2, event.status.name());
+                    eventInsert.setString(3, event.description);
+                    eventInsert.setString(4, event.city);
+                    eventInsert.setString(5, "India");
+                    eventInsert.setTimestamp(6, Timestamp.valueOf(event.time));
+                    eventInsert.addBatch();
+                }
+                events += lifecycle.size();
+
+                if (last.status != ParcelStatus.PENDING) {
+                    notificationInsert.setLong(1, userId(firstUserId, recipient));
+                    notificationInsert.setLong(2, parcelId);
+                    notificationInsert.setString(3, "Your parcel " + trackingId + " is now " + last.status.name().replace('_', ' ')
+                            + " (" + last.city + ").");
+                    notificationInsert.setString(4, last.status.name());
+                    notificationInsert.setTimestamp(5, Timestamp.valueOf(last.time));
+                    notificationInsert.setBoolean(6, last.time.isBefore(asOf.minusDays(3)));
+                    notificationInsert.addBatch();
+                    notifications++;
+                }
+
+                if (sampling.nextDouble() < sampleRate) {
+                    targets.write(String.join(",", Long.toString(parcelId), trackingId, last.status.name(),
+                            Long.toString(userId(firstUserId, sender)), email(sender),
+                            Long.toString(userId(firstUserId, recipient)), email(recipient),
+                            senderAddress, recipientAddress, senderPhone, recipientPhone, description,
+                            Double.toString(weight), Double.toString(length), Double.toString(width), Double.toString(height),
+                            last.city, destination));
+                    targets.newLine();
+                }
+
+                if ((i + 1) % batchSize == 0) {
+                    parcelInsert.executeBatch();
+                    eventInsert.executeBatch();
+                    notificationInsert.executeBatch();
+                    connection.commit();
+                }
+                if ((i + 1) % reportEvery == 0) {
+                    System.out.printf("%3d%% (%,d parcels)%n", (i + 1) * 100 / parcels, i + 1);
+                }
+            }
+            parcelInsert.executeBatch();
+            eventInsert.executeBatch();
+            notificationInsert.executeBatch();
+            connection.commit();
+        }
+        return new long[]{events, notifications};
+    }
+
+    /**
+     * Walks a parcel through pending, dispatch, one to three hub hops and delivery, with the occasional
+     * cancellation, failed delivery or return, and keeps the events that happened before --as-of.
+     */
+    private List<Event> lifecycle(Random random, LocalDateTime createdAt, String origin, String destination) {
+        List<Event> events = new ArrayList<>(6);
+        LocalDateTime time = createdAt;
+        events.add(new Event(ParcelStatus.PENDING, "Shipment created", origin + " booking office", origin, time));
+        int fate = random.nextInt(100);
+        if (fate < 2) {
+            time = time.plusHours(1 + random.nextInt(48));
+            add(events, new Event(ParcelStatus.CANCELLED, "Cancelled by sender", origin + " booking office", origin, time));
+            return events;
+        }
+        time = time.plusHours(2 + random.nextInt(22));
+        add(events, new Event(ParcelStatus.DISPATCHED, "Picked up from sender", origin + " hub", origin, time));
+        int hops = 1 + random.nextInt(3);
+        for (int hop = 1; hop <= hops; hop++) {
+            String city = hop == hops ? destination : CITIES[cityZipf.sample(random)];
+            time = time.plusHours(4 + random.nextInt(26));
+            add(events, new Event(ParcelStatus.IN_TRANSIT, "Arrived at " + city + " sorting hub", city + " sorting hub", city, time));
+        }
+        if (fate < 5) {
+            time = time.plusHours(6 + random.nextInt(42));
+            add(events, new Event(ParcelStatus.EXCEPTION, "Delivery attempt failed", destination + " delivery centre", destination, time));
+            if (fate < 4) {
+                time = time.plusDays(2 + random.nextInt(4));
+                add(events, new Event(ParcelStatus.RETURNED, "Returned to sender", origin + " hub", origin, time));
+                return events;
+            }
+        }
+        time = time.plusHours(2 + random.nextInt(10));
+        add(events, new Event(ParcelStatus.DELIVERED, "Delivered", destination + " delivery centre", destination, time));
+        return events;
+    }
+
+    // Events are generated in time order, so dropping the future ones leaves a consistent history
+    private void add(List<Event> events, Event event) {
+        if (!event.time.isAfter(asOf)) {
+            events.add(event);
+        }
+    }
+
+    private static long nextId(Connection connection, String table) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT COALESCE(MAX(id), 0) + 1 FROM " + table)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    // User i (0-based) gets the id after the admin
+    private static long userId(long firstUserId, int index) {
+        return firstUserId + 1 + index;
+    }
+
+    static String email(int index) {
+        return "user" + index + "@loadtest.routegenius.local";
+    }
+
+    private static String phone(Random random) {
+        return "9" + (100_000_000 + random.nextInt(900_000_000));
+    }
+
+    private static final class Event {
+        private final ParcelStatus status;
+        private final String description;
+        private final String location;
+        private final String city;
+        private final LocalDateTime time;
+
+        private Event(ParcelStatus status, String description, String location, String city, LocalDateTime time) {
+            this.status = status;
+            this.description = description;
+            this.location = location;
+            this.city = city;
+            this.time = time;
+        }
+    }
+}
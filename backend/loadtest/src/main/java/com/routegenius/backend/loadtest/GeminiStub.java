@@ -0,0 +1,82 @@
+package com.routegenius.backend.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Answers generateContent calls in the shape NotificationServiceImpl parses
+ * (candidates[0].content.parts[0].text) after a configurable delay. The delay is drawn uniformly from
+ * half to one and a half times the configured latency, since the point is to see how the backend copes with a
+ * slow upstream, not to model the real API.
+ */
+final class GeminiStub implements AutoCloseable {
+
+    private static final byte[] RESPONSE = ("{\"candidates\":[{\"content\":{\"role\":\"model\",\"parts\":[{\"text\":"
+            + "\"Good news! Your parcel has moved on to its next stop and is on schedule. "
+            + "You can follow it live on the RouteGenius tracking page.\"}]},\"finishReason\":\"STOP\"}]}")
+            .getBytes(StandardCharsets.UTF_8);
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final long latencyMillis;
+    private final AtomicLong requests = new AtomicLong();
+
+    GeminiStub(int port, Duration latency) throws IOException {
+        this.latencyMillis = latency.toMillis();
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 512);
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    long getRequests() {
+        return requests.get();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            try (InputStream body = exchange.getRequestBody()) {
+                body.transferTo(OutputStream.nullOutputStream());
+            }
+            if (!"POST".equals(exchange.getRequestMethod()) || !exchange.getRequestURI().getPath().endsWith(":generateContent")) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+            requests.incrementAndGet();
+            if (latencyMillis > 0) {
+                try {
+                    Thread.sleep(latencyMillis / 2 + ThreadLocalRandom.current().nextLong(latencyMillis + 1));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    exchange.sendResponseHeaders(503, -1);
+                    return;
+                }
+            }
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, RESPONSE.length);
+            exchange.getResponseBody().write(RESPONSE);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,495 @@
+package com.routegenius.backend.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Replays a weighted mix of backend traffic at a fixed arrival rate and reports throughput and latency
+ * percentiles per endpoint.
+ *
+ *   java -cp target/loadtest.jar com.routegenius.backend.loadtest.LoadDriver --rate=200 --duration=5m
+ *
+ * Requests arrive as a Poisson process at --rate per second, whether or not earlier ones have finished, and each
+ * latency is measured from the moment its request was due. A backend that stalls therefore shows up in the
+ * percentiles instead of quietly slowing the driver down (coordinated omission). Requests due during --warmup
+ * are sent but not recorded.
+ *
+ * Parcels come from the generator's targets file; recent parcels are picked far more often than old ones.
+ * Each user-facing request runs as one of --sessions users drawn from that file, logged in up front.
+ */
+public final class LoadDriver {
+
+    static final String DEFAULT_MIX = "login:2,track:40,my-parcels:15,history:20,status-update:8,notifications:13,notify:2";
+
+    enum Endpoint {
+        LOGIN("login"),
+        TRACK("track"),
+        MY_PARCELS("my-parcels"),
+        HISTORY("history"),
+        STATUS_UPDATE("status-update"),
+        // Reads the signed-in user's notifications
+        NOTIFICATIONS("notifications"),
+        // Admin asks for a notification draft: one Gemini call, nothing stored or sent
+        NOTIFY("notify"),
+        // A hub scanner sends a batch of --scan-batch scans; not in the default mix
+        SCAN("scan");
+
+        final String label;
+
+        Endpoint(String label) {
+            this.label = label;
+        }
+
+        static Endpoint of(String label) {
+            for (Endpoint endpoint : values()) {
+                if (endpoint.label.equals(label)) {
+                    return endpoint;
+                }
+            }
+            throw new IllegalArgumentException("Unknown endpoint in --mix: " + label);
+        }
+    }
+
+    private static final class Session {
+        final String email;
+        volatile String token;
+        volatile long loggedInAt;
+
+        Session(String email) {
+            this.email = email;
+        }
+    }
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final String baseUrl;
+    private final Duration timeout;
+    private final long tokenRefreshNanos;
+    private final List<Target> targets;
+    private final Zipf recency;
+    private final List<Session> sessions;
+    private final Session admin;
+    private final Endpoint[] mixTable;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final HttpClient client;
+    private final Map<Endpoint, Recorder> recorders = new EnumMap<>(Endpoint.class);
+    private final Map<Endpoint, Histogram> totals = new EnumMap<>(Endpoint.class);
+    private final Map<Endpoint, Map<String, LongAdder>> errors = new EnumMap<>(Endpoint.class);
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final int maxInFlight;
+    private final int scanBatch;
+    private final long seed;
+    private volatile long recordFromNanos = Long.MAX_VALUE;
+
+    private LoadDriver(Options options, List<Target> targets) {
+        baseUrl = options.get("base-url", "http://localhost:8081");
+        timeout = options.getDuration("timeout", Duration.ofSeconds(30));
+        tokenRefreshNanos = options.getDuration("token-refresh", Duration.ofMinutes(50)).toNanos();
+        maxInFlight = options.getInt("max-in-flight", 10_000);
+        scanBatch = options.getInt("scan-batch", 100);
+        this.targets = targets;
+        recency = new Zipf(targets.size(), options.getDouble("recency-zipf", 0.8));
+        seed = options.getLong("seed", 7);
+        Random random = new Random(seed);
+        sessions = pickSessions(targets, options.getInt("sessions", 200), random);
+        admin = new Session(options.get("admin-email", DatasetGenerator.ADMIN_EMAIL));
+        mixTable = mixTable(options.get("mix", DEFAULT_MIX));
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        for (Endpoint endpoint : Endpoint.values()) {
+            recorders.put(endpoint, new Recorder(3));
+            totals.put(endpoint, new Histogram(3));
+            errors.put(endpoint, new ConcurrentHashMap<>());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = Options.parse(args);
+        List<Target> targets = Target.load(Path.of(options.get("targets", "target/targets.csv")));
+        StubServers stubs = options.getBoolean("with-stubs") ? new StubServers(options) : null;
+        try {
+            new LoadDriver(options, targets).run(options.getDouble("rate", 100),
+                    options.getDuration("warmup", Duration.ofSeconds(30)),
+                    options.getDuration("duration", Duration.ofMinutes(2)),
+                    options.getDuration("report-interval", Duration.ofSeconds(10)),
+                    Path.of(options.get("output", "target/report")));
+        } finally {
+            if (stubs != null) {
+                stubs.close();
+            }
+        }
+    }
+
+    private void run(double rate, Duration warmup, Duration duration, Duration reportInterval, Path output)
+            throws IOException, InterruptedException {
+        System.out.printf("Logging in %d users and the admin against %s%n", sessions.size(), baseUrl);
+        logInAll();
+
+        long startNanos = System.nanoTime();
+        recordFromNanos = startNanos + warmup.toNanos();
+        long endNanos = recordFromNanos + duration.toNanos();
+        long nextReport = startNanos + reportInterval.toNanos();
+        long lastReport = startNanos;
+        Random arrivals = new Random(seed + 1);
+        long dueNanos = startNanos;
+        System.out.printf("Offering %.0f requests/s: %s warm-up, then %s measured%n", rate, warmup, duration);
+        while (dueNanos < endNanos) {
+            // Exponential gaps make a Poisson arrival process
+            dueNanos += (long) (-Math.log(1 - arrivals.nextDouble()) / rate * 1e9);
+            long wait = dueNanos - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            Endpoint endpoint = mixTable[arrivals.nextInt(mixTable.length)];
+            long due = dueNanos;
+            if (inFlight.incrementAndGet() > maxInFlight) {
+                inFlight.decrementAndGet();
+                fail(endpoint, due, "dropped: driver at --max-in-flight");
+            } else {
+                executor.execute(() -> {
+                    try {
+                        send(endpoint, due);
+                    } finally {
+                        inFlight.decrementAndGet();
+                    }
+                });
+            }
+            long now = System.nanoTime();
+            if (now >= nextReport) {
+                printInterval(now - lastReport, lastReport >= recordFromNanos);
+                lastReport = now;
+                nextReport += reportInterval.toNanos();
+            }
+        }
+        System.out.println("Waiting for " + inFlight.get() + " requests in flight");
+        executor.shutdown();
+        if (!executor.awaitTermination(timeout.toSeconds() + 5, TimeUnit.SECONDS)) {
+            System.err.println("ERROR (LoadDriver): requests still in flight after the timeout; they are not counted");
+            executor.shutdownNow();
+        }
+        for (Endpoint endpoint : Endpoint.values()) {
+            totals.get(endpoint).add(recorders.get(endpoint).getIntervalHistogram());
+        }
+        report(duration, output);
+    }
+
+    private void send(Endpoint endpoint, long due) {
+        Target target = pickTarget();
+        Session session = sessions.get(ThreadLocalRandom.current().nextInt(sessions.size()));
+        try {
+            HttpRequest request = switch (endpoint) {
+                case LOGIN -> loginRequest(session);
+                case TRACK -> get("/api/v1/parcels/track/" + target.trackingId, null);
+                case MY_PARCELS -> get("/api/v1/parcels/my-parcels", token(session));
+                case HISTORY -> get("/api/v1/parcels/" + target.parcelId + "/history", token(session));
+                case STATUS_UPDATE -> statusUpdateRequest(target);
+                case NOTIFICATIONS -> get("/api/v1/notifications", token(session));
+                case NOTIFY -> notifyRequest(target);
+                case SCAN -> scanRequest();
+            };
+            HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            if (response.statusCode() / 100 != 2) {
+                fail(endpoint, due, "HTTP " + response.statusCode());
+                return;
+            }
+            if (endpoint == Endpoint.LOGIN) {
+                session.token = objectMapper.readTree(response.body()).path("token").asText();
+                session.loggedInAt = System.nanoTime();
+            }
+            record(endpoint, due);
+        } catch (HttpTimeoutException e) {
+            fail(endpoint, due, "timeout");
+        } catch (IOException | RuntimeException e) {
+            fail(endpoint, due, e.getClass().getSimpleName());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Recent parcels are the ones people track and staff update
+    private Target pickTarget() {
+        return targets.get(targets.size() - 1 - recency.sample(ThreadLocalRandom.current()));
+    }
+
+    private HttpRequest get(String path, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(timeout).GET();
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder.build();
+    }
+
+    private HttpRequest post(String method, String path, String token, JsonNode body) throws IOException {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(timeout)
+                .header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)));
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder.build();
+    }
+
+    private HttpRequest loginRequest(Session session) throws IOException {
+        ObjectNode body = objectMapper.createObjectNode()
+                .put("email", session.email)
+                .put("password", DatasetGenerator.PASSWORD);
+        return post("POST", "/api/v1/auth/login", null, body);
+    }
+
+    // Moves the parcel one step along PENDING, DISPATCHED, IN_TRANSIT, DELIVERED; closed parcels get a no-op update
+    private HttpRequest statusUpdateRequest(Target target) throws IOException, InterruptedException {
+        String status;
+        String city;
+        synchronized (target) {
+            target.status = switch (target.status) {
+                case "PENDING" -> "DISPATCHED";
+                case "DISPATCHED", "EXCEPTION" -> "IN_TRANSIT";
+                case "IN_TRANSIT" -> "DELIVERED";
+                default -> target.status;
+            };
+            if (target.status.equals("IN_TRANSIT") || target.status.equals("DELIVERED")) {
+                target.currentCity = target.destinationCity;
+            }
+            status = target.status;
+            city = target.currentCity;
+        }
+        ObjectNode body = objectMapper.createObjectNode()
+                .put("senderId", target.senderId)
+                .put("recipientId", target.recipientId)
+                .put("senderAddress", target.senderAddress)
+                .put("recipientAddress", target.recipientAddress)
+                .put("senderPhone", target.senderPhone)
+                .put("recipientPhone", target.recipientPhone)
+                .put("description", target.description)
+                .put("weight", target.weight)
+                .put("dimensionsLength", target.length)
+                .put("dimensionsWidth", target.width)
+                .put("dimensionsHeight", target.height)
+                .put("status", status)
+                .put("currentLocation", city + (status.equals("DELIVERED") ? " delivery centre" : " sorting hub"))
+                .put("currentCity", city)
+                .put("currentCountry", "India");
+        return post("PUT", "/api/v1/parcels/" + target.parcelId, token(admin), body);
+    }
+
+    private HttpRequest notifyRequest(Target target) throws IOException, InterruptedException {
+        String status;
+        synchronized (target) {
+            status = target.status;
+        }
+        ObjectNode body = objectMapper.createObjectNode()
+                .put("parcelId", target.parcelId)
+                .put("status", status);
+        return post("POST", "/api/v1/notifications/generate-draft", token(admin), body);
+    }
+
+    // Scans of recent parcels at their current hub. Parcels not yet on their way are moved to IN_TRANSIT; the
+    // rest repeat their state, like a parcel scanned again at the same hub, and are dropped as duplicates.
+    private HttpRequest scanRequest() throws IOException, InterruptedException {
+        ArrayNode scans = objectMapper.createArrayNode();
+        String scannedAt = LocalDateTime.now().toString();
+        for (int i = 0; i < scanBatch; i++) {
+            Target target = pickTarget();
+            String status;
+            String city;
+            synchronized (target) {
+                if (target.status.equals("PENDING") || target.status.equals("DISPATCHED")) {
+                    target.status = "IN_TRANSIT";
+                }
+                status = target.status;
+                city = target.currentCity;
+            }
+            scans.addObject()
+                    .put("trackingId", target.trackingId)
+                    .put("status", status)
+                    .put("location", city + " sorting hub")
+                    .put("city", city)
+                    .put("country", "India")
+                    .put("scannedAt", scannedAt);
+        }
+        ObjectNode body = objectMapper.createObjectNode();
+        body.set("scans", scans);
+        return post("POST", "/api/v1/scans", token(admin), body);
+    }
+
+    // Tokens expire after an hour; long runs log in again outside the measurements
+    private String token(Session session) throws IOException, InterruptedException {
+        if (System.nanoTime() - session.loggedInAt > tokenRefreshNanos) {
+            logIn(session);
+        }
+        return session.token;
+    }
+
+    private void logInAll() throws InterruptedException {
+        List<Session> all = new ArrayList<>(sessions);
+        all.add(admin);
+        AtomicInteger failures = new AtomicInteger();
+        // BCrypt makes logins expensive; a few at a time keep the backend from timing out
+        try (ExecutorService pool = Executors.newFixedThreadPool(8)) {
+            for (Session session : all) {
+                pool.execute(() -> {
+                    try {
+                        logIn(session);
+                    } catch (Exception e) {
+                        failures.incrementAndGet();
+                        System.err.println("ERROR (LoadDriver): login failed for " + session.email + ": " + e.getMessage());
+                    }
+                });
+            }
+        }
+        if (failures.get() > 0) {
+            throw new IllegalStateException(failures.get() + " logins failed; is the dataset loaded and the backend up?");
+        }
+    }
+
+    private void logIn(Session session) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = client.send(loginRequest(session), HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IOException("HTTP " + response.statusCode());
+        }
+        session.token = objectMapper.readTree(response.body()).path("token").asText();
+        session.loggedInAt = System.nanoTime();
+    }
+
+    private void record(Endpoint endpoint, long due) {
+        if (due >= recordFromNanos) {
+            recorders.get(endpoint).recordValue(Math.max(1, (System.nanoTime() - due) / 1_000));
+        }
+    }
+
+    private void fail(Endpoint endpoint, long due, String reason) {
+        if (due >= recordFromNanos) {
+            errors.get(endpoint).computeIfAbsent(reason, r -> new LongAdder()).increment();
+        }
+    }
+
+    private void printInterval(long elapsedNanos, boolean measuring) {
+        Histogram interval = new Histogram(3);
+        for (Endpoint endpoint : Endpoint.values()) {
+            Histogram histogram = recorders.get(endpoint).getIntervalHistogram();
+            totals.get(endpoint).add(histogram);
+            interval.add(histogram);
+        }
+        if (!measuring) {
+            System.out.printf("warm-up: %d in flight%n", inFlight.get());
+            return;
+        }
+        System.out.printf("%8.0f ok/s  p50 %8.2f ms  p99 %8.2f ms  max %8.2f ms  %d in flight%n",
+                interval.getTotalCount() / (elapsedNanos / 1e9), interval.getValueAtPercentile(50) / 1e3,
+                interval.getValueAtPercentile(99) / 1e3, interval.getMaxValue() / 1e3, inFlight.get());
+    }
+
+    private void report(Duration duration, Path output) throws IOException {
+        Files.createDirectories(output);
+        double seconds = duration.toNanos() / 1e9;
+        String format = "%-14s %9s %7s %9s %9s %9s %9s %9s %9s%n";
+        System.out.printf(format, "endpoint", "ok", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        try (PrintWriter csv = new PrintWriter(Files.newBufferedWriter(output.resolve("summary.csv")))) {
+            csv.println("endpoint,ok,errors,throughput_per_s,p50_ms,p90_ms,p99_ms,p99_9_ms,max_ms");
+            for (Endpoint endpoint : Endpoint.values()) {
+                Histogram histogram = totals.get(endpoint);
+                long errorCount = errors.get(endpoint).values().stream().mapToLong(LongAdder::sum).sum();
+                if (histogram.getTotalCount() == 0 && errorCount == 0) {
+                    continue;
+                }
+                String[] row = {endpoint.label, Long.toString(histogram.getTotalCount()), Long.toString(errorCount),
+                        String.format("%.1f", histogram.getTotalCount() / seconds),
+                        millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(90)),
+                        millis(histogram.getValueAtPercentile(99)), millis(histogram.getValueAtPercentile(99.9)),
+                        millis(histogram.getMaxValue())};
+                System.out.printf(format, (Object[]) row);
+                csv.println(String.join(",", row));
+                try (PrintStream hgrm = new PrintStream(Files.newOutputStream(output.resolve(endpoint.label + ".hgrm")))) {
+                    // Values are recorded in microseconds; the percentile file is in milliseconds
+                    histogram.outputPercentileDistribution(hgrm, 1000.0);
+                }
+            }
+        }
+        for (Endpoint endpoint : Endpoint.values()) {
+            Map<String, LongAdder> reasons = errors.get(endpoint);
+            if (!reasons.isEmpty()) {
+                Map<String, Long> sorted = new TreeMap<>();
+                reasons.forEach((reason, count) -> sorted.put(reason, count.sum()));
+                System.out.println("errors " + endpoint.label + ": " + sorted);
+            }
+        }
+        System.out.println("Summary and percentile distributions written to " + output.toAbsolutePath());
+    }
+
+    private static String millis(long micros) {
+        return String.format("%.2f", micros / 1e3);
+    }
+
+    // Users who appear in the sample, each equally likely, so a handful of very busy senders does not dominate
+    private static List<Session> pickSessions(List<Target> targets, int count, Random random) {
+        Set<String> emails = new LinkedHashSet<>();
+        for (Target target : targets) {
+            emails.add(target.senderEmail);
+            emails.add(target.recipientEmail);
+        }
+        List<String> candidates = new ArrayList<>(emails);
+        List<Session> sessions = new ArrayList<>(count);
+        for (int i = 0; i < Math.min(count, candidates.size()); i++) {
+            int j = i + random.nextInt(candidates.size() - i);
+            String picked = candidates.get(j);
+            candidates.set(j, candidates.get(i));
+            sessions.add(new Session(picked));
+        }
+        return sessions;
+    }
+
+    // One slot per weight point, so a uniformly random slot picks endpoints in proportion to their weights
+    private static Endpoint[] mixTable(String mix) {
+        List<Endpoint> table = new ArrayList<>();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split(":");
+            Endpoint endpoint = Endpoint.of(parts[0]);
+            int weight = Integer.parseInt(parts[1]);
+            if (weight < 0) {
+                throw new IllegalArgumentException("Negative weight in --mix: " + entry);
+            }
+            for (int i = 0; i < weight; i++) {
+                table.add(endpoint);
+            }
+        }
+        if (table.isEmpty()) {
+            throw new IllegalArgumentException("--mix has no positive weights");
+        }
+        return table.toArray(new Endpoint[0]);
+    }
+}
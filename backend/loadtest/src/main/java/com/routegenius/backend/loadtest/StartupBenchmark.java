@@ -0,0 +1,176 @@
+package com.routegenius.backend.loadtest;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Starts the backend repeatedly in each packaging mode and reports how long it takes until the first tracking
+ * request is answered and until /actuator/health/readiness reports UP.
+ *
+ *   java -cp target/loadtest.jar com.routegenius.backend.loadtest.StartupBenchmark --runs=5
+ *
+ * Modes: "jar" is the Boot exec jar, "aot" the fast-startup jar with AOT-generated bean definitions, and
+ * "aot-cds" the same with the class-data sharing archive from the training run. All modes run with the same
+ * --profiles, which must be the profiles the fast-startup build was processed for. Times are taken from process
+ * launch, so JVM start-up is included. Every run's console output is kept in the output directory.
+ */
+public final class StartupBenchmark {
+
+    private static final Pattern STARTED = Pattern.compile("Started BackendApplication in ([0-9.]+) seconds");
+
+    private final Path backendTarget;
+    private final String profiles;
+    private final int port;
+    private final List<String> jvmArgs;
+    private final Duration timeout;
+    private final Path output;
+    private final String trackingId;
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+
+    private StartupBenchmark(Options options) throws IOException {
+        backendTarget = Path.of(options.get("backend-target", "../backend/target"));
+        profiles = options.get("profiles", "loadtest,fast-startup");
+        port = options.getInt("port", 8081);
+        String extra = options.get("jvm-args", "");
+        jvmArgs = extra.isBlank() ? List.of() : Arrays.asList(extra.trim().split("\\s+"));
+        timeout = options.getDuration("timeout", Duration.ofMinutes(3));
+        output = Path.of(options.get("output", "target/startup"));
+        Path targets = Path.of(options.get("targets", "target/targets.csv"));
+        // Any answer counts, so an unknown ID is fine when there is no dataset
+        trackingId = Files.exists(targets) ? Target.load(targets).get(0).trackingId : "RG0000000000000";
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = Options.parse(args);
+        List<String> modes = List.of(options.get("modes", "jar,aot,aot-cds").split(","));
+        new StartupBenchmark(options).run(modes, options.getInt("runs", 5));
+    }
+
+    private void run(List<String> modes, int runs) throws IOException, InterruptedException {
+        Files.createDirectories(output);
+        Map<String, List<double[]>> results = new LinkedHashMap<>();
+        try (PrintWriter csv = new PrintWriter(Files.newBufferedWriter(output.resolve("runs.csv")))) {
+            csv.println("mode,run,first_response_ms,ready_ms,spring_started_ms");
+            // Rounds interleave the modes, so drift on the machine (thermal, page cache) hits all of them alike
+            for (int run = 1; run <= runs; run++) {
+                for (String mode : modes) {
+                    double[] result = launch(mode, run);
+                    results.computeIfAbsent(mode, m -> new ArrayList<>()).add(result);
+                    System.out.printf("%-8s run %d: first response %s ms, ready %s ms, Spring reported %s ms%n",
+                            mode, run, format(result[0]), format(result[1]), format(result[2]));
+                    csv.printf("%s,%d,%s,%s,%s%n", mode, run, format(result[0]), format(result[1]), format(result[2]));
+                }
+            }
+        }
+
+        String header = "%-8s %17s %17s %17s%n";
+        System.out.println();
+        System.out.printf(header, "mode", "first resp. ms", "ready ms", "Spring ms");
+        System.out.printf(header, "", "median (min-max)", "median (min-max)", "median (min-max)");
+        results.forEach((mode, rows) -> System.out.printf(header, mode,
+                summary(rows, 0), summary(rows, 1), summary(rows, 2)));
+        System.out.println("Per-run results and console logs written to " + output.toAbsolutePath());
+    }
+
+    private double[] launch(String mode, int run) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmArgs);
+        Path fastStartup = backendTarget.resolve("fast-startup");
+        switch (mode) {
+            case "jar" -> command.addAll(List.of("-jar", backendTarget.resolve("backend-0.0.1-SNAPSHOT-exec.jar").toString()));
+            case "aot" -> command.addAll(List.of("-Dspring.aot.enabled=true",
+                    "-jar", fastStartup.resolve("backend-fast-startup.jar").toString()));
+            case "aot-cds" -> command.addAll(List.of("-XX:SharedArchiveFile=" + fastStartup.resolve("backend.jsa"),
+                    // Fail instead of silently running without the archive
+                    "-Xshare:on", "-Dspring.aot.enabled=true",
+                    "-jar", fastStartup.resolve("backend-fast-startup.jar").toString()));
+            default -> throw new IllegalArgumentException("Unknown mode in --modes: " + mode);
+        }
+        command.add("--spring.profiles.active=" + profiles);
+        command.add("--server.port=" + port);
+
+        Path log = output.resolve(mode + "-" + run + ".log");
+        long launched = System.nanoTime();
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(log.toFile()).start();
+        try {
+            double firstResponse = Double.NaN;
+            double ready = Double.NaN;
+            long deadline = launched + timeout.toNanos();
+            while (Double.isNaN(ready) && System.nanoTime() < deadline) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException(mode + " exited with " + process.exitValue() + ", see " + log);
+                }
+                if (Double.isNaN(firstResponse) && answers("/api/v1/parcels/track/" + trackingId)) {
+                    firstResponse = (System.nanoTime() - launched) / 1e6;
+                }
+                if (!Double.isNaN(firstResponse) && status("/actuator/health/readiness") == 200) {
+                    ready = (System.nanoTime() - launched) / 1e6;
+                }
+                Thread.sleep(10);
+            }
+            if (Double.isNaN(ready)) {
+                System.err.println("ERROR (StartupBenchmark): " + mode + " not ready after " + timeout + ", see " + log);
+            }
+            return new double[]{firstResponse, ready, springStarted(log)};
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    // Any response below 500 means the request went through the whole stack
+    private boolean answers(String path) {
+        int status = status(path);
+        return status > 0 && status < 500;
+    }
+
+    private int status(String path) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .timeout(Duration.ofSeconds(5)).GET().build();
+        try {
+            return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (IOException e) {
+            return -1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return -1;
+        }
+    }
+
+    private static double springStarted(Path log) throws IOException {
+        Matcher matcher = STARTED.matcher(Files.readString(log));
+        return matcher.find() ? Double.parseDouble(matcher.group(1)) * 1000 : Double.NaN;
+    }
+
+    private static String summary(List<double[]> rows, int column) {
+        double[] values = rows.stream().mapToDouble(row -> row[column]).filter(v -> !Double.isNaN(v)).sorted().toArray();
+        if (values.length == 0) {
+            return "-";
+        }
+        int middle = values.length / 2;
+        double median = values.length % 2 == 1 ? values[middle] : (values[middle - 1] + values[middle]) / 2;
+        return String.format("%.0f (%.0f-%.0f)", median, values[0], values[values.length - 1]);
+    }
+
+    private static String format(double millis) {
+        return Double.isNaN(millis) ? "" : String.format("%.0f", millis);
+    }
+}
@@ -0,0 +1,54 @@
+package com.routegenius.backend.loadtest;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Runs the SMTP and Gemini stand-ins that the backend's "loadtest" profile points at, until interrupted.
+ *
+ *   java -cp target/loadtest.jar com.routegenius.backend.loadtest.StubServers [--smtp-port=2525]
+ *       [--gemini-port=8089] [--gemini-latency=1s]
+ *
+ * LoadDriver --with-stubs starts the same servers inside the driver process instead.
+ */
+public final class StubServers implements AutoCloseable {
+
+    private final SmtpStub smtp;
+    private final GeminiStub gemini;
+
+    StubServers(Options options) throws Exception {
+        smtp = new SmtpStub(options.getInt("smtp-port", 2525));
+        try {
+            gemini = new GeminiStub(options.getInt("gemini-port", 8089), options.getDuration("gemini-latency", Duration.ofSeconds(1)));
+        } catch (Exception e) {
+            smtp.close();
+            throw e;
+        }
+        System.out.println("SMTP stand-in on port " + smtp.getPort() + ", Gemini stand-in on port " + gemini.getPort());
+    }
+
+    public static void main(String[] args) throws Exception {
+        StubServers stubs = new StubServers(Options.parse(args));
+        CountDownLatch stopped = new CountDownLatch(1);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            stubs.close();
+            stopped.countDown();
+        }));
+        stopped.await();
+    }
+
+    String summary() {
+        return smtp.getMessages() + " mails received, " + gemini.getRequests() + " Gemini calls answered";
+    }
+
+    @Override
+    public void close() {
+        System.out.println("Stand-ins: " + summary());
+        try {
+            smtp.close();
+        } catch (Exception e) {
+            System.err.println("ERROR (StubServers): closing the SMTP stand-in failed: " + e.getMessage());
+        }
+        gemini.close();
+    }
+}
@@ -0,0 +1,77 @@
+package com.routegenius.backend.loadtest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One sampled parcel from the generator's targets file, with everything the driver needs to track it, read its
+ * history and send a complete update. Status and city change as the driver moves the parcel along.
+ */
+final class Target {
+
+    static final String HEADER = "parcel_id,tracking_id,status,sender_id,sender_email,recipient_id,recipient_email,"
+            + "sender_address,recipient_address,sender_phone,recipient_phone,description,weight,length,width,height,"
+            + "current_city,destination_city";
+
+    final long parcelId;
+    final String trackingId;
+    final long senderId;
+    final String senderEmail;
+    final long recipientId;
+    final String recipientEmail;
+    final String senderAddress;
+    final String recipientAddress;
+    final String senderPhone;
+    final String recipientPhone;
+    final String description;
+    final double weight;
+    final double length;
+    final double width;
+    final double height;
+    final String destinationCity;
+    // Guarded by this
+    String status;
+    String currentCity;
+
+    private Target(String[] fields) {
+        parcelId = Long.parseLong(fields[0]);
+        trackingId = fields[1];
+        status = fields[2];
+        senderId = Long.parseLong(fields[3]);
+        senderEmail = fields[4];
+        recipientId = Long.parseLong(fields[5]);
+        recipientEmail = fields[6];
+        senderAddress = fields[7];
+        recipientAddress = fields[8];
+        senderPhone = fields[9];
+        recipientPhone = fields[10];
+        description = fields[11];
+        weight = Double.parseDouble(fields[12]);
+        length = Double.parseDouble(fields[13]);
+        width = Double.parseDouble(fields[14]);
+        height = Double.parseDouble(fields[15]);
+        currentCity = fields[16];
+        destinationCity = fields[17];
+    }
+
+    /**
+     * Reads the targets file in file order, which is creation order: the newest parcels come last.
+     */
+    static List<Target> load(Path file) throws IOException {
+        List<String> lines = Files.readAllLines(file);
+        if (lines.isEmpty() || !lines.get(0).equals(HEADER)) {
+            throw new IllegalArgumentException(file + " is not a targets file written by DatasetGenerator");
+        }
+        List<Target> targets = new ArrayList<>(lines.size() - 1);
+        for (int i = 1; i < lines.size(); i++) {
+            targets.add(new Target(lines.get(i).split(",", -1)));
+        }
+        if (targets.isEmpty()) {
+            throw new IllegalArgumentException(file + " holds no targets");
+        }
+        return targets;
+    }
+}